@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.boostrap.util;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import org.springcloud.gateway.core.commons.boostrap.util.SimpleRequestFactory.Config;
+import org.springcloud.gateway.core.commons.boostrap.util.SimpleRequestFactory.SignAlgorithm;
+import org.springcloud.gateway.core.commons.boostrap.util.SimpleRequestFactory.SignHashingMode;
+
+/**
+ * {@link SimpleSignBenchmark}
+ *
+ * <p>
+ * Compares {@link SimpleSignSigner} with the original signing path
+ * ({@link SimpleSignReference}) per {@link SignAlgorithm} and
+ * {@link SignHashingMode}, run with the allocation profiler to see the
+ * allocation rate too, e.g:
+ *
+ * <pre>
+ * mvn -Pbenchmark:jmh test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=org.springcloud.gateway.core.commons.boostrap.util.SimpleSignBenchmark
+ * </pre>
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleSignBenchmark {
+
+    @Param({ "MD5", "S1", "S256", "S384", "S512", "HMD5", "HS1", "HS256", "HS512" })
+    private SignAlgorithm algorithm;
+
+    @Param({ "SimpleParamsBytesSortedHashing", "UriParamsKeySortedHashing" })
+    private SignHashingMode mode;
+
+    private final Config config = new Config();
+    private final SimpleSignSigner signer = new SimpleSignSigner(1024);
+    private final byte[] storedAppSecret = "5aUpyX5X7wzC8iLgFNJuxqj3xJdNQw8yS".getBytes(UTF_8);
+    private final MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
+
+    @Setup
+    public void setup() {
+        config.setSignAlgorithm(algorithm);
+        config.setSignHashingMode(mode);
+        config.setSignHashingIncludeParams(singletonList("*"));
+        queryParams.add("appId", "oi554a94bc416e4edd9ff963ed0e9e25e6c10545");
+        queryParams.add("nonce", "0L9GyULPfwsD3Swg");
+        queryParams.add("timestamp", "1599637679878");
+        queryParams.add("pageNum", "1");
+        queryParams.add("pageSize", "20");
+        queryParams.add("keyword", "gateway");
+        queryParams.add("sign", "e1e1f4f7b5c6d4b3a2a1f0e9d8c7b6a5f4e3d2c1b0a9f8e7d6c5b4a3f2e1d0c9");
+
+        // Both paths must produce the same signature, or the comparison is
+        // meaningless.
+        if (!Arrays.equals(newSign(), referenceSign())) {
+            throw new IllegalStateException(format("Signatures mismatch of %s/%s", algorithm, mode));
+        }
+    }
+
+    @Benchmark
+    public byte[] newSign() {
+        return signer.sign(config, "oi554a94bc416e4edd9ff963ed0e9e25e6c10545", storedAppSecret, queryParams);
+    }
+
+    @Benchmark
+    public byte[] referenceSign() {
+        return SimpleSignReference.sign(config, storedAppSecret, queryParams);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SimpleSignBenchmark.class.getSimpleName()).addProfiler("gc").build()).run();
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.boostrap.util;
+
+import static org.springcloud.gateway.core.collection.CollectionUtils2.safeList;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.MultiValueMap;
+
+import com.google.common.hash.Hashing;
+
+import org.springcloud.gateway.core.commons.boostrap.util.SimpleRequestFactory.Config;
+import org.springcloud.gateway.core.commons.boostrap.util.SimpleRequestFactory.SignAlgorithm;
+
+/**
+ * {@link SimpleSignReference}
+ *
+ * <p>
+ * The original signing path (the former function fields of
+ * {@link SignAlgorithm} and {@link SimpleRequestFactory.SignHashingMode}),
+ * kept as the baseline of {@link SimpleSignBenchmark} and as the reference
+ * output {@link SimpleSignSigner} must be equal to.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public abstract class SimpleSignReference {
+
+    public static byte[] sign(Config config, byte[] storedAppSecret, MultiValueMap<String, String> queryParams) {
+        byte[] signPlainBytes;
+        switch (config.getSignHashingMode()) {
+        case SimpleParamsBytesSortedHashing:
+            signPlainBytes = simpleParamsBytesSortedHashing(config, storedAppSecret, queryParams);
+            break;
+        case UriParamsKeySortedHashing:
+            signPlainBytes = uriParamsKeySortedHashing(config, storedAppSecret, queryParams);
+            break;
+        default:
+            throw new Error("Shouldn't be here");
+        }
+        return hash(config.getSignAlgorithm(), storedAppSecret, signPlainBytes);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static byte[] hash(SignAlgorithm algorithm, byte[] storedAppSecret, byte[] signPlainBytes) {
+        switch (algorithm) {
+        case MD5:
+            return Hashing.md5().hashBytes(signPlainBytes).asBytes();
+        case S1:
+            return Hashing.sha1().hashBytes(signPlainBytes).asBytes();
+        case S256:
+            return Hashing.sha256().hashBytes(signPlainBytes).asBytes();
+        case S384:
+            return Hashing.sha384().hashBytes(signPlainBytes).asBytes();
+        case S512:
+            return Hashing.sha512().hashBytes(signPlainBytes).asBytes();
+        case HMD5:
+            return Hashing.hmacMd5(storedAppSecret).hashBytes(signPlainBytes).asBytes();
+        case HS1:
+            return Hashing.hmacSha1(storedAppSecret).hashBytes(signPlainBytes).asBytes();
+        case HS256:
+            return Hashing.hmacSha256(storedAppSecret).hashBytes(signPlainBytes).asBytes();
+        case HS512:
+            return Hashing.hmacSha512(storedAppSecret).hashBytes(signPlainBytes).asBytes();
+        default:
+            throw new Error("Shouldn't be here");
+        }
+    }
+
+    private static byte[] simpleParamsBytesSortedHashing(
+            Config config,
+            byte[] storedAppSecret,
+            MultiValueMap<String, String> requestParams) {
+        Map<String, String> queryParams = requestParams.toSingleValueMap();
+        String[] params = getEffectiveHashingParamNames(config, queryParams);
+        StringBuffer signPlaintext = new StringBuffer();
+        for (Object key : params) {
+            if (!config.getSignParam().equals(key)) {
+                signPlaintext.append(queryParams.get(key));
+            }
+        }
+        // Add stored secret.
+        signPlaintext.append(new String(storedAppSecret, UTF_8));
+        // ASCII sort characters.
+        byte[] signPlainBytes = signPlaintext.toString().getBytes(UTF_8);
+        Arrays.sort(signPlainBytes);
+        return signPlainBytes;
+    }
+
+    private static byte[] uriParamsKeySortedHashing(
+            Config config,
+            byte[] storedAppSecret,
+            MultiValueMap<String, String> requestParams) {
+        Map<String, String> queryParams = requestParams.toSingleValueMap();
+        String[] params = getEffectiveHashingParamNames(config, queryParams);
+        // ASCII sort by parameters key.
+        Arrays.sort(params);
+        StringBuffer signPlaintext = new StringBuffer();
+        for (Object name : params) {
+            if (!config.getSignParam().equals(name)) {
+                signPlaintext.append(name).append("=").append(queryParams.get(name)).append("&");
+            }
+        }
+        // Add stored secret.
+        signPlaintext.append(config.getSecretParam()).append("=").append(new String(storedAppSecret, UTF_8));
+        return signPlaintext.toString().getBytes(UTF_8);
+    }
+
+    private static String[] getEffectiveHashingParamNames(Config config, Map<String, String> queryParams) {
+        List<String> hashingParamNames = queryParams.keySet()
+                .stream()
+                .filter(n -> config.isIncludeAll() || safeList(config.getSignHashingIncludeParams()).contains(n))
+                .filter(n -> !safeList(config.getSignHashingExcludeParams()).contains(n))
+                .collect(toList());
+
+        // Validation required parameters.
+        boolean allMatch = safeList(config.getSignHashingRequiredIncludeParams()).stream()
+                .allMatch(p -> hashingParamNames.contains(p));
+        if (!allMatch) {
+            throw new IllegalArgumentException(format("Parameters missing, These parameters are required: %s",
+                    config.getSignHashingRequiredIncludeParams()));
+        }
+        return hashingParamNames.toArray(new String[0]);
+    }
+
+}
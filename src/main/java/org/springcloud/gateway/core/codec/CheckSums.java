@@ -15,10 +15,23 @@
  */
 package org.springcloud.gateway.core.codec;
 
+import static java.util.Objects.nonNull;
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.zip.CRC32;
 import java.util.zip.Checksum;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+
+import io.netty.buffer.ByteBuf;
+
 /**
  * Um CheckSum algorithmen - zusammenfassung
  * 
@@ -92,6 +105,140 @@ public abstract class CheckSums {
         return crc64.getValue();
     }
 
+    /**
+     * Die berechnung der CRC32 of the remaining bytes of buffer (the direct
+     * buffers are processed by the JDK intrinsic without copying), the
+     * position of buffer is not changed.
+     * 
+     * @param buffer
+     * @return
+     */
+    public static long crc32(ByteBuffer buffer) {
+        return newCrc32().feed(buffer).getValue();
+    }
+
+    /**
+     * Die berechnung der CRC32 of the readable bytes of buffer, the reader
+     * index of buffer is not changed.
+     * 
+     * @param buffer
+     * @return
+     */
+    public static long crc32(ByteBuf buffer) {
+        return newCrc32().feed(buffer).getValue();
+    }
+
+    /**
+     * Die berechnung der CRC32 of the readable bytes of buffer, the read
+     * position of buffer is not changed.
+     * 
+     * @param buffer
+     * @return
+     */
+    public static long crc32(DataBuffer buffer) {
+        return newCrc32().feed(buffer).getValue();
+    }
+
+    /**
+     * Die berechnung der CRC32C (Castagnoli)
+     * 
+     * @param str
+     * @return
+     */
+    public static long crc32cString(String str) {
+        return crc32c(str.getBytes(UTF_8));
+    }
+
+    /**
+     * Die berechnung der CRC32C (Castagnoli)
+     * 
+     * @param bys
+     * @return
+     */
+    public static long crc32c(byte[] bys) {
+        return newCrc32C().feed(bys).getValue();
+    }
+
+    /**
+     * Die berechnung der CRC32C (Castagnoli) of the remaining bytes of buffer,
+     * the position of buffer is not changed.
+     * 
+     * @param buffer
+     * @return
+     */
+    public static long crc32c(ByteBuffer buffer) {
+        return newCrc32C().feed(buffer).getValue();
+    }
+
+    /**
+     * Die berechnung der CRC32C (Castagnoli) of the readable bytes of buffer,
+     * the reader index of buffer is not changed.
+     * 
+     * @param buffer
+     * @return
+     */
+    public static long crc32c(ByteBuf buffer) {
+        return newCrc32C().feed(buffer).getValue();
+    }
+
+    /**
+     * Die berechnung der CRC32C (Castagnoli) of the readable bytes of buffer,
+     * the read position of buffer is not changed.
+     * 
+     * @param buffer
+     * @return
+     */
+    public static long crc32c(DataBuffer buffer) {
+        return newCrc32C().feed(buffer).getValue();
+    }
+
+    /**
+     * Die berechnung der CRC64 of the remaining bytes of buffer, the position
+     * of buffer is not changed.
+     * 
+     * @param buffer
+     * @return
+     */
+    public static long crc64(ByteBuffer buffer) {
+        return newCrc64().feed(buffer).getValue();
+    }
+
+    /**
+     * New incremental CRC32 checksum (JDK {@link CRC32}).
+     * 
+     * @return
+     */
+    public static StreamingChecksum newCrc32() {
+        return new StreamingChecksum(new CRC32());
+    }
+
+    /**
+     * New incremental CRC32C (Castagnoli) checksum, the JDK intrinsic
+     * {@code java.util.zip.CRC32C} (JDK9+) is used where available, otherwise
+     * the slicing-by-8 {@link PureJavaCrc32C}.
+     * 
+     * @return
+     */
+    public static StreamingChecksum newCrc32C() {
+        if (nonNull(JDK_CRC32C_CONSTRUCTOR)) {
+            try {
+                return new StreamingChecksum((Checksum) JDK_CRC32C_CONSTRUCTOR.invoke());
+            } catch (Throwable e) {
+                // Ignore, fall-back
+            }
+        }
+        return new StreamingChecksum(new PureJavaCrc32C());
+    }
+
+    /**
+     * New incremental CRC64 checksum.
+     * 
+     * @return
+     */
+    public static StreamingChecksum newCrc64() {
+        return new StreamingChecksum(new PureJavaCrc64());
+    }
+
     /**
      * A pure-java implementation of the CRC16 checksum that uses the same
      * polynomial as the built-in native CRC16.
@@ -652,6 +799,267 @@ public abstract class CheckSums {
                 0xA8C40105, 0x646E019B, 0xEAE10678, 0x264B06E6 };
     }
 
+    /**
+     * A pure-java implementation of the CRC32C (Castagnoli) checksum, with the
+     * same slicing-by-8 algorithm as {@link PureJavaCrc32} (tables generated
+     * by the polynomial 0x82F63B78), the direct buffers are processed 8 bytes
+     * per read without copying.
+     * 
+     * @see java.util.zip.CRC32C (JDK9+)
+     */
+    public static class PureJavaCrc32C implements Checksum {
+
+        /** the current CRC value, bit-flipped */
+        private int crc;
+
+        /** Create a new PureJavaCrc32C object. */
+        public PureJavaCrc32C() {
+            reset();
+        }
+
+        @Override
+        public long getValue() {
+            return (~crc) & 0xffffffffL;
+        }
+
+        @Override
+        public void reset() {
+            crc = 0xffffffff;
+        }
+
+        @Override
+        public void update(byte[] b, int off, int len) {
+            if (off < 0 || len < 0 || off > b.length - len)
+                throw new ArrayIndexOutOfBoundsException();
+
+            int localCrc = crc;
+
+            while (len > 7) {
+                final int c0 = (b[off + 0] ^ localCrc) & 0xff;
+                final int c1 = (b[off + 1] ^ (localCrc >>>= 8)) & 0xff;
+                final int c2 = (b[off + 2] ^ (localCrc >>>= 8)) & 0xff;
+                final int c3 = (b[off + 3] ^ (localCrc >>>= 8)) & 0xff;
+                localCrc = (T[T8_7_START + c0] ^ T[T8_6_START + c1]) ^ (T[T8_5_START + c2] ^ T[T8_4_START + c3]);
+
+                final int c4 = b[off + 4] & 0xff;
+                final int c5 = b[off + 5] & 0xff;
+                final int c6 = b[off + 6] & 0xff;
+                final int c7 = b[off + 7] & 0xff;
+
+                localCrc ^= (T[T8_3_START + c4] ^ T[T8_2_START + c5]) ^ (T[T8_1_START + c6] ^ T[T8_0_START + c7]);
+
+                off += 8;
+                len -= 8;
+            }
+
+            while (len-- > 0) {
+                localCrc = (localCrc >>> 8) ^ T[T8_0_START + ((localCrc ^ b[off++]) & 0xff)];
+            }
+
+            // Publish crc out to object
+            crc = localCrc;
+        }
+
+        /**
+         * Update the CRC32C with the remaining bytes of buffer, the position of
+         * buffer is advanced to its limit.
+         */
+        public void update(ByteBuffer buffer) {
+            if (buffer.hasArray()) {
+                update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                buffer.position(buffer.limit());
+                return;
+            }
+            ByteOrder order = buffer.order();
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            try {
+                int localCrc = crc;
+                while (buffer.remaining() > 7) {
+                    final long v = buffer.getLong();
+                    final int lo = ((int) v) ^ localCrc;
+                    final int hi = (int) (v >>> 32);
+                    localCrc = (T[T8_7_START + (lo & 0xff)] ^ T[T8_6_START + ((lo >>> 8) & 0xff)])
+                            ^ (T[T8_5_START + ((lo >>> 16) & 0xff)] ^ T[T8_4_START + (lo >>> 24)])
+                            ^ (T[T8_3_START + (hi & 0xff)] ^ T[T8_2_START + ((hi >>> 8) & 0xff)])
+                            ^ (T[T8_1_START + ((hi >>> 16) & 0xff)] ^ T[T8_0_START + (hi >>> 24)]);
+                }
+                while (buffer.hasRemaining()) {
+                    localCrc = (localCrc >>> 8) ^ T[T8_0_START + ((localCrc ^ buffer.get()) & 0xff)];
+                }
+                crc = localCrc;
+            } finally {
+                buffer.order(order);
+            }
+        }
+
+        @Override
+        final public void update(int b) {
+            crc = (crc >>> 8) ^ T[T8_0_START + ((crc ^ b) & 0xff)];
+        }
+
+        private static final int T8_0_START = 0 * 256;
+        private static final int T8_1_START = 1 * 256;
+        private static final int T8_2_START = 2 * 256;
+        private static final int T8_3_START = 3 * 256;
+        private static final int T8_4_START = 4 * 256;
+        private static final int T8_5_START = 5 * 256;
+        private static final int T8_6_START = 6 * 256;
+        private static final int T8_7_START = 7 * 256;
+
+        /*
+         * CRC-32C lookup tables generated by the polynomial 0x82F63B78.
+         */
+        private static final int[] T = new int[8 * 256];
+
+        static {
+            for (int n = 0; n < 256; n++) {
+                int c = n;
+                for (int k = 0; k < 8; k++) {
+                    c = (c & 1) != 0 ? (c >>> 1) ^ 0x82F63B78 : (c >>> 1);
+                }
+                T[T8_0_START + n] = c;
+            }
+            for (int t = 1; t < 8; t++) {
+                for (int n = 0; n < 256; n++) {
+                    int c = T[(t - 1) * 256 + n];
+                    T[t * 256 + n] = (c >>> 8) ^ T[T8_0_START + (c & 0xff)];
+                }
+            }
+        }
+    }
+
+    /**
+     * The incremental checksum which can be fed chunk by chunk (e.g. as a body
+     * streams through a filter), with the heap/direct {@link ByteBuffer},
+     * netty {@link ByteBuf} and spring {@link DataBuffer} without copying into
+     * a heap array. The given buffers are never consumed (the position or
+     * reader index is not changed).
+     * </br>
+     * Note: the fluent methods are named {@code feed} rather than overloading
+     * {@code update}, since JDK9+ {@link Checksum} already declares
+     * {@code void update(byte[])} and {@code void update(ByteBuffer)}.
+     */
+    public static class StreamingChecksum implements Checksum {
+
+        private final Checksum checksum;
+
+        public StreamingChecksum(Checksum checksum) {
+            this.checksum = notNullOf(checksum, "checksum");
+        }
+
+        @Override
+        public long getValue() {
+            return checksum.getValue();
+        }
+
+        @Override
+        public void reset() {
+            checksum.reset();
+        }
+
+        @Override
+        public void update(int b) {
+            checksum.update(b);
+        }
+
+        @Override
+        public void update(byte[] b, int off, int len) {
+            checksum.update(b, off, len);
+        }
+
+        public StreamingChecksum feed(byte[] b) {
+            checksum.update(b, 0, b.length);
+            return this;
+        }
+
+        public StreamingChecksum feed(ByteBuffer buffer) {
+            ByteBuffer buf = buffer.duplicate();
+            if (checksum instanceof CRC32) {
+                ((CRC32) checksum).update(buf);
+            } else if (checksum instanceof PureJavaCrc32C) {
+                ((PureJavaCrc32C) checksum).update(buf);
+            } else if (checksum instanceof PureJavaCrc64) {
+                ((PureJavaCrc64) checksum).update(buf);
+            } else if (buf.hasArray()) {
+                checksum.update(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+            } else if (nonNull(JDK_CHECKSUM_UPDATE_BUFFER)) {
+                try {
+                    JDK_CHECKSUM_UPDATE_BUFFER.invoke(checksum, buf);
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            } else {
+                byte[] chunk = new byte[Math.min(buf.remaining(), 8192)];
+                while (buf.hasRemaining()) {
+                    int n = Math.min(chunk.length, buf.remaining());
+                    buf.get(chunk, 0, n);
+                    checksum.update(chunk, 0, n);
+                }
+            }
+            return this;
+        }
+
+        public StreamingChecksum feed(ByteBuf buffer) {
+            int index = buffer.readerIndex();
+            int length = buffer.readableBytes();
+            if (length == 0) {
+                return this;
+            }
+            if (buffer.hasArray()) {
+                checksum.update(buffer.array(), buffer.arrayOffset() + index, length);
+            } else if (buffer.nioBufferCount() > 0) {
+                // e.g. composite buffer components, without copying.
+                for (ByteBuffer nio : buffer.nioBuffers(index, length)) {
+                    feed(nio);
+                }
+            } else {
+                byte[] chunk = new byte[Math.min(length, 8192)];
+                for (int end = index + length; index < end;) {
+                    int n = Math.min(chunk.length, end - index);
+                    buffer.getBytes(index, chunk, 0, n);
+                    checksum.update(chunk, 0, n);
+                    index += n;
+                }
+            }
+            return this;
+        }
+
+        public StreamingChecksum feed(DataBuffer buffer) {
+            if (buffer instanceof NettyDataBuffer) {
+                return feed(((NettyDataBuffer) buffer).getNativeBuffer());
+            }
+            return feed(buffer.asByteBuffer());
+        }
+    }
+
+    /**
+     * The JDK9+ {@code java.util.zip.CRC32C} constructor.
+     */
+    private static final MethodHandle JDK_CRC32C_CONSTRUCTOR = findJdkCrc32CConstructor();
+
+    /**
+     * The JDK9+ {@code java.util.zip.Checksum#update(ByteBuffer)}.
+     */
+    private static final MethodHandle JDK_CHECKSUM_UPDATE_BUFFER = findJdkChecksumUpdateBuffer();
+
+    private static MethodHandle findJdkCrc32CConstructor() {
+        try {
+            Class<?> clazz = Class.forName("java.util.zip.CRC32C");
+            return MethodHandles.publicLookup().findConstructor(clazz, MethodType.methodType(void.class));
+        } catch (Throwable e) { // JDK8
+            return null;
+        }
+    }
+
+    private static MethodHandle findJdkChecksumUpdateBuffer() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Checksum.class, "update",
+                    MethodType.methodType(void.class, ByteBuffer.class));
+        } catch (Throwable e) { // JDK8
+            return null;
+        }
+    }
+
     /**
      * CRC-64 implementation with ability to combine checksums calculated over
      * different blocks of data. Standard ECMA-182,
@@ -724,9 +1132,28 @@ public abstract class CheckSums {
 
         @Override
         public void update(byte[] b, int off, int len) {
+            long localValue = ~this.value;
             for (int i = off; len > 0; len--) {
-                update(b[i++]);
+                localValue = table[((int) (localValue ^ b[i++])) & 0xff] ^ (localValue >>> 8);
+            }
+            this.value = ~localValue;
+        }
+
+        /**
+         * Update CRC64 with the remaining bytes of buffer, the position of
+         * buffer is advanced to its limit.
+         **/
+        public void update(ByteBuffer buffer) {
+            if (buffer.hasArray()) {
+                update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                buffer.position(buffer.limit());
+                return;
+            }
+            long localValue = ~this.value;
+            while (buffer.hasRemaining()) {
+                localValue = table[((int) (localValue ^ buffer.get())) & 0xff] ^ (localValue >>> 8);
             }
+            this.value = ~localValue;
         }
 
         @Override
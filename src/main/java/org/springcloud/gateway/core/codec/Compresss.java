@@ -17,8 +17,18 @@ package org.springcloud.gateway.core.codec;
 
 import java.io.IOException;
 
+import org.springframework.util.ClassUtils;
 import org.xerial.snappy.Snappy;
 
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.github.luben.zstd.Zstd;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+
 /**
  * Compressions utility.
  * 
@@ -56,4 +66,132 @@ public abstract class Compresss {
         }
     }
 
+    /**
+     * Using gzip compress, the deflater is reused from the pool of
+     * {@link StreamCompressor}, and the compressed output is accumulated in the
+     * pooled buffers and copied only once.
+     * 
+     * @param data
+     * @param level
+     *            the compression level (0-9)
+     * @return
+     */
+    public static byte[] gzipCompress(byte[] data, int level) {
+        StreamCompressor compressor = StreamCompressor.gzip(level, PooledByteBufAllocator.DEFAULT);
+        CompositeByteBuf out = PooledByteBufAllocator.DEFAULT.compositeHeapBuffer(Integer.MAX_VALUE);
+        try {
+            out.addComponent(true, compressor.compress(Unpooled.wrappedBuffer(data)));
+            out.addComponent(true, compressor.finish());
+            return ByteBufUtil.getBytes(out);
+        } finally {
+            compressor.close();
+            out.release();
+        }
+    }
+
+    /**
+     * Whether the snappy native library is available.
+     * 
+     * @return
+     */
+    public static boolean isSnappyAvailable() {
+        return SNAPPY_AVAILABLE;
+    }
+
+    /**
+     * Whether the lz4 library (optional dependency) is available.
+     * 
+     * @return
+     */
+    public static boolean isLz4Available() {
+        return LZ4_AVAILABLE;
+    }
+
+    /**
+     * Whether the brotli native library (optional dependency) is available.
+     * 
+     * @return
+     */
+    public static boolean isBrotliAvailable() {
+        return BROTLI_AVAILABLE;
+    }
+
+    /**
+     * Using brotli compress.
+     * 
+     * @param data
+     * @param quality
+     *            the compression quality (0-11)
+     * @return
+     */
+    public static byte[] brotliCompress(byte[] data, int quality) {
+        try {
+            return Encoder.compress(data, new Encoder.Parameters().setQuality(Math.max(0, Math.min(11, quality))));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Whether the zstd native library (optional dependency) is available.
+     * 
+     * @return
+     */
+    public static boolean isZstdAvailable() {
+        return ZSTD_AVAILABLE;
+    }
+
+    /**
+     * Using zstd compress.
+     * 
+     * @param data
+     * @param level
+     *            the compression level (1-22)
+     * @return
+     */
+    public static byte[] zstdCompress(byte[] data, int level) {
+        return Zstd.compress(data, Math.max(1, Math.min(Zstd.maxCompressionLevel(), level)));
+    }
+
+    private static final boolean BROTLI_AVAILABLE;
+    private static final boolean ZSTD_AVAILABLE;
+    private static final boolean SNAPPY_AVAILABLE;
+    private static final boolean LZ4_AVAILABLE;
+
+    static {
+        ClassLoader loader = Compresss.class.getClassLoader();
+        boolean brotli = false;
+        if (ClassUtils.isPresent("com.aayushatharva.brotli4j.Brotli4jLoader", loader)) {
+            try {
+                brotli = Brotli4jLoader.isAvailable();
+            } catch (Throwable e) {
+                // Ignore, the native library is unavailable.
+            }
+        }
+        BROTLI_AVAILABLE = brotli;
+
+        boolean zstd = false;
+        if (ClassUtils.isPresent("com.github.luben.zstd.Zstd", loader)) {
+            try {
+                zstd = Zstd.maxCompressionLevel() > 0;
+            } catch (Throwable e) {
+                // Ignore, the native library is unavailable.
+            }
+        }
+        ZSTD_AVAILABLE = zstd;
+
+        boolean snappy = false;
+        if (ClassUtils.isPresent("org.xerial.snappy.Snappy", loader)) {
+            try {
+                snappy = Snappy.maxCompressedLength(0) >= 0;
+            } catch (Throwable e) {
+                // Ignore, the native library is unavailable.
+            }
+        }
+        SNAPPY_AVAILABLE = snappy;
+
+        // The lz4 falls back to the pure java implementation.
+        LZ4_AVAILABLE = ClassUtils.isPresent("net.jpountz.lz4.LZ4FrameOutputStream", loader);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,690 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.codec;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.reactivestreams.Publisher;
+import org.xerial.snappy.SnappyFramedInputStream;
+import org.xerial.snappy.SnappyFramedOutputStream;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDirectBufferCompressingStream;
+import com.github.luben.zstd.ZstdInputStream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link StreamCompressor}
+ * 
+ * <p>
+ * The incremental (streaming) compressor which reads the heap/direct
+ * {@link ByteBuffer} and netty {@link ByteBuf} chunk by chunk, and writes the
+ * compressed chunks into the buffers of the {@link ByteBufAllocator}, so that
+ * the large bodies can be compressed on the fly without materializing the
+ * whole compressed copy on the heap. The expensive contexts are reused, i.e:
+ * the gzip {@link Deflater} are pooled per level, the zstd pre-digested
+ * dictionary {@link ZstdDictCompress} is shared by the caller, and the zstd
+ * output buffers are borrowed from the allocator.
+ * </p>
+ * 
+ * <p>
+ * An instance is stateful and not thread-safe, which must be
+ * {@link #finish()}ed or {@link #close()}d to release its contexts.
+ * </p>
+ * 
+ * @author springcloudgateway &lt;springcloudgateway@163.com, springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public abstract class StreamCompressor implements Closeable {
+
+    protected final ByteBufAllocator allocator;
+    private boolean closed;
+
+    protected StreamCompressor(ByteBufAllocator allocator) {
+        this.allocator = notNullOf(allocator, "allocator");
+    }
+
+    /**
+     * Compresses the readable bytes of input (the reader index of input is
+     * advanced to its writer index).
+     * 
+     * @param input
+     * @return the compressed output produced so far (may be empty), which is
+     *         owned by the caller.
+     */
+    public ByteBuf compress(ByteBuf input) {
+        checkOpen();
+        int length = input.readableBytes();
+        ByteBuf out = allocateOutput(length);
+        try {
+            if (length > 0) {
+                if (input.nioBufferCount() > 0) {
+                    for (ByteBuffer nio : input.nioBuffers(input.readerIndex(), length)) {
+                        doCompress(nio, out);
+                    }
+                } else {
+                    byte[] chunk = new byte[Math.min(length, DEFAULT_CHUNK_SIZE)];
+                    for (int index = input.readerIndex(), end = index + length; index < end;) {
+                        int n = Math.min(chunk.length, end - index);
+                        input.getBytes(index, chunk, 0, n);
+                        doCompress(ByteBuffer.wrap(chunk, 0, n), out);
+                        index += n;
+                    }
+                }
+                input.skipBytes(length);
+            }
+            return out;
+        } catch (IOException | RuntimeException e) {
+            out.release();
+            close();
+            throw e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Compresses the remaining bytes of input (the position of input is
+     * advanced to its limit).
+     * 
+     * @param input
+     * @return the compressed output produced so far (may be empty), which is
+     *         owned by the caller.
+     */
+    public ByteBuf compress(ByteBuffer input) {
+        checkOpen();
+        ByteBuf out = allocateOutput(input.remaining());
+        try {
+            if (input.hasRemaining()) {
+                doCompress(input, out);
+            }
+            return out;
+        } catch (IOException | RuntimeException e) {
+            out.release();
+            close();
+            throw e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Finishes the compressed stream (e.g. flushes the pending block and
+     * writes the trailer), and releases the contexts.
+     * 
+     * @return the remaining compressed output, which is owned by the caller.
+     */
+    public ByteBuf finish() {
+        checkOpen();
+        ByteBuf out = allocateOutput(64);
+        try {
+            doFinish(out);
+            return out;
+        } catch (IOException | RuntimeException e) {
+            out.release();
+            throw e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Releases the contexts without finishing the compressed stream (e.g. when
+     * the body streaming is cancelled), it's idempotent.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            doClose();
+        }
+    }
+
+    protected ByteBuf allocateOutput(int inputLength) {
+        return allocator.buffer(Math.max(64, Math.min(inputLength, DEFAULT_CHUNK_SIZE)));
+    }
+
+    protected abstract void doCompress(ByteBuffer input, ByteBuf out) throws IOException;
+
+    protected abstract void doFinish(ByteBuf out) throws IOException;
+
+    protected abstract void doClose();
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Stream compressor already finished or closed.");
+        }
+    }
+
+    /**
+     * Compresses the source buffers on the fly, the source buffers are
+     * released after being compressed.
+     * 
+     * @param source
+     * @param factory
+     * @return
+     */
+    public static Flux<ByteBuf> compress(Publisher<ByteBuf> source, Supplier<StreamCompressor> factory) {
+        return Flux.using(factory::get, compressor -> Flux.from(source).map(buf -> {
+            try {
+                return compressor.compress(buf);
+            } finally {
+                buf.release();
+            }
+        }).concatWith(Mono.fromCallable(compressor::finish)).<ByteBuf> handle((buf, sink) -> {
+            if (buf.isReadable()) {
+                sink.next(buf);
+            } else {
+                buf.release();
+            }
+        }), StreamCompressor::close);
+    }
+
+    /**
+     * Decompresses the readable bytes of input (the reader index of input is
+     * advanced to its writer index).
+     * 
+     * @param format
+     * @param input
+     * @param allocator
+     * @return the decompressed buffer, which is owned by the caller.
+     */
+    public static ByteBuf decompress(Format format, ByteBuf input, ByteBufAllocator allocator) {
+        ByteBuf out = allocator.buffer(Math.max(64, input.readableBytes() * 2));
+        try (InputStream in = format.newInputStream(new ByteBufInputStream(input))) {
+            while (out.writeBytes(in, DEFAULT_CHUNK_SIZE) >= 0) {
+                // Read until the end of stream.
+            }
+            return out;
+        } catch (IOException | RuntimeException e) {
+            out.release();
+            throw e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * New gzip stream compressor, the {@link Deflater} are pooled per level.
+     * 
+     * @param level
+     *            the compression level (0-9)
+     * @param allocator
+     * @return
+     */
+    public static StreamCompressor gzip(int level, ByteBufAllocator allocator) {
+        return new GzipStreamCompressor(level, allocator);
+    }
+
+    /**
+     * New zstd stream compressor.
+     * 
+     * @param level
+     *            the compression level (1-22)
+     * @param dict
+     *            the optional pre-digested dictionary shared by the
+     *            compressors.
+     * @param allocator
+     * @return
+     */
+    public static StreamCompressor zstd(int level, ZstdDictCompress dict, ByteBufAllocator allocator) {
+        return new ZstdStreamCompressor(level, dict, allocator);
+    }
+
+    /**
+     * New snappy stream compressor of the framing format.
+     * 
+     * @param allocator
+     * @return
+     */
+    public static StreamCompressor snappyFramed(ByteBufAllocator allocator) {
+        return new SnappyFramedStreamCompressor(allocator);
+    }
+
+    /**
+     * New LZ4 stream compressor of the frame format (64KB blocks).
+     * 
+     * @param allocator
+     * @return
+     */
+    public static StreamCompressor lz4Framed(ByteBufAllocator allocator) {
+        return new Lz4FramedStreamCompressor(allocator);
+    }
+
+    /**
+     * The gzip (RFC 1952) stream compressor, with the pooled raw
+     * {@link Deflater}, the heap input is deflated without copying, and the
+     * deflated output is written into the output buffer array directly.
+     */
+    static class GzipStreamCompressor extends StreamCompressor {
+        private final int level;
+        private final Deflater deflater;
+        private final CRC32 crc = new CRC32();
+        private byte[] scratch;
+        private boolean headerWritten;
+
+        GzipStreamCompressor(int level, ByteBufAllocator allocator) {
+            super(allocator);
+            this.level = Math.max(Deflater.NO_COMPRESSION, Math.min(Deflater.BEST_COMPRESSION, level));
+            this.deflater = borrowDeflater(this.level);
+        }
+
+        @Override
+        protected ByteBuf allocateOutput(int inputLength) {
+            // Must be heap buffer, the deflater only writes into arrays.
+            return allocator.heapBuffer(Math.max(64, Math.min(inputLength, DEFAULT_CHUNK_SIZE)));
+        }
+
+        @Override
+        protected void doCompress(ByteBuffer input, ByteBuf out) {
+            writeHeaderIfNecessary(out);
+            if (input.hasArray()) {
+                deflate(input.array(), input.arrayOffset() + input.position(), input.remaining(), out);
+                input.position(input.limit());
+                return;
+            }
+            if (isNull(scratch)) {
+                scratch = new byte[Math.min(input.remaining(), DEFAULT_CHUNK_SIZE)];
+            }
+            while (input.hasRemaining()) {
+                int n = Math.min(scratch.length, input.remaining());
+                input.get(scratch, 0, n);
+                deflate(scratch, 0, n, out);
+            }
+        }
+
+        @Override
+        protected void doFinish(ByteBuf out) {
+            writeHeaderIfNecessary(out);
+            deflater.finish();
+            while (!deflater.finished()) {
+                drain(out);
+            }
+            out.writeIntLE((int) crc.getValue());
+            out.writeIntLE((int) deflater.getBytesRead());
+        }
+
+        @Override
+        protected void doClose() {
+            releaseDeflater(level, deflater);
+        }
+
+        private void deflate(byte[] b, int off, int len, ByteBuf out) {
+            crc.update(b, off, len);
+            deflater.setInput(b, off, len);
+            while (!deflater.needsInput()) {
+                drain(out);
+            }
+        }
+
+        private void drain(ByteBuf out) {
+            out.ensureWritable(512);
+            int n = deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(), out.writableBytes());
+            out.writerIndex(out.writerIndex() + n);
+        }
+
+        private void writeHeaderIfNecessary(ByteBuf out) {
+            if (!headerWritten) {
+                headerWritten = true;
+                out.writeBytes(GZIP_HEADER);
+            }
+        }
+
+        private static Deflater borrowDeflater(int level) {
+            Deflater deflater = DEFLATER_POOLS[level].poll();
+            return nonNull(deflater) ? deflater : new Deflater(level, true);
+        }
+
+        private static void releaseDeflater(int level, Deflater deflater) {
+            deflater.reset();
+            if (!DEFLATER_POOLS[level].offer(deflater)) {
+                deflater.end();
+            }
+        }
+
+        private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+
+        @SuppressWarnings("unchecked")
+        private static final ArrayBlockingQueue<Deflater>[] DEFLATER_POOLS = new ArrayBlockingQueue[Deflater.BEST_COMPRESSION
+                + 1];
+
+        static {
+            for (int i = 0; i < DEFLATER_POOLS.length; i++) {
+                DEFLATER_POOLS[i] = new ArrayBlockingQueue<>(DEFLATER_POOL_SIZE);
+            }
+        }
+    }
+
+    /**
+     * The zstd stream compressor, the direct input is compressed without
+     * copying, and the heap input is staged through a direct buffer borrowed
+     * from the allocator.
+     */
+    static class ZstdStreamCompressor extends StreamCompressor {
+        private final ByteBuf targetBuf;
+        private final ByteBuffer target;
+        private final ZstdDirectBufferCompressingStream stream;
+        private ByteBuf scratchBuf;
+        private ByteBuf sink;
+        private boolean started;
+        private boolean finished;
+
+        ZstdStreamCompressor(int level, ZstdDictCompress dict, ByteBufAllocator allocator) {
+            super(allocator);
+            int size = ZstdDirectBufferCompressingStream.recommendedOutputBufferSize();
+            this.targetBuf = allocator.directBuffer(size, size);
+            this.target = targetBuf.nioBuffer(0, size);
+            try {
+                this.stream = new ZstdDirectBufferCompressingStream(target,
+                        Math.max(1, Math.min(Zstd.maxCompressionLevel(), level))) {
+                    @Override
+                    protected ByteBuffer flushBuffer(ByteBuffer toFlush) {
+                        drain(toFlush);
+                        return toFlush;
+                    }
+                };
+                if (nonNull(dict)) {
+                    stream.setDict(dict);
+                }
+            } catch (Exception e) {
+                targetBuf.release();
+                throw e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        protected void doCompress(ByteBuffer input, ByteBuf out) throws IOException {
+            sink = out;
+            started = true;
+            if (input.isDirect()) {
+                stream.compress(input);
+            } else {
+                if (isNull(scratchBuf)) {
+                    scratchBuf = allocator.directBuffer(DEFAULT_CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
+                }
+                ByteBuffer scratch = scratchBuf.nioBuffer(0, DEFAULT_CHUNK_SIZE);
+                while (input.hasRemaining()) {
+                    int n = Math.min(scratch.capacity(), input.remaining());
+                    ByteBuffer slice = input.duplicate();
+                    slice.limit(slice.position() + n);
+                    scratch.clear();
+                    scratch.put(slice).flip();
+                    input.position(input.position() + n);
+                    stream.compress(scratch);
+                }
+            }
+            drain(target);
+        }
+
+        @Override
+        protected void doFinish(ByteBuf out) throws IOException {
+            sink = out;
+            if (!started) {
+                // Initialize the stream, so that an empty frame is written.
+                stream.compress(EMPTY_DIRECT_BUFFER.duplicate());
+            }
+            stream.close();
+            drain(target);
+            finished = true;
+        }
+
+        @Override
+        protected void doClose() {
+            sink = null;
+            try {
+                if (!finished) {
+                    stream.close();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Ignore
+            } finally {
+                targetBuf.release();
+                if (nonNull(scratchBuf)) {
+                    scratchBuf.release();
+                }
+            }
+        }
+
+        private void drain(ByteBuffer buffer) {
+            buffer.flip();
+            if (nonNull(sink)) {
+                sink.writeBytes(buffer);
+            }
+            buffer.clear();
+        }
+
+        private static final ByteBuffer EMPTY_DIRECT_BUFFER = ByteBuffer.allocateDirect(0);
+    }
+
+    /**
+     * The base of the {@link OutputStream} based stream compressors, the
+     * compressed output is written into the current output buffer.
+     */
+    static abstract class OutputStreamCompressor extends StreamCompressor {
+        protected final ByteBufSinkOutputStream sink = new ByteBufSinkOutputStream();
+        private OutputStream stream;
+
+        OutputStreamCompressor(ByteBufAllocator allocator) {
+            super(allocator);
+        }
+
+        @Override
+        protected void doCompress(ByteBuffer input, ByteBuf out) throws IOException {
+            sink.target = out;
+            write(getStream(), input);
+        }
+
+        @Override
+        protected void doFinish(ByteBuf out) throws IOException {
+            sink.target = out;
+            getStream().close();
+            stream = null;
+        }
+
+        @Override
+        protected void doClose() {
+            sink.target = null;
+            if (nonNull(stream)) {
+                try {
+                    stream.close();
+                } catch (IOException | RuntimeException e) {
+                    // Ignore
+                }
+            }
+        }
+
+        private OutputStream getStream() throws IOException {
+            // Lazy, the stream header is written by constructor.
+            if (isNull(stream)) {
+                stream = newStream(sink);
+            }
+            return stream;
+        }
+
+        protected void write(OutputStream stream, ByteBuffer input) throws IOException {
+            if (input.hasArray()) {
+                stream.write(input.array(), input.arrayOffset() + input.position(), input.remaining());
+                input.position(input.limit());
+                return;
+            }
+            byte[] chunk = new byte[Math.min(input.remaining(), DEFAULT_CHUNK_SIZE)];
+            while (input.hasRemaining()) {
+                int n = Math.min(chunk.length, input.remaining());
+                input.get(chunk, 0, n);
+                stream.write(chunk, 0, n);
+            }
+        }
+
+        protected abstract OutputStream newStream(OutputStream sink) throws IOException;
+    }
+
+    static class SnappyFramedStreamCompressor extends OutputStreamCompressor {
+        SnappyFramedStreamCompressor(ByteBufAllocator allocator) {
+            super(allocator);
+        }
+
+        @Override
+        protected void write(OutputStream stream, ByteBuffer input) throws IOException {
+            // Reads the heap and direct buffers into the pooled block buffer.
+            ((SnappyFramedOutputStream) stream).write(input);
+        }
+
+        @Override
+        protected OutputStream newStream(OutputStream sink) throws IOException {
+            return new SnappyFramedOutputStream(sink);
+        }
+    }
+
+    static class Lz4FramedStreamCompressor extends OutputStreamCompressor {
+        Lz4FramedStreamCompressor(ByteBufAllocator allocator) {
+            super(allocator);
+        }
+
+        @Override
+        protected OutputStream newStream(OutputStream sink) throws IOException {
+            return new LZ4FrameOutputStream(sink, LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB);
+        }
+    }
+
+    static class ByteBufSinkOutputStream extends OutputStream {
+        private ByteBuf target;
+
+        @Override
+        public void write(int b) {
+            if (nonNull(target)) {
+                target.writeByte(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (nonNull(target)) {
+                target.writeBytes(b, off, len);
+            }
+        }
+
+        @Override
+        public void close() {
+            // Ignore, the target buffer is owned by the caller.
+        }
+    }
+
+    /**
+     * The streaming compression formats.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static enum Format {
+        GZIP("gzip", 6), ZSTD("zstd", 3), SNAPPY("snappy", 0), LZ4("lz4", 0);
+
+        /**
+         * The format name, which is also used as 'Content-Encoding'.
+         */
+        private final String name;
+        private final int defaultLevel;
+
+        public boolean isAvailable() {
+            switch (this) {
+            case ZSTD:
+                return Compresss.isZstdAvailable();
+            case SNAPPY:
+                return Compresss.isSnappyAvailable();
+            case LZ4:
+                return Compresss.isLz4Available();
+            default:
+                return true;
+            }
+        }
+
+        /**
+         * New stream compressor of this format.
+         * 
+         * @param level
+         *            the compression level, null means the default level.
+         * @param allocator
+         * @return
+         */
+        public StreamCompressor newCompressor(Integer level, ByteBufAllocator allocator) {
+            int l = isNull(level) ? defaultLevel : level;
+            switch (this) {
+            case ZSTD:
+                return zstd(l, null, allocator);
+            case SNAPPY:
+                return snappyFramed(allocator);
+            case LZ4:
+                return lz4Framed(allocator);
+            default:
+                return gzip(l, allocator);
+            }
+        }
+
+        /**
+         * New decompressing input stream of this format.
+         * 
+         * @param in
+         * @return
+         * @throws IOException
+         */
+        public InputStream newInputStream(InputStream in) throws IOException {
+            switch (this) {
+            case ZSTD:
+                return new ZstdInputStream(in);
+            case SNAPPY:
+                return new SnappyFramedInputStream(in);
+            case LZ4:
+                return new LZ4FrameInputStream(in);
+            default:
+                return new GZIPInputStream(in, DEFAULT_CHUNK_SIZE);
+            }
+        }
+
+        public static Format of(String name) {
+            if (isNull(name)) {
+                return null;
+            }
+            String n = name.trim().toLowerCase(Locale.ROOT);
+            for (Format format : values()) {
+                if (format.getName().equals(n)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+    public static final int DEFLATER_POOL_SIZE = 64;
+
+}
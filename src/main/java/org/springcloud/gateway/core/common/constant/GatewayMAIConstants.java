@@ -44,6 +44,7 @@ public abstract class GatewayMAIConstants extends SCGBaseConstants {
     public static final String CONF_PREFIX_SCG_GATEWAY_LOADBANANER = CONF_PREFIX_SCG_GATEWAY + ".loadbalancer";
     public static final String CONF_PREFIX_SCG_GATEWAY_RESPONSECACHE = CONF_PREFIX_SCG_GATEWAY + ".responsecache";
     public static final String CONF_PREFIX_SCG_GATEWAY_TRAFFIC = CONF_PREFIX_SCG_GATEWAY + ".traffic";
+    public static final String CONF_PREFIX_SCG_GATEWAY_METRICS = CONF_PREFIX_SCG_GATEWAY + ".metrics";
 
     //
     // (Dynamic) configuration cache prefix definitions.
@@ -54,6 +55,8 @@ public abstract class GatewayMAIConstants extends SCGBaseConstants {
     public static final String CACHE_PREFIX_SCG_GWTEWAY_IPFILTER = CACHE_PREFIX_SCG_GWTEWAY + ":ipfilter";
 
     public static final String CACHE_PREFIX_SCG_GWTEWAY_ROUTES = CACHE_PREFIX_SCG_GWTEWAY + ":routes";
+    public static final String CACHE_PREFIX_SCG_GWTEWAY_ROUTES_REVISION = CACHE_PREFIX_SCG_GWTEWAY_ROUTES + ":revision";
+    public static final String CACHE_PREFIX_SCG_GWTEWAY_ROUTES_CHANNEL = CACHE_PREFIX_SCG_GWTEWAY_ROUTES + ":changes";
 
     public static final String CACHE_PREFIX_SCG_GWTEWAY_AUTH = CACHE_PREFIX_SCG_GWTEWAY + ":auth";
     public static final String CACHE_PREFIX_SCG_GWTEWAY_AUTH_SIGN_SECRET = CACHE_PREFIX_SCG_GWTEWAY_AUTH + ":sign:secret";
@@ -15,15 +15,28 @@
  */
 package org.springcloud.gateway.core.commons.boostrap.config;
 
+import static org.springcloud.gateway.core.collection.CollectionUtils2.safeList;
+import static java.lang.String.format;
+
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 
 import org.springcloud.gateway.core.common.constant.GatewayMAIConstants;
+import org.springcloud.gateway.core.commons.boostrap.config.IamSecurityProperties.SecretStore;
+import org.springcloud.gateway.core.commons.boostrap.secret.AppSecretStore;
+import org.springcloud.gateway.core.commons.boostrap.secret.CachingAppSecretLoader;
+import org.springcloud.gateway.core.commons.boostrap.secret.EnvAppSecretStore;
+import org.springcloud.gateway.core.commons.boostrap.secret.FileAppSecretStore;
+import org.springcloud.gateway.core.commons.boostrap.secret.RedisAppSecretStore;
 import org.springcloud.gateway.core.commons.boostrap.util.SimpleRequestFactory;
 import org.springcloud.gateway.core.commons.event.DefaultRedisSignAuthingEventRecoder;
 import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade;
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsName;
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsTag;
 import org.springcloud.gateway.core.eventbus.EventBusSupport;
 
 /**
@@ -45,17 +58,53 @@ public class IamSecurityAutoConfiguration {
     // Simple signature authorizer configuration.
 
     @Bean(name = BEAN_SIMPLE_SIGN_EVENTBUS, destroyMethod = "close")
-    public EventBusSupport simpleSignAuthingEventBusSupport(IamSecurityProperties authingConfig) {
-        return new EventBusSupport(authingConfig.getSimpleSign().getEventRecorder().getPublishEventBusThreads());
+    public EventBusSupport simpleSignAuthingEventBusSupport(
+            IamSecurityProperties authingConfig,
+            GatewayMetricsFacade metricsFacade) {
+        EventBusSupport eventBus = new EventBusSupport(EVENTBUS_NAME_SIMPLE_SIGN,
+                authingConfig.getSimpleSign().getEventRecorder().getPublishEventBusThreads(),
+                authingConfig.getSimpleSign().getEventRecorder().getPublishEventBus(),
+                (eventType, policy, count) -> metricsFacade.counter(MetricsName.EVENTBUS_DROPPED_TOTAL, count,
+                        MetricsTag.EVENTBUS_NAME, EVENTBUS_NAME_SIMPLE_SIGN, MetricsTag.EVENTBUS_EVENT_TYPE,
+                        eventType.getSimpleName(), MetricsTag.EVENTBUS_DROP_POLICY, policy.name()));
+        metricsFacade.gauge(MetricsName.EVENTBUS_QUEUE_DEPTH, eventBus::getQueueDepth, MetricsTag.EVENTBUS_NAME,
+                EVENTBUS_NAME_SIMPLE_SIGN);
+        return eventBus;
+    }
+
+    @Bean
+    public AppSecretStore envAppSecretStore() {
+        return new EnvAppSecretStore();
+    }
+
+    @Bean
+    public AppSecretStore redisAppSecretStore(ReactiveStringRedisTemplate reactiveStringTemplate) {
+        return new RedisAppSecretStore(reactiveStringTemplate);
+    }
+
+    @Bean
+    public AppSecretStore fileAppSecretStore(IamSecurityProperties authingConfig) {
+        return new FileAppSecretStore(authingConfig.getSimpleSign().getSecretFileLocation());
+    }
+
+    @Bean
+    public CachingAppSecretLoader cachingAppSecretLoader(IamSecurityProperties authingConfig, List<AppSecretStore> secretStores) {
+        SecretStore kind = authingConfig.getSimpleSign().getSecretStore();
+        AppSecretStore secretStore = safeList(secretStores).stream()
+                .filter(s -> s.kind() == kind)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(format("No such secret store of '%s'", kind)));
+        return new CachingAppSecretLoader(secretStore, authingConfig.getSimpleSign());
     }
 
     @Bean
     public SimpleRequestFactory simpleRequestFactory(
             IamSecurityProperties authingConfig,
-            StringRedisTemplate stringTemplate,
+            CachingAppSecretLoader secretLoader,
+            ReactiveStringRedisTemplate reactiveStringTemplate,
             GatewayMetricsFacade metricsFacade,
             @Qualifier(BEAN_SIMPLE_SIGN_EVENTBUS) EventBusSupport eventBus) {
-        return new SimpleRequestFactory(authingConfig, stringTemplate, metricsFacade, eventBus);
+        return new SimpleRequestFactory(authingConfig, secretLoader, reactiveStringTemplate, metricsFacade, eventBus);
     }
 
     // Simple signature authorizer event recorder
@@ -81,5 +130,6 @@ public class IamSecurityAutoConfiguration {
     // }
 
     public static final String BEAN_SIMPLE_SIGN_EVENTBUS = "simpleSignAuthingEventBusSupport";
+    public static final String EVENTBUS_NAME_SIMPLE_SIGN = "simplesign-event";
 
 }
@@ -7,6 +7,8 @@ import static org.springcloud.gateway.core.common.constant.GatewayMAIConstants.C
 import static org.springcloud.gateway.core.common.constant.GatewayMAIConstants.CACHE_SUFFIX_IAM_GATEWAY_EVENT_YYMMDD;
 
 import org.springframework.validation.annotation.Validated;
+import org.springcloud.gateway.core.eventbus.EventBusConfig;
+import org.springcloud.gateway.core.eventbus.EventDropPolicy;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -48,6 +50,31 @@ public class IamSecurityProperties {
          */
         private long secretLocalCacheSeconds = 6L;
 
+        /**
+         * The ratio of local cache expiration time after which the signing
+         * key is asynchronously reloaded, while the current value is still
+         * served.
+         */
+        private double secretRefreshAheadRatio = 0.8d;
+
+        /**
+         * Local cache expiration time for the unknown appIds, to prevent a
+         * flood of bad appIds from stampeding the store.
+         */
+        private long secretNegativeCacheSeconds = 3L;
+
+        /**
+         * Maximum number of signing keys (including unknown appIds) of local
+         * cache.
+         */
+        private long secretLocalCacheMaximumSize = 100_000L;
+
+        /**
+         * The properties file location of signing keys, only valid when the
+         * secret store is FILE.
+         */
+        private String secretFileLocation = "/etc/gateway/sign-secrets.properties";
+
         /**
          * Ignore authentication in JVM debug mode, often used for rapid
          * development and testing environments.
@@ -59,11 +86,18 @@ public class IamSecurityProperties {
          */
         private String signReplayVerifyBloomLoadPrefix = CACHE_PREFIX_SCG_GWTEWAY_AUTH_SIGN_REPLAY_BLOOM;
 
+        /**
+         * Whether to use the RedisBloom module commands (BF.*) for replay
+         * verification instead of the plain bitmap and BITFIELD, the redis
+         * server must have the module loaded.
+         */
+        private boolean signReplayVerifyRedisBloomModule = false;
+
         private EventRecorderProperties eventRecorder = new EventRecorderProperties();
     }
 
     public static enum SecretStore {
-        ENV, REDIS;
+        ENV, REDIS, FILE;
     }
 
     @Getter
@@ -79,6 +113,12 @@ public class IamSecurityProperties {
          */
         private int publishEventBusThreads = 1;
 
+        /**
+         * Publish eventRecorder bus bounded queue and overflow policies, the
+         * events of the same appId are coalesced by default.
+         */
+        private EventBusConfig publishEventBus = new EventBusConfig(EventDropPolicy.COALESCE);
+
         /**
          * Based on whether the redis eventRecorder logger enables logging, if
          * it is turned on, it can be used as a downgrade recovery strategy when
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.boostrap.secret;
+
+import static org.springcloud.gateway.core.lang.Assert2.isTrueOf;
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static org.springcloud.gateway.core.log.SmartLoggerFactory.getLogger;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.validation.constraints.NotNull;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.springcloud.gateway.core.commons.boostrap.config.IamSecurityProperties.SimpleSignAuthingProperties;
+import org.springcloud.gateway.core.log.SmartLogger;
+
+import lombok.AllArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link CachingAppSecretLoader}
+ * 
+ * <p>
+ * The non-blocking loader of client application secrets, the concurrent loads
+ * of the same key share one in-flight load (single-flight), the entries are
+ * refreshed asynchronously ahead of expiration, and the unknown keys are
+ * cached negatively, so that a flood of bad appIds cannot stampede the
+ * backend store.
+ * </p>
+ * 
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public class CachingAppSecretLoader {
+
+    private final SmartLogger log = getLogger(getClass());
+    private final AppSecretStore secretStore;
+    private final long expireMs;
+    private final long refreshAheadMs;
+    private final long negativeExpireMs;
+    private final Cache<String, SecretEntry> secretCache;
+    private final Map<String, Mono<SecretEntry>> inflightLoads = new ConcurrentHashMap<>(16);
+
+    public CachingAppSecretLoader(@NotNull AppSecretStore secretStore, @NotNull SimpleSignAuthingProperties config) {
+        notNullOf(config, "config");
+        isTrueOf(config.getSecretLocalCacheSeconds() > 0, "secretLocalCacheSeconds > 0");
+        isTrueOf(config.getSecretRefreshAheadRatio() > 0 && config.getSecretRefreshAheadRatio() <= 1,
+                "secretRefreshAheadRatio > 0 && secretRefreshAheadRatio <= 1");
+        this.secretStore = notNullOf(secretStore, "secretStore");
+        this.expireMs = SECONDS.toMillis(config.getSecretLocalCacheSeconds());
+        this.refreshAheadMs = (long) (expireMs * config.getSecretRefreshAheadRatio());
+        this.negativeExpireMs = SECONDS.toMillis(config.getSecretNegativeCacheSeconds());
+        this.secretCache = CacheBuilder.newBuilder()
+                .maximumSize(config.getSecretLocalCacheMaximumSize())
+                .expireAfterWrite(Math.max(expireMs, negativeExpireMs), MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Load the stored secret.
+     * 
+     * @param loadKey
+     * @return The stored secret, or empty if not found.
+     */
+    public Mono<String> load(String loadKey) {
+        long now = currentTimeMillis();
+        SecretEntry entry = secretCache.getIfPresent(loadKey);
+        if (nonNull(entry) && now < entry.expireTime) {
+            // Refresh-ahead, the current value is still served.
+            if (now >= entry.refreshTime && nonNull(entry.secret)) {
+                loadSingleFlight(loadKey).subscribe(null,
+                        ex -> log.warn("Failed to refresh-ahead client secret via '{}'. - {}", loadKey, ex.getMessage()));
+            }
+            return isNull(entry.secret) ? Mono.empty() : Mono.just(entry.secret);
+        }
+        return loadSingleFlight(loadKey).flatMap(e -> isNull(e.secret) ? Mono.empty() : Mono.just(e.secret));
+    }
+
+    private Mono<SecretEntry> loadSingleFlight(String loadKey) {
+        return inflightLoads.computeIfAbsent(loadKey, key -> secretStore.load(key).filter(StringUtils::isNotBlank).map(secret -> {
+            long now = currentTimeMillis();
+            return new SecretEntry(secret, now + refreshAheadMs, now + expireMs);
+        }).switchIfEmpty(Mono.fromSupplier(() -> {
+            log.warn("No found client secret from {} via '{}'", secretStore.kind(), key);
+            long now = currentTimeMillis();
+            return new SecretEntry(null, now + negativeExpireMs, now + negativeExpireMs);
+        })).doOnNext(e -> secretCache.put(key, e)).doFinally(signal -> inflightLoads.remove(key)).cache());
+    }
+
+    @AllArgsConstructor
+    static class SecretEntry {
+        // Null means not found (negative cached).
+        final String secret;
+        final long refreshTime;
+        final long expireTime;
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.boostrap.secret;
+
+import static org.springcloud.gateway.core.lang.Assert2.hasTextOf;
+import static org.springcloud.gateway.core.log.SmartLoggerFactory.getLogger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import javax.validation.constraints.NotNull;
+
+import org.springcloud.gateway.core.commons.boostrap.config.IamSecurityProperties.SecretStore;
+import org.springcloud.gateway.core.log.SmartLogger;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * {@link FileAppSecretStore}
+ * 
+ * <p>
+ * Load secrets from the local properties file (e.g:
+ * gateway:auth:sign:secret:{appId}=xxx), the file is reloaded when it is
+ * modified, the reading is done on the bounded elastic scheduler.
+ * </p>
+ * 
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public class FileAppSecretStore implements AppSecretStore {
+
+    private final SmartLogger log = getLogger(getClass());
+    private final File file;
+    private volatile Properties secrets = new Properties();
+    private volatile long lastModified = -1L;
+
+    public FileAppSecretStore(@NotNull String location) {
+        hasTextOf(location, "location");
+        this.file = new File(location);
+    }
+
+    @Override
+    public SecretStore kind() {
+        return SecretStore.FILE;
+    }
+
+    @Override
+    public Mono<String> load(String loadKey) {
+        return Mono.fromCallable(() -> reloadIfNecessary().getProperty(loadKey)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Properties reloadIfNecessary() throws IOException {
+        long modified = file.lastModified();
+        if (modified != lastModified) {
+            synchronized (this) {
+                if (modified != lastModified) {
+                    Properties props = new Properties();
+                    if (file.exists()) {
+                        try (InputStream in = new FileInputStream(file)) {
+                            props.load(in);
+                        }
+                    } else {
+                        log.warn("No found secrets file of '{}'", file);
+                    }
+                    this.secrets = props;
+                    this.lastModified = modified;
+                }
+            }
+        }
+        return secrets;
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.boostrap.secret;
+
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+
+import javax.validation.constraints.NotNull;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import org.springcloud.gateway.core.commons.boostrap.config.IamSecurityProperties.SecretStore;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link RedisAppSecretStore}
+ * 
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public class RedisAppSecretStore implements AppSecretStore {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisAppSecretStore(@NotNull ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = notNullOf(redisTemplate, "redisTemplate");
+    }
+
+    @Override
+    public SecretStore kind() {
+        return SecretStore.REDIS;
+    }
+
+    @Override
+    public Mono<String> load(String loadKey) {
+        return redisTemplate.opsForValue().get(loadKey);
+    }
+
+}
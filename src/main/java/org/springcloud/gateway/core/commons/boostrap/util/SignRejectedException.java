@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.boostrap.util;
+
+/**
+ * {@link SignRejectedException}
+ *
+ * <p>
+ * Thrown when the signed request is rejected for the bad parameters (e.g.
+ * missing sign or appId), which is responded as 400. It's a control-flow
+ * denial, so the stack trace is never filled, so that the rejections stay
+ * cheap under attack.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public class SignRejectedException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = -4728187312389726431L;
+
+    public SignRejectedException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // Rejected by the parameters, the stack trace is meaningless.
+        return this;
+    }
+
+}
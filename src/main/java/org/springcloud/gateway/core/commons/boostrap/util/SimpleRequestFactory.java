@@ -16,25 +16,19 @@
 package org.springcloud.gateway.core.commons.boostrap.util;
 
 import static com.google.common.base.Charsets.UTF_8;
-import static com.google.common.cache.CacheBuilder.newBuilder;
 import static org.springcloud.gateway.core.collection.CollectionUtils2.safeList;
-import static org.springcloud.gateway.core.lang.Assert2.hasText;
 import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
 import static org.springcloud.gateway.core.lang.StringUtils2.eqIgnCase;
 import static org.springcloud.gateway.core.log.SmartLoggerFactory.getLogger;
 import static java.lang.String.format;
 import static java.lang.System.nanoTime;
-import static java.security.MessageDigest.isEqual;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.concurrent.TimeUnit.SECONDS;
-import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.StringUtils.isBlank;
-import static reactor.core.publisher.Flux.just;
 
 import java.security.Principal;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -51,32 +45,30 @@ import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFac
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
-import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.server.ServerWebExchange;
 
-import com.google.common.cache.Cache;
 import com.google.common.hash.Funnel;
-import com.google.common.hash.Hashing;
 
 import org.springcloud.gateway.core.commons.boostrap.config.IamSecurityProperties;
-import org.springcloud.gateway.core.commons.boostrap.config.IamSecurityProperties.SecretStore;
+import org.springcloud.gateway.core.commons.boostrap.secret.CachingAppSecretLoader;
 import org.springcloud.gateway.core.commons.event.SignAuthingFailureEvent;
 import org.springcloud.gateway.core.commons.event.SignAuthingSuccessEvent;
 import org.springcloud.gateway.core.commons.fault.IamGatewayFault;
 import org.springcloud.gateway.core.commons.fault.IamGatewayFault.SafeFilterOrdered;
 import org.springcloud.gateway.core.commons.fault.bloom.RedisBloomFilter;
 import org.springcloud.gateway.core.commons.fault.bloom.RedisBloomFilter.BloomConfig;
+import org.springcloud.gateway.core.commons.fault.bloom.RotatingRedisBloomFilter;
 import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade;
 import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsName;
 import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsTag;
 import org.springcloud.gateway.core.eventbus.EventBusSupport;
 import org.springcloud.gateway.core.log.SmartLogger;
 import org.springcloud.gateway.core.tools.JvmRuntimeTool;
-import org.springcloud.gateway.core.web.rest.RespBase;
+import org.springcloud.gateway.core.utils.web.ExchangeRequestView;
+import org.springcloud.gateway.core.utils.web.RespTemplates;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -120,21 +112,23 @@ public class SimpleRequestFactory extends AbstractGatewayFilterFactory<SimpleReq
 
     private final SmartLogger log = getLogger(getClass());
     private final IamSecurityProperties authingConfig;
-    private final StringRedisTemplate redisTemplate;
-    private final Cache<String, String> secretCacheStore;
+    private final CachingAppSecretLoader secretLoader;
+    private final SimpleSignSigner signer;
+    private final ReactiveStringRedisTemplate reactiveRedisTemplate;
     private final GatewayMetricsFacade metricsFacade;
     private final EventBusSupport eventBus;
-    private final Map<String, RedisBloomFilter<String>> cachedBloomFilters = new ConcurrentHashMap<>(8);
+    private final Map<String, RotatingRedisBloomFilter<String>> cachedBloomFilters = new ConcurrentHashMap<>(8);
 
-    public SimpleRequestFactory(@NotNull IamSecurityProperties authingConfig, @NotNull StringRedisTemplate redisTemplate,
-            @NotNull GatewayMetricsFacade metricsFacade, EventBusSupport eventBus) {
+    public SimpleRequestFactory(@NotNull IamSecurityProperties authingConfig, @NotNull CachingAppSecretLoader secretLoader,
+            @NotNull ReactiveStringRedisTemplate reactiveRedisTemplate, @NotNull GatewayMetricsFacade metricsFacade,
+            EventBusSupport eventBus) {
         super(SimpleRequestFactory.Config.class);
         this.authingConfig = notNullOf(authingConfig, "authingConfig");
-        this.redisTemplate = notNullOf(redisTemplate, "redisTemplate");
+        this.secretLoader = notNullOf(secretLoader, "secretLoader");
+        this.signer = new SimpleSignSigner(authingConfig.getSimpleSign().getSecretLocalCacheMaximumSize());
+        this.reactiveRedisTemplate = notNullOf(reactiveRedisTemplate, "reactiveRedisTemplate");
         this.metricsFacade = notNullOf(metricsFacade, "metricsFacade");
         this.eventBus = notNullOf(eventBus, "eventBus");
-        this.secretCacheStore = newBuilder().expireAfterWrite(authingConfig.getSimpleSign().getSecretLocalCacheSeconds(), SECONDS)
-                .build();
     }
 
     @Override
@@ -166,84 +160,50 @@ public class SimpleRequestFactory extends AbstractGatewayFilterFactory<SimpleReq
         return new SimpleSignAuthingGatewayFilter(config);
     }
 
-    private RedisBloomFilter<String> obtainBloomFilter(ServerWebExchange exchange, SimpleRequestFactory.Config config) {
+    private RotatingRedisBloomFilter<String> obtainBloomFilter(ServerWebExchange exchange, SimpleRequestFactory.Config config) {
         String routeId = ((Route) exchange.getAttributes().get(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR)).getId();
         if (isBlank(routeId)) {
             throw new Error(format("Should't be here, cannot to get routeId"));
         }
-        RedisBloomFilter<String> bloomFilter = cachedBloomFilters.get(routeId);
-        if (isNull(bloomFilter)) {
-            synchronized (this) {
-                if (isNull(bloomFilter = cachedBloomFilters.get(routeId))) {
-                    // Initial bloom filter.
-                    bloomFilter = new RedisBloomFilter<String>(redisTemplate, new BloomConfig<>(
-                            (Funnel<String>) (from, into) -> into.putString(from, UTF_8), Integer.MAX_VALUE, 0.01));
-                    bloomFilter.bloomExpire(getBloomKey(exchange), config.getSignReplayVerifyBloomExpireSeconds());
-                    cachedBloomFilters.put(routeId, bloomFilter);
-                }
-            }
-        }
-        return bloomFilter;
+        return cachedBloomFilters.computeIfAbsent(routeId, _routeId -> {
+            // Initial bloom filter, sized by the expected insertions per
+            // rotating bucket (replay verify window).
+            RedisBloomFilter<String> bloomFilter = new RedisBloomFilter<>(reactiveRedisTemplate,
+                    new BloomConfig<>((Funnel<String>) (from, into) -> into.putString(from, UTF_8),
+                            config.getSignReplayVerifyBloomExpectedInsertions(), config.getSignReplayVerifyBloomFpp()),
+                    authingConfig.getSimpleSign().isSignReplayVerifyRedisBloomModule());
+            return new RotatingRedisBloomFilter<>(bloomFilter, getBloomKey(_routeId),
+                    SECONDS.toMillis(config.getSignReplayVerifyBloomExpireSeconds()), config.getSignReplayVerifyLocalCacheSize());
+        });
     }
 
-    private String getBloomKey(ServerWebExchange exchange) {
-        String routeId = ((Route) exchange.getAttributes().get(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR)).getId();
-        if (isBlank(routeId)) {
-            throw new Error(format("Should't be here, cannot to get routeId"));
-        }
+    private String getBloomKey(String routeId) {
         return authingConfig.getSimpleSign().getSignReplayVerifyBloomLoadPrefix().concat(":").concat(routeId);
     }
 
-    private byte[] doSignature(SimpleRequestFactory.Config config, ServerWebExchange exchange, String appId) {
+    private Mono<byte[]> doSignature(SimpleRequestFactory.Config config, ServerWebExchange exchange, String appId) {
         // Load stored secret.
-        byte[] storedAppSecret = loadStoredSecret(config, appId);
-
-        long beginTime = nanoTime();
-        try {
-            // Make signature plain text.
-            byte[] signPlainBytes = config.getSignHashingMode().getFunction().apply(
-                    new Object[] { config, storedAppSecret, exchange.getRequest() });
-            // Hashing signature.
-            return config.getSignAlgorithm().getFunction().apply(new byte[][] { storedAppSecret, signPlainBytes });
-        } finally {
-            // Add time metrics.
-            addTimerMetrics(exchange, MetricsName.SIMPLE_SIGN_TIME, config, beginTime);
-        }
+        return loadStoredSecret(config, appId).map(storedAppSecret -> {
+            long beginTime = nanoTime();
+            try {
+                // Make signature plain text and hashing signature.
+                return signer.sign(config, appId, storedAppSecret, ExchangeRequestView.of(exchange).getQueryParams());
+            } finally {
+                // Add time metrics.
+                addTimerMetrics(exchange, MetricsName.SIMPLE_SIGN_TIME, config, beginTime);
+            }
+        });
     }
 
-    private byte[] loadStoredSecret(SimpleRequestFactory.Config config, String appId) {
+    /**
+     * Load the stored secret without blocking, concurrent loads of the same
+     * appId are merged, see: {@link CachingAppSecretLoader}
+     * 
+     * @return The stored secret, or empty if not found.
+     */
+    private Mono<byte[]> loadStoredSecret(SimpleRequestFactory.Config config, String appId) {
         String loadKey = authingConfig.getSimpleSign().getSecretStorePrefix().concat(":").concat(appId);
-        switch (authingConfig.getSimpleSign().getSecretStore()) {
-        case ENV:
-            String storedSecret = System.getenv(loadKey);
-            // Downgrade acquisition, for example, during integration testing,
-            // process environment variables cannot be modified.
-            storedSecret = isBlank(storedSecret) ? System.getProperty(loadKey) : null;
-            if (isBlank(storedSecret)) {
-                log.warn("No found client secret from {} via '{}'", SecretStore.ENV, loadKey);
-                throw new IllegalArgumentException(format("No enables client secret?"));
-            }
-            return storedSecret.getBytes(UTF_8);
-        case REDIS:
-            storedSecret = secretCacheStore.asMap().get(loadKey);
-            if (isBlank(storedSecret)) {
-                synchronized (loadKey) {
-                    storedSecret = secretCacheStore.asMap().get(loadKey);
-                    if (isBlank(storedSecret)) {
-                        storedSecret = redisTemplate.opsForValue().get(loadKey);
-                        if (isBlank(storedSecret)) {
-                            log.warn("No found client secret from {} via '{}'", SecretStore.REDIS, loadKey);
-                            throw new IllegalArgumentException(format("No enables client secret?"));
-                        }
-                        secretCacheStore.asMap().put(loadKey, storedSecret);
-                        return storedSecret.getBytes(UTF_8);
-                    }
-                }
-            }
-            return storedSecret.getBytes(UTF_8);
-        default:
-            throw new Error("Shouldn't be here");
-        }
+        return secretLoader.load(loadKey).map(storedSecret -> storedSecret.getBytes(UTF_8));
     }
 
     private String getRequestAppId(SimpleRequestFactory.Config config, ServerWebExchange exchange) {
@@ -256,11 +216,8 @@ public class SimpleRequestFactory extends AbstractGatewayFilterFactory<SimpleReq
     }
 
     private Mono<Void> writeResponse(HttpStatus status, ServerWebExchange exchange, String fmtMessage, Object... args) {
-        RespBase<?> resp = RespBase.create().withCode(status.value()).withMessage(format(fmtMessage, args));
-        ServerHttpResponse response = exchange.getResponse();
-        DataBuffer buffer = response.bufferFactory().wrap(resp.asJson().getBytes(UTF_8));
-        response.setStatusCode(status);
-        return response.writeWith(just(buffer));
+        String message = (isNull(args) || args.length == 0) ? fmtMessage : format(fmtMessage, args);
+        return RespTemplates.writeJson(exchange.getResponse(), status, message);
     }
 
     private Mono<Void> bindSignedToContext(
@@ -334,10 +291,31 @@ public class SimpleRequestFactory extends AbstractGatewayFilterFactory<SimpleReq
         private boolean signReplayVerifyEnable = false;
 
         /**
-         * Bloom filter sign cache expiration for replay attacks verification.
+         * Bloom filter sign cache expiration for replay attacks verification,
+         * that is the period of each rotating bucket, the signatures are
+         * remembered for one to two periods.
          */
         private Integer signReplayVerifyBloomExpireSeconds = 7 * 24 * 60 * 60;
 
+        /**
+         * The expected signatures inserted per bucket period, which together
+         * with the fpp determines the size of bloom bitmap and the number of
+         * hash functions.
+         */
+        private int signReplayVerifyBloomExpectedInsertions = 1_000_000;
+
+        /**
+         * The false positive probability of bloom filter.
+         */
+        private double signReplayVerifyBloomFpp = 0.001d;
+
+        /**
+         * The maximum number of recently verified signatures to remember
+         * locally, replays hitting this cache are rejected without accessing
+         * redis.
+         */
+        private long signReplayVerifyLocalCacheSize = 100_000L;
+
         /*
          * Signature parameters configuration.
          */
@@ -376,8 +354,11 @@ public class SimpleRequestFactory extends AbstractGatewayFilterFactory<SimpleReq
         Parameter(args -> {
             Config config = (Config) args[0];
             ServerWebExchange exchange = (ServerWebExchange) args[1];
-            return hasText(exchange.getRequest().getQueryParams().getFirst(config.getAppIdParam()), "%s missing",
-                    config.getAppIdParam());
+            String appId = ExchangeRequestView.of(exchange).getQueryParams().getFirst(config.getAppIdParam());
+            if (isBlank(appId)) {
+                throw new SignRejectedException(format("%s missing", config.getAppIdParam()));
+            }
+            return appId;
         }),
 
         /**
@@ -397,92 +378,51 @@ public class SimpleRequestFactory extends AbstractGatewayFilterFactory<SimpleReq
         private final Function<Object[], String> function;
     }
 
-    @SuppressWarnings("deprecation")
     @Getter
     @AllArgsConstructor
     public static enum SignAlgorithm {
-        MD5(input -> Hashing.md5().hashBytes(input[1]).asBytes()),
+        MD5("MD5", false),
 
-        S1(input -> Hashing.sha1().hashBytes(input[1]).asBytes()),
+        S1("SHA-1", false),
 
-        S256(input -> Hashing.sha256().hashBytes(input[1]).asBytes()),
+        S256("SHA-256", false),
 
-        S384(input -> Hashing.sha384().hashBytes(input[1]).asBytes()),
+        S384("SHA-384", false),
 
-        S512(input -> Hashing.sha512().hashBytes(input[1]).asBytes()),
+        S512("SHA-512", false),
 
-        HMD5(input -> Hashing.hmacMd5(input[0]).hashBytes(input[1]).asBytes()),
+        HMD5("HmacMD5", true),
 
-        HS1(input -> Hashing.hmacSha1(input[0]).hashBytes(input[1]).asBytes()),
+        HS1("HmacSHA1", true),
 
-        HS256(input -> Hashing.hmacSha256(input[0]).hashBytes(input[1]).asBytes()),
+        HS256("HmacSHA256", true),
 
-        HS512(input -> Hashing.hmacSha512(input[0]).hashBytes(input[1]).asBytes());
+        HS512("HmacSHA512", true);
 
-        private final Function<byte[][], byte[]> function;
+        /**
+         * The standard JCA algorithm name, see: {@link SimpleSignSigner}
+         */
+        private final String jcaName;
+        private final boolean hmac;
     }
 
-    @Getter
-    @AllArgsConstructor
+    /**
+     * The signature plain text modes, see: {@link SimpleSignSigner}
+     */
     public static enum SignHashingMode {
 
-        SimpleParamsBytesSortedHashing(args -> {
-            Config config = (Config) args[0];
-            byte[] storedAppSecret = (byte[]) args[1];
-            ServerHttpRequest request = (ServerHttpRequest) args[2];
-            Map<String, String> queryParams = request.getQueryParams().toSingleValueMap();
-            String[] params = getEffectiveHashingParamNames(config, queryParams);
-            StringBuffer signPlaintext = new StringBuffer();
-            for (Object key : params) {
-                if (!config.getSignParam().equals(key)) {
-                    signPlaintext.append(queryParams.get(key));
-                }
-            }
-            // Add stored secret.
-            signPlaintext.append(new String(storedAppSecret, UTF_8));
-            // ASCII sort characters.
-            byte[] signPlainBytes = signPlaintext.toString().getBytes(UTF_8);
-            Arrays.sort(signPlainBytes);
-            return signPlainBytes;
-        }),
-
-        UriParamsKeySortedHashing(args -> {
-            Config config = (Config) args[0];
-            byte[] storedAppSecret = (byte[]) args[1];
-            ServerHttpRequest request = (ServerHttpRequest) args[2];
-            Map<String, String> queryParams = request.getQueryParams().toSingleValueMap();
-            String[] params = getEffectiveHashingParamNames(config, queryParams);
-            // ASCII sort by parameters key.
-            Arrays.sort(params);
-            StringBuffer signPlaintext = new StringBuffer();
-            for (Object name : params) {
-                if (!config.getSignParam().equals(name)) {
-                    signPlaintext.append(name).append("=").append(queryParams.get(name)).append("&");
-                }
-            }
-            // Add stored secret.
-            signPlaintext.append(config.getSecretParam()).append("=").append(new String(storedAppSecret, UTF_8));
-            return signPlaintext.toString().getBytes(UTF_8);
-        });
+        /**
+         * The values of the hashing parameters (excluding the sign parameter)
+         * and the stored secret, whose bytes are sorted in ASCII order.
+         */
+        SimpleParamsBytesSortedHashing,
 
-        private final Function<Object[], byte[]> function;
-
-        private static String[] getEffectiveHashingParamNames(Config config, Map<String, String> queryParams) {
-            List<String> hashingParamNames = queryParams.keySet()
-                    .stream()
-                    .filter(n -> config.isIncludeAll() || safeList(config.getSignHashingIncludeParams()).contains(n))
-                    .filter(n -> !safeList(config.getSignHashingExcludeParams()).contains(n))
-                    .collect(toList());
-
-            // Validation required parameters.
-            boolean allMatch = safeList(config.getSignHashingRequiredIncludeParams()).stream()
-                    .allMatch(p -> hashingParamNames.contains(p));
-            if (!allMatch) {
-                throw new IllegalArgumentException(format("Parameters missing, These parameters are required: %s",
-                        config.getSignHashingRequiredIncludeParams()));
-            }
-            return hashingParamNames.toArray(new String[0]);
-        }
+        /**
+         * The {@code name=value&} pairs of the hashing parameters (excluding
+         * the sign parameter) sorted by name, followed by
+         * {@code <secretParam>=<secret>}.
+         */
+        UriParamsKeySortedHashing;
     }
 
     @AllArgsConstructor
@@ -511,14 +451,11 @@ public class SimpleRequestFactory extends AbstractGatewayFilterFactory<SimpleReq
             }
 
             // Gets request signature.(required)
-            String sign = null;
-            try {
-                sign = hasText(exchange.getRequest().getQueryParams().getFirst(config.getSignParam()), "%s missing",
-                        config.getSignParam());
-            } catch (IllegalArgumentException e) {
+            String sign = ExchangeRequestView.of(exchange).getQueryParams().getFirst(config.getSignParam());
+            if (isBlank(sign)) {
                 publishFailureEvent("null", config, exchange, "bad_request");
                 log.warn("Bad request missing signature. - {}", exchange.getRequest().getURI());
-                return writeResponse(HttpStatus.BAD_REQUEST, exchange, "bad_request - hint '%s'", e.getMessage());
+                return writeResponse(HttpStatus.BAD_REQUEST, exchange, "bad_request - hint '%s missing'", config.getSignParam());
             }
             // Determine request appId.
             String appId = null;
@@ -530,51 +467,105 @@ public class SimpleRequestFactory extends AbstractGatewayFilterFactory<SimpleReq
                 return writeResponse(HttpStatus.BAD_REQUEST, exchange, "bad_request - hint '%s'", e.getMessage());
             }
 
-            // Check replay attacks.
-            if (config.isSignReplayVerifyEnable()
-                    && !FOR_REQUESTAPPID.equalsIgnoreCase(Base64.encodeBase64String(appId.getBytes()))) {
-                if (obtainBloomFilter(exchange, config).bloomExist(getBloomKey(exchange), sign)) {
-                    log.warn("Illegal signature locked. - sign={}, appId={}", sign, appId);
-                    addCounterMetrics(exchange, MetricsName.SIMPLE_SIGN_BLOOM_FAIL_TOTAL, config);
-
-                    publishFailureEvent(appId, config, exchange, "illegal_signature");
-                    return writeResponse(HttpStatus.LOCKED, exchange, "illegal_signature");
-                }
+            // Check replay attacks.(local fast path)
+            boolean isTestingAppId = FOR_REQUESTAPPID.equalsIgnoreCase(Base64.encodeBase64String(appId.getBytes()));
+            if (config.isSignReplayVerifyEnable() && !isTestingAppId && obtainBloomFilter(exchange, config).isLocalExist(sign)) {
+                return writeReplayLockedResponse(exchange, config, sign, appId);
             }
 
             // Verify signature.
+            final byte[] requestSign;
             try {
-                // for testing
-                if (!FOR_REQUESTAPPID.equalsIgnoreCase(Base64.encodeBase64String(appId.getBytes()))) {
-                    byte[] _sign = doSignature(config, exchange, appId);
-                    if (!isEqual(_sign, Hex.decodeHex(sign.toCharArray()))) {
-                        log.warn("Invalid request sign='{}', sign='{}'", sign, Hex.encodeHexString(_sign));
-                        addCounterMetrics(exchange, MetricsName.SIMPLE_SIGN_FAIL_TOTAL, config);
-                        // Publish failure event.
-                        publishFailureEvent(appId, config, exchange, "invalid_signature");
-                        return writeResponse(HttpStatus.UNAUTHORIZED, exchange, "invalid_signature");
+                requestSign = isTestingAppId ? null : Hex.decodeHex(sign.toCharArray());
+            } catch (DecoderException e) {
+                publishFailureEvent(appId, config, exchange, "unavailable");
+                return writeResponse(HttpStatus.INTERNAL_SERVER_ERROR, exchange, "unavailable");
+            }
+            // for testing
+            Mono<Boolean> verified = isTestingAppId ? Mono.just(true) : doSignature(config, exchange, appId).map(_sign -> {
+                if (!SimpleSignSigner.isSignEqual(_sign, requestSign)) {
+                    log.warn("Invalid request sign='{}', sign='{}'", Hex.encodeHexString(requestSign), Hex.encodeHexString(_sign));
+                    return false;
+                }
+                return true;
+            });
+
+            final String _appId = appId, _sign = sign;
+            return verified.materialize().flatMap(signal -> {
+                if (signal.isOnError()) {
+                    Throwable ex = signal.getThrowable();
+                    if (ex instanceof IllegalArgumentException) {
+                        publishFailureEvent(_appId, config, exchange, "bad_request");
+                        return writeResponse(HttpStatus.BAD_REQUEST, exchange, "bad_request - hint '%s'", ex.getMessage());
                     }
+                    log.error("Failed to verify signature.", ex);
+                    publishFailureEvent(_appId, config, exchange, "unavailable");
+                    return writeResponse(HttpStatus.INTERNAL_SERVER_ERROR, exchange, "unavailable");
+                } else if (!signal.hasValue()) { // No found secret.
+                    publishFailureEvent(_appId, config, exchange, "bad_request");
+                    return writeResponse(HttpStatus.BAD_REQUEST, exchange, "bad_request - hint '%s'", "No enables client secret?");
+                } else if (!signal.get()) {
+                    addCounterMetrics(exchange, MetricsName.SIMPLE_SIGN_FAIL_TOTAL, config);
+                    // Publish failure event.
+                    publishFailureEvent(_appId, config, exchange, "invalid_signature");
+                    return writeResponse(HttpStatus.UNAUTHORIZED, exchange, "invalid_signature");
                 }
-                log.info("Verified request of path: '{}', appId='{}', sign='{}'", exchange.getRequest().getURI().getPath(), appId,
-                        sign);
+                return checkReplayAndContinue(exchange, chain, config, isTestingAppId, _sign, _appId);
+            });
+        }
 
-                metricsFacade.counter(exchange, MetricsName.SIMPLE_SIGN_SUCCCESS_TOTAL, 1);
-                if (config.isSignReplayVerifyEnable()) {
-                    obtainBloomFilter(exchange, config).bloomAdd(getBloomKey(exchange), sign);
+        private Mono<Void> checkReplayAndContinue(
+                ServerWebExchange exchange,
+                GatewayFilterChain chain,
+                SimpleRequestFactory.Config config,
+                boolean isTestingAppId,
+                String sign,
+                String appId) {
+            // Check replay attacks, add the verified signature and check if
+            // it existed in the same pipelined round-trip.
+            if (config.isSignReplayVerifyEnable() && !isTestingAppId) {
+                return obtainBloomFilter(exchange, config).putIfAbsent(sign).onErrorResume(ex -> {
+                    // We don't want a hard dependency on Redis to allow
+                    // traffic (fail-open across nodes), the sign has already
+                    // been recorded in the local cache before calling redis,
+                    // so the replays on this node are still rejected.
+                    log.error("Error calling sign replay verify bloom redis", ex);
+                    return Mono.just(true);
+                }).flatMap(absent -> {
+                    if (!absent) {
+                        return writeReplayLockedResponse(exchange, config, sign, appId);
+                    }
                     addCounterMetrics(exchange, MetricsName.SIMPLE_SIGN_BLOOM_SUCCESS_TOTAL, config);
-                }
-
-                publishSuccessEvent(appId, config, exchange);
-            } catch (DecoderException e) {
-                publishFailureEvent(appId, config, exchange, "unavailable");
-                return writeResponse(HttpStatus.INTERNAL_SERVER_ERROR, exchange, "unavailable");
-            } catch (IllegalArgumentException e) {
-                publishFailureEvent(appId, config, exchange, "bad_request");
-                return writeResponse(HttpStatus.BAD_REQUEST, exchange, "bad_request - hint '%s'", e.getMessage());
+                    return onVerifiedSuccess(exchange, chain, config, sign, appId);
+                });
             }
 
+            return onVerifiedSuccess(exchange, chain, config, sign, appId);
+        }
+
+        private Mono<Void> onVerifiedSuccess(
+                ServerWebExchange exchange,
+                GatewayFilterChain chain,
+                SimpleRequestFactory.Config config,
+                String sign,
+                String appId) {
+            log.info("Verified request of path: '{}', appId='{}', sign='{}'", exchange.getRequest().getURI().getPath(), appId,
+                    sign);
+            metricsFacade.counter(exchange, MetricsName.SIMPLE_SIGN_SUCCCESS_TOTAL, 1);
+            publishSuccessEvent(appId, config, exchange);
             return bindSignedToContext(exchange, chain, config, appId);
         }
+
+        private Mono<Void> writeReplayLockedResponse(
+                ServerWebExchange exchange,
+                SimpleRequestFactory.Config config,
+                String sign,
+                String appId) {
+            log.warn("Illegal signature locked. - sign={}, appId={}", sign, appId);
+            addCounterMetrics(exchange, MetricsName.SIMPLE_SIGN_BLOOM_FAIL_TOTAL, config);
+            publishFailureEvent(appId, config, exchange, "illegal_signature");
+            return writeResponse(HttpStatus.LOCKED, exchange, "illegal_signature");
+        }
     }
 
     public static final String NAME_SIMPLE_SIGN_FILTER = "SimpleSignAuthing";
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.boostrap.util;
+
+import static org.springcloud.gateway.core.collection.CollectionUtils2.safeList;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.util.MultiValueMap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.springcloud.gateway.core.commons.boostrap.util.SimpleRequestFactory.Config;
+import org.springcloud.gateway.core.commons.boostrap.util.SimpleRequestFactory.SignAlgorithm;
+import org.springcloud.gateway.core.commons.boostrap.util.SimpleRequestFactory.SignHashingMode;
+
+/**
+ * {@link SimpleSignSigner}
+ * 
+ * <p>
+ * The allocation-light signer of the {@link SignHashingMode} and
+ * {@link SignAlgorithm}, the signature plain text is
+ * canonicalized directly from the (already parsed) query parameters into a
+ * reusable thread-local byte buffer, without the intermediate single value
+ * map, streams and strings. The keyed {@link Mac} instances are initialized
+ * once per appId and cloned per request, and the digests are reused per
+ * thread.
+ * </p>
+ * 
+ * <p>
+ * The original (Guava hashing) implementation is kept as the baseline of the
+ * JMH benchmark under {@code src/jmh/java} (profile {@code benchmark:jmh}),
+ * which also checks both produce the same signatures.
+ * </p>
+ * 
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public class SimpleSignSigner {
+
+    private final Cache<String, MacPrototype> macPrototypes;
+
+    public SimpleSignSigner(long maximumSize) {
+        this.macPrototypes = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Compute signature of request.
+     * 
+     * @param config
+     * @param appId
+     * @param storedAppSecret
+     * @param queryParams
+     * @return
+     */
+    public byte[] sign(Config config, String appId, byte[] storedAppSecret, MultiValueMap<String, String> queryParams) {
+        SignBuffer buffer = BUFFERS.get();
+        buffer.reset();
+        switch (config.getSignHashingMode()) {
+        case SimpleParamsBytesSortedHashing:
+            canonicalizeSimpleParamsBytesSorted(config, storedAppSecret, queryParams, buffer);
+            break;
+        case UriParamsKeySortedHashing:
+            canonicalizeUriParamsKeySorted(config, storedAppSecret, queryParams, buffer);
+            break;
+        default:
+            throw new Error("Shouldn't be here");
+        }
+        return digest(config.getSignAlgorithm(), appId, storedAppSecret, buffer);
+    }
+
+    /**
+     * Constant-time comparison of signatures, to avoid timing attacks.
+     */
+    public static boolean isSignEqual(byte[] sign1, byte[] sign2) {
+        return MessageDigest.isEqual(sign1, sign2);
+    }
+
+    private void canonicalizeSimpleParamsBytesSorted(
+            Config config,
+            byte[] storedAppSecret,
+            MultiValueMap<String, String> queryParams,
+            SignBuffer buffer) {
+        int count = collectEffectiveHashingParamNames(config, queryParams, buffer);
+        for (int i = 0; i < count; i++) {
+            String name = buffer.names[i];
+            if (!config.getSignParam().equals(name)) {
+                buffer.write(String.valueOf(queryParams.getFirst(name)));
+            }
+        }
+        // Add stored secret.
+        buffer.write(storedAppSecret);
+        // ASCII sort characters.
+        Arrays.sort(buffer.bytes, 0, buffer.length);
+    }
+
+    private void canonicalizeUriParamsKeySorted(
+            Config config,
+            byte[] storedAppSecret,
+            MultiValueMap<String, String> queryParams,
+            SignBuffer buffer) {
+        int count = collectEffectiveHashingParamNames(config, queryParams, buffer);
+        // ASCII sort by parameters key.
+        Arrays.sort(buffer.names, 0, count);
+        for (int i = 0; i < count; i++) {
+            String name = buffer.names[i];
+            if (!config.getSignParam().equals(name)) {
+                buffer.write(name);
+                buffer.write('=');
+                buffer.write(String.valueOf(queryParams.getFirst(name)));
+                buffer.write('&');
+            }
+        }
+        // Add stored secret.
+        buffer.write(config.getSecretParam());
+        buffer.write('=');
+        buffer.write(storedAppSecret);
+    }
+
+    private int collectEffectiveHashingParamNames(Config config, MultiValueMap<String, String> queryParams, SignBuffer buffer) {
+        List<String> includeParams = safeList(config.getSignHashingIncludeParams());
+        List<String> excludeParams = safeList(config.getSignHashingExcludeParams());
+        int count = 0;
+        for (Entry<String, List<String>> ent : queryParams.entrySet()) {
+            String name = ent.getKey();
+            if ((config.isIncludeAll() || includeParams.contains(name)) && !excludeParams.contains(name)) {
+                buffer.ensureNamesCapacity(count + 1);
+                buffer.names[count++] = name;
+            }
+        }
+        // Validation required parameters.
+        for (String required : safeList(config.getSignHashingRequiredIncludeParams())) {
+            if (!contains(buffer.names, count, required)) {
+                throw new IllegalArgumentException(format("Parameters missing, These parameters are required: %s",
+                        config.getSignHashingRequiredIncludeParams()));
+            }
+        }
+        return count;
+    }
+
+    private byte[] digest(SignAlgorithm algorithm, String appId, byte[] storedAppSecret, SignBuffer buffer) {
+        if (algorithm.isHmac()) {
+            Mac mac = obtainMac(algorithm, appId, storedAppSecret);
+            mac.update(buffer.bytes, 0, buffer.length);
+            return mac.doFinal();
+        }
+        MessageDigest digest = buffer.obtainDigest(algorithm);
+        digest.update(buffer.bytes, 0, buffer.length);
+        return digest.digest();
+    }
+
+    private Mac obtainMac(SignAlgorithm algorithm, String appId, byte[] storedAppSecret) {
+        String cacheKey = algorithm.name().concat(":").concat(appId);
+        MacPrototype prototype = macPrototypes.getIfPresent(cacheKey);
+        // The stored secret may be changed.
+        if (isNull(prototype) || !MessageDigest.isEqual(prototype.secret, storedAppSecret)) {
+            prototype = new MacPrototype(storedAppSecret, newMac(algorithm, storedAppSecret));
+            macPrototypes.put(cacheKey, prototype);
+        }
+        try {
+            return (Mac) prototype.mac.clone();
+        } catch (CloneNotSupportedException e) {
+            // Some providers do not support clone.
+            return newMac(algorithm, storedAppSecret);
+        }
+    }
+
+    private static Mac newMac(SignAlgorithm algorithm, byte[] storedAppSecret) {
+        try {
+            Mac mac = Mac.getInstance(algorithm.getJcaName());
+            mac.init(new SecretKeySpec(storedAppSecret, algorithm.getJcaName()));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(format("Failed to init mac of '%s'", algorithm), e);
+        }
+    }
+
+    private static boolean contains(String[] names, int count, String name) {
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static class MacPrototype {
+        final byte[] secret;
+        final Mac mac;
+
+        MacPrototype(byte[] secret, Mac mac) {
+            this.secret = secret.clone();
+            this.mac = mac;
+        }
+    }
+
+    /**
+     * The reusable thread-local buffer of signature plain text.
+     */
+    static class SignBuffer {
+        private final MessageDigest[] digests = new MessageDigest[SignAlgorithm.values().length];
+        private byte[] bytes = new byte[512];
+        private int length;
+        private String[] names = new String[16];
+
+        void reset() {
+            length = 0;
+            // Release the references of parameter names.
+            Arrays.fill(names, null);
+            // Avoid the occasional huge request holding memory forever.
+            if (bytes.length > MAX_RETAINED_CAPACITY) {
+                bytes = new byte[512];
+            }
+        }
+
+        void ensureNamesCapacity(int capacity) {
+            if (capacity > names.length) {
+                names = Arrays.copyOf(names, Math.max(capacity, names.length << 1));
+            }
+        }
+
+        void write(int b) {
+            ensureCapacity(length + 1);
+            bytes[length++] = (byte) b;
+        }
+
+        void write(byte[] b) {
+            ensureCapacity(length + b.length);
+            System.arraycopy(b, 0, bytes, length, b.length);
+            length += b.length;
+        }
+
+        void write(String s) {
+            int len = s.length();
+            ensureCapacity(length + len);
+            for (int i = 0; i < len; i++) {
+                char c = s.charAt(i);
+                if (c >= 0x80) { // Non ASCII, fallback to encoding.
+                    write(s.substring(i).getBytes(UTF_8));
+                    return;
+                }
+                bytes[length++] = (byte) c;
+            }
+        }
+
+        MessageDigest obtainDigest(SignAlgorithm algorithm) {
+            MessageDigest digest = digests[algorithm.ordinal()];
+            if (isNull(digest)) {
+                try {
+                    digest = digests[algorithm.ordinal()] = MessageDigest.getInstance(algorithm.getJcaName());
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(format("Failed to init digest of '%s'", algorithm), e);
+                }
+            }
+            digest.reset();
+            return digest;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length << 1));
+            }
+        }
+    }
+
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<SignBuffer> BUFFERS = ThreadLocal.withInitial(() -> new SignBuffer());
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.cb;
+
+import static org.springcloud.gateway.core.lang.Assert2.isTrueOf;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link AdaptiveConcurrencyLimiter}
+ *
+ * <p>
+ * The gradient style adaptive concurrency limiter, the limit is estimated
+ * from the ratio of the long term (no load) latency and the latest observed
+ * latency, when the latency grows (queues are building up in the upstream or
+ * in the event loops) the limit shrinks, and when the latency is stable the
+ * limit grows by a queue size of {@code sqrt(limit)}, so that the requests
+ * beyond the limit are rejected immediately instead of being queued.
+ * </p>
+ *
+ * <p>
+ * The samples are accumulated lock-free (striped adders) into a time window,
+ * and the limit is recalculated once per window by the single releasing
+ * thread which wins the window rollover, so the release on the hot path never
+ * contends on a monitor.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ * @see https://github.com/Netflix/concurrency-limits
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double backoffRatio;
+    private final int longWindow;
+    private final long sampleWindowNanos;
+    private final AtomicInteger inflight = new AtomicInteger(0);
+
+    // The samples of the current window.
+    private final LongAdder sampleRttSum = new LongAdder();
+    private final LongAdder sampleCount = new LongAdder();
+    private final LongAccumulator sampleMaxInflight = new LongAccumulator(Math::max, 0);
+    private volatile boolean sampleDropped;
+    private final AtomicLong nextUpdateNanos;
+
+    private volatile double estimatedLimit;
+    private volatile double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double smoothing, double rttTolerance,
+            double backoffRatio, int longWindow, long sampleWindowMs) {
+        isTrueOf(minLimit > 0 && minLimit <= maxLimit, "minLimit > 0 && minLimit <= maxLimit");
+        isTrueOf(smoothing > 0 && smoothing <= 1, "smoothing > 0 && smoothing <= 1");
+        isTrueOf(rttTolerance >= 1, "rttTolerance >= 1");
+        isTrueOf(backoffRatio > 0 && backoffRatio < 1, "backoffRatio > 0 && backoffRatio < 1");
+        isTrueOf(longWindow > 0, "longWindow > 0");
+        isTrueOf(sampleWindowMs > 0, "sampleWindowMs > 0");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.backoffRatio = backoffRatio;
+        this.longWindow = longWindow;
+        this.sampleWindowNanos = MILLISECONDS.toNanos(sampleWindowMs);
+        this.nextUpdateNanos = new AtomicLong(nanoTime() + sampleWindowNanos);
+        this.estimatedLimit = max(minLimit, min(maxLimit, initialLimit));
+    }
+
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * Try to acquire a permit without blocking.
+     *
+     * @return true if the permit is acquired, and then {@link #release} must
+     *         be called exactly once.
+     */
+    public boolean tryAcquire() {
+        if (inflight.incrementAndGet() > (int) estimatedLimit) {
+            inflight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Release the permit and record the observed sample into the current
+     * window, the limit is updated when the window is rolled over.
+     *
+     * @param rttNanos
+     *            The latency of this call.
+     * @param dropped
+     *            Whether the call was failed, which is regarded as an
+     *            overload signal.
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int currentInflight = inflight.getAndDecrement();
+        if (dropped) {
+            sampleDropped = true;
+        } else if (rttNanos > 0) {
+            sampleRttSum.add(rttNanos);
+            sampleCount.increment();
+        }
+        sampleMaxInflight.accumulate(currentInflight);
+
+        long now = nanoTime();
+        long next = nextUpdateNanos.get();
+        if (now - next >= 0 && nextUpdateNanos.compareAndSet(next, now + sampleWindowNanos)) {
+            updateLimit();
+        }
+    }
+
+    /**
+     * Release the permit without any sample, e.g. the call was cancelled by
+     * the client disconnect or a hedged attempt which lost the race, which
+     * says nothing about the upstream.
+     */
+    public void releaseWithoutSample() {
+        inflight.decrementAndGet();
+    }
+
+    /**
+     * Records an overload signal observed after the permit was released, e.g.
+     * the call was cancelled by the time limiter.
+     */
+    public void onDropped() {
+        sampleDropped = true;
+    }
+
+    /**
+     * Recalculates the limit from the samples of the finished window, only
+     * called by the thread which won the window rollover.
+     */
+    private void updateLimit() {
+        long count = sampleCount.sumThenReset();
+        long rttSum = sampleRttSum.sumThenReset();
+        long maxInflight = sampleMaxInflight.getThenReset();
+        boolean dropped = sampleDropped;
+        sampleDropped = false;
+
+        double limit = estimatedLimit;
+        if (dropped) {
+            estimatedLimit = max(minLimit, limit * backoffRatio);
+            return;
+        }
+        if (count <= 0 || rttSum <= 0) {
+            return;
+        }
+        double rttNanos = (double) rttSum / count;
+        double longRttNanos = this.longRttNanos;
+        if (longRttNanos <= 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) / longWindow;
+        }
+        // The long term latency has drifted far above the latest latency
+        // (e.g. the upstream recovered), decay faster so that the limit is
+        // not pinned at the minimum.
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95d;
+        }
+        this.longRttNanos = longRttNanos;
+        // The limit cannot be judged when the route is not loaded enough.
+        if (maxInflight < limit / 2) {
+            return;
+        }
+        double gradient = max(0.5d, min(1.0d, rttTolerance * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + sqrt(limit);
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = max(minLimit, min(maxLimit, newLimit));
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[limit=" + getLimit() + ", inflight=" + getInflight() + "]";
+    }
+
+}
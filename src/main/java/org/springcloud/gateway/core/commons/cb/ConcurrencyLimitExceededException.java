@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.cb;
+
+/**
+ * {@link ConcurrencyLimitExceededException}
+ *
+ * <p>
+ * Thrown when a route request is shed by the route bulkhead or the adaptive
+ * concurrency limiter, it should not be recorded as a failure of the circuit
+ * breaker, because the upstream has never been called.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = -2851635427362814419L;
+
+    public ConcurrencyLimitExceededException(String message) {
+        // Shedding is the hot path under overload, no stack trace needed.
+        super(message, null, false, false);
+    }
+
+}
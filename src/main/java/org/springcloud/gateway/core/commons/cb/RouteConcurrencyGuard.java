@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.cb;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.concurrent.Semaphore;
+
+import lombok.Getter;
+
+/**
+ * {@link RouteConcurrencyGuard}
+ *
+ * <p>
+ * The per-route concurrency isolation, which consists of a semaphore bulkhead
+ * (the hard upper bound of concurrent calls) and an optional
+ * {@link AdaptiveConcurrencyLimiter} (the soft limit driven by latency), so
+ * that a slow upstream can only exhaust the permits of its own route.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+@Getter
+public class RouteConcurrencyGuard {
+
+    public static final String REJECT_REASON_BULKHEAD = "bulkhead";
+    public static final String REJECT_REASON_LIMITER = "limiter";
+
+    private final int maxConcurrentCalls;
+    private final Semaphore bulkhead;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    /**
+     * @param maxConcurrentCalls
+     *            The bulkhead max concurrent calls, or less than or equal to 0
+     *            means unbounded.
+     * @param limiter
+     *            The adaptive limiter, or null means disabled.
+     */
+    public RouteConcurrencyGuard(int maxConcurrentCalls, AdaptiveConcurrencyLimiter limiter) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.bulkhead = maxConcurrentCalls > 0 ? new Semaphore(maxConcurrentCalls) : null;
+        this.limiter = limiter;
+    }
+
+    public boolean isLimiterEnabled() {
+        return nonNull(limiter);
+    }
+
+    /**
+     * Try to acquire the permits of bulkhead and limiter without blocking.
+     *
+     * @return null if acquired, otherwise the reject reason.
+     */
+    public String tryAcquire() {
+        if (nonNull(bulkhead) && !bulkhead.tryAcquire()) {
+            return REJECT_REASON_BULKHEAD;
+        }
+        if (nonNull(limiter) && !limiter.tryAcquire()) {
+            if (nonNull(bulkhead)) {
+                bulkhead.release();
+            }
+            return REJECT_REASON_LIMITER;
+        }
+        return null;
+    }
+
+    public void release(long rttNanos, boolean dropped) {
+        if (nonNull(limiter)) {
+            limiter.release(rttNanos, dropped);
+        }
+        if (nonNull(bulkhead)) {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Release the permits of a cancelled call, without any limiter sample.
+     */
+    public void releaseCancelled() {
+        if (nonNull(limiter)) {
+            limiter.releaseWithoutSample();
+        }
+        if (nonNull(bulkhead)) {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Records a timed out call (which is seen as cancelled on release) as an
+     * overload signal of the limiter.
+     */
+    public void onTimeout() {
+        if (nonNull(limiter)) {
+            limiter.onDropped();
+        }
+    }
+
+    public boolean isSameSettings(int maxConcurrentCalls, boolean limiterEnabled) {
+        return this.maxConcurrentCalls == maxConcurrentCalls && (isNull(limiter) != limiterEnabled);
+    }
+
+}
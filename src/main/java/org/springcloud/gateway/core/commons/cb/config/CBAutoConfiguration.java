@@ -26,6 +26,7 @@ import org.springframework.web.reactive.DispatcherHandler;
 
 import org.springcloud.gateway.core.common.constant.GatewayMAIConstants;
 import org.springcloud.gateway.core.commons.handler.DefaultCircuitBreakerCustomizer;
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade;
 import org.springcloud.gateway.core.commons.handler.IamSpringCloudCircuitBreakerResilience4JFilterFactory;
 
 /**
@@ -49,9 +50,11 @@ public class CBAutoConfiguration {
     @Bean
     public IamSpringCloudCircuitBreakerResilience4JFilterFactory iamSpringCloudCircuitBreakerResilience4JFilterFactory(
             ReactiveCircuitBreakerFactory reactiveCircuitBreakerFactory,
+            CBProperties cbConfig,
+            GatewayMetricsFacade metricsFacade,
             ObjectProvider<DispatcherHandler> dispatcherHandlerProvider) {
-        return new IamSpringCloudCircuitBreakerResilience4JFilterFactory(reactiveCircuitBreakerFactory,
-                dispatcherHandlerProvider);
+        return new IamSpringCloudCircuitBreakerResilience4JFilterFactory(reactiveCircuitBreakerFactory, cbConfig,
+                metricsFacade, dispatcherHandlerProvider);
     }
 
     @Bean
@@ -17,6 +17,9 @@ package org.springcloud.gateway.core.commons.cb.config;
 
 import java.time.Duration;
 
+import org.springcloud.gateway.core.commons.cb.AdaptiveConcurrencyLimiter;
+import org.springcloud.gateway.core.commons.cb.ConcurrencyLimitExceededException;
+
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig.SlidingWindowType;
 import io.github.resilience4j.core.IntervalFunction;
@@ -93,6 +96,16 @@ public class CBProperties {
      */
     private Duration slowCallDurationThreshold = Duration.ofSeconds(CircuitBreakerConfig.DEFAULT_SLOW_CALL_DURATION_THRESHOLD);
 
+    /**
+     * 每个路由独立的信号量舱壁隔离配置
+     */
+    private BulkheadProperties bulkhead = new BulkheadProperties();
+
+    /**
+     * 每个路由独立的自适应并发限制(基于延迟梯度)配置
+     */
+    private AdaptiveLimiterProperties adaptiveLimiter = new AdaptiveLimiterProperties();
+
     public TimeLimiterConfig toTimeLimiterConfig() {
         return TimeLimiterConfig.custom()
                 .timeoutDuration(getTimeLimiter().getTimeoutDuration())
@@ -112,9 +125,18 @@ public class CBProperties {
                 .waitIntervalFunctionInOpenState(IntervalFunction.of(getWaitIntervalFunctionInOpenState()))
                 .slowCallRateThreshold(getSlowCallRateThreshold())
                 .slowCallDurationThreshold(getSlowCallDurationThreshold())
+                // The shed requests have never reached the upstream.
+                .ignoreExceptions(ConcurrencyLimitExceededException.class)
                 .build();
     }
 
+    public AdaptiveConcurrencyLimiter newAdaptiveConcurrencyLimiter() {
+        AdaptiveLimiterProperties props = getAdaptiveLimiter();
+        return new AdaptiveConcurrencyLimiter(props.getInitialLimit(), props.getMinLimit(), props.getMaxLimit(),
+                props.getSmoothing(), props.getRttTolerance(), props.getBackoffRatio(), props.getLongWindow(),
+                props.getSampleWindowMs());
+    }
+
     @Getter
     @Setter
     @ToString
@@ -123,4 +145,50 @@ public class CBProperties {
         private boolean cancelRunningFuture = true;
     }
 
+    @Getter
+    @Setter
+    @ToString
+    public static class BulkheadProperties {
+        /**
+         * 每个路由允许的最大并发调用数, 超出时立即拒绝(不排队), 小于等于0表示不限制
+         */
+        private int maxConcurrentCalls = 1000;
+    }
+
+    @Getter
+    @Setter
+    @ToString
+    public static class AdaptiveLimiterProperties {
+        /**
+         * 是否默认启用(路由可单独开启), 默认关闭
+         */
+        private boolean enabled = false;
+        /**
+         * 初始并发限制
+         */
+        private int initialLimit = 100;
+        private int minLimit = 20;
+        private int maxLimit = 1000;
+        /**
+         * 新限制值的平滑系数(0,1]
+         */
+        private double smoothing = 0.2d;
+        /**
+         * 可容忍的延迟增长倍数, 超出后开始收缩并发限制
+         */
+        private double rttTolerance = 1.5d;
+        /**
+         * 调用失败/超时/取消时并发限制的收缩比例
+         */
+        private double backoffRatio = 0.9d;
+        /**
+         * 长期(无负载)延迟的指数平均窗口(采样窗口数)
+         */
+        private int longWindow = 600;
+        /**
+         * 采样窗口时长(毫秒), 每个窗口结束时根据窗口内的平均延迟重新计算一次并发限制
+         */
+        private long sampleWindowMs = 100L;
+    }
+
 }
@@ -45,7 +45,7 @@ import org.springcloud.gateway.core.constant.CoreInfraConstants;
 import org.springcloud.gateway.core.lang.TypeConverts;
 import org.springcloud.gateway.core.logging.LoggingMessageUtil;
 import org.springcloud.gateway.core.logging.reactive.BaseLoggingWebFilter;
-import org.springcloud.gateway.core.utils.web.ReactiveRequestExtractor;
+import org.springcloud.gateway.core.utils.web.ExchangeRequestView;
 import org.springcloud.gateway.core.web.WebUtils.WebRequestExtractor;
 import org.springcloud.gateway.core.web.matcher.SpelRequestMatcher;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -161,10 +161,10 @@ public abstract class EntrypointBaseGlobalFilter implements GlobalFilter, Ordere
         try {
             // Check if printing the log of the current request is enabled based
             // on the current request parameters.
-            return (requestMatcher.matches(new ReactiveRequestExtractor(exchange.getRequest()),
+            return (requestMatcher.matches(ExchangeRequestView.of(exchange),
                     loggingConfig.getPreferOpenMatchExpression(), routeIdPredicateSupplier))
                     || (determineRequestVerboseLevel(exchange) > 10
-                            && requestMatcher.matches(new ReactiveRequestExtractor(exchange.getRequest()),
+                            && requestMatcher.matches(ExchangeRequestView.of(exchange),
                                     exchange.getRequest().getHeaders().getFirst(loggingConfig.getDyeingLogStateRequestHeader()),
                                     routeIdPredicateSupplier));
         } catch (Exception e) {
@@ -18,6 +18,7 @@ package org.springcloud.gateway.core.commons.event;
 import org.springcloud.gateway.core.commons.boostrap.util.SimpleRequestFactory.AppIdExtractor;
 import org.springcloud.gateway.core.commons.boostrap.util.SimpleRequestFactory.SignAlgorithm;
 import org.springcloud.gateway.core.commons.boostrap.util.SimpleRequestFactory.SignHashingMode;
+import org.springcloud.gateway.core.eventbus.CoalescingEvent;
 import org.springframework.context.ApplicationEvent;
 
 import lombok.Getter;
@@ -30,7 +31,7 @@ import lombok.Getter;
  * @since v3.0.0
  */
 @Getter
-public class BaseSignAuthingFailureEvent extends ApplicationEvent {
+public class BaseSignAuthingFailureEvent extends ApplicationEvent implements CoalescingEvent {
     private static final long serialVersionUID = -7291654693102770442L;
 
     private final AppIdExtractor extractor;
@@ -38,6 +39,7 @@ public class BaseSignAuthingFailureEvent extends ApplicationEvent {
     private final SignHashingMode mode;
     private final String routeId;
     private final String requsetPath;
+    private int occurrences = 1;
 
     public BaseSignAuthingFailureEvent(String appId, AppIdExtractor extractor, SignAlgorithm algorithm, SignHashingMode mode,
             String routeId, String requsetPath) {
@@ -49,4 +51,14 @@ public class BaseSignAuthingFailureEvent extends ApplicationEvent {
         this.requsetPath = requsetPath;
     }
 
+    @Override
+    public Object getCoalesceKey() {
+        return String.valueOf(routeId).concat(":").concat(String.valueOf(getSource()));
+    }
+
+    @Override
+    public void coalesce(CoalescingEvent later) {
+        this.occurrences += later.getOccurrences();
+    }
+
 }
@@ -16,44 +16,76 @@
 package org.springcloud.gateway.core.commons.event;
 
 import static java.lang.String.valueOf;
+import static java.util.Arrays.asList;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.BoundHashOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
 
-import com.google.common.eventbus.Subscribe;
-
 import org.springcloud.gateway.core.commons.boostrap.config.IamSecurityProperties;
 import org.springcloud.gateway.core.commons.boostrap.config.IamSecurityProperties.RedisEventRecorderProperties;
+import org.springcloud.gateway.core.eventbus.BatchEventListener;
 import org.springcloud.gateway.core.lang.DateUtils2;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Redis-based signature authentication event accumulator, usually used in API
- * gateway billing business scenarios.
+ * gateway billing business scenarios, the events of the same route and appId
+ * in one batch (including the coalesced occurrences) are accumulated with one
+ * redis increment.
  * 
  * @author springcloudgateway &lt;springcloudgateway@163.com, springcloudgateway@163.com&gt;
  * @version v1.0.0
  * @since v3.0.0
  */
 @Slf4j
-public class DefaultRedisSignAuthingEventRecoder {
+public class DefaultRedisSignAuthingEventRecoder implements BatchEventListener {
     public static final String LOG_SIGN_EVENT_SUCCESS_PREFIX = "SIGN_SUCCESS_EVENT";
     public static final String LOG_SIGN_EVENT_FAILURE_PREFIX = "SIGN_FAILURE_EVENT";
 
     private @Autowired IamSecurityProperties authingConfig;
     private @Autowired StringRedisTemplate redisTemplate;
 
-    @Subscribe
-    public void onSuccess(SignAuthingSuccessEvent event) {
+    @Override
+    public void onEvents(List<Object> events) {
         if (!authingConfig.getSimpleSign().getEventRecorder().getRedis().isEnabled()) {
             return;
         }
+        Map<List<Object>, BaseSignAuthingFailureEvent> signEvents = new LinkedHashMap<>();
+        Map<List<Object>, Long> signCounts = new HashMap<>();
+        for (Object event : events) {
+            if (event instanceof BaseSignAuthingFailureEvent) {
+                BaseSignAuthingFailureEvent sign = (BaseSignAuthingFailureEvent) event;
+                List<Object> key = asList(sign.getClass(), sign.getCoalesceKey());
+                signEvents.putIfAbsent(key, sign);
+                signCounts.merge(key, (long) sign.getOccurrences(), Long::sum);
+            }
+        }
+        signEvents.forEach((key, sign) -> {
+            long count = signCounts.get(key);
+            try {
+                if (sign instanceof SignAuthingSuccessEvent) {
+                    onSuccess((SignAuthingSuccessEvent) sign, count);
+                } else if (sign instanceof SignAuthingFailureEvent) {
+                    onFailure((SignAuthingFailureEvent) sign, count);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to record sign authing events of {}, count: {}", key, count, e);
+            }
+        });
+    }
+
+    public void onSuccess(SignAuthingSuccessEvent event, long count) {
         String appId = valueOf(event.getSource());
         Long incr = null;
         try {
-            incr = getSuccessCumulator(event).increment(appId, 1);
+            incr = getSuccessCumulator(event).increment(appId, count);
         } finally {
             if (authingConfig.getSimpleSign().getEventRecorder().isLocalLogEnabled() && log.isInfoEnabled()) {
                 log.info("{} {}->{}", LOG_SIGN_EVENT_SUCCESS_PREFIX, appId, incr);
@@ -61,15 +93,11 @@ public class DefaultRedisSignAuthingEventRecoder {
         }
     }
 
-    @Subscribe
-    public void onFailure(SignAuthingFailureEvent event) {
-        if (!authingConfig.getSimpleSign().getEventRecorder().getRedis().isEnabled()) {
-            return;
-        }
+    public void onFailure(SignAuthingFailureEvent event, long count) {
         String appId = valueOf(event.getSource());
         Long incr = null;
         try {
-            incr = getFailureCumulator(event).increment(appId, 1);
+            incr = getFailureCumulator(event).increment(appId, count);
         } finally {
             if (authingConfig.getSimpleSign().getEventRecorder().isLocalLogEnabled() && log.isInfoEnabled()) {
                 log.info("{} {}->{}", LOG_SIGN_EVENT_FAILURE_PREFIX, appId, incr);
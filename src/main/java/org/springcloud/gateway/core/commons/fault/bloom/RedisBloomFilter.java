@@ -15,19 +15,33 @@
  */
 package org.springcloud.gateway.core.commons.fault.bloom;
 
+import static org.springcloud.gateway.core.lang.Assert2.isTrueOf;
 import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
 import static org.springcloud.gateway.core.log.SmartLoggerFactory.getLogger;
+import static java.lang.String.valueOf;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.validation.constraints.NotNull;
 
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.connection.BitFieldSubCommands;
+import org.springframework.data.redis.connection.BitFieldSubCommands.BitFieldType;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 
 import com.google.common.hash.Funnel;
 import com.google.common.hash.Hashing;
 import org.springcloud.gateway.core.log.SmartLogger;
 
+import reactor.core.publisher.Mono;
+
 /**
  * {@link RedisBloomFilter}
  * 
@@ -85,75 +99,111 @@ import org.springcloud.gateway.core.log.SmartLogger;
 public class RedisBloomFilter<T> {
 
     private final SmartLogger log = getLogger(getClass());
-    // TODO use ReactiveStringRedisTemplate
-    private final StringRedisTemplate redisTemplate;
+    private final ReactiveStringRedisTemplate redisTemplate;
     private final BloomConfig<T> bloomConfig;
 
-    public RedisBloomFilter(@NotNull StringRedisTemplate redisTemplate, @NotNull BloomConfig<T> bloomConfig) {
+    /**
+     * When enabled, the RedisBloom module commands (BF.RESERVE/BF.ADD/BF.EXISTS)
+     * are used instead of the plain bitmap and BITFIELD.
+     */
+    private final boolean redisBloomModule;
+
+    public RedisBloomFilter(@NotNull ReactiveStringRedisTemplate redisTemplate, @NotNull BloomConfig<T> bloomConfig) {
+        this(redisTemplate, bloomConfig, false);
+    }
+
+    public RedisBloomFilter(@NotNull ReactiveStringRedisTemplate redisTemplate, @NotNull BloomConfig<T> bloomConfig,
+            boolean redisBloomModule) {
         this.redisTemplate = notNullOf(redisTemplate, "redisTemplate");
         this.bloomConfig = notNullOf(bloomConfig, "bloomConfig");
+        this.redisBloomModule = redisBloomModule;
+    }
+
+    public BloomConfig<T> getBloomConfig() {
+        return bloomConfig;
     }
 
     /**
-     * Add value based on given bloom filter configuration.
+     * Add value based on given bloom filter configuration. All hash offsets
+     * are set and the expiration is applied by a single script, and the
+     * previous bits are used to determine whether the value already existed,
+     * so that the check-and-add is atomic and costs only one round-trip.
      * 
      * @param key
      * @param value
+     * @param expireAt
+     *            The absolute expiration time of the key, it is (idempotent)
+     *            set when the key is created, or null means never expire.
+     * @return true if the value was newly added (i.e. did not exist before)
      */
-    public void bloomAdd(String key, T value) {
+    public Mono<Boolean> bloomAdd(String key, T value, Instant expireAt) {
         log.debug("bloomAdd {}: {}", key, value);
 
+        if (redisBloomModule) {
+            return redisTemplate
+                    .execute(BF_ADD_SCRIPT, singletonList(key),
+                            asList(bloomConfig.funnelString(value), valueOf(bloomConfig.getExpectedInsertions()),
+                                    valueOf(bloomConfig.getFpp()),
+                                    valueOf(isNull(expireAt) ? 0L : expireAt.toEpochMilli())))
+                    .next()
+                    .map(added -> added > 0);
+        }
+
         int[] offset = bloomConfig.murmurHashOffset(value);
+        List<String> args = new ArrayList<>(offset.length + 1);
+        args.add(valueOf(isNull(expireAt) ? 0L : expireAt.toEpochMilli()));
         for (int i : offset) {
-            redisTemplate.opsForValue().setBit(key, i, true);
+            args.add(valueOf(i));
         }
+        return redisTemplate.execute(BIT_ADD_SCRIPT, singletonList(key), args).next().map(added -> added > 0);
     }
 
     /**
      * Determines whether a value exists based on the given bloom filter
-     * configuration.
+     * configuration. All hash offsets are read with a single BITFIELD command.
      * 
      * @param key
      * @param value
      */
-    public boolean bloomExist(String key, T value) {
+    public Mono<Boolean> bloomExist(String key, T value) {
         log.debug("bloomExist {}: {}", key, value);
 
+        if (redisBloomModule) {
+            return redisTemplate.execute(BF_EXISTS_SCRIPT, singletonList(key), singletonList(bloomConfig.funnelString(value)))
+                    .next()
+                    .map(exists -> exists > 0);
+        }
+
         int[] offset = bloomConfig.murmurHashOffset(value);
+        BitFieldSubCommands commands = BitFieldSubCommands.create();
         for (int i : offset) {
-            if (!redisTemplate.opsForValue().getBit(key, i)) {
-                return false;
-            }
+            commands = commands.get(BIT).valueAt(i);
         }
-
-        return true;
+        return redisTemplate.opsForValue()
+                .bitField(key, commands)
+                .map(bits -> !bits.isEmpty() && bits.stream().allMatch(b -> nonNull(b) && b == 1L))
+                .defaultIfEmpty(false);
     }
 
     /**
      * Expiration bloom filter elements.
      * 
      * @param key
-     * @param value
+     * @param expireMs
      */
-    public void bloomExpire(String key, long expireMs) {
+    public Mono<Boolean> bloomExpire(String key, long expireMs) {
         log.debug("bloomExpire {}", key);
-        // In order to allow setting the expiration time, the key needs to be
-        // initialized when it does not exist.
-        if (!redisTemplate.hasKey(key)) {
-            redisTemplate.opsForValue().setBit(key, 0, true);
-        }
-        redisTemplate.opsForValue().getOperations().expire(key, expireMs, TimeUnit.SECONDS);
+        return redisTemplate.expire(key, Duration.ofMillis(expireMs));
     }
 
     /**
      * Remove bloom filter elements.
      * 
      * @param key
-     * @param value
      */
-    public void bloomRemove(String key) {
+    public Mono<Long> bloomRemove(String key) {
         log.debug("bloomRemove {}", key);
-        redisTemplate.opsForValue().getOperations().delete(key);
+        return redisTemplate.delete(key);
     }
 
     /**
@@ -210,6 +260,8 @@ public class RedisBloomFilter<T> {
      */
     public static class BloomConfig<T> {
         private final Funnel<T> funnel;
+        private final int expectedInsertions;
+        private final double fpp;
         private final int numHashFunctions;
         private final int bitSize;
 
@@ -223,11 +275,39 @@ public class RedisBloomFilter<T> {
          *            error tolerance rate
          */
         public BloomConfig(@NotNull Funnel<T> funnel, int expectedInsertions, double fpp) {
+            isTrueOf(expectedInsertions > 0, "expectedInsertions > 0");
+            isTrueOf(fpp > 0 && fpp < 1, "fpp > 0 && fpp < 1");
             this.funnel = notNullOf(funnel, "funnel");
+            this.expectedInsertions = expectedInsertions;
+            this.fpp = fpp;
             this.bitSize = optimalNumOfBits(expectedInsertions, fpp);
             this.numHashFunctions = optimalNumOfHashFunctions(expectedInsertions, bitSize);
         }
 
+        public int getExpectedInsertions() {
+            return expectedInsertions;
+        }
+
+        public double getFpp() {
+            return fpp;
+        }
+
+        public int getBitSize() {
+            return bitSize;
+        }
+
+        public int getNumHashFunctions() {
+            return numHashFunctions;
+        }
+
+        /**
+         * The 128 bits murmur hash of value as hex string, used as the element
+         * of the RedisBloom module, so that the raw value is not stored.
+         */
+        String funnelString(T value) {
+            return Hashing.murmur3_128().hashObject(value, funnel).toString();
+        }
+
         public int[] murmurHashOffset(T value) {
             int[] offset = new int[numHashFunctions];
             long hash64 = Hashing.murmur3_128().hashObject(value, funnel).asLong();
@@ -254,7 +334,7 @@ public class RedisBloomFilter<T> {
             if (p == 0) {
                 p = Double.MIN_VALUE;
             }
-            return (int) (-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+            return (int) Math.min(Integer.MAX_VALUE, (-n * Math.log(p) / (Math.log(2) * Math.log(2))));
         }
 
         /**
@@ -269,4 +349,28 @@ public class RedisBloomFilter<T> {
         }
     }
 
+    private static final BitFieldType BIT = BitFieldType.unsigned(1);
+
+    /**
+     * Sets the bits of all offsets (ARGV[2..n]) and returns 1 if any of them
+     * was 0, the absolute expiration (ARGV[1], in epoch millis) is set in the
+     * same script if the key has none yet, so it can't be missed by a key that
+     * was created without it.
+     */
+    private static final RedisScript<Long> BIT_ADD_SCRIPT = RedisScript.of(
+            "local added = 0 for i = 2, #ARGV do if redis.call('SETBIT', KEYS[1], ARGV[i], 1) == 0 then added = 1 end end "
+                    + "if tonumber(ARGV[1]) > 0 and redis.call('PTTL', KEYS[1]) == -1 then "
+                    + "redis.call('PEXPIREAT', KEYS[1], ARGV[1]) end "
+                    + "return added",
+            Long.class);
+
+    private static final RedisScript<Long> BF_ADD_SCRIPT = RedisScript.of(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then redis.call('BF.RESERVE', KEYS[1], ARGV[3], ARGV[2]) "
+                    + "if tonumber(ARGV[4]) > 0 then redis.call('PEXPIREAT', KEYS[1], ARGV[4]) end end "
+                    + "return redis.call('BF.ADD', KEYS[1], ARGV[1])",
+            Long.class);
+
+    private static final RedisScript<Long> BF_EXISTS_SCRIPT = RedisScript.of("return redis.call('BF.EXISTS', KEYS[1], ARGV[1])",
+            Long.class);
+
 }
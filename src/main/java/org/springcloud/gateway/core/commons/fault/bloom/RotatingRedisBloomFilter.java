@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.fault.bloom;
+
+import static org.springcloud.gateway.core.lang.Assert2.hasTextOf;
+import static org.springcloud.gateway.core.lang.Assert2.isTrueOf;
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.time.Instant;
+
+import javax.validation.constraints.NotNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link RotatingRedisBloomFilter}
+ *
+ * <p>
+ * The time bucketed bloom filter based on {@link RedisBloomFilter}, instead of
+ * one forever-growing key, the elements are written into the bucket key of the
+ * current period (e.g: {prefix}:{epochMs/bucketMs}), and looked up in the
+ * current and previous bucket, each bucket key expires automatically after two
+ * periods, so the effective deduplication window is between one and two
+ * periods, and the size of each bitmap only depends on the expected insertions
+ * per period.
+ * </p>
+ *
+ * <p>
+ * A bounded local cache of recently seen elements is placed in front of redis,
+ * so that repeated elements (e.g. replay attacks hammering the same node) are
+ * answered without any redis round-trip.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public class RotatingRedisBloomFilter<T> {
+
+    private final RedisBloomFilter<T> bloomFilter;
+    private final String keyPrefix;
+    private final long bucketMs;
+    private final Cache<T, Boolean> localSeenCache;
+
+    public RotatingRedisBloomFilter(@NotNull RedisBloomFilter<T> bloomFilter, @NotNull String keyPrefix, long bucketMs,
+            long localCacheSize) {
+        isTrueOf(bucketMs > 0, "bucketMs > 0");
+        isTrueOf(localCacheSize >= 0, "localCacheSize >= 0");
+        this.bloomFilter = notNullOf(bloomFilter, "bloomFilter");
+        this.keyPrefix = hasTextOf(keyPrefix, "keyPrefix");
+        this.bucketMs = bucketMs;
+        this.localSeenCache = CacheBuilder.newBuilder()
+                .maximumSize(localCacheSize)
+                .expireAfterWrite(bucketMs * 2, MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Determines whether the value has been seen recently on this node,
+     * without any access to redis.
+     *
+     * @param value
+     * @return
+     */
+    public boolean isLocalExist(T value) {
+        return nonNull(localSeenCache.getIfPresent(value));
+    }
+
+    /**
+     * Atomically adds the value to the current bucket, and checks the
+     * previous bucket, the two commands are issued concurrently (two
+     * round-trips in parallel, not a transaction, nor guaranteed to be on the
+     * same connection).
+     * The value is recorded in the local cache before redis is called, so the
+     * replays on this node are still rejected even if the redis call fails.
+     *
+     * @param value
+     * @return true if the value did not exist in the deduplication window.
+     */
+    public Mono<Boolean> putIfAbsent(T value) {
+        if (nonNull(localSeenCache.asMap().putIfAbsent(value, Boolean.TRUE))) {
+            return Mono.just(false);
+        }
+        long bucket = currentTimeMillis() / bucketMs;
+        String currentKey = getBucketKey(bucket);
+        String previousKey = getBucketKey(bucket - 1);
+        Instant expireAt = Instant.ofEpochMilli((bucket + 2) * bucketMs);
+
+        return Mono.zip(bloomFilter.bloomExist(previousKey, value), bloomFilter.bloomAdd(currentKey, value, expireAt))
+                .map(result -> !result.getT1() && result.getT2());
+    }
+
+    private String getBucketKey(long bucket) {
+        return keyPrefix.concat(":").concat(String.valueOf(bucket));
+    }
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.fj;
+
+import static org.springcloud.gateway.core.lang.Assert2.isTrueOf;
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+/**
+ * {@link FaultInjectedServerHttpResponse}
+ *
+ * <p>
+ * The response decorator of the fault injectors which transform the response
+ * body {@link DataBuffer} stream, all the pacing are scheduled on the reactor
+ * timer (no sleeping), so that the slow connections only hold the buffers
+ * in flight and cost almost nothing on the event loop.
+ * </p>
+ *
+ * <p>
+ * Each transformed buffer is flushed on its own, so that the pacing is seen
+ * by the client. When a transformer aborts with
+ * {@link PartialResponseInjectedException}, the status and headers are
+ * committed (with the bytes written so far) and then the connection is
+ * closed, so the client receives a partial response instead of an error page
+ * rendered by the error handler.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public class FaultInjectedServerHttpResponse extends ServerHttpResponseDecorator {
+
+    private final Function<Flux<DataBuffer>, Flux<DataBuffer>> transformer;
+
+    public FaultInjectedServerHttpResponse(ServerHttpResponse delegate,
+            Function<Flux<DataBuffer>, Flux<DataBuffer>> transformer) {
+        super(delegate);
+        this.transformer = notNullOf(transformer, "transformer");
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        return writeAndAbortIfInjected(transform(Flux.from(body)));
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        // Streaming responses, transform the whole stream as one, so that the
+        // state (e.g. pacing or counting) is shared by all the flushes.
+        return writeAndAbortIfInjected(transform(Flux.from(body).concatMap(Flux::from)));
+    }
+
+    private Mono<Void> writeAndAbortIfInjected(Flux<DataBuffer> transformed) {
+        AtomicReference<PartialResponseInjectedException> aborted = new AtomicReference<>();
+        Flux<Mono<DataBuffer>> groups = transformed.map(Mono::just).onErrorResume(PartialResponseInjectedException.class, e -> {
+            aborted.set(e);
+            // Commits the status and headers even if no byte was written.
+            return Flux.just(Mono.fromSupplier(() -> bufferFactory().allocateBuffer(0)));
+        });
+        return super.writeAndFlushWith(groups).then(Mono.defer(() -> {
+            PartialResponseInjectedException e = aborted.get();
+            return e == null ? Mono.<Void> empty() : abortConnection(e);
+        }));
+    }
+
+    private Mono<Void> abortConnection(PartialResponseInjectedException e) {
+        Object nativeResponse = ServerHttpResponseDecorator.getNativeResponse(getDelegate());
+        if (nativeResponse instanceof Connection) {
+            ((Connection) nativeResponse).channel().close();
+            return Mono.empty();
+        }
+        // Not on reactor netty, the committed response is aborted by error.
+        return Mono.error(e);
+    }
+
+    private Flux<DataBuffer> transform(Flux<? extends DataBuffer> body) {
+        return Flux.defer(() -> transformer.apply(body.map(b -> (DataBuffer) b)))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    /**
+     * Throttles the response throughput to the bytes per second, the buffers
+     * are sliced into chunks of about 1/10 seconds.
+     */
+    public static Function<Flux<DataBuffer>, Flux<DataBuffer>> bandwidth(long bytesPerSecond) {
+        isTrueOf(bytesPerSecond > 0, "bytesPerSecond > 0");
+        int chunkSize = (int) max(1, min(Integer.MAX_VALUE, bytesPerSecond / 10));
+        long nanosPerByte = max(1, SECONDS.toNanos(1) / bytesPerSecond);
+        return body -> {
+            long[] nextSendNanos = { nanoTime() };
+            return body.concatMap(buffer -> Flux.fromIterable(slice(buffer, chunkSize)).concatMap(chunk -> {
+                long now = nanoTime();
+                long sendAt = max(now, nextSendNanos[0]);
+                nextSendNanos[0] = sendAt + chunk.readableByteCount() * nanosPerByte;
+                long delayNanos = sendAt - now;
+                return delayNanos <= 0 ? Mono.just(chunk) : Mono.delay(Duration.ofNanos(delayNanos)).thenReturn(chunk);
+            }));
+        };
+    }
+
+    /**
+     * Delays each response chunk by a random jitter.
+     */
+    public static Function<Flux<DataBuffer>, Flux<DataBuffer>> chunkJitter(long minJitterMs, long maxJitterMs) {
+        isTrueOf(minJitterMs >= 0 && minJitterMs <= maxJitterMs, "minJitterMs >= 0 && minJitterMs <= maxJitterMs");
+        return body -> body.concatMap(buffer -> {
+            long jitterMs = minJitterMs == maxJitterMs ? minJitterMs
+                    : ThreadLocalRandom.current().nextLong(minJitterMs, maxJitterMs + 1);
+            return jitterMs <= 0 ? Mono.just(buffer) : Mono.delay(Duration.ofMillis(jitterMs)).thenReturn(buffer);
+        });
+    }
+
+    /**
+     * Cuts off the response after the number of bytes, and then aborts the
+     * connection, the client will receive a partial response. The rest of the
+     * upstream body is cancelled and its buffers are released.
+     */
+    public static Function<Flux<DataBuffer>, Flux<DataBuffer>> truncate(long truncateAfterBytes) {
+        isTrueOf(truncateAfterBytes >= 0, "truncateAfterBytes >= 0");
+        return body -> {
+            long[] written = { 0L };
+            return body.<DataBuffer> handle((buffer, sink) -> {
+                long remaining = truncateAfterBytes - written[0];
+                int readable = buffer.readableByteCount();
+                if (readable <= remaining) {
+                    written[0] += readable;
+                    sink.next(buffer);
+                    return;
+                }
+                if (remaining > 0) {
+                    written[0] += remaining;
+                    sink.next(buffer.retainedSlice(buffer.readPosition(), (int) remaining));
+                }
+                DataBufferUtils.release(buffer);
+                sink.error(new PartialResponseInjectedException(
+                        "Fault injected partial response after " + truncateAfterBytes + " bytes"));
+            });
+        };
+    }
+
+    /**
+     * Holds the connection idle before any response body is written, and then
+     * continues or aborts (the headers are committed without body, and the
+     * upstream body is cancelled).
+     */
+    public static Function<Flux<DataBuffer>, Flux<DataBuffer>> idleHold(long idleMs, boolean abortAfterIdle) {
+        isTrueOf(idleMs >= 0, "idleMs >= 0");
+        return body -> {
+            Mono<Long> idle = Mono.delay(Duration.ofMillis(idleMs));
+            if (abortAfterIdle) {
+                // Subscribes and cancels the upstream body at once (take(0)),
+                // so that the route filter releases the upstream connection,
+                // any buffer already produced is released as discarded.
+                return idle.thenMany(body.take(0)).concatWith(Mono.error(new PartialResponseInjectedException(
+                        "Fault injected connection aborted after idle " + idleMs + "ms")));
+            }
+            return idle.thenMany(body);
+        };
+    }
+
+    private static List<DataBuffer> slice(DataBuffer buffer, int chunkSize) {
+        int readable = buffer.readableByteCount();
+        List<DataBuffer> chunks = new ArrayList<>(max(1, readable / chunkSize + 1));
+        if (readable <= chunkSize) {
+            chunks.add(buffer);
+            return chunks;
+        }
+        int index = buffer.readPosition();
+        int end = index + readable;
+        while (index < end) {
+            int length = min(chunkSize, end - index);
+            chunks.add(buffer.retainedSlice(index, length));
+            index += length;
+        }
+        DataBufferUtils.release(buffer);
+        return chunks;
+    }
+
+    /**
+     * Thrown to abort the connection of the fault injected partial response.
+     */
+    public static class PartialResponseInjectedException extends IllegalStateException {
+        private static final long serialVersionUID = -6329473584628451029L;
+
+        public PartialResponseInjectedException(String message) {
+            super(message);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+}
@@ -21,6 +21,7 @@ import static java.util.Collections.singletonMap;
 import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -31,6 +32,7 @@ import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.support.HttpStatusHolder;
 import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.server.ServerWebExchange;
 
@@ -46,7 +48,7 @@ import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade;
 import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsName;
 import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsTag;
 import org.springcloud.gateway.core.bean.ConfigBeanUtils;
-import org.springcloud.gateway.core.utils.web.ReactiveRequestExtractor;
+import org.springcloud.gateway.core.utils.web.ExchangeRequestView;
 import org.springcloud.gateway.core.web.matcher.SpelRequestMatcher;
 
 import lombok.AllArgsConstructor;
@@ -54,6 +56,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -146,6 +149,30 @@ public class InectorFilterFactory extends AbstractGatewayFilterFactory<InectorFi
                     return Mono.delay(Duration.ofMillis(delayMs)).then(chain.filter(exchange));
                 }
                 return chain.filter(exchange);
+            case Bandwidth:
+                if (isFaultWithPercentage(config.getBandwidth())) {
+                    return injectResponse(exchange, chain, InjectorProvider.Bandwidth,
+                            FaultInjectedServerHttpResponse.bandwidth(config.getBandwidth().getBytesPerSecond()));
+                }
+                return chain.filter(exchange);
+            case ChunkJitter:
+                if (isFaultWithPercentage(config.getChunkJitter())) {
+                    return injectResponse(exchange, chain, InjectorProvider.ChunkJitter, FaultInjectedServerHttpResponse
+                            .chunkJitter(config.getChunkJitter().getMinJitterMs(), config.getChunkJitter().getMaxJitterMs()));
+                }
+                return chain.filter(exchange);
+            case Truncate:
+                if (isFaultWithPercentage(config.getTruncate())) {
+                    return injectResponse(exchange, chain, InjectorProvider.Truncate,
+                            FaultInjectedServerHttpResponse.truncate(config.getTruncate().getTruncateAfterBytes()));
+                }
+                return chain.filter(exchange);
+            case IdleHold:
+                if (isFaultWithPercentage(config.getIdleHold())) {
+                    return injectResponse(exchange, chain, InjectorProvider.IdleHold, FaultInjectedServerHttpResponse
+                            .idleHold(config.getIdleHold().getIdleMs(), config.getIdleHold().isAbortAfterIdle()));
+                }
+                return chain.filter(exchange);
             default:
                 // throw new Error("Shouldn't be here");
                 log.warn("Failed to inject fault because injector provider '{}' is not recognized.", config.getProvider());
@@ -153,6 +180,19 @@ public class InectorFilterFactory extends AbstractGatewayFilterFactory<InectorFi
             }
         }
 
+        /**
+         * Injects the fault by decorating the response body stream.
+         */
+        private Mono<Void> injectResponse(
+                ServerWebExchange exchange,
+                GatewayFilterChain chain,
+                InjectorProvider provider,
+                Function<Flux<DataBuffer>, Flux<DataBuffer>> transformer) {
+            setResponseHeaders(exchange, provider);
+            return chain.filter(
+                    exchange.mutate().response(new FaultInjectedServerHttpResponse(exchange.getResponse(), transformer)).build());
+        }
+
         /**
          * Determine if fault injection is required based on request matcher.
          * 
@@ -167,7 +207,7 @@ public class InectorFilterFactory extends AbstractGatewayFilterFactory<InectorFi
             Map<String, Supplier<Predicate<String>>> routeIdPredicateSupplier = singletonMap(VAR_ROUTE_ID,
                     () -> (Predicate<String>) Predicates.equalTo(route.getId()));
 
-            return requestMatcher.matches(new ReactiveRequestExtractor(exchange.getRequest()),
+            return requestMatcher.matches(ExchangeRequestView.of(exchange),
                     faultConfig.getPreferOpenMatchExpression(), routeIdPredicateSupplier);
         }
 
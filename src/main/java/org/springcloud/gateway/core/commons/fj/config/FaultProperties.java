@@ -89,13 +89,48 @@ public class FaultProperties {
          */
         private RangeDelayInjectorProperties rangeDelay = new RangeDelayInjectorProperties();
 
+        /**
+         * The response throughput throttling fault injector configuration
+         * properties.
+         */
+        private BandwidthInjectorProperties bandwidth = new BandwidthInjectorProperties();
+
+        /**
+         * The response per-chunk random jitter fault injector configuration
+         * properties.
+         */
+        private ChunkJitterInjectorProperties chunkJitter = new ChunkJitterInjectorProperties();
+
+        /**
+         * The response cut off (partial response) fault injector
+         * configuration properties.
+         */
+        private TruncateInjectorProperties truncate = new TruncateInjectorProperties();
+
+        /**
+         * The connection idle hold fault injector configuration properties.
+         */
+        private IdleHoldInjectorProperties idleHold = new IdleHoldInjectorProperties();
+
     }
 
     @Getter
     @AllArgsConstructor
     public static enum InjectorProvider {
-        Abort(AbortInjectorProperties.class), FixedDelay(FixedDelayInjectorProperties.class), RangeDelay(
-                RangeDelayInjectorProperties.class);
+        Abort(AbortInjectorProperties.class),
+
+        FixedDelay(FixedDelayInjectorProperties.class),
+
+        RangeDelay(RangeDelayInjectorProperties.class),
+
+        Bandwidth(BandwidthInjectorProperties.class),
+
+        ChunkJitter(ChunkJitterInjectorProperties.class),
+
+        Truncate(TruncateInjectorProperties.class),
+
+        IdleHold(IdleHoldInjectorProperties.class);
+
         private final Class<?> providerClass;
     }
 
@@ -155,5 +190,65 @@ public class FaultProperties {
         private long maxDelayMs = 5000L;
     }
 
+    @Getter
+    @Setter
+    @Validated
+    @ToString
+    public static class BandwidthInjectorProperties extends AbstractInjectorProperties {
+
+        /**
+         * The response throughput limit in bytes per second.
+         */
+        private long bytesPerSecond = 64 * 1024L;
+    }
+
+    @Getter
+    @Setter
+    @Validated
+    @ToString
+    public static class ChunkJitterInjectorProperties extends AbstractInjectorProperties {
+
+        /**
+         * Minimum jitter of each response chunk in milliseconds
+         */
+        private long minJitterMs = 0L;
+
+        /**
+         * Maximum jitter of each response chunk in milliseconds
+         */
+        private long maxJitterMs = 200L;
+    }
+
+    @Getter
+    @Setter
+    @Validated
+    @ToString
+    public static class TruncateInjectorProperties extends AbstractInjectorProperties {
+
+        /**
+         * The number of response bytes written before the connection is
+         * aborted.
+         */
+        private long truncateAfterBytes = 1024L;
+    }
+
+    @Getter
+    @Setter
+    @Validated
+    @ToString
+    public static class IdleHoldInjectorProperties extends AbstractInjectorProperties {
+
+        /**
+         * The idle time in milliseconds before the response body is written.
+         */
+        private long idleMs = 30_000L;
+
+        /**
+         * Whether to abort the connection after idle, otherwise continue to
+         * write the response.
+         */
+        private boolean abortAfterIdle = true;
+    }
+
     public static String FAULT_INJECTED_HEADER = "X-Iscg-Fault-Injected";
 }
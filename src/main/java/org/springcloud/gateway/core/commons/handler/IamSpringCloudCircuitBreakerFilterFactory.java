@@ -16,7 +16,9 @@
 
 package org.springcloud.gateway.core.commons.handler;
 
+import static java.lang.System.nanoTime;
 import static java.util.Collections.singletonList;
+import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
 import static org.springframework.cloud.gateway.support.GatewayToStringStyler.filterToStringCreator;
 import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
@@ -29,15 +31,28 @@ import java.net.URI;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
+import org.springcloud.gateway.core.commons.cb.ConcurrencyLimitExceededException;
+import org.springcloud.gateway.core.commons.cb.RouteConcurrencyGuard;
+import org.springcloud.gateway.core.commons.cb.config.CBProperties;
 import org.springcloud.gateway.core.commons.fault.IamGatewayFault.SafeFilterOrdered;
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade;
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsName;
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsTag;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationListener;
 import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreaker;
 import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.support.HasRouteId;
 import org.springframework.cloud.gateway.support.HttpStatusHolder;
 import org.springframework.core.Ordered;
@@ -51,20 +66,32 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import lombok.AllArgsConstructor;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
 /**
  * @author Ryan Baxter
  */
 @SuppressWarnings({ "rawtypes" })
 public abstract class IamSpringCloudCircuitBreakerFilterFactory
-        extends AbstractGatewayFilterFactory<IamSpringCloudCircuitBreakerFilterFactory.Config> {
+        extends AbstractGatewayFilterFactory<IamSpringCloudCircuitBreakerFilterFactory.Config>
+        implements ApplicationListener<RefreshRoutesResultEvent> {
 
     /** CircuitBreaker component name. */
     public static final String NAME = "IamCircuitBreaker";
 
-    private ReactiveCircuitBreakerFactory reactiveCircuitBreakerFactory;
+    private final ReactiveCircuitBreakerFactory reactiveCircuitBreakerFactory;
 
-    private ReactiveCircuitBreaker circuitBreaker;
+    private final CBProperties cbConfig;
+
+    private final GatewayMetricsFacade metricsFacade;
+
+    /**
+     * The circuit breakers and concurrency guards registry keyed by routeId, so
+     * that each route is isolated from each other.
+     */
+    private final ConcurrentMap<String, ReactiveCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>(16);
+
+    private final ConcurrentMap<String, RouteConcurrencyGuard> concurrencyGuards = new ConcurrentHashMap<>(16);
 
     private final ObjectProvider<DispatcherHandler> dispatcherHandlerProvider;
 
@@ -73,9 +100,12 @@ public abstract class IamSpringCloudCircuitBreakerFilterFactory
     private volatile DispatcherHandler dispatcherHandler;
 
     public IamSpringCloudCircuitBreakerFilterFactory(ReactiveCircuitBreakerFactory reactiveCircuitBreakerFactory,
+            CBProperties cbConfig, GatewayMetricsFacade metricsFacade,
             ObjectProvider<DispatcherHandler> dispatcherHandlerProvider) {
         super(Config.class);
         this.reactiveCircuitBreakerFactory = reactiveCircuitBreakerFactory;
+        this.cbConfig = cbConfig;
+        this.metricsFacade = metricsFacade;
         this.dispatcherHandlerProvider = dispatcherHandlerProvider;
     }
 
@@ -95,9 +125,13 @@ public abstract class IamSpringCloudCircuitBreakerFilterFactory
     @Override
     public GatewayFilter apply(Config config) {
         //
-        // [FIXED] ADD Use member variables
+        // [FIXED] The circuit breaker must not be shared by member variable,
+        // otherwise all routes would use the breaker of the last applied.
         //
-        this.circuitBreaker = reactiveCircuitBreakerFactory.create(config.getId());
+        String id = config.getId();
+        ReactiveCircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(id,
+                _id -> reactiveCircuitBreakerFactory.create(_id));
+        RouteConcurrencyGuard guard = resolveConcurrencyGuard(id, config);
         Set<HttpStatus> statuses = config.getStatusCodes()
                 .stream()
                 .map(HttpStatusHolder::parse)
@@ -162,7 +196,7 @@ public abstract class IamSpringCloudCircuitBreakerFilterFactory
         //
         // [Begin] Modified to Ordered gateway filter.
         //
-        return new IamSpringCloudCircuitBreakerGatewayFilter(config, statuses);
+        return new IamSpringCloudCircuitBreakerGatewayFilter(config, statuses, circuitBreaker, guard);
         //
         // [End] Modified to Ordered gateway filter.
         //
@@ -170,6 +204,55 @@ public abstract class IamSpringCloudCircuitBreakerFilterFactory
 
     protected abstract Mono<Void> handleErrorWithoutFallback(Throwable t);
 
+    /**
+     * Evicts the circuit breakers and concurrency guards of the routes which
+     * no longer exist after the routes refreshed. The filters of the current
+     * routes hold their own references, so the eviction never affects the
+     * inflight requests.
+     */
+    @Override
+    public void onApplicationEvent(RefreshRoutesResultEvent event) {
+        if (!event.isSuccess() || !(event.getSource() instanceof RouteLocator)) {
+            return;
+        }
+        ((RouteLocator) event.getSource()).getRoutes().map(Route::getId).collect(Collectors.toSet()).subscribe(routeIds -> {
+            Set<String> removedIds = new HashSet<>(circuitBreakers.keySet());
+            removedIds.addAll(concurrencyGuards.keySet());
+            removedIds.removeAll(routeIds);
+            if (!removedIds.isEmpty()) {
+                circuitBreakers.keySet().removeAll(removedIds);
+                concurrencyGuards.keySet().removeAll(removedIds);
+                onRoutesRemoved(removedIds);
+            }
+        });
+    }
+
+    /**
+     * Called after the registries of the removed routes are evicted, e.g. to
+     * evict the breakers cached by the underlying circuit breaker factory.
+     */
+    protected void onRoutesRemoved(Set<String> removedIds) {
+    }
+
+    /**
+     * Reuse the existing guard when the route is re-applied (e.g. routes
+     * refreshed) and the settings unchanged, so the inflight permits and the
+     * learned limit are kept.
+     */
+    private RouteConcurrencyGuard resolveConcurrencyGuard(String id, Config config) {
+        int maxConcurrentCalls = nonNull(config.getMaxConcurrentCalls()) ? config.getMaxConcurrentCalls()
+                : cbConfig.getBulkhead().getMaxConcurrentCalls();
+        boolean limiterEnabled = nonNull(config.getAdaptiveLimiterEnabled()) ? config.getAdaptiveLimiterEnabled()
+                : cbConfig.getAdaptiveLimiter().isEnabled();
+        return concurrencyGuards.compute(id, (_id, existing) -> {
+            if (nonNull(existing) && existing.isSameSettings(maxConcurrentCalls, limiterEnabled)) {
+                return existing;
+            }
+            return new RouteConcurrencyGuard(maxConcurrentCalls,
+                    limiterEnabled ? cbConfig.newAdaptiveConcurrencyLimiter() : null);
+        });
+    }
+
     private void addExceptionDetails(Throwable t, ServerWebExchange exchange) {
         ofNullable(t).ifPresent(exception -> exchange.getAttributes().put(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR, exception));
     }
@@ -189,6 +272,18 @@ public abstract class IamSpringCloudCircuitBreakerFilterFactory
 
         private Set<String> statusCodes = new HashSet<>();
 
+        /**
+         * The bulkhead max concurrent calls of this route, null means use the
+         * global configuration.
+         */
+        private Integer maxConcurrentCalls;
+
+        /**
+         * Whether the adaptive concurrency limiter is enabled for this route,
+         * null means use the global configuration.
+         */
+        private Boolean adaptiveLimiterEnabled;
+
         @Override
         public void setRouteId(String routeId) {
             this.routeId = routeId;
@@ -220,13 +315,35 @@ public abstract class IamSpringCloudCircuitBreakerFilterFactory
             return this;
         }
 
+        /**
+         * The circuit breaker is identified by the route, the name is only used
+         * when the filter is not bound to a route.
+         */
         public String getId() {
-            if (StringUtils.hasLength(name) && !StringUtils.hasLength(routeId)) {
+            if (StringUtils.hasLength(routeId)) {
                 return routeId;
             }
             return name;
         }
 
+        public Integer getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public Config setMaxConcurrentCalls(Integer maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            return this;
+        }
+
+        public Boolean getAdaptiveLimiterEnabled() {
+            return adaptiveLimiterEnabled;
+        }
+
+        public Config setAdaptiveLimiterEnabled(Boolean adaptiveLimiterEnabled) {
+            this.adaptiveLimiterEnabled = adaptiveLimiterEnabled;
+            return this;
+        }
+
         public Set<String> getStatusCodes() {
             return statusCodes;
         }
@@ -257,6 +374,8 @@ public abstract class IamSpringCloudCircuitBreakerFilterFactory
 
         private final Config config;
         private final Set<HttpStatus> statuses;
+        private final ReactiveCircuitBreaker circuitBreaker;
+        private final RouteConcurrencyGuard guard;
 
         @Override
         public int getOrder() {
@@ -265,14 +384,39 @@ public abstract class IamSpringCloudCircuitBreakerFilterFactory
 
         @Override
         public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-            return circuitBreaker.run(chain.filter(exchange).doOnSuccess(v -> {
-                if (statuses.contains(exchange.getResponse().getStatusCode())) {
-                    HttpStatus status = exchange.getResponse().getStatusCode();
-                    exchange.getResponse().setStatusCode(null);
-                    reset(exchange);
-                    throw new CircuitBreakerStatusCodeException(status);
+            // The permits are acquired on subscription, so that they are never
+            // leaked when the breaker is opened and the call is not permitted.
+            Mono<Void> guarded = Mono.defer(() -> {
+                String rejectReason = guard.tryAcquire();
+                if (nonNull(rejectReason)) {
+                    metricsFacade.counter(MetricsName.CIRCUITBREAKER_REJECTED_TOTAL, config.getId(), 1,
+                            MetricsTag.CB_REJECT_REASON, rejectReason);
+                    return Mono.error(new ConcurrencyLimitExceededException(
+                            "Concurrency limit exceeded by " + rejectReason + " of " + config.getId()));
+                }
+                long beginNanoTime = nanoTime();
+                return chain.filter(exchange).doOnSuccess(v -> {
+                    if (statuses.contains(exchange.getResponse().getStatusCode())) {
+                        HttpStatus status = exchange.getResponse().getStatusCode();
+                        exchange.getResponse().setStatusCode(null);
+                        reset(exchange);
+                        throw new CircuitBreakerStatusCodeException(status);
+                    }
+                }).doFinally(signal -> {
+                    // The cancellation (e.g. client disconnect, hedged attempt
+                    // lost) is neither a sample nor a drop, the timeout is
+                    // also seen as cancelled here and recorded below.
+                    if (signal == SignalType.CANCEL) {
+                        guard.releaseCancelled();
+                    } else {
+                        guard.release(nanoTime() - beginNanoTime, signal == SignalType.ON_ERROR);
+                    }
+                });
+            });
+            return circuitBreaker.run(guarded, t -> {
+                if (t instanceof TimeoutException) {
+                    guard.onTimeout();
                 }
-            }), t -> {
                 if (config.getFallbackUri() == null) {
                     return Mono.error(t);
                 }
@@ -307,6 +451,7 @@ public abstract class IamSpringCloudCircuitBreakerFilterFactory
         public String toString() {
             return filterToStringCreator(IamSpringCloudCircuitBreakerFilterFactory.this).append("name", config.getName())
                     .append("fallback", config.fallbackUri)
+                    .append("guard", guard.getLimiter())
                     .toString();
         }
 
@@ -16,7 +16,13 @@
 
 package org.springcloud.gateway.core.commons.handler;
 
+import java.util.Set;
+
+import org.springcloud.gateway.core.commons.cb.ConcurrencyLimitExceededException;
+import org.springcloud.gateway.core.commons.cb.config.CBProperties;
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
 import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
 import org.springframework.cloud.gateway.support.ServiceUnavailableException;
 import org.springframework.http.HttpStatus;
@@ -24,6 +30,7 @@ import org.springframework.web.reactive.DispatcherHandler;
 import org.springframework.web.server.ResponseStatusException;
 
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import reactor.core.publisher.Mono;
 
 /**
@@ -32,9 +39,22 @@ import reactor.core.publisher.Mono;
 @SuppressWarnings("rawtypes")
 public class IamSpringCloudCircuitBreakerResilience4JFilterFactory extends IamSpringCloudCircuitBreakerFilterFactory {
 
+    private final ReactiveCircuitBreakerFactory reactiveCircuitBreakerFactory;
+
     public IamSpringCloudCircuitBreakerResilience4JFilterFactory(ReactiveCircuitBreakerFactory reactiveCircuitBreakerFactory,
+            CBProperties cbConfig, GatewayMetricsFacade metricsFacade,
             ObjectProvider<DispatcherHandler> dispatcherHandlerProvider) {
-        super(reactiveCircuitBreakerFactory, dispatcherHandlerProvider);
+        super(reactiveCircuitBreakerFactory, cbConfig, metricsFacade, dispatcherHandlerProvider);
+        this.reactiveCircuitBreakerFactory = reactiveCircuitBreakerFactory;
+    }
+
+    @Override
+    protected void onRoutesRemoved(Set<String> removedIds) {
+        if (reactiveCircuitBreakerFactory instanceof ReactiveResilience4JCircuitBreakerFactory) {
+            CircuitBreakerRegistry registry = ((ReactiveResilience4JCircuitBreakerFactory) reactiveCircuitBreakerFactory)
+                    .getCircuitBreakerRegistry();
+            removedIds.forEach(registry::remove);
+        }
     }
 
     @Override
@@ -42,7 +62,7 @@ public class IamSpringCloudCircuitBreakerResilience4JFilterFactory extends IamSp
         if (java.util.concurrent.TimeoutException.class.isInstance(t)) {
             return Mono.error(new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, t.getMessage(), t));
         }
-        if (CallNotPermittedException.class.isInstance(t)) {
+        if (CallNotPermittedException.class.isInstance(t) || ConcurrencyLimitExceededException.class.isInstance(t)) {
             return Mono.error(new ServiceUnavailableException());
         }
         return Mono.error(t);
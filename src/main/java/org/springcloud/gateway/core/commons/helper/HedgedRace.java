@@ -0,0 +1,278 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.helper;
+
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static java.util.Objects.nonNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import org.springcloud.gateway.core.commons.metrics.stats.LoadBalancerStats;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+
+/**
+ * {@link HedgedRace}
+ *
+ * <p>
+ * Races the primary attempt of a request against the hedged attempt on the
+ * rest of the filter chain. Each attempt runs on its own copy of the exchange
+ * (a copy of the attributes and an uncommitted response), the first attempt
+ * which commits its response (status and headers) wins and is streamed to the
+ * real response, the other attempt is cancelled once the winner completes,
+ * which also disposes its upstream connection. A failed attempt is ignored
+ * while the other attempt can still win.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+class HedgedRace {
+
+    private final ServerWebExchange exchange;
+    private final AtomicReference<AttemptResponse> winner = new AtomicReference<>();
+    private final AtomicInteger pending = new AtomicInteger(0);
+
+    @SuppressWarnings("unchecked")
+    HedgedRace(ServerWebExchange exchange) {
+        this.exchange = notNullOf(exchange, "exchange");
+        // Shares the tried instances between the attempts, so that the load
+        // balancer sends the hedge to another instance.
+        exchange.getAttributes().compute(LoadBalancerStats.KEY_TRIED_INSTANCES, (key, tried) -> {
+            Set<String> shared = ConcurrentHashMap.newKeySet(4);
+            if (nonNull(tried)) {
+                shared.addAll((Set<String>) tried);
+            }
+            return shared;
+        });
+    }
+
+    /**
+     * Whether an attempt has already committed its response.
+     */
+    boolean isDecided() {
+        return nonNull(winner.get());
+    }
+
+    /**
+     * Runs the primary attempt immediately, and the hedged attempt when the
+     * trigger emits (an empty trigger means no hedge).
+     */
+    Mono<Void> run(GatewayFilterChain chain, Mono<?> hedgeTrigger) {
+        return Flux.merge(attempt(chain), hedgeTrigger.flatMap(t -> attempt(chain))).next().dematerialize();
+    }
+
+    /**
+     * Emits the terminal signal of the attempt, or nothing when the attempt
+     * lost the race or failed while the other attempt can still win.
+     */
+    private Mono<Signal<Void>> attempt(GatewayFilterChain chain) {
+        return Mono.defer(() -> {
+            pending.incrementAndGet();
+            AttemptExchange attempt = new AttemptExchange(exchange);
+            AttemptResponse response = attempt.getResponse();
+            return chain.filter(attempt)
+                    // Commits here if nothing was written (e.g. no content).
+                    .then(Mono.defer(() -> response.commit()))
+                    .flatMap(won -> won ? Mono.<Void> empty() : Mono.<Void> never())
+                    .doOnSuccess(v -> attempt.publishAttributes())
+                    .materialize()
+                    .filter(signal -> {
+                        int remaining = pending.decrementAndGet();
+                        return signal.isOnComplete() || remaining <= 0 || winner.get() == response;
+                    });
+        });
+    }
+
+    /**
+     * The exchange copy of one attempt.
+     */
+    class AttemptExchange extends ServerWebExchangeDecorator {
+
+        private final Map<String, Object> attributes;
+        private final AttemptResponse response;
+
+        AttemptExchange(ServerWebExchange delegate) {
+            super(delegate);
+            this.attributes = new ConcurrentHashMap<>(delegate.getAttributes());
+            this.response = new AttemptResponse(delegate.getResponse(), this);
+        }
+
+        @Override
+        public AttemptResponse getResponse() {
+            return response;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        /**
+         * Publishes the attributes of the winner (e.g. the chosen instance
+         * and the client response) to the original exchange.
+         */
+        void publishAttributes() {
+            if (winner.get() == response) {
+                getDelegate().getAttributes().putAll(attributes);
+            }
+        }
+    }
+
+    /**
+     * The response of one attempt, the status, headers, cookies and the
+     * before commit actions are kept locally until the attempt wins.
+     */
+    class AttemptResponse extends ServerHttpResponseDecorator {
+
+        private final AttemptExchange attempt;
+        private final HttpHeaders headers = new HttpHeaders();
+        private final MultiValueMap<String, ResponseCookie> cookies = new LinkedMultiValueMap<>(4);
+        private final List<Supplier<? extends Mono<Void>>> commitActions = new CopyOnWriteArrayList<>();
+        private volatile Integer rawStatusCode;
+        private volatile boolean applied;
+
+        AttemptResponse(ServerHttpResponse delegate, AttemptExchange attempt) {
+            super(delegate);
+            this.attempt = attempt;
+            this.headers.putAll(delegate.getHeaders());
+            this.rawStatusCode = delegate.getRawStatusCode();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return applied ? getDelegate().getHeaders() : headers;
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatus status) {
+            return setRawStatusCode(nonNull(status) ? status.value() : null);
+        }
+
+        @Override
+        public HttpStatus getStatusCode() {
+            Integer status = getRawStatusCode();
+            return nonNull(status) ? HttpStatus.resolve(status) : null;
+        }
+
+        @Override
+        public boolean setRawStatusCode(Integer value) {
+            if (applied) {
+                return getDelegate().setRawStatusCode(value);
+            }
+            this.rawStatusCode = value;
+            return true;
+        }
+
+        @Override
+        public Integer getRawStatusCode() {
+            return applied ? getDelegate().getRawStatusCode() : rawStatusCode;
+        }
+
+        @Override
+        public MultiValueMap<String, ResponseCookie> getCookies() {
+            return applied ? getDelegate().getCookies() : cookies;
+        }
+
+        @Override
+        public void addCookie(ResponseCookie cookie) {
+            if (applied) {
+                getDelegate().addCookie(cookie);
+            } else {
+                cookies.add(cookie.getName(), cookie);
+            }
+        }
+
+        @Override
+        public void beforeCommit(Supplier<? extends Mono<Void>> action) {
+            if (applied) {
+                getDelegate().beforeCommit(action);
+            } else {
+                commitActions.add(action);
+            }
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return applied && getDelegate().isCommitted();
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return commit().flatMap(won -> won ? getDelegate().writeWith(body) : Mono.<Void> never());
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return commit().flatMap(won -> won ? getDelegate().writeAndFlushWith(body) : Mono.<Void> never());
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return commit().flatMap(won -> won ? getDelegate().setComplete() : Mono.<Void> never());
+        }
+
+        /**
+         * Tries to win the race, the winner runs its before commit actions
+         * and then applies its state to the real response.
+         *
+         * @return true if this attempt is the winner.
+         */
+        Mono<Boolean> commit() {
+            if (winner.get() == this) {
+                return Mono.just(true);
+            }
+            if (!winner.compareAndSet(null, this)) {
+                return Mono.just(false);
+            }
+            return Flux.fromIterable(commitActions).concatMap(Supplier::get).then(Mono.fromCallable(() -> {
+                ServerHttpResponse delegate = getDelegate();
+                if (nonNull(rawStatusCode)) {
+                    delegate.setRawStatusCode(rawStatusCode);
+                }
+                delegate.getHeaders().putAll(headers);
+                cookies.values().forEach(values -> values.forEach(delegate::addCookie));
+                applied = true;
+                attempt.publishAttributes();
+                return true;
+            }));
+        }
+    }
+
+}
@@ -16,6 +16,9 @@
 
 package org.springcloud.gateway.core.commons.helper;
 
+import static org.springcloud.gateway.core.lang.FastTimeClock.currentTimeMillis;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static org.springframework.cloud.gateway.support.GatewayToStringStyler.filterToStringCreator;
 
 import java.io.IOException;
@@ -23,6 +26,8 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -30,6 +35,11 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.reactivestreams.Publisher;
 import org.springcloud.gateway.core.commons.fault.IamGatewayFault.SafeFilterOrdered;
+import org.springcloud.gateway.core.commons.helper.config.IamRetryProperties;
+import org.springcloud.gateway.core.commons.metrics.stats.LoadBalancerStats;
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade;
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsName;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cloud.gateway.event.EnableBodyCachingEvent;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -63,8 +73,23 @@ public class HelperGatewayFilterFactory extends AbstractGatewayFilterFactory<Hel
 
     private static final Log log = LogFactory.getLog(HelperGatewayFilterFactory.class);
 
-    public HelperGatewayFilterFactory() {
+    private final IamRetryProperties retryProperties;
+
+    private final GatewayMetricsFacade metricsFacade;
+
+    private final ObjectProvider<LoadBalancerStats> loadBalancerStatsProvider;
+
+    /**
+     * The retry budgets and hedge delays registry keyed by routeId.
+     */
+    private final ConcurrentMap<String, RouteRetryState> routeStates = new ConcurrentHashMap<>(16);
+
+    public HelperGatewayFilterFactory(IamRetryProperties retryProperties, GatewayMetricsFacade metricsFacade,
+            ObjectProvider<LoadBalancerStats> loadBalancerStatsProvider) {
         super(RetryConfig.class);
+        this.retryProperties = retryProperties;
+        this.metricsFacade = metricsFacade;
+        this.loadBalancerStatsProvider = loadBalancerStatsProvider;
     }
 
     @Override
@@ -79,6 +104,7 @@ public class HelperGatewayFilterFactory extends AbstractGatewayFilterFactory<Hel
     @Override
     public GatewayFilter apply(RetryConfig retryConfig) {
         retryConfig.validate();
+        RouteRetryState state = resolveRouteState(retryConfig.getRouteId());
 
         Repeat<ServerWebExchange> statusCodeRepeat = null;
         if (!retryConfig.getStatuses().isEmpty() || !retryConfig.getSeries().isEmpty()) {
@@ -107,7 +133,7 @@ public class HelperGatewayFilterFactory extends AbstractGatewayFilterFactory<Hel
 
                 trace("retryableMethod: %b, httpMethod %s, configured methods %s", () -> retryableMethod, () -> httpMethod,
                         retryConfig::getMethods);
-                return retryableMethod && finalRetryableStatusCode;
+                return retryableMethod && finalRetryableStatusCode && tryAcquireRetryBudget(state);
             };
 
             statusCodeRepeat = Repeat.onlyIf(repeatPredicate).doOnRepeat(context -> reset(context.applicationContext()));
@@ -141,7 +167,7 @@ public class HelperGatewayFilterFactory extends AbstractGatewayFilterFactory<Hel
                         boolean retryableMethod = retryConfig.getMethods().contains(httpMethod);
                         trace("retryableMethod: %b, httpMethod %s, configured methods %s", () -> retryableMethod,
                                 () -> httpMethod, retryConfig::getMethods);
-                        return retryableMethod;
+                        return retryableMethod && tryAcquireRetryBudget(state);
                     }
                 }
                 trace("exception or its cause is not retryable %s, configured exceptions %s",
@@ -157,7 +183,9 @@ public class HelperGatewayFilterFactory extends AbstractGatewayFilterFactory<Hel
             }
         }
 
-        GatewayFilter gatewayFilter = apply(retryConfig.getRouteId(), statusCodeRepeat, exceptionRetry);
+        GatewayFilter gatewayFilter = new IamRetryGatewayFailter(retryConfig.getRouteId(), statusCodeRepeat, exceptionRetry,
+                state, retryConfig.getHedge());
+        publishEnableBodyCachingEvent(retryConfig.getRouteId());
         return new GatewayFilter() {
             @Override
             public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
@@ -171,6 +199,7 @@ public class HelperGatewayFilterFactory extends AbstractGatewayFilterFactory<Hel
                         .append("statuses", retryConfig.getStatuses())
                         .append("methods", retryConfig.getMethods())
                         .append("exceptions", retryConfig.getExceptions())
+                        .append("hedge", retryConfig.getHedge())
                         .toString();
             }
         };
@@ -223,10 +252,7 @@ public class HelperGatewayFilterFactory extends AbstractGatewayFilterFactory<Hel
     }
 
     public GatewayFilter apply(String routeId, Repeat<ServerWebExchange> repeat, Retry<ServerWebExchange> retry) {
-        if (routeId != null && getPublisher() != null) {
-            // send an event to enable caching
-            getPublisher().publishEvent(new EnableBodyCachingEvent(this, routeId));
-        }
+        publishEnableBodyCachingEvent(routeId);
 
         // return (exchange, chain) -> {
         // trace("Entering retry-filter");
@@ -256,12 +282,36 @@ public class HelperGatewayFilterFactory extends AbstractGatewayFilterFactory<Hel
         //
         // [Begin] Modified to Ordered gateway filter.
         //
-        return new IamRetryGatewayFailter(routeId, repeat, retry);
+        return new IamRetryGatewayFailter(routeId, repeat, retry, resolveRouteState(routeId), null);
         //
         // [End] Modified to Ordered gateway filter.
         //
     }
 
+    private void publishEnableBodyCachingEvent(String routeId) {
+        if (routeId != null && getPublisher() != null) {
+            // send an event to enable caching
+            getPublisher().publishEvent(new EnableBodyCachingEvent(this, routeId));
+        }
+    }
+
+    private RouteRetryState resolveRouteState(String routeId) {
+        return routeStates.computeIfAbsent(String.valueOf(routeId), _routeId -> new RouteRetryState(routeId,
+                new RetryBudget(retryProperties.getBudgetRatio(), retryProperties.getBudgetMinRetriesPerSecond(),
+                        retryProperties.getBudgetMaxTokens())));
+    }
+
+    private boolean tryAcquireRetryBudget(RouteRetryState state) {
+        if (!retryProperties.isBudgetEnabled() || state.getBudget().tryWithdraw()) {
+            return true;
+        }
+        trace("retry budget exhausted, routeId %s", state::getRouteId);
+        if (nonNull(state.getRouteId())) {
+            metricsFacade.counter(MetricsName.RETRY_BUDGET_EXHAUSTED_TOTAL, state.getRouteId(), 1);
+        }
+        return false;
+    }
+
     private void updateIteration(ServerWebExchange exchange) {
         int iteration = exchange.getAttributeOrDefault(RETRY_ITERATION_KEY, -1);
         int newIteration = iteration + 1;
@@ -298,6 +348,8 @@ public class HelperGatewayFilterFactory extends AbstractGatewayFilterFactory<Hel
 
         private BackoffConfig backoff;
 
+        private HedgeConfig hedge;
+
         public RetryConfig allMethods() {
             return setMethods(HttpMethod.values());
         }
@@ -310,6 +362,18 @@ public class HelperGatewayFilterFactory extends AbstractGatewayFilterFactory<Hel
             if (this.backoff != null) {
                 this.backoff.validate();
             }
+            if (this.hedge != null) {
+                this.hedge.validate();
+            }
+        }
+
+        public HedgeConfig getHedge() {
+            return hedge;
+        }
+
+        public RetryConfig setHedge(HedgeConfig hedge) {
+            this.hedge = hedge;
+            return this;
         }
 
         public BackoffConfig getBackoff() {
@@ -441,12 +505,150 @@ public class HelperGatewayFilterFactory extends AbstractGatewayFilterFactory<Hel
 
     }
 
+    /**
+     * The hedge configuration, when an idempotent request has not responded
+     * after the route latency percentile, a hedged attempt is sent (the load
+     * balancer will prefer another instance) and raced against the primary
+     * attempt, the first response wins and the other attempt is cancelled.
+     */
+    public static class HedgeConfig {
+
+        private boolean enabled = false;
+
+        /**
+         * The latency percentile of the route (calculated from the canary load
+         * balancer stats) to trigger the hedge.
+         */
+        private double percentile = 95d;
+
+        private Duration minDelay = Duration.ofMillis(20);
+
+        private Duration maxDelay = Duration.ofSeconds(3);
+
+        /**
+         * The hedge delay used when the latency stats are not available, null
+         * means no hedge.
+         */
+        private Duration fallbackDelay;
+
+        private List<HttpMethod> methods = toList(HttpMethod.GET, HttpMethod.HEAD);
+
+        public void validate() {
+            Assert.isTrue(this.percentile > 0 && this.percentile < 100, "percentile must be between 0 and 100");
+            Assert.notNull(this.minDelay, "minDelay must be present");
+            Assert.notNull(this.maxDelay, "maxDelay must be present");
+            Assert.isTrue(this.minDelay.compareTo(this.maxDelay) <= 0, "minDelay must be less than or equal to maxDelay");
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public Duration getFallbackDelay() {
+            return fallbackDelay;
+        }
+
+        public void setFallbackDelay(Duration fallbackDelay) {
+            this.fallbackDelay = fallbackDelay;
+        }
+
+        public List<HttpMethod> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(HttpMethod... methods) {
+            this.methods = Arrays.asList(methods);
+        }
+
+        @Override
+        public String toString() {
+            return "HedgeConfig[enabled=" + enabled + ", percentile=" + percentile + ", minDelay=" + minDelay + ", maxDelay="
+                    + maxDelay + ", fallbackDelay=" + fallbackDelay + ", methods=" + methods + "]";
+        }
+
+    }
+
+    /**
+     * The per-route retry budget and the cached hedge delay.
+     */
+    class RouteRetryState {
+
+        private final String routeId;
+        private final RetryBudget budget;
+        private volatile long hedgeDelayMs = -1;
+        private volatile long hedgeDelayExpireAt;
+
+        RouteRetryState(String routeId, RetryBudget budget) {
+            this.routeId = routeId;
+            this.budget = budget;
+        }
+
+        String getRouteId() {
+            return routeId;
+        }
+
+        RetryBudget getBudget() {
+            return budget;
+        }
+
+        /**
+         * Gets the hedge delay, which is refreshed from the latency stats at
+         * most once per interval, because of calculating the percentile needs
+         * sorting all the samples.
+         */
+        long getHedgeDelayMs(HedgeConfig hedge) {
+            long now = currentTimeMillis();
+            if (now >= hedgeDelayExpireAt) {
+                hedgeDelayExpireAt = now + retryProperties.getHedgeDelayRefreshMs();
+                LoadBalancerStats stats = loadBalancerStatsProvider.getIfAvailable();
+                long costTime = (isNull(stats) || isNull(routeId)) ? -1
+                        : stats.getCostTimePercentile(routeId, hedge.getPercentile(), retryProperties.getHedgeMinSamples());
+                if (costTime < 0) {
+                    hedgeDelayMs = nonNull(hedge.getFallbackDelay()) ? hedge.getFallbackDelay().toMillis() : -1;
+                } else {
+                    hedgeDelayMs = Math.max(hedge.getMinDelay().toMillis(), Math.min(hedge.getMaxDelay().toMillis(), costTime));
+                }
+            }
+            return hedgeDelayMs;
+        }
+    }
+
     @AllArgsConstructor
     class IamRetryGatewayFailter implements GatewayFilter, Ordered {
 
         private final String routeId;
         private final Repeat<ServerWebExchange> repeat;
         private final Retry<ServerWebExchange> retry;
+        private final RouteRetryState state;
+        private final HedgeConfig hedge;
 
         @Override
         public int getOrder() {
@@ -458,7 +660,7 @@ public class HelperGatewayFilterFactory extends AbstractGatewayFilterFactory<Hel
             trace("Entering retry-filter");
 
             // chain.filter returns a Mono<Void>
-            Publisher<Void> publisher = chain.filter(exchange)
+            Publisher<Void> publisher = (isHedgeable(exchange) ? hedged(exchange, chain) : chain.filter(exchange))
                     // .log("retry-filter", Level.INFO)
                     .doOnSuccess(aVoid -> updateIteration(exchange))
                     .doOnError(throwable -> updateIteration(exchange));
@@ -475,7 +677,44 @@ public class HelperGatewayFilterFactory extends AbstractGatewayFilterFactory<Hel
                 publisher = ((Mono<Void>) publisher).repeatWhen(repeat.withApplicationContext(exchange));
             }
 
-            return Mono.fromDirect(publisher);
+            return Mono.fromDirect(publisher).doOnSuccess(v -> {
+                // Only the successful traffic earns the retry budget.
+                HttpStatus statusCode = exchange.getResponse().getStatusCode();
+                if (isNull(statusCode) || !statusCode.is5xxServerError()) {
+                    state.getBudget().deposit();
+                }
+            });
+        }
+
+        private boolean isHedgeable(ServerWebExchange exchange) {
+            return nonNull(hedge) && hedge.isEnabled() && hedge.getMethods().contains(exchange.getRequest().getMethod());
+        }
+
+        /**
+         * Races the hedged attempt against the slow primary attempt, the
+         * first one which responds wins and the other is cancelled, see
+         * {@link HedgedRace}.
+         */
+        private Mono<Void> hedged(ServerWebExchange exchange, GatewayFilterChain chain) {
+            return Mono.defer(() -> {
+                long delayMs = state.getHedgeDelayMs(hedge);
+                if (delayMs <= 0) {
+                    return chain.filter(exchange);
+                }
+                HedgedRace race = new HedgedRace(exchange);
+                Mono<Long> trigger = Mono.delay(Duration.ofMillis(delayMs)).filter(t -> {
+                    // It's too late to hedge once the primary has responded.
+                    if (race.isDecided() || !tryAcquireRetryBudget(state)) {
+                        return false;
+                    }
+                    trace("hedging request after %dms, routeId %s", () -> delayMs, () -> routeId);
+                    if (nonNull(routeId)) {
+                        metricsFacade.counter(MetricsName.RETRY_HEDGE_TOTAL, routeId, 1);
+                    }
+                    return true;
+                });
+                return race.run(chain, trigger);
+            });
         }
 
     }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.helper;
+
+import static org.springcloud.gateway.core.lang.Assert2.isTrueOf;
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link RetryBudget}
+ *
+ * <p>
+ * The token bucket retry budget, each successful request deposits
+ * {@code ratio} tokens and each retry (or hedge) withdraws one token, plus a
+ * small reserve of {@code minRetriesPerSecond} is refilled by time so that
+ * the low traffic routes can still retry. Therefore the retries are bounded
+ * to a fraction of the successful traffic, and can't multiply the load when
+ * the upstream is in a brownout.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public class RetryBudget {
+
+    /**
+     * The fixed-point scale of one token.
+     */
+    private static final long UNIT = 1000L;
+    private static final long MIN_REFILL_INTERVAL_NANOS = MILLISECONDS.toNanos(10);
+
+    private final long depositPerSuccess;
+    private final long refillPerSecond;
+    private final long maxBalance;
+    private final AtomicLong balance;
+    private final AtomicLong lastRefillNanos;
+
+    public RetryBudget(double ratio, int minRetriesPerSecond, int maxTokens) {
+        isTrueOf(ratio >= 0, "ratio >= 0");
+        isTrueOf(minRetriesPerSecond >= 0, "minRetriesPerSecond >= 0");
+        isTrueOf(maxTokens > 0, "maxTokens > 0");
+        this.depositPerSuccess = (long) (ratio * UNIT);
+        this.refillPerSecond = minRetriesPerSecond * UNIT;
+        this.maxBalance = maxTokens * UNIT;
+        this.balance = new AtomicLong(min(maxBalance, refillPerSecond));
+        this.lastRefillNanos = new AtomicLong(nanoTime());
+    }
+
+    public void deposit() {
+        add(depositPerSuccess);
+    }
+
+    /**
+     * Try to withdraw one token for a retry.
+     *
+     * @return true if the retry is allowed.
+     */
+    public boolean tryWithdraw() {
+        refill();
+        for (;;) {
+            long current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    public double getTokens() {
+        return (double) balance.get() / UNIT;
+    }
+
+    private void refill() {
+        if (refillPerSecond <= 0) {
+            return;
+        }
+        long now = nanoTime();
+        long last = lastRefillNanos.get();
+        long elapsed = now - last;
+        if (elapsed >= MIN_REFILL_INTERVAL_NANOS && lastRefillNanos.compareAndSet(last, now)) {
+            add(refillPerSecond * elapsed / SECONDS.toNanos(1));
+        }
+    }
+
+    private void add(long tokens) {
+        if (tokens > 0) {
+            balance.updateAndGet(b -> min(maxBalance, b + tokens));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[tokens=" + getTokens() + "]";
+    }
+
+}
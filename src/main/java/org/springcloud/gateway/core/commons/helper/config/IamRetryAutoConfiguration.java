@@ -15,11 +15,14 @@
  */
 package org.springcloud.gateway.core.commons.helper.config;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 
 import org.springcloud.gateway.core.common.constant.GatewayMAIConstants;
 import org.springcloud.gateway.core.commons.helper.HelperGatewayFilterFactory;
+import org.springcloud.gateway.core.commons.metrics.stats.LoadBalancerStats;
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade;
 
 /**
  * {@link IamRetryAutoConfiguration}
@@ -37,8 +40,11 @@ public class IamRetryAutoConfiguration {
     }
 
     @Bean
-    public HelperGatewayFilterFactory helperGatewayFilterFactory() {
-        return new HelperGatewayFilterFactory();
+    public HelperGatewayFilterFactory helperGatewayFilterFactory(
+            IamRetryProperties retryConfig,
+            GatewayMetricsFacade metricsFacade,
+            ObjectProvider<LoadBalancerStats> loadBalancerStatsProvider) {
+        return new HelperGatewayFilterFactory(retryConfig, metricsFacade, loadBalancerStatsProvider);
     }
 
 }
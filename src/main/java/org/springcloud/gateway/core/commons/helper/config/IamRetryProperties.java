@@ -15,6 +15,10 @@
  */
 package org.springcloud.gateway.core.commons.helper.config;
 
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
 /**
  * {@link IamRetryProperties}
  * 
@@ -22,6 +26,44 @@ package org.springcloud.gateway.core.commons.helper.config;
  * @version v1.0.0
  * @since v3.0.0
  */
+@Getter
+@Setter
+@ToString
 public class IamRetryProperties {
 
+    /**
+     * Whether to limit the retries (and hedges) of each route by the retry
+     * budget.
+     */
+    private boolean budgetEnabled = true;
+
+    /**
+     * The number of retries allowed per successful request, e.g: 0.2 means
+     * the retries are at most 20% of the successful traffic.
+     */
+    private double budgetRatio = 0.2d;
+
+    /**
+     * The minimum number of retries allowed per second, so that the low
+     * traffic routes can still retry.
+     */
+    private int budgetMinRetriesPerSecond = 10;
+
+    /**
+     * The maximum number of tokens that can be accumulated.
+     */
+    private int budgetMaxTokens = 100;
+
+    /**
+     * The refresh interval of the route hedge delay calculated from the
+     * canary load balancer latency stats.
+     */
+    private long hedgeDelayRefreshMs = 1000L;
+
+    /**
+     * The minimum number of latency samples required to calculate the hedge
+     * delay.
+     */
+    private int hedgeMinSamples = 20;
+
 }
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.kernel;
+
+import static org.springcloud.gateway.core.collection.CollectionUtils2.safeList;
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.isNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import org.springcloud.gateway.core.codec.Compresss;
+import org.springcloud.gateway.core.commons.kernel.config.ResponseCacheProperties.CompressionProperties;
+import org.springcloud.gateway.core.commons.kernel.config.ResponseCacheProperties.CompressionRule;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link CachedResponseCompressor}
+ * 
+ * <p>
+ * The content coding negotiation and compression of the cached responses,
+ * the compressed variants are produced once when the response is cached, and
+ * the cache hits are responded with the variant of the best coding accepted
+ * by the client, so that the hot responses are never re-compressed.
+ * </p>
+ * 
+ * @author springcloudgateway &lt;springcloudgateway@163.com, springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+@Slf4j
+public class CachedResponseCompressor {
+
+    private final List<ContentCoding> codings;
+    private final List<MimeRule> rules;
+
+    public CachedResponseCompressor(CompressionProperties config) {
+        notNullOf(config, "compressionConfig");
+        List<ContentCoding> codings = new ArrayList<>(4);
+        if (config.isEnabled()) {
+            for (String name : safeList(config.getCodings())) {
+                ContentCoding coding = ContentCoding.of(name);
+                if (isNull(coding)) {
+                    log.warn("Ignore unsupported content coding: {}", name);
+                } else if (!coding.isAvailable()) {
+                    log.info("Ignore content coding: {}, because the native library is unavailable.", name);
+                } else if (!codings.contains(coding)) {
+                    codings.add(coding);
+                }
+            }
+        }
+        this.codings = unmodifiableList(codings);
+        this.rules = unmodifiableList(safeList(config.getRules()).stream().map(MimeRule::new).collect(Collectors.toList()));
+    }
+
+    public boolean isEnabled() {
+        return !codings.isEmpty();
+    }
+
+    public List<ContentCoding> getCodings() {
+        return codings;
+    }
+
+    /**
+     * Negotiates the best content coding by the request 'Accept-Encoding'
+     * quality values, the ties are broken by the server preference.
+     * 
+     * @param requestHeaders
+     * @return null means identity.
+     */
+    public ContentCoding negotiate(HttpHeaders requestHeaders) {
+        if (codings.isEmpty()) {
+            return null;
+        }
+        List<String> acceptEncodings = requestHeaders.get(HttpHeaders.ACCEPT_ENCODING);
+        if (isNull(acceptEncodings) || acceptEncodings.isEmpty()) {
+            return null;
+        }
+        ContentCoding best = null;
+        float bestQuality = 0f;
+        for (ContentCoding coding : codings) {
+            float quality = getQuality(acceptEncodings, coding.getName());
+            if (quality > bestQuality) {
+                best = coding;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the first compression rule matched the response.
+     * 
+     * @param contentType
+     * @param contentLength
+     * @return null means the response should not be compressed.
+     */
+    public CompressionRule getRule(MediaType contentType, int contentLength) {
+        if (isNull(contentType)) {
+            return null;
+        }
+        for (MimeRule rule : rules) {
+            if (rule.matches(contentType)) {
+                return contentLength >= rule.getRule().getMinSize() ? rule.getRule() : null;
+            }
+        }
+        return null;
+    }
+
+    public byte[] compress(ContentCoding coding, CompressionRule rule, byte[] data) {
+        switch (coding) {
+        case BR:
+            return Compresss.brotliCompress(data, rule.getBrotliQuality());
+        case ZSTD:
+            return Compresss.zstdCompress(data, rule.getZstdLevel());
+        default:
+            return Compresss.gzipCompress(data, rule.getGzipLevel());
+        }
+    }
+
+    /**
+     * Gets the quality value of the coding, e.g: 'gzip;q=0.8, br, *;q=0.1'
+     */
+    static float getQuality(List<String> acceptEncodings, String coding) {
+        float wildcard = 0f;
+        for (String header : acceptEncodings) {
+            for (String part : header.split(",")) {
+                String token = part.trim();
+                float quality = 1f;
+                int index = token.indexOf(';');
+                if (index >= 0) {
+                    quality = parseQuality(token.substring(index + 1));
+                    token = token.substring(0, index).trim();
+                }
+                if (token.equalsIgnoreCase(coding)) {
+                    return quality;
+                } else if ("*".equals(token)) {
+                    wildcard = quality;
+                }
+            }
+        }
+        return wildcard;
+    }
+
+    private static float parseQuality(String params) {
+        for (String param : params.split(";")) {
+            String p = param.trim();
+            if (p.startsWith("q=") || p.startsWith("Q=")) {
+                try {
+                    return Float.parseFloat(p.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0f;
+                }
+            }
+        }
+        return 1f;
+    }
+
+    @Getter
+    static class MimeRule {
+        private final CompressionRule rule;
+        private final List<MimeType> mimeTypes;
+
+        MimeRule(CompressionRule rule) {
+            this.rule = rule;
+            this.mimeTypes = unmodifiableList(
+                    safeList(rule.getMimeTypes()).stream().map(MimeTypeUtils::parseMimeType).collect(Collectors.toList()));
+        }
+
+        boolean matches(MediaType contentType) {
+            for (MimeType mimeType : mimeTypes) {
+                if (mimeType.includes(contentType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static enum ContentCoding {
+        BR("br"), ZSTD("zstd"), GZIP("gzip");
+
+        private final String name;
+
+        public boolean isAvailable() {
+            switch (this) {
+            case BR:
+                return Compresss.isBrotliAvailable();
+            case ZSTD:
+                return Compresss.isZstdAvailable();
+            default:
+                return true;
+            }
+        }
+
+        public static ContentCoding of(String name) {
+            if (isNull(name)) {
+                return null;
+            }
+            String n = name.trim().toLowerCase(Locale.ROOT);
+            for (ContentCoding coding : values()) {
+                if (coding.getName().equals(n)) {
+                    return coding;
+                }
+            }
+            return null;
+        }
+    }
+
+}
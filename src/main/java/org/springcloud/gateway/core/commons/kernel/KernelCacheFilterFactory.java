@@ -43,6 +43,8 @@ import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ReactiveHttpOutputMessage;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
@@ -59,17 +61,19 @@ import com.google.common.hash.Hashing;
 import org.springcloud.gateway.core.commons.config.ReactiveByteArrayRedisTemplate;
 import org.springcloud.gateway.core.commons.fault.IamGatewayFault;
 import org.springcloud.gateway.core.commons.fault.IamGatewayFault.SafeFilterOrdered;
+import org.springcloud.gateway.core.commons.kernel.CachedResponseCompressor.ContentCoding;
 import org.springcloud.gateway.core.commons.kernel.cache.EhCacheResponseCache;
 import org.springcloud.gateway.core.commons.kernel.cache.RedisResponseCache;
 import org.springcloud.gateway.core.commons.kernel.cache.ResponseCache;
 import org.springcloud.gateway.core.commons.kernel.cache.SimpleResponseCache;
 import org.springcloud.gateway.core.commons.kernel.config.ResponseCacheProperties;
 import org.springcloud.gateway.core.commons.kernel.config.ResponseCacheProperties.CachedProperties;
+import org.springcloud.gateway.core.commons.kernel.config.ResponseCacheProperties.CompressionRule;
 import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade;
 import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsName;
 import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsTag;
 import org.springcloud.gateway.core.bean.ConfigBeanUtils;
-import org.springcloud.gateway.core.utils.web.ReactiveRequestExtractor;
+import org.springcloud.gateway.core.utils.web.ExchangeRequestView;
 import org.springcloud.gateway.core.web.matcher.SpelRequestMatcher;
 
 import io.netty.buffer.ByteBuf;
@@ -79,6 +83,7 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * {@link KernelCacheFilterFactory}
@@ -94,7 +99,13 @@ public class KernelCacheFilterFactory extends AbstractGatewayFilterFactory<Kerne
     private final ReactiveByteArrayRedisTemplate redisTemplate;
     private final GatewayMetricsFacade metricsFacade;
     private final SpelRequestMatcher requestMatcher;
+    private final CachedResponseCompressor compressor;
     private final ConcurrentMap<String, ResponseCache> responseCaches = new ConcurrentHashMap<>(4);
+    /**
+     * Whether the cached response of the hash key matched a compression rule
+     * (by its mime type and size) when it was cached, per route.
+     */
+    private final ConcurrentMap<String, Cache<String, Boolean>> compressibleHints = new ConcurrentHashMap<>(4);
 
     public KernelCacheFilterFactory(ResponseCacheProperties responseCacheConfig, ReactiveByteArrayRedisTemplate redisTemplate,
             GatewayMetricsFacade metricsFacade) {
@@ -104,6 +115,7 @@ public class KernelCacheFilterFactory extends AbstractGatewayFilterFactory<Kerne
         this.metricsFacade = notNullOf(metricsFacade, "metricsFacade");
         // Build gray request matcher.
         this.requestMatcher = new SpelRequestMatcher(responseCacheConfig.getPreferMatchRuleDefinitions());
+        this.compressor = new CachedResponseCompressor(responseCacheConfig.getCompression());
     }
 
     @Override
@@ -130,7 +142,7 @@ public class KernelCacheFilterFactory extends AbstractGatewayFilterFactory<Kerne
     public static String getRequestHashKey(Config config, ServerWebExchange exchange) {
         ServerHttpRequest request = exchange.getRequest();
         StringBuffer hashPlain = new StringBuffer(request.getMethod().name());
-        Map<String, String> queryParams = request.getQueryParams().toSingleValueMap();
+        Map<String, String> queryParams = ExchangeRequestView.of(exchange).getSingleQueryParams();
         queryParams.keySet().stream().sorted((k1, k2) -> k1.compareTo(k2)).forEach(
                 key -> hashPlain.append(key).append("=").append(queryParams.get(key)).append("&"));
         String hashKey = Hashing.sha1().hashString(hashPlain.toString(), StandardCharsets.UTF_8).toString();
@@ -138,6 +150,10 @@ public class KernelCacheFilterFactory extends AbstractGatewayFilterFactory<Kerne
         return hashKey;
     }
 
+    public static String getVariantKey(String hashKey, ContentCoding coding) {
+        return hashKey.concat(".").concat(coding.getName());
+    }
+
     public static class Config extends CachedProperties {
     }
 
@@ -170,14 +186,58 @@ public class KernelCacheFilterFactory extends AbstractGatewayFilterFactory<Kerne
             // Gets or create response cache by route.
             ResponseCache responseCache = obtainRouteResponseCache(exchange);
 
-            // First get the response data from the cache.
+            // Negotiates the content coding of compressed variants, the
+            // variant lookup is skipped if the cached response is known not
+            // to match any compression rule (e.g. images), unknown means it
+            // was cached before (or by another node) and is looked up.
+            ContentCoding coding = compressor.negotiate(exchange.getRequest().getHeaders());
+            if (nonNull(coding) && Boolean.FALSE.equals(obtainCompressibleHints(exchange).getIfPresent(hashKey))) {
+                coding = null;
+            }
+
+            // First get the compressed variant of the accepted coding from the
+            // cache, and then the identity response data.
+            Mono<byte[]> cachedVariant = isNull(coding) ? Mono.empty()
+                    : responseCache.get(getVariantKey(hashKey, coding)).filter(variantBytes -> variantBytes.length > 0);
+            ContentCoding variantCoding = coding;
+            return cachedVariant.flatMap(variantBytes -> {
+                // Add metrics of hits total.
+                metricsFacade.counter(exchange, MetricsName.RESPONSE_CACHE_HITS_TOTAL, 1, MetricsTag.ROUTE_ID,
+                        IamGatewayFault.getRouteId(exchange));
+                return responseWithCached(exchange, hashKey, variantBytes, variantCoding).thenReturn(true);
+            }).switchIfEmpty(Mono.defer(() -> filterWithIdentity(exchange, chain, hashKey, responseCache).thenReturn(true)))
+                    .then();
+        }
+
+        private Mono<Void> filterWithIdentity(
+                ServerWebExchange exchange,
+                GatewayFilterChain chain,
+                String hashKey,
+                ResponseCache responseCache) {
             return responseCache.get(hashKey).defaultIfEmpty(new byte[0]).flatMap(cachedResponseBytes -> {
                 // Response cached data.
                 if (nonNull(cachedResponseBytes) && cachedResponseBytes.length > 0) {
                     // Add metrics of hits total.
                     metricsFacade.counter(exchange, MetricsName.RESPONSE_CACHE_HITS_TOTAL, 1, MetricsTag.ROUTE_ID,
                             IamGatewayFault.getRouteId(exchange));
-                    return responseWithCached(exchange, hashKey, cachedResponseBytes);
+                    return responseWithCached(exchange, hashKey, cachedResponseBytes, null);
+                }
+
+                // The response of a path that matches a compression rule may
+                // be served in another coding from the cache next time, so it
+                // varies by 'Accept-Encoding' even if served as is now.
+                if (compressor.isEnabled()) {
+                    exchange.getResponse().beforeCommit(() -> {
+                        HttpHeaders headers = exchange.getResponse().getHeaders();
+                        long contentLength = headers.getContentLength();
+                        // Unknown length (e.g. chunked) is regarded as large
+                        // enough, an unnecessary Vary is harmless.
+                        if (nonNull(getCompressionRule(headers, contentLength < 0 ? Integer.MAX_VALUE
+                                : (int) Math.min(contentLength, Integer.MAX_VALUE)))) {
+                            addVaryAcceptEncoding(headers);
+                        }
+                        return Mono.empty();
+                    });
                 }
 
                 // Extract new response data to cache.
@@ -201,6 +261,7 @@ public class KernelCacheFilterFactory extends AbstractGatewayFilterFactory<Kerne
                             // RedisResponseCache from not completing.
                             responseCache.put(hashKey, respBytes).subscribe();
                             log.debug("Cached response body of hashKey: {}, uri: {}", hashKey, exchange.getRequest().getURI());
+                            putCompressedVariants(exchange, responseCache, hashKey, respBytes);
                         }
                     } finally {
                         ReferenceCountUtil.safeRelease(respBuf);
@@ -209,6 +270,78 @@ public class KernelCacheFilterFactory extends AbstractGatewayFilterFactory<Kerne
             });
         }
 
+        /**
+         * Compresses the response once for each enabled content coding and
+         * stores the variants, the compression is performed off the event
+         * loop, and the variant not smaller than the identity is discarded.
+         * 
+         * @param exchange
+         * @param responseCache
+         * @param hashKey
+         * @param respBytes
+         */
+        private void putCompressedVariants(
+                ServerWebExchange exchange,
+                ResponseCache responseCache,
+                String hashKey,
+                byte[] respBytes) {
+            if (!compressor.isEnabled()) {
+                return;
+            }
+            CompressionRule rule = getCompressionRule(exchange.getResponse().getHeaders(), respBytes.length);
+            obtainCompressibleHints(exchange).put(hashKey, nonNull(rule));
+            if (isNull(rule)) {
+                return;
+            }
+            Flux.fromIterable(compressor.getCodings())
+                    .flatMap(coding -> Mono.fromCallable(() -> compressor.compress(coding, rule, respBytes))
+                            .filter(compressed -> compressed.length < respBytes.length)
+                            .flatMap(compressed -> responseCache.put(getVariantKey(hashKey, coding), compressed)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .subscribe(null, ex -> log.warn("Unable to cache compressed variants of hashKey: {}", hashKey, ex));
+        }
+
+        /**
+         * Gets the compression rule matched the response mime type and size.
+         * 
+         * @param headers
+         * @param contentLength
+         * @return null if the response should not be compressed.
+         */
+        private CompressionRule getCompressionRule(HttpHeaders headers, int contentLength) {
+            // Already encoded by the upstream.
+            if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                return null;
+            }
+            MediaType contentType;
+            try {
+                contentType = headers.getContentType();
+            } catch (InvalidMediaTypeException e) {
+                return null;
+            }
+            return compressor.getRule(contentType, contentLength);
+        }
+
+        /**
+         * Obtain the compressible hints of the cached responses by current
+         * routeId, which are bounded and expired like the simple cache.
+         * 
+         * @param exchange
+         * @return
+         */
+        private Cache<String, Boolean> obtainCompressibleHints(ServerWebExchange exchange) {
+            String routeId = IamGatewayFault.getRouteId(exchange);
+            Cache<String, Boolean> hints = compressibleHints.get(routeId);
+            if (isNull(hints)) {
+                hints = compressibleHints.computeIfAbsent(routeId,
+                        key -> newBuilder().maximumSize(config.getSimple().getMaximumSize())
+                                .expireAfterWrite(config.getSimple().getExpireAfterWriteMs(), MILLISECONDS)
+                                .concurrencyLevel(config.getSimple().getConcurrencyLevel())
+                                .<String, Boolean> build());
+            }
+            return hints;
+        }
+
         /**
          * Check if enable cached request needs to be filtered.
          * 
@@ -223,7 +356,7 @@ public class KernelCacheFilterFactory extends AbstractGatewayFilterFactory<Kerne
             Map<String, Supplier<Predicate<String>>> routeIdPredicateSupplier = singletonMap(VAR_ROUTE_ID,
                     () -> (Predicate<String>) Predicates.equalTo(route.getId()));
 
-            return requestMatcher.matches(new ReactiveRequestExtractor(exchange.getRequest()),
+            return requestMatcher.matches(ExchangeRequestView.of(exchange),
                     responseCacheConfig.getPreferOpenMatchExpression(), routeIdPredicateSupplier);
         }
 
@@ -335,16 +468,39 @@ public class KernelCacheFilterFactory extends AbstractGatewayFilterFactory<Kerne
          * @param exchange
          * @param hashKey
          * @param cachedResponseBytes
+         * @param coding
+         *            the content coding of the cached bytes, null means
+         *            identity.
          * @return
          */
-        private Mono<Void> responseWithCached(ServerWebExchange exchange, String hashKey, byte[] cachedResponseBytes) {
+        private Mono<Void> responseWithCached(
+                ServerWebExchange exchange,
+                String hashKey,
+                byte[] cachedResponseBytes,
+                ContentCoding coding) {
             // see:https://github.com/spring-cloud/spring-cloud-gateway/issues/268
             HttpHeaders headers = exchange.getResponse().getHeaders();
             headers.add(responseCacheConfig.getResponseCachedHeader(), hashKey);
+            // Varies unless the cached response is known not to match any
+            // compression rule.
+            if (compressor.isEnabled() && (nonNull(coding)
+                    || !Boolean.FALSE.equals(obtainCompressibleHints(exchange).getIfPresent(hashKey)))) {
+                addVaryAcceptEncoding(headers);
+            }
+            if (nonNull(coding)) {
+                // The server compression is skipped if already encoded.
+                headers.set(HttpHeaders.CONTENT_ENCODING, coding.getName());
+            }
             headers.add(HttpHeaders.CONTENT_LENGTH, valueOf(cachedResponseBytes.length));
             return exchange.getResponse().writeWith(Flux.just(exchange.getResponse().bufferFactory().wrap(cachedResponseBytes)));
         }
 
+        private void addVaryAcceptEncoding(HttpHeaders headers) {
+            if (!headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING)) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+        }
+
     }
 
     public static final String BEAN_NAME = "ResponseCache";
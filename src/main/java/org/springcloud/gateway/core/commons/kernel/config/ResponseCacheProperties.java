@@ -17,6 +17,9 @@ package org.springcloud.gateway.core.commons.kernel.config;
 
 import static org.springcloud.gateway.core.common.constant.GatewayMAIConstants.CACHE_SUFFIX_IAM_GATEWAY_RESPONSECACHE;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
@@ -78,6 +81,12 @@ public class ResponseCacheProperties {
      */
     private CachedProperties defaultCache = new CachedProperties();
 
+    /**
+     * The compression configuration of the cached responses, the compressed
+     * variants are stored along with the cached response.
+     */
+    private CompressionProperties compression = new CompressionProperties();
+
     @Getter
     @Setter
     @Validated
@@ -193,5 +202,68 @@ public class ResponseCacheProperties {
         private long expireMs = 60_000L;
     }
 
+    @Getter
+    @Setter
+    @Validated
+    @ToString
+    public static class CompressionProperties {
+
+        /**
+         * Whether to store the compressed variants of cached responses and
+         * respond according to the request 'Accept-Encoding'.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The content codings (br|zstd|gzip) in order of server preference,
+         * the 'br' and 'zstd' are ignored if the native libraries are not
+         * available at runtime.
+         */
+        private List<String> codings = new ArrayList<>(asList("br", "zstd", "gzip"));
+
+        /**
+         * The compression rules by response mime types, the first matched rule
+         * is used, and the response not matched by any rule is never
+         * compressed.
+         */
+        private List<CompressionRule> rules = new ArrayList<>(singletonList(new CompressionRule()));
+    }
+
+    @Getter
+    @Setter
+    @Validated
+    @ToString
+    public static class CompressionRule {
+
+        /**
+         * The matching response mime types, wildcard subtype is supported,
+         * e.g: text/*
+         */
+        private List<String> mimeTypes = new ArrayList<>(
+                asList("text/*", "application/json", "application/javascript", "application/xml", "image/svg+xml"));
+
+        /**
+         * The minimum response body size to compress, the smaller response is
+         * not worth the CPU of compression.
+         */
+        private int minSize = 1024;
+
+        /**
+         * The brotli compression quality (0-11), the variants are compressed
+         * only once per cached response, so a higher level is affordable.
+         */
+        private int brotliQuality = 9;
+
+        /**
+         * The zstd compression level (1-22).
+         */
+        private int zstdLevel = 9;
+
+        /**
+         * The gzip compression level (1-9).
+         */
+        private int gzipLevel = 6;
+    }
+
     public static String RESPONSE_CACHED_HEADER = "X-Iscg-Cached";
 }
@@ -11,6 +11,7 @@ import static org.apache.commons.lang3.StringUtils.startsWith;
 import static org.springframework.util.CollectionUtils.isEmpty;
 
 import java.util.List;
+import java.util.Set;
 
 import javax.annotation.Resource;
 
@@ -29,7 +30,7 @@ import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.Metric
 import org.springcloud.gateway.core.commons.serv.CanaryLoadBalancerFilterFactory;
 import org.springcloud.gateway.core.commons.serv.LoadBalancerUtil;
 import org.springcloud.gateway.core.log.SmartLogger;
-import org.springcloud.gateway.core.utils.web.ReactiveRequestExtractor;
+import org.springcloud.gateway.core.utils.web.ExchangeRequestView;
 import org.springcloud.gateway.core.web.matcher.SpelRequestMatcher;
 import org.springcloud.gateway.core.web.matcher.SpelRequestMatcher.MatchHttpRequestRule;
 
@@ -69,7 +70,7 @@ public abstract class AbstractCanaryLoadBalancerChooser implements CanaryLoadBal
         // According to the configuration expression, match whether the current
         // request satisfies the load condition for executing the canary.
         List<ServiceInstance> candidateInstances = null;
-        List<MatchHttpRequestRule> rules = requestMatcher.find(new ReactiveRequestExtractor(exchange.getRequest()),
+        List<MatchHttpRequestRule> rules = requestMatcher.find(ExchangeRequestView.of(exchange),
                 getLoadBalancerConfig().getCanaryChooseExpression());
         if (isEmpty(rules)) {
             log.warn("The request did not match the canary load balancer instance.");
@@ -86,7 +87,23 @@ public abstract class AbstractCanaryLoadBalancerChooser implements CanaryLoadBal
             candidateInstances = findCandidateInstances(allInstances, rules.stream().map(r -> r.getName()).collect(toList()));
         }
 
-        return doChooseInstance(config, exchange, loadBalancerStats, serviceId, candidateInstances);
+        return doChooseInstance(config, exchange, loadBalancerStats, serviceId,
+                avoidTriedInstances(exchange, candidateInstances));
+    }
+
+    /**
+     * Excludes the instances chosen by the previous attempts of the exchange
+     * (e.g. retries or hedges), unless no instance will be left.
+     */
+    protected List<ServiceInstance> avoidTriedInstances(ServerWebExchange exchange, List<ServiceInstance> candidateInstances) {
+        Set<String> triedInstances = exchange.getAttribute(LoadBalancerStats.KEY_TRIED_INSTANCES);
+        if (isEmpty(triedInstances) || isEmpty(candidateInstances)) {
+            return candidateInstances;
+        }
+        List<ServiceInstance> untried = candidateInstances.stream()
+                .filter(i -> !triedInstances.contains(LoadBalancerUtil.getInstanceId(i)))
+                .collect(toList());
+        return isEmpty(untried) ? candidateInstances : untried;
     }
 
     public List<ServiceInstance> findCandidateInstances(List<ServiceInstance> instances, List<String> matchedRuleNames) {
@@ -37,6 +37,7 @@ import static org.springframework.util.CollectionUtils.isEmpty;
 
 import java.net.URI;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
@@ -67,7 +68,7 @@ import org.springcloud.gateway.core.commons.serv.LoadBalancerUtil;
 import org.springcloud.gateway.core.commons.serv.CanaryLoadBalancerFilterFactory.CanaryLoadBalancerGatewayFilter;
 import org.springcloud.gateway.core.task.RunnerProperties;
 import org.springcloud.gateway.core.task.RunnerProperties.StartupMode;
-import org.springcloud.gateway.core.task.SafeScheduledTaskPoolExecutor;
+import org.springcloud.gateway.core.task.SafeScheduledExecutor;
 import org.springcloud.gateway.core.task.ApplicationTaskRunner;
 
 import lombok.extern.slf4j.Slf4j;
@@ -101,7 +102,7 @@ public class DefaultLoadBalancerStats extends ApplicationTaskRunner<RunnerProper
     }
 
     @Override
-    protected void onApplicationStarted(ApplicationArguments args, SafeScheduledTaskPoolExecutor worker) throws Exception {
+    protected void onApplicationStarted(ApplicationArguments args, SafeScheduledExecutor worker) throws Exception {
         getWorker().scheduleWithFixedDelay(() -> registerAllRouteServices(() -> {
             if (initRegisterAllRouteServicesCompleted.compareAndSet(false, true)) {
                 restartProbeTask();
@@ -249,6 +250,35 @@ public class DefaultLoadBalancerStats extends ApplicationTaskRunner<RunnerProper
         return 0;
     }
 
+    @Override
+    public synchronized long getCostTimePercentile(String routeId, double percentile, int minSamples) {
+        RouteServiceStatus routeService = loadBalancerRegistry.getRouteService(routeId, false);
+        if (isNull(routeService)) {
+            return -1;
+        }
+        // Synchronized with save(), because of the passive probes queue is not
+        // thread safe.
+        int count = 0;
+        for (InstanceStatus status : safeMap(routeService.getInstances()).values()) {
+            count += status.getStats().getPassiveProbes().size();
+        }
+        if (count <= 0 || count < minSamples) {
+            return -1;
+        }
+        long[] costTimes = new long[count];
+        int i = 0;
+        for (InstanceStatus status : safeMap(routeService.getInstances()).values()) {
+            for (PassiveProbe probe : status.getStats().getPassiveProbes()) {
+                if (i < count) {
+                    costTimes[i++] = probe.getCostTime();
+                }
+            }
+        }
+        Arrays.sort(costTimes, 0, i);
+        int index = (int) Math.ceil(percentile / 100d * i) - 1;
+        return costTimes[Math.max(0, Math.min(i - 1, index))];
+    }
+
     @Override
     public List<InstanceStatus> getReachableInstances(String routeId) {
         RouteServiceStatus routeService = loadBalancerRegistry.getRouteService(routeId, true);
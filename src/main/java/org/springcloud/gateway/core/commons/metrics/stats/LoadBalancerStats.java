@@ -84,6 +84,20 @@ public interface LoadBalancerStats {
     @NotNull
     Map<String, RouteServiceStatus> getAllRouteServices();
 
+    /**
+     * Gets the percentile of the passive probes cost time of all instances of
+     * the route.
+     * 
+     * @param routeId
+     * @param percentile
+     *            The percentile, e.g: 95
+     * @param minSamples
+     *            The minimum number of samples required.
+     * @return The cost time in milliseconds, or -1 if the samples are not
+     *         enough.
+     */
+    long getCostTimePercentile(@NotBlank String routeId, double percentile, int minSamples);
+
     @Getter
     @Setter
     @ToString
@@ -152,4 +166,11 @@ public interface LoadBalancerStats {
 
     public static final String KEY_COST_TIME = LoadBalancerStats.class.getName().concat(".costTime");
 
+    /**
+     * The instance IDs that have been chosen by the previous attempts (e.g.
+     * retries or hedges) of the exchange, which should be avoided when
+     * choosing again.
+     */
+    public static final String KEY_TRIED_INSTANCES = LoadBalancerStats.class.getName().concat(".triedInstances");
+
 }
@@ -23,11 +23,15 @@ import static java.lang.System.nanoTime;
 import static java.util.Arrays.asList;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
-import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import javax.validation.constraints.NotNull;
@@ -42,11 +46,13 @@ import com.google.common.collect.Lists;
 
 import org.springcloud.gateway.core.commons.fault.IamGatewayFault;
 import org.springcloud.gateway.core.commons.metrics.stats.LoadBalancerStats.InstanceStatus;
+import org.springcloud.gateway.core.commons.microtag.config.GatewayMetricsProperties;
 import org.springcloud.gateway.core.commons.serv.LoadBalancerUtil;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
 import io.prometheus.client.Collector.MetricFamilySamples;
@@ -79,16 +85,32 @@ public class GatewayMetricsFacade implements InitializingBean {
 
     private final Environment environment;
 
+    private final GatewayMetricsProperties metricsConfig;
+
+    /**
+     * The cached meter handles grouped by type, metrics name and route.
+     */
+    private final Map<MeterType, Map<MetricsName, Map<String, MeterGroup>>> meterGroups = new EnumMap<>(MeterType.class);
+
     /**
      * see:{@link org.springframework.cloud.client.discovery.simple.SimpleDiscoveryProperties#local}
      */
     private DefaultServiceInstance localInstance;
 
     public GatewayMetricsFacade(@NotNull PrometheusMeterRegistry meterRegistry, @NotNull InetUtils inet,
-            @NotNull Environment environment) {
+            @NotNull Environment environment, @NotNull GatewayMetricsProperties metricsConfig) {
         this.meterRegistry = notNullOf(meterRegistry, "meterRegistry");
         this.inet = notNullOf(inet, "inet");
         this.environment = notNullOf(environment, "environment");
+        this.metricsConfig = notNullOf(metricsConfig, "metricsConfig");
+        // Pre-created, so that the first two levels are read only.
+        for (MeterType type : MeterType.values()) {
+            Map<MetricsName, Map<String, MeterGroup>> groups = new EnumMap<>(MetricsName.class);
+            for (MetricsName metricsName : MetricsName.values()) {
+                groups.put(metricsName, new ConcurrentHashMap<>(8));
+            }
+            this.meterGroups.put(type, groups);
+        }
     }
 
     @Override
@@ -108,6 +130,12 @@ public class GatewayMetricsFacade implements InitializingBean {
     //
     // The Meter Metrics Active Recorder
     //
+    // Note: The meters are resolved once per (metricsName, routeId, tags) and
+    // cached as handles, so that the builder and registry lookups are only
+    // performed on the first recording, and the number of tags tuples per
+    // metrics and route are bounded, the excess will be merged into the
+    // overflow tags tuple.
+    //
 
     public void counter(ServerWebExchange exchange, MetricsName metricsName, double amount, String... tags) {
         try {
@@ -115,10 +143,7 @@ public class GatewayMetricsFacade implements InitializingBean {
             notNullOf(metricsName, "metricsName");
             String routeId = IamGatewayFault.getRouteId(exchange);
             if (nonNull(routeId)) {
-                List<String> _tags = Lists.newArrayList(tags);
-                _tags.add(MetricsTag.ROUTE_ID);
-                _tags.add(routeId);
-                getCounter(metricsName, _tags.toArray(new String[0])).increment(amount);
+                resolveCounter(metricsName, routeId, tags).increment(amount);
             }
         } catch (Exception e) {
             log.warn(format("Cannot add to counter metrics name: %s, amount: {}", metricsName, valueOf(amount)), e);
@@ -153,10 +178,7 @@ public class GatewayMetricsFacade implements InitializingBean {
 
     public void counter(MetricsName metricsName, String routeId, double amount, String... tags) {
         try {
-            List<String> _tags = Lists.newArrayList(tags);
-            _tags.add(MetricsTag.ROUTE_ID);
-            _tags.add(routeId);
-            getCounter(metricsName, _tags.toArray(new String[0])).increment(amount);
+            resolveCounter(metricsName, routeId, tags).increment(amount);
         } catch (Exception e) {
             log.warn(format("Cannot add to counter metrics name: %s, amount: {}, routeId: {}", metricsName, valueOf(amount)),
                     routeId, e);
@@ -164,10 +186,7 @@ public class GatewayMetricsFacade implements InitializingBean {
     }
 
     public Counter getCounter(MetricsName metricsName, String... tags) {
-        List<String> _tags = Lists.newArrayList(tags);
-        _tags.add(MetricsTag.SELF_INSTANCE_ID);
-        _tags.add(LoadBalancerUtil.getInstanceId(localInstance));
-        return Counter.builder(metricsName.getName()).description(metricsName.getHelp()).tags(tags).register(meterRegistry);
+        return resolveCounter(metricsName, null, tags);
     }
 
     public Gauge gauge(MetricsName metricsName, Supplier<Number> supplier, String... tags) {
@@ -178,57 +197,234 @@ public class GatewayMetricsFacade implements InitializingBean {
     public void timer(ServerWebExchange exchange, MetricsName metricsName, long beginNanoTime, String... tags) {
         notNullOf(exchange, "exchange");
         notNullOf(metricsName, "metricsName");
-        Duration cost = Duration.ofNanos(nanoTime() - beginNanoTime);
+        long costNanos = nanoTime() - beginNanoTime;
         try {
             String routeId = IamGatewayFault.getRouteId(exchange);
             if (nonNull(routeId)) {
-                List<String> _tags = Lists.newArrayList(tags);
-                _tags.add(MetricsTag.SELF_INSTANCE_ID);
-                _tags.add(LoadBalancerUtil.getInstanceId(localInstance));
-                _tags.add(MetricsTag.ROUTE_ID);
-                _tags.add(routeId);
-                getTimer(metricsName, _tags.toArray(new String[0])).record(cost);
+                resolveTimer(metricsName, routeId, tags).record(costNanos, NANOSECONDS);
             }
         } catch (Exception e) {
-            log.warn(format("Cannot add to counter metrics name: %s, cost: {}ns", metricsName, valueOf(cost.getNano())), e);
+            log.warn(format("Cannot add to counter metrics name: %s, cost: {}ns", metricsName, valueOf(costNanos)), e);
         }
     }
 
     public void timer(MetricsName metricsName, String routeId, long beginNanoTime, String... tags) {
         notNullOf(metricsName, "metricsName");
         hasTextOf(routeId, "routeId");
-        Duration cost = Duration.ofNanos(nanoTime() - beginNanoTime);
+        long costNanos = nanoTime() - beginNanoTime;
         try {
-            List<String> _tags = Lists.newArrayList(tags);
-            _tags.add(MetricsTag.SELF_INSTANCE_ID);
-            _tags.add(LoadBalancerUtil.getInstanceId(localInstance));
-            _tags.add(MetricsTag.ROUTE_ID);
-            _tags.add(routeId);
-            getTimer(metricsName, _tags.toArray(new String[0])).record(cost);
+            resolveTimer(metricsName, routeId, tags).record(costNanos, NANOSECONDS);
         } catch (Exception e) {
-            log.warn(format("Cannot add to counter metrics name: %s, cost: {}ns", metricsName, valueOf(cost.getNano())), e);
+            log.warn(format("Cannot add to counter metrics name: %s, cost: {}ns", metricsName, valueOf(costNanos)), e);
         }
     }
 
     public Timer getTimer(MetricsName metricsName, String... tags) {
-        return Timer.builder(metricsName.getName())
-                .distributionStatisticBufferLength(10240)
-                // .distributionStatisticExpiry(Duration.ofDays(1))
-                .description(metricsName.getHelp())
-                .tags(tags)
-                .register(meterRegistry);
+        return resolveMeter(MeterType.TIMER, metricsName, null, tags, null);
     }
 
     public DistributionSummary getDistributionSummary(MetricsName metricsName, String unit, String... tags) {
-        return DistributionSummary.builder(metricsName.getName())
-                .distributionStatisticBufferLength(10240)
-                // .distributionStatisticExpiry(Duration.ofDays(1))
-                .baseUnit(unit)
-                .description(metricsName.getHelp())
-                .tags(tags)
-                .register(meterRegistry);
+        return resolveMeter(MeterType.SUMMARY, metricsName, null, tags, unit);
+    }
+
+    private Counter resolveCounter(MetricsName metricsName, String routeId, String[] tags) {
+        return resolveMeter(MeterType.COUNTER, metricsName, routeId, tags, null);
+    }
+
+    private Timer resolveTimer(MetricsName metricsName, String routeId, String[] tags) {
+        return resolveMeter(MeterType.TIMER, metricsName, routeId, tags, null);
     }
 
+    @SuppressWarnings("unchecked")
+    private <M extends Meter> M resolveMeter(MeterType type, MetricsName metricsName, String routeId, String[] tags, String unit) {
+        String groupId = isNull(routeId) ? NO_ROUTE_GROUP : routeId;
+        Map<String, MeterGroup> groups = meterGroups.get(type).get(metricsName);
+        MeterGroup group = groups.get(groupId);
+        if (isNull(group)) {
+            group = groups.computeIfAbsent(groupId, k -> new MeterGroup());
+        }
+        Meter meter = group.find(tags);
+        if (isNull(meter)) {
+            meter = group.resolve(new MeterKey(type, metricsName, routeId, tags), unit);
+        }
+        return (M) meter;
+    }
+
+    private Meter registerMeter(MeterKey key, String unit) {
+        MetricsName metricsName = key.getMetricsName();
+        List<String> _tags = Lists.newArrayList(key.getTags());
+        switch (key.getType()) {
+        case COUNTER:
+            if (nonNull(key.getRouteId())) {
+                _tags.add(MetricsTag.ROUTE_ID);
+                _tags.add(key.getRouteId());
+            }
+            return Counter.builder(metricsName.getName())
+                    .description(metricsName.getHelp())
+                    .tags(_tags.toArray(new String[0]))
+                    .register(meterRegistry);
+        case TIMER:
+            if (nonNull(key.getRouteId())) {
+                _tags.add(MetricsTag.SELF_INSTANCE_ID);
+                _tags.add(LoadBalancerUtil.getInstanceId(localInstance));
+                _tags.add(MetricsTag.ROUTE_ID);
+                _tags.add(key.getRouteId());
+            }
+            return Timer.builder(metricsName.getName())
+                    .distributionStatisticBufferLength(metricsConfig.getDistributionStatisticBufferLength())
+                    .distributionStatisticExpiry(metricsConfig.getDistributionStatisticExpiry())
+                    .publishPercentiles(metricsConfig.getPublishPercentiles())
+                    .publishPercentileHistogram(metricsConfig.isPublishPercentileHistogram())
+                    .description(metricsName.getHelp())
+                    .tags(_tags.toArray(new String[0]))
+                    .register(meterRegistry);
+        case SUMMARY:
+            return DistributionSummary.builder(metricsName.getName())
+                    .distributionStatisticBufferLength(metricsConfig.getDistributionStatisticBufferLength())
+                    .distributionStatisticExpiry(metricsConfig.getDistributionStatisticExpiry())
+                    .publishPercentiles(metricsConfig.getPublishPercentiles())
+                    .publishPercentileHistogram(metricsConfig.isPublishPercentileHistogram())
+                    .baseUnit(unit)
+                    .description(metricsName.getHelp())
+                    .tags(_tags.toArray(new String[0]))
+                    .register(meterRegistry);
+        default:
+            throw new Error("Shouldn't be here");
+        }
+    }
+
+    static enum MeterType {
+        COUNTER, TIMER, SUMMARY;
+    }
+
+    /**
+     * The meters of the same type, metrics name and route. The found meters
+     * are indexed by the tags (nested maps keyed by each tag key and value),
+     * so that the lookups of the recorded tags do not allocate, and the number
+     * of tags tuples is only counted when a meter is actually inserted.
+     */
+    class MeterGroup {
+        private final AtomicInteger cardinality = new AtomicInteger(0);
+        private final Map<MeterKey, Meter> meters = new ConcurrentHashMap<>(8);
+        private final TagsNode index = new TagsNode();
+
+        Meter find(String[] tags) {
+            TagsNode node = index;
+            if (nonNull(tags)) {
+                for (String tag : tags) {
+                    node = isNull(tag) ? null : node.children.get(tag);
+                    if (isNull(node)) {
+                        return null;
+                    }
+                }
+            }
+            return node.meter;
+        }
+
+        Meter resolve(MeterKey key, String unit) {
+            Meter meter = meters.computeIfAbsent(key, k -> {
+                if (!tryAcquire()) {
+                    return null;
+                }
+                try {
+                    return registerMeter(k, unit);
+                } catch (RuntimeException e) {
+                    cardinality.decrementAndGet();
+                    throw e;
+                }
+            });
+            if (nonNull(meter)) {
+                index(key.getTags(), meter);
+                return meter;
+            }
+            log.debug("Too many tags of metrics: {}, routeId: {}, merge into overflow tags.", key.getMetricsName(),
+                    key.getRouteId());
+            // The overflow meter is not counted and not indexed.
+            return meters.computeIfAbsent(key.toOverflow(), k -> registerMeter(k, unit));
+        }
+
+        private boolean tryAcquire() {
+            int max = metricsConfig.getMaxTagsPerRoute();
+            for (;;) {
+                int current = cardinality.get();
+                if (current >= max) {
+                    return false;
+                }
+                if (cardinality.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void index(String[] tags, Meter meter) {
+            TagsNode node = index;
+            for (String tag : tags) {
+                TagsNode next = node.children.get(tag);
+                if (isNull(next)) {
+                    next = node.children.computeIfAbsent(tag, t -> new TagsNode());
+                }
+                node = next;
+            }
+            node.meter = meter;
+        }
+    }
+
+    static class TagsNode {
+        private final Map<String, TagsNode> children = new ConcurrentHashMap<>(4);
+        private volatile Meter meter;
+    }
+
+    @Getter
+    static class MeterKey {
+        private final MeterType type;
+        private final MetricsName metricsName;
+        private final String routeId;
+        private final String[] tags;
+        private final int hash;
+
+        MeterKey(MeterType type, MetricsName metricsName, String routeId, String[] tags) {
+            this.type = type;
+            this.metricsName = metricsName;
+            this.routeId = routeId;
+            this.tags = isNull(tags) ? new String[0] : tags;
+            this.hash = 31 * (31 * (31 * type.hashCode() + metricsName.hashCode()) + Objects.hashCode(routeId))
+                    + Arrays.hashCode(this.tags);
+        }
+
+        /**
+         * The same tag keys with all values replaced, since the prometheus
+         * requires the same tag keys of meters with the same name.
+         */
+        MeterKey toOverflow() {
+            String[] overflowTags = tags.clone();
+            for (int i = 1; i < overflowTags.length; i += 2) {
+                overflowTags[i] = OVERFLOW_TAG_VALUE;
+            }
+            return new MeterKey(type, metricsName, routeId, overflowTags);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof MeterKey)) {
+                return false;
+            }
+            MeterKey that = (MeterKey) obj;
+            return hash == that.hash && type == that.type && metricsName == that.metricsName
+                    && Objects.equals(routeId, that.routeId) && Arrays.equals(tags, that.tags);
+        }
+    }
+
+    public static final String OVERFLOW_TAG_VALUE = "_overflow";
+    private static final String NO_ROUTE_GROUP = "";
+
     //
     // The Metrics Passive Sampler
     //
@@ -297,6 +493,33 @@ public class GatewayMetricsFacade implements InitializingBean {
 
         SIMPLE_SIGN_TIME("iscg_simple_sign_time", "The number of simple signature execution cost time"),
 
+        //
+        // Routes.
+        //
+
+        ROUTE_PUSH_CONVERGENCE_TIME("iscg_route_push_convergence_time",
+                "The number of time from route changes published to applied on the gateway"),
+
+        ROUTE_PUSH_RESYNC_TOTAL("iscg_route_push_resync_total",
+                "The total number of full resync routes due to the push route changes gap detected"),
+
+        //
+        // Circuit breaker.
+        //
+
+        CIRCUITBREAKER_REJECTED_TOTAL("iscg_circuitbreaker_rejected_total",
+                "The total number of requests shed by the route bulkhead or adaptive concurrency limiter"),
+
+        //
+        // Retry.
+        //
+
+        RETRY_BUDGET_EXHAUSTED_TOTAL("iscg_retry_budget_exhausted_total",
+                "The total number of retries or hedges rejected due to the route retry budget exhausted"),
+
+        RETRY_HEDGE_TOTAL("iscg_retry_hedge_total",
+                "The total number of hedged requests sent after the route latency percentile passed"),
+
         //
         // Canary LoadBalacner.
         //
@@ -394,6 +617,15 @@ public class GatewayMetricsFacade implements InitializingBean {
 
         FAULT_TOTAL("iscg_fault_total", "The number of total processing in the fault injected"),
 
+        //
+        // Event bus.
+        //
+
+        EVENTBUS_QUEUE_DEPTH("iscg_eventbus_queue_depth", "The number of events queued in the bounded event bus dispatchers"),
+
+        EVENTBUS_DROPPED_TOTAL("iscg_eventbus_dropped_total",
+                "The total number of events discarded by the event bus when the dispatching queue is saturated"),
+
         //
         // Traffic.
         //
@@ -426,10 +658,20 @@ public class GatewayMetricsFacade implements InitializingBean {
         public static final String LB_MAX_TRIES = "maxTries";
         public static final String LB_FAIL_ROUTE_SERVICE = "failRouteService";
 
+        // for Circuit breaker tags.
+
+        public static final String CB_REJECT_REASON = "reason";
+
         // for Fault tags.
 
         public static final String FAULT_INJECTOR = "injector";
 
+        // for Event bus tags.
+
+        public static final String EVENTBUS_NAME = "bus";
+        public static final String EVENTBUS_EVENT_TYPE = "eventType";
+        public static final String EVENTBUS_DROP_POLICY = "policy";
+
     }
 
 }
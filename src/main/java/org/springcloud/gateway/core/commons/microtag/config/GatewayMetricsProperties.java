@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.microtag.config;
+
+import java.time.Duration;
+
+import org.springframework.validation.annotation.Validated;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * {@link GatewayMetricsProperties}
+ * 
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+@Getter
+@Setter
+@Validated
+@ToString
+public class GatewayMetricsProperties {
+
+    /**
+     * The maximum number of distinct tags tuples per metrics and route, the
+     * excess will be merged into the overflow tags tuple, to prevent the
+     * unbounded growth of meters.
+     */
+    private int maxTagsPerRoute = 200;
+
+    /**
+     * The ring buffer length of timers and distribution summaries statistic.
+     */
+    private int distributionStatisticBufferLength = 3;
+
+    /**
+     * The ring buffer rotation period of timers and distribution summaries
+     * statistic.
+     */
+    private Duration distributionStatisticExpiry = Duration.ofMinutes(2);
+
+    /**
+     * The client-side computed percentiles of timers and distribution
+     * summaries, e.g: [0.5, 0.95, 0.99]
+     */
+    private double[] publishPercentiles = {};
+
+    /**
+     * Whether to publish the histogram buckets for the server-side percentiles
+     * aggregation.
+     */
+    private boolean publishPercentileHistogram = false;
+
+}
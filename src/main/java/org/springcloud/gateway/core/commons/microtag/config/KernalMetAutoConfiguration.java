@@ -15,7 +15,9 @@
  */
 package org.springcloud.gateway.core.commons.microtag.config;
 
+import org.springcloud.gateway.core.common.constant.GatewayMAIConstants;
 import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cloud.commons.util.InetUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.env.Environment;
@@ -31,12 +33,19 @@ import io.micrometer.prometheus.PrometheusMeterRegistry;
  */
 public class KernalMetAutoConfiguration {
 
+    @Bean
+    @ConfigurationProperties(prefix = GatewayMAIConstants.CONF_PREFIX_SCG_GATEWAY_METRICS)
+    public GatewayMetricsProperties gatewayMetricsProperties() {
+        return new GatewayMetricsProperties();
+    }
+
     @Bean
     public GatewayMetricsFacade gatewayMetricsFacade(
             PrometheusMeterRegistry meterRegistry,
             InetUtils inet,
-            Environment environment) {
-        return new GatewayMetricsFacade(meterRegistry, inet, environment);
+            Environment environment,
+            GatewayMetricsProperties metricsConfig) {
+        return new GatewayMetricsFacade(meterRegistry, inet, environment, metricsConfig);
     }
 
 }
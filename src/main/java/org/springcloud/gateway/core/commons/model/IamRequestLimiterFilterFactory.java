@@ -89,7 +89,9 @@ public class IamRequestLimiterFilterFactory extends AbstractGatewayFilterFactory
     public GatewayFilter apply(IamRequestLimiterFilterFactory.Config config) {
         KeyResolverStrategy keyStrategy = config.getKeyResolver().parseStrategy();
         applyDefaultToConfig(config, keyStrategy);
-        return new IamRequestLimiterGatewayFilter(config, keyStrategy, getKeyResolver(config), getRequestLimiter(config));
+        // The deny statuses are parsed once, not on every rejection.
+        return new IamRequestLimiterGatewayFilter(config, keyStrategy, getKeyResolver(config), getRequestLimiter(config),
+                HttpStatusHolder.parse(config.getEmptyKeyStatusCode()), HttpStatusHolder.parse(config.getStatusCode()));
     }
 
     private void applyDefaultToConfig(Config config, KeyResolverStrategy keyStrategy) {
@@ -183,6 +185,8 @@ public class IamRequestLimiterFilterFactory extends AbstractGatewayFilterFactory
         private final KeyResolverStrategy keyStrategy;
         private final IamKeyResolver<KeyResolverStrategy> keyResolver;
         private final IamRequestLimiter requestLimiter;
+        private final HttpStatusHolder emptyKeyStatus;
+        private final HttpStatusHolder limitedStatus;
 
         @Override
         public int getOrder() {
@@ -196,7 +200,7 @@ public class IamRequestLimiterFilterFactory extends AbstractGatewayFilterFactory
                     log.debug("Got empty limiting key. keyResolver: {}, limiter: {}, path: {}", keyResolver.kind(),
                             requestLimiter.kind(), exchange.getRequest().getURI().getPath());
                     if (config.getDenyEmptyKey()) {
-                        setResponseStatus(exchange, HttpStatusHolder.parse(config.getEmptyKeyStatusCode()));
+                        setResponseStatus(exchange, emptyKeyStatus);
                         // ADD deny empty key response headers.
                         exchange.getResponse().getHeaders().add(requestLimiter.getDefaultLimiter().getDenyEmptyKeyHeader(),
                                 keyResolver.kind().name());
@@ -219,7 +223,7 @@ public class IamRequestLimiterFilterFactory extends AbstractGatewayFilterFactory
 
                     log.info("Rejected of keyResolver: {}, limiter: {}, path: {}, headers: {}", keyResolver.kind(),
                             requestLimiter.kind(), exchange.getRequest().getURI().getPath(), result.getHeaders());
-                    setResponseStatus(exchange, HttpStatusHolder.parse(config.getStatusCode()));
+                    setResponseStatus(exchange, limitedStatus);
                     return exchange.getResponse().setComplete();
                 });
             });
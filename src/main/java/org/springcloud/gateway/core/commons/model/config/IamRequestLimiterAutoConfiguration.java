@@ -36,6 +36,8 @@ import org.springframework.data.redis.core.script.RedisScript;
 
 import org.springcloud.gateway.core.common.constant.GatewayMAIConstants;
 import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade;
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsName;
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsTag;
 import org.springcloud.gateway.core.commons.model.IamRequestLimiterFilterFactory;
 import org.springcloud.gateway.core.commons.model.configurer.LimiterStrategyConfigurer;
 import org.springcloud.gateway.core.commons.model.configurer.RedisLimiterStrategyConfigurer;
@@ -189,8 +191,18 @@ public class IamRequestLimiterAutoConfiguration {
     //
 
     @Bean(name = BEAN_REDIS_RATELIMITE_EVENTBUS, destroyMethod = "close")
-    public EventBusSupport redisRateLimiteEventBusSupport(IamRequestLimiterProperties requestLimiteConfig) {
-        return new EventBusSupport(requestLimiteConfig.getEventRecorder().getPublishEventBusThreads());
+    public EventBusSupport redisRateLimiteEventBusSupport(
+            IamRequestLimiterProperties requestLimiteConfig,
+            GatewayMetricsFacade metricsFacade) {
+        EventBusSupport eventBus = new EventBusSupport(EVENTBUS_NAME_REQUESTLIMIT,
+                requestLimiteConfig.getEventRecorder().getPublishEventBusThreads(),
+                requestLimiteConfig.getEventRecorder().getPublishEventBus(),
+                (eventType, policy, count) -> metricsFacade.counter(MetricsName.EVENTBUS_DROPPED_TOTAL, count,
+                        MetricsTag.EVENTBUS_NAME, EVENTBUS_NAME_REQUESTLIMIT, MetricsTag.EVENTBUS_EVENT_TYPE,
+                        eventType.getSimpleName(), MetricsTag.EVENTBUS_DROP_POLICY, policy.name()));
+        metricsFacade.gauge(MetricsName.EVENTBUS_QUEUE_DEPTH, eventBus::getQueueDepth, MetricsTag.EVENTBUS_NAME,
+                EVENTBUS_NAME_REQUESTLIMIT);
+        return eventBus;
     }
 
     @Bean
@@ -226,6 +238,7 @@ public class IamRequestLimiterAutoConfiguration {
     }
 
     public static final String BEAN_REDIS_RATELIMITE_EVENTBUS = "redisRateLimiteEventBusSupport";
+    public static final String EVENTBUS_NAME_REQUESTLIMIT = "requestlimit-event";
     public static final String LOG_MESSAGE_WARNING_REDIS_RATE_LIMITER = "\n[WARNING]: The default redisRateLimiter is deprecated, please use the SpringCloud rate limiter with the configuration key prefix: 'spring.iam.gateway.ratelimit'\n";
 
 }
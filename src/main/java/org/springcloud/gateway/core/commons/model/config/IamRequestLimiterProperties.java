@@ -33,6 +33,8 @@ import org.springcloud.gateway.core.commons.model.key.IntervalIamKeyResolver.Int
 import org.springcloud.gateway.core.commons.model.key.IpRangeIamKeyResolver.IpRangeKeyResolverStrategy;
 import org.springcloud.gateway.core.commons.model.key.PathIamKeyResolver.PathKeyResolverStrategy;
 import org.springcloud.gateway.core.commons.model.key.PrincipalIamKeyResolver.PrincipalKeyResolverStrategy;
+import org.springcloud.gateway.core.eventbus.EventBusConfig;
+import org.springcloud.gateway.core.eventbus.EventDropPolicy;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -343,6 +345,12 @@ public class IamRequestLimiterProperties {
          */
         private int publishEventBusThreads = 1;
 
+        /**
+         * Publish eventRecorder bus bounded queue and overflow policies, the
+         * hits events of the same limit key are coalesced by default.
+         */
+        private EventBusConfig publishEventBus = new EventBusConfig(EventDropPolicy.COALESCE);
+
         /**
          * Based on whether the redis eventRecorder logger enables logging, if
          * it is turned on, it can be used as a downgrade recovery
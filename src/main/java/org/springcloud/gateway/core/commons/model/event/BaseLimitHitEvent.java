@@ -17,6 +17,7 @@ package org.springcloud.gateway.core.commons.model.event;
 
 import static org.springcloud.gateway.core.lang.Assert2.hasTextOf;
 
+import org.springcloud.gateway.core.eventbus.CoalescingEvent;
 import org.springframework.context.ApplicationEvent;
 
 import lombok.Getter;
@@ -29,12 +30,13 @@ import lombok.Getter;
  * @since v3.0.0
  */
 @Getter
-public class BaseLimitHitEvent extends ApplicationEvent {
+public class BaseLimitHitEvent extends ApplicationEvent implements CoalescingEvent {
     private static final long serialVersionUID = -7137748823573974641L;
 
     private final String routeId;
     private final String limitKey;
     private final String requsetPath;
+    private int occurrences = 1;
 
     public BaseLimitHitEvent(String routeId, String limitKey, String requsetPath) {
         super(limitKey);
@@ -43,4 +45,14 @@ public class BaseLimitHitEvent extends ApplicationEvent {
         this.requsetPath = hasTextOf(requsetPath, "requsetPath");
     }
 
+    @Override
+    public Object getCoalesceKey() {
+        return routeId.concat(":").concat(limitKey);
+    }
+
+    @Override
+    public void coalesce(CoalescingEvent later) {
+        this.occurrences += later.getOccurrences();
+    }
+
 }
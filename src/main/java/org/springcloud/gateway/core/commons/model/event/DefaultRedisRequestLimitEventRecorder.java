@@ -16,14 +16,19 @@
 package org.springcloud.gateway.core.commons.model.event;
 
 import static java.lang.String.valueOf;
+import static java.util.Arrays.asList;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.BoundHashOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
 
-import com.google.common.eventbus.Subscribe;
-
 import org.springcloud.gateway.core.commons.model.config.IamRequestLimiterProperties;
+import org.springcloud.gateway.core.eventbus.BatchEventListener;
 import org.springcloud.gateway.core.lang.DateUtils2;
 
 import lombok.extern.slf4j.Slf4j;
@@ -31,25 +36,55 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * {@link DefaultRedisRequestLimitEventRecorder}
  * 
+ * <p>
+ * The hits of the same route and limit key in one batch (including the
+ * coalesced occurrences) are accumulated with one redis increment.
+ * </p>
+ * 
  * @author springcloudgateway &lt;springcloudgateway@163.com, springcloudgateway@163.com&gt;
  * @version v1.0.0
  * @since v3.0.0
  */
 @Slf4j
-public class DefaultRedisRequestLimitEventRecorder {
+public class DefaultRedisRequestLimitEventRecorder implements BatchEventListener {
     public static final String LOG_RATELIMIT_HITS_EVENT = "RATELIMIT_HITS_EVENT";
     public static final String LOG_QUOTALIMIT_HITS_EVENT = "QUOTALIMIT_HITS_EVENT";
 
     private @Autowired IamRequestLimiterProperties requestLimitConfig;
     private @Autowired StringRedisTemplate redisTemplate;
 
-    @Subscribe
-    public void onRateLimitHit(RateLimitHitEvent event) {
+    @Override
+    public void onEvents(List<Object> events) {
+        Map<List<Object>, BaseLimitHitEvent> hitEvents = new LinkedHashMap<>();
+        Map<List<Object>, Long> hitCounts = new HashMap<>();
+        for (Object event : events) {
+            if (event instanceof BaseLimitHitEvent) {
+                BaseLimitHitEvent hit = (BaseLimitHitEvent) event;
+                List<Object> key = asList(hit.getClass(), hit.getCoalesceKey());
+                hitEvents.putIfAbsent(key, hit);
+                hitCounts.merge(key, (long) hit.getOccurrences(), Long::sum);
+            }
+        }
+        hitEvents.forEach((key, hit) -> {
+            long count = hitCounts.get(key);
+            try {
+                if (hit instanceof RateLimitHitEvent) {
+                    onRateLimitHit((RateLimitHitEvent) hit, count);
+                } else if (hit instanceof QuotaLimitHitEvent) {
+                    onQuotaLimitHit((QuotaLimitHitEvent) hit, count);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to record limit hits of {}, count: {}", key, count, e);
+            }
+        });
+    }
+
+    public void onRateLimitHit(RateLimitHitEvent event, long count) {
         String limitKey = valueOf(event.getSource());
         Long incr = null;
         try {
             String prefix = requestLimitConfig.getEventRecorder().getRedis().getRateHitsCumulatorPrefix();
-            incr = getHitsCumulator(prefix, event.getRouteId()).increment(limitKey, 1);
+            incr = getHitsCumulator(prefix, event.getRouteId()).increment(limitKey, count);
         } finally {
             if (requestLimitConfig.getEventRecorder().isLocalLogEnabled() && log.isInfoEnabled()) {
                 log.info("{} {}->{}", LOG_RATELIMIT_HITS_EVENT, limitKey, incr);
@@ -57,13 +92,12 @@ public class DefaultRedisRequestLimitEventRecorder {
         }
     }
 
-    @Subscribe
-    public void onQuotaLimitHit(QuotaLimitHitEvent event) {
+    public void onQuotaLimitHit(QuotaLimitHitEvent event, long count) {
         String limitKey = valueOf(event.getSource());
         Long incr = null;
         try {
             String prefix = requestLimitConfig.getEventRecorder().getRedis().getQuotaHitsCumulatorPrefix();
-            incr = getHitsCumulator(prefix, event.getRouteId()).increment(limitKey, 1);
+            incr = getHitsCumulator(prefix, event.getRouteId()).increment(limitKey, count);
         } finally {
             if (requestLimitConfig.getEventRecorder().isLocalLogEnabled() && log.isInfoEnabled()) {
                 log.info("{} {}->{}", LOG_QUOTALIMIT_HITS_EVENT, limitKey, incr);
@@ -17,14 +17,13 @@ package org.springcloud.gateway.core.commons.model.key;
 
 import static java.util.Arrays.asList;
 import static org.apache.commons.collections.CollectionUtils.isEqualCollection;
-import static org.apache.commons.lang3.StringUtils.isBlank;
 
 import java.util.List;
 
-import org.springframework.http.HttpHeaders;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.server.ServerWebExchange;
 import org.springcloud.gateway.core.commons.model.config.IamRequestLimiterProperties;
+import org.springcloud.gateway.core.utils.web.ExchangeRequestView;
 import org.springcloud.gateway.core.web.WebUtils;
 
 import lombok.AllArgsConstructor;
@@ -50,16 +49,7 @@ public class HeaderIamKeyResolver extends AbstractIamKeyResolver<HeaderIamKeyRes
 
     @Override
     public Mono<String> resolve(HeaderKeyResolverStrategy strategy, ServerWebExchange exchange) {
-        HttpHeaders headers = exchange.getRequest().getHeaders();
-        String host = null;
-        for (String header : strategy.getHeaderNames()) {
-            host = headers.getFirst(header);
-            if (!isBlank(host) && !"Unknown".equalsIgnoreCase(host)) {
-                return Mono.just(host);
-            }
-        }
-        // Fall-back
-        return Mono.just(exchange.getRequest().getRemoteAddress().getAddress().getHostAddress());
+        return Mono.justOrEmpty(ExchangeRequestView.of(exchange).getClientAddress(strategy.getHeaderNames()));
     }
 
     @Getter
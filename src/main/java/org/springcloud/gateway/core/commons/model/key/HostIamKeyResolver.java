@@ -16,6 +16,7 @@
 package org.springcloud.gateway.core.commons.model.key;
 
 import org.springframework.web.server.ServerWebExchange;
+import org.springcloud.gateway.core.utils.web.ExchangeRequestView;
 
 import reactor.core.publisher.Mono;
 
@@ -35,7 +36,7 @@ public class HostIamKeyResolver extends AbstractIamKeyResolver<HostIamKeyResolve
 
     @Override
     public Mono<String> resolve(HostKeyResolverStrategy strategy, ServerWebExchange exchange) {
-        return Mono.just(exchange.getRequest().getRemoteAddress().getAddress().getHostAddress());
+        return Mono.justOrEmpty(ExchangeRequestView.of(exchange).getRemoteHost());
     }
 
     public static class HostKeyResolverStrategy extends IamKeyResolver.KeyResolverStrategy {
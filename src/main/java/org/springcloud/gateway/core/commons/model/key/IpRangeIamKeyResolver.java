@@ -17,6 +17,7 @@ package org.springcloud.gateway.core.commons.model.key;
 
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.server.ServerWebExchange;
+import org.springcloud.gateway.core.utils.web.ExchangeRequestView;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -39,7 +40,7 @@ public class IpRangeIamKeyResolver extends AbstractIamKeyResolver<IpRangeIamKeyR
 
     @Override
     public Mono<String> resolve(IpRangeKeyResolverStrategy strategy, ServerWebExchange exchange) {
-        return Mono.just(exchange.getRequest().getRemoteAddress().getAddress().getHostAddress());
+        return Mono.justOrEmpty(ExchangeRequestView.of(exchange).getRemoteHost());
     }
 
     @Getter
@@ -18,7 +18,6 @@ package org.springcloud.gateway.core.commons.security;
 import static org.springcloud.gateway.core.collection.CollectionUtils2.safeList;
 import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
 import static java.lang.String.format;
-import static org.apache.commons.lang3.StringUtils.isBlank;
 
 import java.net.Inet4Address;
 import java.net.Inet6Address;
@@ -32,7 +31,6 @@ import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFac
 import org.springframework.cloud.gateway.support.HttpStatusHolder;
 import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
 import org.springframework.core.Ordered;
-import org.springframework.http.HttpHeaders;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.server.ServerWebExchange;
 import org.springcloud.gateway.core.commons.fault.IamGatewayFault;
@@ -44,11 +42,11 @@ import org.springcloud.gateway.core.commons.security.config.IPFSProperties;
 import org.springcloud.gateway.core.commons.security.config.IPFSProperties.StrategyProperties;
 import org.springcloud.gateway.core.filter.CIDR;
 import org.springcloud.gateway.core.bean.ConfigBeanUtils;
+import org.springcloud.gateway.core.utils.web.ExchangeRequestView;
 
 import io.netty.handler.ipfilter.IpFilterRuleType;
 import io.netty.handler.ipfilter.IpSubnetFilterRule;
 import io.netty.util.NetUtil;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -138,9 +136,15 @@ public class RequestSecurityFilterFactory extends AbstractGatewayFilterFactory<R
         }
     }
 
-    @AllArgsConstructor
     class IpSubnetGatewayFilter implements GatewayFilter, Ordered {
         private final Config config;
+        private final HttpStatusHolder rejectStatus;
+
+        IpSubnetGatewayFilter(Config config) {
+            this.config = config;
+            // The reject status is parsed once, not on every rejection.
+            this.rejectStatus = HttpStatusHolder.parse(config.getStatusCode());
+        }
 
         @Override
         public int getOrder() {
@@ -162,7 +166,7 @@ public class RequestSecurityFilterFactory extends AbstractGatewayFilterFactory<R
                     IamGatewayFault.getRouteId(exchange));
 
             // Response of reject.
-            ServerWebExchangeUtils.setResponseStatus(exchange, HttpStatusHolder.parse(config.getStatusCode()));
+            ServerWebExchangeUtils.setResponseStatus(exchange, rejectStatus);
             return exchange.getResponse().setComplete();
         }
 
@@ -206,16 +210,7 @@ public class RequestSecurityFilterFactory extends AbstractGatewayFilterFactory<R
         }
 
         private String getClientAddress(Config config, ServerWebExchange exchange) {
-            HttpHeaders headers = exchange.getRequest().getHeaders();
-            String host = null;
-            for (String header : config.getForwardHeaderNames()) {
-                host = headers.getFirst(header);
-                if (!isBlank(host) && !"Unknown".equalsIgnoreCase(host)) {
-                    return host;
-                }
-            }
-            // Fall-back
-            return exchange.getRequest().getRemoteAddress().getAddress().getHostAddress();
+            return ExchangeRequestView.of(exchange).getClientAddress(config.getForwardHeaderNames());
         }
 
         private IpSubnetFilterRule buildRule(String cidr, IpFilterRuleType ruleType) {
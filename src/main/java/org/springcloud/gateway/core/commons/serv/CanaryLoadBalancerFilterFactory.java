@@ -27,6 +27,8 @@ import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.a
 
 import java.net.URI;
 import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.loadbalancer.DefaultResponse;
@@ -213,6 +215,13 @@ public class CanaryLoadBalancerFilterFactory extends AbstractGatewayFilterFactor
                 log.trace("LoadBalancerClientFilter url chosen: {}", newRequestUri);
             }
             exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, newRequestUri);
+            // Remember the chosen instance, so that the next attempts of retry
+            // or hedge will prefer another instance.
+            Set<String> triedInstances = exchange.getAttribute(LoadBalancerStats.KEY_TRIED_INSTANCES);
+            if (isNull(triedInstances)) {
+                exchange.getAttributes().put(LoadBalancerStats.KEY_TRIED_INSTANCES, triedInstances = new HashSet<>(4));
+            }
+            triedInstances.add(LoadBalancerUtil.getInstanceId(instance));
 
             // PreFilter and PostFilter, https://blogs.springcloud.gateway.com/archives/3401
             return chain.filter(exchange).doOnRequest(v -> {
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.server;
+
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+
+import org.springcloud.gateway.core.commons.server.config.GatewayWebServerProperties.H2cMode;
+import org.springcloud.gateway.core.commons.server.config.GatewayWebServerProperties.TransportProperties;
+
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.HttpResources;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * {@link GatewayTransportCustomizer}
+ * 
+ * <p>
+ * Applies the transport settings (native transport, event loop counts, socket
+ * options and cleartext HTTP/2) to both the web server and the routing
+ * {@link HttpClient}, the server and client share the same event loops, so
+ * that the proxied exchange does not hop across threads.
+ * </p>
+ * 
+ * <p>
+ * The epoll only socket options (SO_REUSEPORT, TCP_FASTOPEN and
+ * TCP_FASTOPEN_CONNECT) are applied only when the channel type of the loops
+ * actually used is epoll, e.g. not when the native transport resolves to
+ * io_uring/kqueue or the default loops are NIO.
+ * </p>
+ * 
+ * @author springcloudgateway &lt;springcloudgateway@163.com, springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ * @see {@link reactor.netty.resources.DefaultLoopNativeDetector}
+ */
+@Slf4j
+@Getter
+public class GatewayTransportCustomizer implements HttpClientCustomizer, DisposableBean {
+
+    private final TransportProperties config;
+    private final LoopResources loopResources;
+
+    public GatewayTransportCustomizer(TransportProperties config) {
+        this.config = notNullOf(config, "transportConfig");
+        if (config.getSelectCount() > 0 || config.getWorkerCount() > 0) {
+            int workerCount = config.getWorkerCount() > 0 ? config.getWorkerCount() : LoopResources.DEFAULT_IO_WORKER_COUNT;
+            int selectCount = config.getSelectCount() > 0 ? config.getSelectCount() : LoopResources.DEFAULT_IO_SELECT_COUNT;
+            this.loopResources = LoopResources.create("scg-http", selectCount, workerCount, true);
+        } else {
+            this.loopResources = null;
+        }
+        log.info("Using transport: {}, selectCount: {}, workerCount: {}",
+                config.isNativeEnabled() && LoopResources.hasNativeSupport() ? "native" : "nio", config.getSelectCount(),
+                config.getWorkerCount());
+    }
+
+    /**
+     * Applies the event loops and the socket options to the server.
+     * 
+     * @param server
+     * @param sharedResources
+     *            the shared resources of the reactor resource factory,
+     *            nullable.
+     * @return
+     */
+    public HttpServer customize(HttpServer server, LoopResources sharedResources) {
+        LoopResources resources = nonNull(loopResources) ? loopResources : sharedResources;
+        // The loops and native preference the server actually runs on.
+        boolean preferNative = config.isNativeEnabled();
+        if (nonNull(resources)) {
+            server = server.runOn(resources, preferNative);
+        } else if (!preferNative) {
+            server = server.runOn(HttpResources.get(), false);
+        } else {
+            resources = HttpResources.get();
+            preferNative = LoopResources.DEFAULT_NATIVE;
+        }
+        if ((config.isReusePort() || config.getTcpFastOpen() > 0) && isEpollServer(resources, preferNative)) {
+            if (config.isReusePort()) {
+                server = server.option(EpollChannelOption.SO_REUSEPORT, true);
+            }
+            if (config.getTcpFastOpen() > 0) {
+                server = server.option(ChannelOption.TCP_FASTOPEN, config.getTcpFastOpen());
+            }
+        }
+        return server;
+    }
+
+    /**
+     * Gets the cleartext protocols of the server without SSL.
+     * 
+     * @return null means HTTP/1.1 only.
+     */
+    public HttpProtocol[] getServerH2cProtocols() {
+        return getH2cProtocols(config.getServerH2c());
+    }
+
+    @Override
+    public HttpClient customize(HttpClient httpClient) {
+        if (!config.isClientEnabled()) {
+            return httpClient;
+        }
+        LoopResources resources = loopResources;
+        boolean preferNative = config.isNativeEnabled();
+        if (nonNull(resources)) {
+            httpClient = httpClient.runOn(resources, preferNative);
+        } else if (!preferNative) {
+            httpClient = httpClient.runOn(HttpResources.get(), false);
+        } else {
+            resources = HttpResources.get();
+            preferNative = LoopResources.DEFAULT_NATIVE;
+        }
+        if (config.isTcpFastOpenConnect() && isEpollClient(resources, preferNative)) {
+            httpClient = httpClient.option(ChannelOption.TCP_FASTOPEN_CONNECT, true);
+        }
+        HttpProtocol[] protocols = getH2cProtocols(config.getClientH2c());
+        if (nonNull(protocols)) {
+            httpClient = httpClient.protocol(protocols);
+        }
+        return httpClient;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (nonNull(loopResources)) {
+            loopResources.dispose();
+        }
+    }
+
+    private static boolean isEpollServer(LoopResources resources, boolean preferNative) {
+        Class<?> channelType = resources.onChannelClass(ServerSocketChannel.class, resources.onServer(preferNative));
+        log.debug("Resolved server channel type: {}", channelType);
+        return EpollServerSocketChannel.class.isAssignableFrom(channelType);
+    }
+
+    private static boolean isEpollClient(LoopResources resources, boolean preferNative) {
+        Class<?> channelType = resources.onChannelClass(SocketChannel.class, resources.onClient(preferNative));
+        log.debug("Resolved client channel type: {}", channelType);
+        return EpollSocketChannel.class.isAssignableFrom(channelType);
+    }
+
+    private static HttpProtocol[] getH2cProtocols(H2cMode mode) {
+        if (isNull(mode)) {
+            return null;
+        }
+        switch (mode) {
+        case UPGRADE:
+            return new HttpProtocol[] { HttpProtocol.HTTP11, HttpProtocol.H2C };
+        case PRIOR_KNOWLEDGE:
+            return new HttpProtocol[] { HttpProtocol.H2C };
+        default:
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.server;
+
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSessionContext;
+
+import org.springcloud.gateway.core.commons.server.config.GatewayWebServerProperties.SslServerContext;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.ssl.ApplicationProtocolNegotiator;
+import io.netty.handler.ssl.OpenSslSessionContext;
+import io.netty.handler.ssl.OpenSslSessionTicketKey;
+import io.netty.handler.ssl.ReferenceCountedOpenSslEngine;
+import io.netty.handler.ssl.SslContext;
+import io.netty.util.ReferenceCountUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ReloadableSslContext}
+ *
+ * <p>
+ * The server {@link SslContext} which delegates to the current built context,
+ * the context is rebuilt in the background and swapped atomically when the
+ * key store or trust store files are changed, the new handshakes use the new
+ * context immediately, while the established connections keep the engine
+ * (and the retained context) of the old one, so rotating certificate does not
+ * need to restart and drop the in-flight connections.
+ * </p>
+ *
+ * <p>
+ * The session ticket keys are generated locally and rotated periodically
+ * (only the openssl provider), the latest key encrypts the new tickets and the
+ * retained previous keys still decrypt the issued tickets, and the keys are
+ * carried over to the swapped context so that the resumption survives the
+ * certificate reloading. The OCSP response file is cached in memory and
+ * stapled to each new server engine.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+@Slf4j
+public class ReloadableSslContext extends SslContext {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final String TASK_RELOAD = "ssl-context-reload";
+    private static final String TASK_ROTATE_TICKET_KEY = "ssl-ticket-key-rotation";
+
+    private final SslServerContext config;
+    private final Callable<SslContext> contextFactory;
+    private final List<Resource> watchedResources;
+    private final long[] watchedLastModified;
+    private final LinkedList<OpenSslSessionTicketKey> ticketKeys = new LinkedList<>();
+    private volatile SslContext current;
+    private SslContext retired;
+    private volatile byte[] ocspResponse;
+    private volatile long ocspLastModified = Long.MIN_VALUE;
+    private SslRefreshScheduler scheduler;
+
+    public ReloadableSslContext(SslServerContext config, Callable<SslContext> contextFactory, List<Resource> watchedResources) {
+        this.config = notNullOf(config, "config");
+        this.contextFactory = notNullOf(contextFactory, "contextFactory");
+        this.watchedResources = unmodifiableList(new ArrayList<>(notNullOf(watchedResources, "watchedResources")));
+        this.watchedLastModified = new long[this.watchedResources.size()];
+        for (int i = 0; i < watchedLastModified.length; i++) {
+            watchedLastModified[i] = lastModified(this.watchedResources.get(i));
+        }
+        try {
+            this.current = contextFactory.call();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to build the ssl context.", e);
+        }
+        rotateTicketKey();
+        reloadOcspResponse();
+    }
+
+    /**
+     * Starts the background reloader and ticket keys rotator on the shared
+     * scheduler, which replaces the tasks of the previous context if any.
+     */
+    public ReloadableSslContext startRefresher(SslRefreshScheduler scheduler) {
+        this.scheduler = notNullOf(scheduler, "scheduler");
+        long reloadIntervalMs = config.getReloadIntervalMs();
+        long rotationMs = config.getTicketKeyRotationMs();
+        if (reloadIntervalMs > 0) {
+            scheduler.schedule(TASK_RELOAD, this::reload, reloadIntervalMs);
+        }
+        if (rotationMs > 0) {
+            scheduler.schedule(TASK_ROTATE_TICKET_KEY, this::rotateTicketKey, rotationMs);
+        }
+        return this;
+    }
+
+    /**
+     * Stops the background tasks and releases the built contexts, the engines
+     * of the established connections have retained their own references.
+     */
+    public synchronized void dispose() {
+        if (nonNull(scheduler)) {
+            scheduler.cancel(TASK_RELOAD);
+            scheduler.cancel(TASK_ROTATE_TICKET_KEY);
+        }
+        ReferenceCountUtil.release(retired);
+        ReferenceCountUtil.release(current);
+        this.retired = null;
+    }
+
+    /**
+     * Rebuilds and swaps the context if any of the watched files is changed,
+     * the previous context is kept on failure (e.g. the files are being
+     * written), and retried on the next check.
+     */
+    public synchronized void reload() {
+        reloadOcspResponse();
+
+        boolean changed = false;
+        long[] lastModifieds = new long[watchedLastModified.length];
+        for (int i = 0; i < lastModifieds.length; i++) {
+            lastModifieds[i] = lastModified(watchedResources.get(i));
+            changed |= (lastModifieds[i] != watchedLastModified[i]);
+        }
+        if (!changed) {
+            return;
+        }
+        try {
+            SslContext newContext = contextFactory.call();
+            applyTicketKeys(newContext);
+            // The engines created by the old context have retained it, the
+            // release is deferred to the next swap in case any handshake is
+            // just creating engine from it.
+            ReferenceCountUtil.release(retired);
+            this.retired = this.current;
+            this.current = newContext;
+            System.arraycopy(lastModifieds, 0, watchedLastModified, 0, lastModifieds.length);
+            log.info("Reloaded ssl context of: {}", watchedResources);
+        } catch (Exception e) {
+            log.warn("Unable to reload ssl context of: {}", watchedResources, e);
+        }
+    }
+
+    /**
+     * Generates the new session ticket key for encryption, and retains the
+     * previous keys for decryption.
+     */
+    public synchronized void rotateTicketKey() {
+        if (!(current.sessionContext() instanceof OpenSslSessionContext)) {
+            return;
+        }
+        ticketKeys.addFirst(new OpenSslSessionTicketKey(randomBytes(OpenSslSessionTicketKey.NAME_SIZE),
+                randomBytes(OpenSslSessionTicketKey.HMAC_KEY_SIZE), randomBytes(OpenSslSessionTicketKey.AES_KEY_SIZE)));
+        while (ticketKeys.size() > 1 + Math.max(0, config.getTicketKeyRetainCount())) {
+            ticketKeys.removeLast();
+        }
+        applyTicketKeys(current);
+        log.debug("Rotated ssl session ticket keys, retained: {}", ticketKeys.size());
+    }
+
+    /**
+     * Staples the cached OCSP response to the server engine, must be called
+     * before the handshake.
+     */
+    public void configureEngine(SSLEngine engine) {
+        byte[] response = this.ocspResponse;
+        if (nonNull(response) && engine instanceof ReferenceCountedOpenSslEngine) {
+            try {
+                ((ReferenceCountedOpenSslEngine) engine).setOcspResponse(response);
+            } catch (IllegalStateException e) {
+                // The OCSP is not enabled for the context.
+                log.debug("Unable to staple OCSP response. reason: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isClient() {
+        return current.isClient();
+    }
+
+    @Override
+    public List<String> cipherSuites() {
+        return current.cipherSuites();
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public ApplicationProtocolNegotiator applicationProtocolNegotiator() {
+        return current.applicationProtocolNegotiator();
+    }
+
+    @Override
+    public SSLEngine newEngine(ByteBufAllocator alloc) {
+        return current.newEngine(alloc);
+    }
+
+    @Override
+    public SSLEngine newEngine(ByteBufAllocator alloc, String peerHost, int peerPort) {
+        return current.newEngine(alloc, peerHost, peerPort);
+    }
+
+    @Override
+    public SSLSessionContext sessionContext() {
+        return current.sessionContext();
+    }
+
+    private void applyTicketKeys(SslContext context) {
+        SSLSessionContext sessionContext = context.sessionContext();
+        if (!ticketKeys.isEmpty() && sessionContext instanceof OpenSslSessionContext) {
+            ((OpenSslSessionContext) sessionContext).setTicketKeys(ticketKeys.toArray(new OpenSslSessionTicketKey[0]));
+        }
+    }
+
+    private void reloadOcspResponse() {
+        Resource ocspFile = config.getOcspResponseFile();
+        if (isNull(ocspFile)) {
+            return;
+        }
+        long lastModified = lastModified(ocspFile);
+        if (nonNull(ocspResponse) && lastModified == ocspLastModified) {
+            return;
+        }
+        try (InputStream in = ocspFile.getInputStream()) {
+            this.ocspResponse = StreamUtils.copyToByteArray(in);
+            this.ocspLastModified = lastModified;
+            log.info("Reloaded ssl OCSP response of: {}", ocspFile);
+        } catch (IOException e) {
+            log.warn("Unable to reload ssl OCSP response of: {}", ocspFile, e);
+        }
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        RANDOM.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            // e.g. the classpath resource inside jar, which never changes.
+            return -1L;
+        }
+    }
+
+}
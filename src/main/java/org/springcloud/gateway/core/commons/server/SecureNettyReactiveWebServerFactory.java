@@ -26,6 +26,7 @@ import java.util.Set;
 import java.util.function.BiPredicate;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.embedded.netty.NettyRouteProvider;
 import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
@@ -63,12 +64,15 @@ import reactor.netty.resources.LoopResources;
  * @see {@link org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext#createWebServer()}
  * @see {@link org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory}
  */
-public class SecureNettyReactiveWebServerFactory extends AbstractReactiveWebServerFactory {
+public class SecureNettyReactiveWebServerFactory extends AbstractReactiveWebServerFactory implements DisposableBean {
 
     //
     // ADD feature configuration properties.
     //
     private @Autowired GatewayWebServerProperties gatewayWebServerProperties;
+    private @Autowired GatewayTransportCustomizer transportCustomizer;
+    private @Autowired SslRefreshScheduler sslRefreshScheduler;
+    private SecureSslServerCustomizer sslServerCustomizer;
 
     private Set<NettyServerCustomizer> serverCustomizers = new LinkedHashSet<>();
     private List<NettyRouteProvider> routeProviders = new ArrayList<>();
@@ -191,16 +195,23 @@ public class SecureNettyReactiveWebServerFactory extends AbstractReactiveWebServ
         return this.shutdown;
     }
 
+    @Override
+    public void destroy() throws Exception {
+        if (sslServerCustomizer != null) {
+            sslServerCustomizer.dispose();
+        }
+    }
+
     private HttpServer createHttpServer() {
         // see:https://developer.aliyun.com/article/319181
         HttpServer server = HttpServer.create();
+        LoopResources resources = null;
         if (this.resourceFactory != null) {
-            LoopResources resources = this.resourceFactory.getLoopResources();
+            resources = this.resourceFactory.getLoopResources();
             Assert.notNull(resources, "No LoopResources: is ReactorResourceFactory not initialized yet?");
-            server = server.runOn(resources).bindAddress(this::getListenAddress);
-        } else {
-            server = server.bindAddress(this::getListenAddress);
         }
+        // ADD for native transport and socket options.
+        server = transportCustomizer.customize(server, resources).bindAddress(this::getListenAddress);
         if (getSsl() != null && getSsl().isEnabled()) {
             //
             // Disable for custom.
@@ -212,8 +223,12 @@ public class SecureNettyReactiveWebServerFactory extends AbstractReactiveWebServ
             // [Begin] ADD for custom.
             //
             // TODO secureWebServerConfig for injection
-            SecureSslServerCustomizer sslServerCustomizer = new SecureSslServerCustomizer(gatewayWebServerProperties, getSsl(),
-                    getHttp2(), getSslStoreProvider());
+            // The customizer is reused when the server is rebuilt, so that the
+            // SSL context and its background tasks are built only once.
+            if (sslServerCustomizer == null) {
+                sslServerCustomizer = new SecureSslServerCustomizer(gatewayWebServerProperties, getSsl(), getHttp2(),
+                        getSslStoreProvider(), sslRefreshScheduler);
+            }
             server = sslServerCustomizer.apply(server);
             //
             // [End] ADD for custom.
@@ -231,6 +246,13 @@ public class SecureNettyReactiveWebServerFactory extends AbstractReactiveWebServ
         if (getHttp2() != null && getHttp2().isEnabled() && getSsl() != null && getSsl().isEnabled()) {
             return new HttpProtocol[] { HttpProtocol.H2, HttpProtocol.HTTP11 };
         }
+        // ADD for cleartext HTTP/2 when the TLS is terminated elsewhere.
+        if (getSsl() == null || !getSsl().isEnabled()) {
+            HttpProtocol[] h2cProtocols = transportCustomizer.getServerH2cProtocols();
+            if (h2cProtocols != null) {
+                return h2cProtocols;
+            }
+        }
         return new HttpProtocol[] { HttpProtocol.HTTP11 };
     }
 
@@ -285,7 +307,7 @@ public class SecureNettyReactiveWebServerFactory extends AbstractReactiveWebServ
                     Collectors.toList());
             return (request, response) -> {
                 String contentType = response.responseHeaders().get(HttpHeaderNames.CONTENT_TYPE);
-                if (StringUtils.hasLength(contentType)) {
+                if (!StringUtils.hasLength(contentType)) {
                     return false;
                 }
                 try {
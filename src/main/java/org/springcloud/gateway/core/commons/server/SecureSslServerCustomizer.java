@@ -16,7 +16,6 @@
 package org.springcloud.gateway.core.commons.server;
 
 import static com.google.common.base.Charsets.UTF_8;
-import static org.springcloud.gateway.core.collection.CollectionUtils2.safeList;
 import static org.springcloud.gateway.core.core.ReflectionUtils2.findField;
 import static org.springcloud.gateway.core.core.ReflectionUtils2.findMethod;
 import static org.springcloud.gateway.core.core.ReflectionUtils2.getField;
@@ -25,7 +24,8 @@ import static org.springcloud.gateway.core.core.ReflectionUtils2.makeAccessible;
 import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
-import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static org.apache.commons.lang3.StringUtils.equalsAnyIgnoreCase;
 
@@ -36,19 +36,17 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.reflect.Method;
 import java.net.InetAddress;
-import java.net.NetworkInterface;
 import java.net.Socket;
-import java.net.SocketException;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.Provider;
-import java.security.cert.CRL;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -59,7 +57,6 @@ import javax.net.ssl.SNIServerName;
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLParameters;
 import javax.net.ssl.SSLSession;
-import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
@@ -71,20 +68,28 @@ import org.springframework.boot.web.embedded.netty.SslServerCustomizer;
 import org.springframework.boot.web.server.Http2;
 import org.springframework.boot.web.server.Ssl;
 import org.springframework.boot.web.server.SslStoreProvider;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.util.ResourceUtils;
 
 import com.google.common.io.Resources;
 
 import org.springcloud.gateway.core.commons.fault.cert.CertificateUtil;
 import org.springcloud.gateway.core.commons.fault.cert.KeyStoreUtil;
 import org.springcloud.gateway.core.commons.server.config.GatewayWebServerProperties;
+import org.springcloud.gateway.core.commons.server.config.GatewayWebServerProperties.SslServerContext;
 
+import io.netty.handler.codec.http2.Http2SecurityUtil;
+import io.netty.handler.ssl.ApplicationProtocolConfig;
+import io.netty.handler.ssl.ApplicationProtocolNames;
 import io.netty.handler.ssl.ClientAuth;
+import io.netty.handler.ssl.OpenSsl;
 import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SupportedCipherSuiteFilter;
 import io.netty.internal.tcnative.CertificateVerifier;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.netty.http.server.HttpServer;
-import reactor.netty.tcp.SslProvider;
 import reactor.netty.tcp.SslProvider.Builder;
 
 /**
@@ -127,79 +132,87 @@ import reactor.netty.tcp.SslProvider.Builder;
 public class SecureSslServerCustomizer extends org.springcloud.gateway.core.commons.server.SslServerCustomizer {
 
     private final GatewayWebServerProperties secureWebServerConfig;
+    private final SslRefreshScheduler refreshScheduler;
+    private final SslPeerVerifierIndex verifierIndex;
+    private ReloadableSslContext sslContext;
 
     public SecureSslServerCustomizer(GatewayWebServerProperties secureWebServerConfig, Ssl ssl, Http2 http2,
-            SslStoreProvider sslStoreProvider) {
+            SslStoreProvider sslStoreProvider, SslRefreshScheduler refreshScheduler) {
         super(ssl, http2, sslStoreProvider);
         this.secureWebServerConfig = notNullOf(secureWebServerConfig, "secureWebServerConfig");
+        this.refreshScheduler = notNullOf(refreshScheduler, "refreshScheduler");
+        this.verifierIndex = new SslPeerVerifierIndex(secureWebServerConfig).startRefresher(refreshScheduler);
+    }
+
+    /**
+     * Gets the SSL context built at the first apply, which is reused when the
+     * server is rebuilt, so that the background tasks are not duplicated.
+     */
+    protected synchronized ReloadableSslContext obtainSslContext() {
+        if (isNull(sslContext)) {
+            sslContext = new ReloadableSslContext(secureWebServerConfig.getSslContext(), () -> getContextBuilder().build(),
+                    getWatchedResources()).startRefresher(refreshScheduler);
+        }
+        return sslContext;
+    }
+
+    /**
+     * Stops the background tasks and releases the SSL context.
+     */
+    public synchronized void dispose() {
+        if (nonNull(sslContext)) {
+            sslContext.dispose();
+            sslContext = null;
+        }
     }
 
     @Override
     public HttpServer apply(HttpServer server) {
         try {
+            ReloadableSslContext sslContext = obtainSslContext();
+
             return server.secure((contextSpec) -> {
-                SslContextBuilder contextBuilder = getContextBuilder()
-                        /**
-                         * see:{@link io.netty.handler.ssl.SslContext#newServerContextInternal()}￬
-                         * see:{@link io.netty.handler.ssl.ReferenceCountedOpenSslServerContext#newSessionContext()}￬
-                         * see:{@link io.netty.internal.tcnative.SSLContext#setCertificateCallback()}￬
-                         * see:{@link io.netty.handler.ssl.ReferenceCountedOpenSslServerContext#setVerifyCallback()}￬
-                         * see:{@link io.netty.internal.tcnative.SSLContext#setSniHostnameMatcher()}￬
-                         */
-                        .sslProvider(io.netty.handler.ssl.SslProvider.OPENSSL_REFCNT);
-
-                SslProvider.DefaultConfigurationSpec spec = contextSpec.sslContext(contextBuilder);
-                if (http2 != null && http2.isEnabled()) {
-                    Builder builder = spec.defaultConfiguration(SslProvider.DefaultConfigurationType.H2);
+                Builder builder = contextSpec.sslContext(sslContext);
+                boolean sniEnabled = http2 != null && http2.isEnabled()
+                        && secureWebServerConfig.getSslVerifier().getSni().isEnabled();
+                builder.handlerConfigurator(handler -> {
+                    SSLEngine engine = handler.engine();
+                    sslContext.configureEngine(engine);
                     //
                     // [Begin] ADD for SSL subject verifier.
                     //
-                    if (secureWebServerConfig.getSslVerifier().getSni().isEnabled()) {
+                    if (sniEnabled) {
                         // see:io.netty.handler.ssl.Java8SslUtils#checkSniHostnameMatch()
-                        builder.handlerConfigurator(handler -> {
-                            SSLEngine engine = handler.engine();
-
-                            // TODO
-                            SSLSessionContext sessionContext = engine.getSession().getSessionContext();
-
-                            // see:https://www.saoniuhuo.com/article/detail-374589.html
-                            // see:https://github.com/apache/servicecomb-java-chassis/blob/master/foundations/foundation-ssl/src/main/java/org/apache/servicecomb/foundation/ssl/TrustManagerExt.java#L168
-                            // see:https://hg.openjdk.java.net/jdk8u/jdk8u/jdk/file/7fcf35286d52/src/share/classes/javax/net/ssl/SNIMatcher.java
-                            String peerHost = engine.getPeerHost();
-                            int peerPort = engine.getPeerPort();
-                            SSLSession session = engine.getSession();
-                            SSLSession handshakeSession = engine.getHandshakeSession();
-                            if (nonNull(handshakeSession)) {
-                                String peerHost2 = handshakeSession.getPeerHost();
-                                engine.setNeedClientAuth(true);
-                            }
+                        // see:https://www.saoniuhuo.com/article/detail-374589.html
+                        // see:https://github.com/apache/servicecomb-java-chassis/blob/master/foundations/foundation-ssl/src/main/java/org/apache/servicecomb/foundation/ssl/TrustManagerExt.java#L168
+                        // see:https://hg.openjdk.java.net/jdk8u/jdk8u/jdk/file/7fcf35286d52/src/share/classes/javax/net/ssl/SNIMatcher.java
+                        SSLSession handshakeSession = engine.getHandshakeSession();
+                        if (nonNull(handshakeSession)) {
+                            engine.setNeedClientAuth(true);
+                        }
 
-                            SSLParameters params = new SSLParameters();
-                            List<SNIMatcher> matchers = new LinkedList<>();
-                            matchers.add(new SNIMatcher(0) {
-                                @Override
-                                public boolean matches(SNIServerName serverName) {
-                                    String servname = new String(serverName.getEncoded());
-                                    if (LOCAL_ADDRESS.contains(servname)) {
-                                        return true;
-                                    }
-                                    boolean flag = safeList(secureWebServerConfig.getSslVerifier().getSni().getHosts()).stream()
-                                            .anyMatch(h -> StringUtils.equals(h, servname));
-                                    if (!flag) {
-                                        log.warn("No match SNI server name: {}", servname);
-                                    }
-                                    return flag;
+                        SSLParameters params = new SSLParameters();
+                        List<SNIMatcher> matchers = new LinkedList<>();
+                        matchers.add(new SNIMatcher(0) {
+                            @Override
+                            public boolean matches(SNIServerName serverName) {
+                                String servname = new String(serverName.getEncoded(), StandardCharsets.US_ASCII);
+                                // The local addresses and hosts are
+                                // precomputed into the index set.
+                                boolean flag = verifierIndex.isSniHostAllowed(servname);
+                                if (!flag) {
+                                    log.warn("No match SNI server name: {}", servname);
                                 }
-                            });
-                            params.setSNIMatchers(matchers);
-                            engine.setSSLParameters(params);
+                                return flag;
+                            }
                         });
-                        builder.build();
+                        params.setSNIMatchers(matchers);
+                        engine.setSSLParameters(params);
                     }
                     //
                     // [End] ADD for SSL subject verifier.
                     //
-                }
+                });
             });
         } catch (Exception ex) {
             throw new IllegalStateException(ex);
@@ -208,7 +221,15 @@ public class SecureSslServerCustomizer extends org.springcloud.gateway.core.comm
 
     protected SslContextBuilder getContextBuilder() {
         SslContextBuilder builder = SslContextBuilder.forServer(getKeyManagerFactory(this.ssl, this.sslStoreProvider))
-                .trustManager(getTrustManagerFactory(this.ssl, this.sslStoreProvider));
+                .trustManager(getTrustManagerFactory(this.ssl, this.sslStoreProvider))
+                /**
+                 * see:{@link io.netty.handler.ssl.SslContext#newServerContextInternal()}￬
+                 * see:{@link io.netty.handler.ssl.ReferenceCountedOpenSslServerContext#newSessionContext()}￬
+                 * see:{@link io.netty.internal.tcnative.SSLContext#setCertificateCallback()}￬
+                 * see:{@link io.netty.handler.ssl.ReferenceCountedOpenSslServerContext#setVerifyCallback()}￬
+                 * see:{@link io.netty.internal.tcnative.SSLContext#setSniHostnameMatcher()}￬
+                 */
+                .sslProvider(io.netty.handler.ssl.SslProvider.OPENSSL_REFCNT);
         if (this.ssl.getEnabledProtocols() != null) {
             builder.protocols(this.ssl.getEnabledProtocols());
         }
@@ -220,13 +241,55 @@ public class SecureSslServerCustomizer extends org.springcloud.gateway.core.comm
         } else if (this.ssl.getClientAuth() == Ssl.ClientAuth.WANT) {
             builder.clientAuth(ClientAuth.OPTIONAL);
         }
+        // The same as the H2 default configuration of reactor-netty, which is
+        // not applied to the prebuilt context.
+        // see:reactor.netty.tcp.SslProvider.DefaultConfigurationType#H2
+        if (http2 != null && http2.isEnabled()) {
+            if (this.ssl.getCiphers() == null) {
+                builder.ciphers(Http2SecurityUtil.CIPHERS, SupportedCipherSuiteFilter.INSTANCE);
+            }
+            builder.applicationProtocolConfig(new ApplicationProtocolConfig(ApplicationProtocolConfig.Protocol.ALPN,
+                    ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+                    ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT, ApplicationProtocolNames.HTTP_2,
+                    ApplicationProtocolNames.HTTP_1_1));
+        }
+        SslServerContext contextConfig = secureWebServerConfig.getSslContext();
+        if (contextConfig.getSessionCacheSize() > 0) {
+            builder.sessionCacheSize(contextConfig.getSessionCacheSize());
+        }
+        if (contextConfig.getSessionTimeoutSeconds() > 0) {
+            builder.sessionTimeout(contextConfig.getSessionTimeoutSeconds());
+        }
+        if (nonNull(contextConfig.getOcspResponseFile()) && OpenSsl.isOcspSupported()) {
+            builder.enableOcsp(true);
+        }
         return builder;
     }
 
+    /**
+     * The key store and trust store files to watch for the hot reloading,
+     * which are unavailable if provided by {@link SslStoreProvider}.
+     */
+    protected List<Resource> getWatchedResources() {
+        List<Resource> resources = new ArrayList<>(2);
+        if (isNull(this.sslStoreProvider)) {
+            for (String location : new String[] { this.ssl.getKeyStore(), this.ssl.getTrustStore() }) {
+                if (!StringUtils.isBlank(location)) {
+                    try {
+                        resources.add(new UrlResource(ResourceUtils.getURL(location)));
+                    } catch (FileNotFoundException e) {
+                        log.warn("Unable to watch ssl store of: {}", location);
+                    }
+                }
+            }
+        }
+        return resources;
+    }
+
     @Override
     protected TrustManagerFactory getTrustManagerFactory(Ssl ssl, SslStoreProvider sslStoreProvider) {
         TrustManagerFactory tmf = super.getTrustManagerFactory(ssl, sslStoreProvider);
-        return SecureX509TrustManagerFactory.wrap(secureWebServerConfig, tmf);
+        return SecureX509TrustManagerFactory.wrap(secureWebServerConfig, verifierIndex, tmf);
     }
 
     /**
@@ -246,12 +309,14 @@ public class SecureSslServerCustomizer extends org.springcloud.gateway.core.comm
 
         public static SecureX509TrustManagerFactory wrap(
                 GatewayWebServerProperties secureWebServerConfig,
+                SslPeerVerifierIndex verifierIndex,
                 TrustManagerFactory tmf) {
             TrustManagerFactorySpi originalFactorySpi = getField(
                     findField(tmf.getClass(), "factorySpi", TrustManagerFactorySpi.class), tmf, true);
 
             SecureTrustManagerFactorySpi factorySpi = new SecureTrustManagerFactorySpi(originalFactorySpi,
-                    new SecureX509TrustManager(secureWebServerConfig, (X509ExtendedTrustManager) tmf.getTrustManagers()[0]));
+                    new SecureX509TrustManager(secureWebServerConfig, verifierIndex,
+                            (X509ExtendedTrustManager) tmf.getTrustManagers()[0]));
 
             Provider provider = getField(findField(tmf.getClass(), "provider", Provider.class), tmf, true);
             String algorithm = getField(findField(tmf.getClass(), "algorithm", String.class), tmf, true);
@@ -334,6 +399,7 @@ public class SecureSslServerCustomizer extends org.springcloud.gateway.core.comm
     @AllArgsConstructor
     public static class SecureX509TrustManager extends X509ExtendedTrustManager {
         private final GatewayWebServerProperties config;
+        private final SslPeerVerifierIndex verifierIndex;
         private final X509ExtendedTrustManager tm;
 
         @Override
@@ -432,24 +498,10 @@ public class SecureSslServerCustomizer extends org.springcloud.gateway.core.comm
                 // ip = isBlank(ip) ? custom.getHost() : ip;
                 // The request from the local machine, as long as the CN matches
                 // any IP address of the local machine.
+                // The local addresses are cached and refreshed in background.
                 if (LOCAL_ADDRESS.contains(ip)) {
-                    try {
-                        Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
-                        if (interfaces != null) {
-                            while (interfaces.hasMoreElements()) {
-                                NetworkInterface nif = interfaces.nextElement();
-                                Enumeration<InetAddress> ias = nif.getInetAddresses();
-                                while (ias.hasMoreElements()) {
-                                    InetAddress ia = ias.nextElement();
-                                    String local = ia.getHostAddress();
-                                    if (cnValid(cns, local)) {
-                                        return;
-                                    }
-                                }
-                            }
-                        }
-                    } catch (SocketException e) {
-                        throw new CertificateException("Failed to get local adrresses.");
+                    if (verifierIndex.isAnyLocalAddress(cns)) {
+                        return;
                     }
                 } else if (cnValid(cns, ip)) {
                     return;
@@ -469,30 +521,25 @@ public class SecureSslServerCustomizer extends org.springcloud.gateway.core.comm
 
         private void checkCNWhite(X509Certificate[] certChain) throws CertificateException {
             if (nonNull(config.getSslVerifier().getPeer().getCheckCNWhiteFile())) {
-                List<String> cns = config.getSslVerifier().getPeer().loadCheckCNWhitelist();
                 Set<String> certCN = CertificateUtil.getCommonNames(CertificateUtil.findOwner(certChain));
-                for (String cn : cns) {
-                    if (cnValid(certCN, cn)) {
-                        return;
-                    }
+                if (verifierIndex.isCNWhitelisted(certCN)) {
+                    return;
                 }
-                throw new CertificateException(format("CN does not match white. CNs=%s", cns));
+                throw new CertificateException(format("CN does not match white. CNs=%s", certCN));
             }
         }
 
         private void checkCRL(X509Certificate[] certChain) throws CertificateException {
             if (nonNull(config.getSslVerifier().getPeer().getCheckCrlFile())) {
-                List<CRL> crls = config.getSslVerifier().getPeer().loadCrls();
                 X509Certificate owner = CertificateUtil.findOwner(certChain);
-                for (CRL c : crls) {
-                    if (c.isRevoked(owner)) {
-                        throw new CertificateException(format("Certificates %s has been revoked.", asList(certChain)));
-                    }
+                if (verifierIndex.isRevoked(owner)) {
+                    throw new CertificateException(format("Certificates %s has been revoked.", asList(certChain)));
                 }
             }
         }
     }
 
-    public static final List<String> LOCAL_ADDRESS = unmodifiableList(asList("localhost", "127.0.0.1", "0:0:0:0:0:0:0:1", "::"));
+    public static final Set<String> LOCAL_ADDRESS = unmodifiableSet(
+            new HashSet<>(asList("localhost", "127.0.0.1", "0:0:0:0:0:0:0:1", "::")));
 
 }
\ No newline at end of file
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.server;
+
+import static org.springcloud.gateway.core.collection.CollectionUtils2.safeList;
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.security.cert.CRL;
+import java.security.cert.CertificateException;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.springcloud.gateway.core.commons.server.config.GatewayWebServerProperties;
+import org.springcloud.gateway.core.commons.server.config.GatewayWebServerProperties.PeerVerifier;
+import org.springframework.core.io.Resource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link SslPeerVerifierIndex}
+ *
+ * <p>
+ * The precomputed indexes used during the TLS handshake, which includes the
+ * local addresses set, the SNI hosts set, the exact and wildcard CN whitelist
+ * sets and the revoked serials indexed by issuer, so that each check is a few
+ * hash lookups and does not grow with the size of CRLs or whitelist. The
+ * indexes are rebuilt in the background only when the network interfaces or
+ * the files are changed, and published as an immutable snapshot.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+@Slf4j
+public class SslPeerVerifierIndex {
+
+    private final GatewayWebServerProperties config;
+    private final Set<String> sniHosts;
+    private volatile Set<String> localAddresses = emptySet();
+    private volatile CNWhitelist cnWhitelist;
+    private volatile long cnWhitelistLastModified = Long.MIN_VALUE;
+    private volatile RevokedIndex revokedIndex;
+    private volatile long crlLastModified = Long.MIN_VALUE;
+
+    public SslPeerVerifierIndex(GatewayWebServerProperties config) {
+        this.config = notNullOf(config, "config");
+        Set<String> hosts = new HashSet<>();
+        for (String host : safeList(config.getSslVerifier().getSni().getHosts())) {
+            if (!isBlank(host)) {
+                hosts.add(host.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        for (String local : SecureSslServerCustomizer.LOCAL_ADDRESS) {
+            hosts.add(local);
+        }
+        this.sniHosts = unmodifiableSet(hosts);
+        refresh();
+    }
+
+    /**
+     * Starts the background refresher on the shared scheduler, which replaces
+     * the task of the previous index if any.
+     */
+    public SslPeerVerifierIndex startRefresher(SslRefreshScheduler scheduler) {
+        long intervalMs = config.getSslVerifier().getRefreshIntervalMs();
+        if (intervalMs > 0) {
+            notNullOf(scheduler, "scheduler").schedule("ssl-peer-verifier-refresh", this::refresh, intervalMs);
+        }
+        return this;
+    }
+
+    /**
+     * Note: The host names are case-insensitive (RFC 6066), so the SNI server
+     * name is matched in lower case.
+     */
+    public boolean isSniHostAllowed(String serverName) {
+        return nonNull(serverName) && sniHosts.contains(serverName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Whether any of the CNs matches an address of the local machine.
+     */
+    public boolean isAnyLocalAddress(Set<String> cns) {
+        Set<String> addresses = this.localAddresses;
+        for (String cn : cns) {
+            if (addresses.contains(cn)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isCNWhitelisted(Set<String> cns) throws CertificateException {
+        CNWhitelist whitelist = this.cnWhitelist;
+        if (isNull(whitelist)) {
+            throw new CertificateException("CN does not match white. can not read white file.");
+        }
+        for (String cn : cns) {
+            if (whitelist.matches(cn)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isRevoked(X509Certificate cert) throws CertificateException {
+        RevokedIndex index = this.revokedIndex;
+        if (isNull(index)) {
+            throw new CertificateException("Certificate revocation unknown. can not read crl file.");
+        }
+        return index.isRevoked(cert);
+    }
+
+    /**
+     * Rebuilds the changed indexes, the previous snapshot is kept on failure.
+     */
+    public synchronized void refresh() {
+        try {
+            Set<String> addresses = loadLocalAddresses();
+            if (!addresses.equals(localAddresses)) {
+                localAddresses = addresses;
+                log.info("Refreshed ssl verifier local addresses: {}", addresses);
+            }
+        } catch (Exception e) {
+            log.warn("Unable to refresh ssl verifier local addresses.", e);
+        }
+
+        PeerVerifier peer = config.getSslVerifier().getPeer();
+        Resource whiteFile = peer.getCheckCNWhiteFile();
+        if (nonNull(whiteFile)) {
+            try {
+                long lastModified = lastModified(whiteFile);
+                if (isNull(cnWhitelist) || lastModified != cnWhitelistLastModified) {
+                    cnWhitelist = new CNWhitelist(peer.loadCheckCNWhitelist());
+                    cnWhitelistLastModified = lastModified;
+                    log.info("Refreshed ssl verifier CN whitelist of: {}", whiteFile);
+                }
+            } catch (Exception e) {
+                log.warn("Unable to refresh ssl verifier CN whitelist.", e);
+            }
+        }
+
+        Resource crlFile = peer.getCheckCrlFile();
+        if (nonNull(crlFile)) {
+            try {
+                long lastModified = lastModified(crlFile);
+                if (isNull(revokedIndex) || lastModified != crlLastModified) {
+                    revokedIndex = new RevokedIndex(peer.loadCrls());
+                    crlLastModified = lastModified;
+                    log.info("Refreshed ssl verifier CRLs of: {}", crlFile);
+                }
+            } catch (Exception e) {
+                log.warn("Unable to refresh ssl verifier CRLs.", e);
+            }
+        }
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            // e.g. the classpath resource inside jar, which never changes.
+            return -1L;
+        }
+    }
+
+    private static Set<String> loadLocalAddresses() throws SocketException {
+        Set<String> addresses = new HashSet<>();
+        Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+        if (nonNull(interfaces)) {
+            while (interfaces.hasMoreElements()) {
+                Enumeration<InetAddress> ias = interfaces.nextElement().getInetAddresses();
+                while (ias.hasMoreElements()) {
+                    addresses.add(ias.nextElement().getHostAddress());
+                }
+            }
+        }
+        return unmodifiableSet(addresses);
+    }
+
+    /**
+     * The CN whitelist of exact names and wildcard names (e.g:
+     * '*.example.com', matches exactly one leftmost label), wildcard names are
+     * indexed by the parent domain.
+     */
+    static class CNWhitelist {
+        private final Set<String> exacts;
+        private final Set<String> wildcardParents;
+
+        CNWhitelist(List<String> cns) {
+            Set<String> exacts = new HashSet<>();
+            Set<String> wildcardParents = new HashSet<>();
+            for (String cn : safeList(cns)) {
+                if (isBlank(cn)) {
+                    continue;
+                }
+                // The wildcard entry also matches the wildcard certificate CN
+                // literally, as before.
+                exacts.add(cn);
+                if (cn.startsWith("*.") && cn.length() > 2) {
+                    wildcardParents.add(cn.substring(2));
+                }
+            }
+            this.exacts = unmodifiableSet(exacts);
+            this.wildcardParents = unmodifiableSet(wildcardParents);
+        }
+
+        boolean matches(String cn) {
+            if (isNull(cn)) {
+                return false;
+            }
+            if (exacts.contains(cn)) {
+                return true;
+            }
+            int dot = cn.indexOf('.');
+            return dot > 0 && !wildcardParents.isEmpty() && wildcardParents.contains(cn.substring(dot + 1));
+        }
+    }
+
+    /**
+     * The revoked serial numbers indexed by the issuer, and the CRLs which
+     * can't be indexed (non X509) are checked linearly as before.
+     */
+    static class RevokedIndex {
+        private final Map<X500Principal, Set<BigInteger>> revokedSerials;
+        private final List<CRL> others;
+
+        RevokedIndex(List<CRL> crls) {
+            Map<X500Principal, Set<BigInteger>> revokedSerials = new HashMap<>();
+            List<CRL> others = new ArrayList<>();
+            for (CRL crl : safeList(crls)) {
+                if (!(crl instanceof X509CRL)) {
+                    others.add(crl);
+                    continue;
+                }
+                X509CRL x509Crl = (X509CRL) crl;
+                Set<? extends X509CRLEntry> entries = x509Crl.getRevokedCertificates();
+                if (isNull(entries)) {
+                    continue;
+                }
+                for (X509CRLEntry entry : entries) {
+                    // The indirect CRL entry has its own certificate issuer.
+                    X500Principal issuer = nonNull(entry.getCertificateIssuer()) ? entry.getCertificateIssuer()
+                            : x509Crl.getIssuerX500Principal();
+                    revokedSerials.computeIfAbsent(issuer, k -> new HashSet<>()).add(entry.getSerialNumber());
+                }
+            }
+            this.revokedSerials = revokedSerials.isEmpty() ? emptyMap() : unmodifiableMap(revokedSerials);
+            this.others = others.isEmpty() ? emptyList() : unmodifiableList(others);
+        }
+
+        boolean isRevoked(X509Certificate cert) {
+            Set<BigInteger> serials = revokedSerials.get(cert.getIssuerX500Principal());
+            if (nonNull(serials) && serials.contains(cert.getSerialNumber())) {
+                return true;
+            }
+            for (CRL crl : others) {
+                if (crl.isRevoked(cert)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+}
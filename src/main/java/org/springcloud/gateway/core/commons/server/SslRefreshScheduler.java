@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.server;
+
+import static org.springcloud.gateway.core.lang.Assert2.hasTextOf;
+import static org.springcloud.gateway.core.lang.Assert2.isTrueOf;
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link SslRefreshScheduler}
+ *
+ * <p>
+ * The single daemon scheduler shared by the background SSL tasks (the SSL
+ * context reloading, the session ticket keys rotation and the peer verifier
+ * indexes refreshing). The tasks are registered by name, scheduling a task
+ * with the same name again (e.g. the server is rebuilt) cancels the previous
+ * one, and the scheduler is shut down with the application context.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+@Slf4j
+public class SslRefreshScheduler implements DisposableBean {
+
+    private final Map<String, ScheduledFuture<?>> tasks = new HashMap<>(4);
+    private ScheduledExecutorService executor;
+    private boolean destroyed;
+
+    /**
+     * Schedules the task with fixed delay, and cancels the previous task of
+     * the same name.
+     *
+     * @param name
+     * @param task
+     * @param intervalMs
+     */
+    public synchronized void schedule(String name, Runnable task, long intervalMs) {
+        hasTextOf(name, "name");
+        notNullOf(task, "task");
+        isTrueOf(intervalMs > 0, "intervalMs > 0");
+        if (destroyed) {
+            log.warn("Ignore schedule ssl task: {}, the scheduler has been destroyed.", name);
+            return;
+        }
+        cancel(name);
+        if (isNull(executor)) {
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "ssl-refresher");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        tasks.put(name, executor.scheduleWithFixedDelay(() -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                // Keep the next executions.
+                log.warn("Failed to run ssl task: {}", name, e);
+            }
+        }, intervalMs, intervalMs, MILLISECONDS));
+    }
+
+    /**
+     * Cancels the task of the name if exists.
+     *
+     * @param name
+     */
+    public synchronized void cancel(String name) {
+        ScheduledFuture<?> previous = tasks.remove(name);
+        if (nonNull(previous)) {
+            previous.cancel(false);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() throws Exception {
+        this.destroyed = true;
+        tasks.clear();
+        if (nonNull(executor)) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+}
@@ -23,7 +23,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.http.client.reactive.ReactorResourceFactory;
 import org.springframework.http.codec.ServerCodecConfigurer;
 
+import org.springcloud.gateway.core.commons.server.GatewayTransportCustomizer;
 import org.springcloud.gateway.core.commons.server.SecureNettyReactiveWebServerFactory;
+import org.springcloud.gateway.core.commons.server.SslRefreshScheduler;
 
 /**
  * {@link GatewayWebServerAutoConfiguration}
@@ -41,6 +43,25 @@ public class GatewayWebServerAutoConfiguration {
         return new GatewayWebServerProperties();
     }
 
+    /**
+     * The transport customizer of the web server, and also the routing
+     * {@link reactor.netty.http.client.HttpClient} as the
+     * {@link org.springframework.cloud.gateway.config.HttpClientCustomizer}
+     */
+    @Bean
+    public GatewayTransportCustomizer gatewayTransportCustomizer(GatewayWebServerProperties config) {
+        return new GatewayTransportCustomizer(config.getTransport());
+    }
+
+    /**
+     * The shared scheduler of the background SSL tasks, which is shut down with
+     * the application context.
+     */
+    @Bean
+    public SslRefreshScheduler sslRefreshScheduler() {
+        return new SslRefreshScheduler();
+    }
+
     /**
      * @see {@link org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext#createWebServer()}
      */
@@ -17,10 +17,10 @@ package org.springcloud.gateway.core.commons.server.config;
 
 import static com.google.common.base.Charsets.UTF_8;
 import static java.util.Arrays.asList;
-import static java.util.Objects.isNull;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.security.cert.CRL;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
@@ -31,7 +31,6 @@ import org.springframework.core.io.Resource;
 
 import com.google.common.io.Resources;
 
-import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -50,12 +49,143 @@ public class GatewayWebServerProperties {
 
     private SslServerVerifier sslVerifier = new SslServerVerifier();
 
+    private SslServerContext sslContext = new SslServerContext();
+
+    private TransportProperties transport = new TransportProperties();
+
+    @Getter
+    @Setter
+    @ToString
+    public static class TransportProperties {
+
+        /**
+         * Whether to prefer the native transport, which is detected by
+         * reactor-netty (io_uring if the netty incubator is present, otherwise
+         * epoll/kqueue), false means always NIO.
+         */
+        private boolean nativeEnabled = true;
+
+        /**
+         * The number of the server selector (boss) threads, less than or
+         * equal to 0 means use the shared reactor resources.
+         */
+        private int selectCount = 0;
+
+        /**
+         * The number of the event loop threads for the server and the routing
+         * client, less than or equal to 0 means use the shared reactor
+         * resources.
+         */
+        private int workerCount = 0;
+
+        /**
+         * Whether to enable SO_REUSEPORT of server socket (only epoll), which
+         * allows multiple processes to bind the same port and the kernel to
+         * balance the connections.
+         */
+        private boolean reusePort = false;
+
+        /**
+         * The TCP_FASTOPEN pending queue length of the server socket (only
+         * epoll), less than or equal to 0 means disabled.
+         */
+        private int tcpFastOpen = 0;
+
+        /**
+         * Whether to enable TCP_FASTOPEN_CONNECT of the routing client
+         * sockets (only epoll).
+         */
+        private boolean tcpFastOpenConnect = false;
+
+        /**
+         * The cleartext HTTP/2 mode of the server without SSL.
+         */
+        private H2cMode serverH2c = H2cMode.DISABLED;
+
+        /**
+         * The cleartext HTTP/2 mode of the routing client to the upstreams,
+         * all the upstreams must support it if prior knowledge.
+         */
+        private H2cMode clientH2c = H2cMode.DISABLED;
+
+        /**
+         * Whether to apply the transport settings to the routing client.
+         */
+        private boolean clientEnabled = true;
+    }
+
+    public static enum H2cMode {
+
+        DISABLED,
+
+        /**
+         * HTTP/1.1 with Upgrade to h2c, the server also accepts prior
+         * knowledge connections.
+         */
+        UPGRADE,
+
+        /**
+         * Only h2c with prior knowledge.
+         */
+        PRIOR_KNOWLEDGE;
+    }
+
+    @Getter
+    @Setter
+    @ToString
+    public static class SslServerContext {
+
+        /**
+         * The maximum number of server side sessions cached for resumption,
+         * 0 means use the default of the SSL provider.
+         */
+        private long sessionCacheSize = 20480L;
+
+        /**
+         * The timeout of the cached sessions and tickets in seconds, 0 means
+         * use the default of the SSL provider.
+         */
+        private long sessionTimeoutSeconds = 300L;
+
+        /**
+         * The interval of rotating the session ticket encryption key (only
+         * the openssl provider), less than or equal to 0 means never rotate.
+         */
+        private long ticketKeyRotationMs = 3600_000L;
+
+        /**
+         * The number of previous ticket keys still accepted for decryption
+         * after rotation, so that the tickets issued recently are resumable.
+         */
+        private int ticketKeyRetainCount = 2;
+
+        /**
+         * The DER encoded OCSP response file of the server certificate to
+         * staple (only the openssl provider), which is expected to be renewed
+         * by an external job, e.g: 'openssl ocsp -respout ...'
+         */
+        private Resource ocspResponseFile;
+
+        /**
+         * The interval of checking the key store, trust store and OCSP
+         * response files changes, the SSL context is rebuilt and swapped only
+         * if changed, less than or equal to 0 means never reload.
+         */
+        private long reloadIntervalMs = 10_000L;
+    }
+
     @Getter
     @Setter
     @ToString
     public static class SslServerVerifier {
         private SniVerifier sni = new SniVerifier();
         private PeerVerifier peer = new PeerVerifier();
+        /**
+         * The interval of checking the network interfaces and the CN white and
+         * CRL files changes, the handshake indexes are rebuilt only if
+         * changed, less than or equal to 0 means never refresh.
+         */
+        private long refreshIntervalMs = 30_000L;
     }
 
     @Getter
@@ -82,25 +212,15 @@ public class GatewayWebServerProperties {
         private Resource checkCrlFile;
 
         private boolean allowRenegociate = true;
-        //
-        // Temporary fields.
-        //
-
-        @Getter(AccessLevel.NONE)
-        @Setter(AccessLevel.NONE)
-        private transient List<String> cachedCheckCNWhitelist;
 
-        @Getter(AccessLevel.NONE)
-        @Setter(AccessLevel.NONE)
-        private transient List<CRL> cachedCheckCrls;
-
-        public synchronized List<String> loadCheckCNWhitelist() throws CertificateException {
+        /**
+         * Reads the CN whitelist file, which is cached and indexed by
+         * {@link org.springcloud.gateway.core.commons.server.SslPeerVerifierIndex}
+         */
+        public List<String> loadCheckCNWhitelist() throws CertificateException {
             try {
-                if (isNull(cachedCheckCNWhitelist)) {
-                    String white = Resources.toString(getCheckCNWhiteFile().getURL(), UTF_8);
-                    this.cachedCheckCNWhitelist = asList(white.split("\\s+"));
-                }
-                return cachedCheckCNWhitelist;
+                String white = Resources.toString(getCheckCNWhiteFile().getURL(), UTF_8);
+                return asList(white.split("\\s+"));
             } catch (FileNotFoundException e) {
                 throw new CertificateException("CN does not match white. no white file.");
             } catch (IOException e) {
@@ -108,12 +228,13 @@ public class GatewayWebServerProperties {
             }
         }
 
-        public synchronized List<CRL> loadCrls() throws CertificateException {
-            try {
-                if (isNull(cachedCheckCrls)) {
-                    this.cachedCheckCrls = KeyStoreUtil.createCRL(getCheckCrlFile().getInputStream());
-                }
-                return cachedCheckCrls;
+        /**
+         * Reads the CRLs file, which is cached and indexed by
+         * {@link org.springcloud.gateway.core.commons.server.SslPeerVerifierIndex}
+         */
+        public List<CRL> loadCrls() throws CertificateException {
+            try (InputStream in = getCheckCrlFile().getInputStream()) {
+                return KeyStoreUtil.createCRL(in);
             } catch (FileNotFoundException e) {
                 throw new CertificateException("CN does not match white. no white file.");
             } catch (IOException e) {
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.size;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * {@link RequestBodyTooLargeException}
+ *
+ * <p>
+ * Thrown by the streaming request body limiter once the received bytes exceed
+ * the permissible limit, which will be responded as 413 if the response has
+ * not been committed.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public class RequestBodyTooLargeException extends ResponseStatusException {
+
+    private static final long serialVersionUID = 3954367296587284719L;
+
+    public RequestBodyTooLargeException(String reason) {
+        super(HttpStatus.PAYLOAD_TOO_LARGE, reason);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // Rejected by the limit, the stack trace is meaningless.
+        return this;
+    }
+
+}
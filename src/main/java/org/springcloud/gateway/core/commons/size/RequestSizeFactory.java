@@ -17,14 +17,19 @@
 package org.springcloud.gateway.core.commons.size;
 
 import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static java.util.Objects.nonNull;
 import static org.springframework.cloud.gateway.support.GatewayToStringStyler.filterToStringCreator;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR;
 
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.server.ServerWebExchange;
 import org.springcloud.gateway.core.commons.fault.IamGatewayFault.SafeFilterOrdered;
@@ -33,6 +38,7 @@ import org.springcloud.gateway.core.commons.size.config.IamRequestSizeProperties
 import org.springcloud.gateway.core.bean.ConfigBeanUtils;
 
 import lombok.AllArgsConstructor;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -117,7 +123,33 @@ public class RequestSizeFactory extends AbstractGatewayFilterFactory<RequestSize
                     return exchange.getResponse().setComplete();
                 }
             }
-            return chain.filter(exchange);
+            if (!config.isStreamingLimitEnabled()) {
+                return chain.filter(exchange);
+            }
+            // The body has been cached in memory (e.g. for retry), just check
+            // its size, and the cached buffer is released by its owner.
+            DataBuffer cachedBody = exchange.getAttribute(CACHED_REQUEST_BODY_ATTR);
+            if (nonNull(cachedBody)) {
+                long cachedSize = cachedBody.readableByteCount();
+                if (cachedSize > config.getMaxBodySize().toBytes()) {
+                    exchange.getResponse().setStatusCode(HttpStatus.PAYLOAD_TOO_LARGE);
+                    exchange.getResponse().getHeaders().add("errorMessage",
+                            getErrorMessage(cachedSize, config.getMaxBodySize().toBytes()));
+                    return exchange.getResponse().setComplete();
+                }
+                return chain.filter(exchange);
+            }
+            return chain.filter(exchange.mutate().request(new SizeLimitedServerHttpRequest(request)).build())
+                    .onErrorResume(RequestBodyTooLargeException.class, ex -> {
+                        // Once the response is committed (e.g. upstream
+                        // responded early), it can only be aborted.
+                        if (exchange.getResponse().isCommitted()) {
+                            return Mono.error(ex);
+                        }
+                        exchange.getResponse().setStatusCode(HttpStatus.PAYLOAD_TOO_LARGE);
+                        exchange.getResponse().getHeaders().set("errorMessage", ex.getReason());
+                        return exchange.getResponse().setComplete();
+                    });
         }
 
         @Override
@@ -125,6 +157,37 @@ public class RequestSizeFactory extends AbstractGatewayFilterFactory<RequestSize
             return filterToStringCreator(RequestSizeFactory.this).append("max", config.getMaxBodySize()).toString();
         }
 
+        /**
+         * Counts the request body bytes as they arrive without any buffering,
+         * once the limit is crossed, the current buffer is released and the
+         * upstream is cancelled, so the write to the route service is aborted.
+         */
+        class SizeLimitedServerHttpRequest extends ServerHttpRequestDecorator {
+
+            SizeLimitedServerHttpRequest(ServerHttpRequest delegate) {
+                super(delegate);
+            }
+
+            @Override
+            public Flux<DataBuffer> getBody() {
+                long maxBytes = config.getMaxBodySize().toBytes();
+                // Deferred to reset the counter for each subscription (e.g.
+                // retries with the cached body).
+                return Flux.defer(() -> {
+                    long[] received = { 0L };
+                    return super.getBody().<DataBuffer> handle((buffer, sink) -> {
+                        received[0] += buffer.readableByteCount();
+                        if (received[0] > maxBytes) {
+                            DataBufferUtils.release(buffer);
+                            sink.error(new RequestBodyTooLargeException(getErrorMessage(received[0], maxBytes)));
+                        } else {
+                            sink.next(buffer);
+                        }
+                    }).doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+                });
+            }
+        }
+
     }
 
     public static final String BEAN_NAME = "IamRequestSize";
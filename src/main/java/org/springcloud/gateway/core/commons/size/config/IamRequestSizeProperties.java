@@ -48,6 +48,13 @@ public class IamRequestSizeProperties {
 
         private DataSize maxBodySize = DataSize.ofBytes(5000000L);
 
+        /**
+         * Whether to count the bytes of request body as they arrive, and abort
+         * with 413 once the max body size is crossed, which also limits the
+         * chunked requests without 'Content-Length' header.
+         */
+        private boolean streamingLimitEnabled = true;
+
         public RequestSizeProperties validate() {
             notNull(getMaxBodySize(), "maxBodySize may not be null");
             isTrue(getMaxBodySize().toBytes() > 0, "maxBodySize must be greater than 0");
@@ -18,6 +18,8 @@ package org.springcloud.gateway.core.commons.tc;
 import static org.springcloud.gateway.core.collection.CollectionUtils2.safeList;
 import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
 import static java.lang.String.format;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static org.apache.commons.lang3.StringUtils.equalsAnyIgnoreCase;
 import static org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter.filterRequest;
 import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
@@ -56,6 +58,8 @@ import org.springframework.web.reactive.function.server.HandlerStrategies;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
+import org.springcloud.gateway.core.codec.StreamCompressor;
+import org.springcloud.gateway.core.codec.StreamCompressor.Format;
 import org.springcloud.gateway.core.commons.fault.IamGatewayFault;
 import org.springcloud.gateway.core.commons.fault.http.ReactiveHttpClientBuilder;
 import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade;
@@ -65,6 +69,8 @@ import org.springcloud.gateway.core.commons.tc.config.TrafficProperties;
 import org.springcloud.gateway.core.commons.tc.config.TrafficProperties.ReplicationProperties;
 import org.springcloud.gateway.core.bean.ConfigBeanUtils;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
@@ -114,7 +120,19 @@ public class TReplicationFilterFactory extends AbstractGatewayFilterFactory<TRep
     public GatewayFilter apply(Config config) {
         applyDefaultToConfig(config);
         return new TrafficReplicationGatewayFilter(config,
-                ReactiveHttpClientBuilder.build(config.toHttpClientProperties(), customizers));
+                ReactiveHttpClientBuilder.build(config.toHttpClientProperties(), customizers), resolveCompression(config));
+    }
+
+    private Format resolveCompression(Config config) {
+        if (!StringUtils.hasText(config.getCompression())) {
+            return null;
+        }
+        Format format = Format.of(config.getCompression());
+        if (isNull(format) || !format.isAvailable()) {
+            log.warn("Ignore unsupported or unavailable replication compression: {}", config.getCompression());
+            return null;
+        }
+        return format;
     }
 
     private void applyDefaultToConfig(Config config) {
@@ -136,6 +154,7 @@ public class TReplicationFilterFactory extends AbstractGatewayFilterFactory<TRep
     class TrafficReplicationGatewayFilter implements GatewayFilter {
         private final Config config;
         private final HttpClient customizedRouteBasedHttpClient;
+        private final Format compression;
 
         @Override
         public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
@@ -193,6 +212,10 @@ public class TReplicationFilterFactory extends AbstractGatewayFilterFactory<TRep
             boolean preserveHost = exchange.getAttributeOrDefault(PRESERVE_HOST_HEADER_ATTRIBUTE, false);
             Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
 
+            // Compress on the fly, unless the body is already encoded.
+            boolean compress = nonNull(compression) && nonNull(body) && body.length > 0
+                    && !filtered.containsKey(HttpHeaders.CONTENT_ENCODING);
+
             Flux<HttpClientResponse> responseFlux = getCustomizedRouteBasedHttpClient(route, exchange).headers(headers -> {
                 headers.add(httpHeaders);
                 // Will either be set below, or later by Netty
@@ -201,6 +224,10 @@ public class TReplicationFilterFactory extends AbstractGatewayFilterFactory<TRep
                     String host = request.getHeaders().getFirst(HttpHeaders.HOST);
                     headers.add(HttpHeaders.HOST, host);
                 }
+                if (compress) {
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    headers.set(HttpHeaders.CONTENT_ENCODING, compression.getName());
+                }
             }).request(method).uri(targetUri).send((req, nettyOutbound) -> {
                 if (log.isTraceEnabled()) {
                     nettyOutbound.withConnection(connection -> log.trace("Image request outbound route: {}, inbound: {}",
@@ -212,6 +239,12 @@ public class TReplicationFilterFactory extends AbstractGatewayFilterFactory<TRep
                 //
                 // return
                 // nettyOutbound.send(request.getBody().map(this::getByteBuf));
+                if (compress) {
+                    // The body is compressed and sent chunk by chunk, without
+                    // materializing the whole compressed copy.
+                    return nettyOutbound.send(StreamCompressor.compress(chunked(body),
+                            () -> compression.newCompressor(config.getCompressionLevel(), nettyOutbound.alloc())));
+                }
                 return nettyOutbound.sendByteArray(Mono.just(body));
             }).responseConnection((res, connection) -> {
                 //
@@ -345,6 +378,14 @@ public class TReplicationFilterFactory extends AbstractGatewayFilterFactory<TRep
                     .onErrorResume((Function<Throwable, Mono<Void>>) ex -> Mono.error(ex));
         }
 
+        private Flux<ByteBuf> chunked(byte[] body) {
+            int chunks = (body.length + REPLICATION_CHUNK_SIZE - 1) / REPLICATION_CHUNK_SIZE;
+            return Flux.range(0, chunks).map(i -> {
+                int offset = i * REPLICATION_CHUNK_SIZE;
+                return Unpooled.wrappedBuffer(body, offset, Math.min(REPLICATION_CHUNK_SIZE, body.length - offset));
+            });
+        }
+
         private List<HttpHeadersFilter> getHeadersFilters() {
             if (headersFilters == null) {
                 headersFilters = headersFiltersProvider.getIfAvailable();
@@ -412,4 +453,5 @@ public class TReplicationFilterFactory extends AbstractGatewayFilterFactory<TRep
     }
 
     public static final String BEAN_NAME = "TrafficReplicator";
+    public static final int REPLICATION_CHUNK_SIZE = 64 * 1024;
 }
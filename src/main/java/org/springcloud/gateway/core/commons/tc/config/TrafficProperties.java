@@ -86,6 +86,19 @@ public class TrafficProperties {
         /** SSL configuration for Netty HttpClient. */
         private Ssl ssl = new Ssl();
 
+        /**
+         * The stream compression format of the replicated request bodies (e.g:
+         * gzip|zstd|snappy|lz4), which is sent as 'Content-Encoding', the
+         * default is null means no compression.
+         */
+        private String compression;
+
+        /**
+         * The compression level, the default is null means the default level
+         * of the format.
+         */
+        private Integer compressionLevel;
+
         public HttpClientProperties toHttpClientProperties() {
             HttpClientProperties hcp = new HttpClientProperties();
             hcp.setWiretap(isWiretap());
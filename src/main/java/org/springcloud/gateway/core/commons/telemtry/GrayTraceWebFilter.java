@@ -15,13 +15,11 @@
  */
 package org.springcloud.gateway.core.commons.telemtry;
 
-import static org.springcloud.gateway.core.core.ReflectionUtils2.findField;
-import static org.springcloud.gateway.core.core.ReflectionUtils2.getField;
 import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
-
-import java.lang.reflect.Field;
+import static java.util.Objects.nonNull;
 
 import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.sleuth.BaggageInScope;
 import org.springframework.cloud.sleuth.CurrentTraceContext;
 import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.cloud.sleuth.http.HttpServerHandler;
@@ -31,7 +29,7 @@ import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilterChain;
 import org.springcloud.gateway.core.commons.fault.IamGatewayFault;
 import org.springcloud.gateway.core.commons.telemtry.config.GrayTraceProperties;
-import org.springcloud.gateway.core.utils.web.ReactiveRequestExtractor;
+import org.springcloud.gateway.core.utils.web.ExchangeRequestView;
 import org.springcloud.gateway.core.web.matcher.SpelRequestMatcher;
 
 import lombok.CustomLog;
@@ -59,6 +57,11 @@ import reactor.core.publisher.Mono;
  * The execution order is the earliest.
  * </p>
  * 
+ * <p>
+ * The tracer is resolved once at construction instead of being read through
+ * reflection on every traced request.
+ * </p>
+ * 
  * @author springcloudgateway &lt;springcloudgateway@163.com, springcloudgateway@163.com&gt;
  * @version v1.0.0
  * @since v3.0.0
@@ -68,11 +71,13 @@ public class GrayTraceWebFilter extends TraceWebFilter {
 
     private final GrayTraceProperties grayTraceConfig;
     private final SpelRequestMatcher requestMatcher;
+    private final Tracer tracer;
 
     public GrayTraceWebFilter(GrayTraceProperties grayTraceConfig, Tracer tracer, HttpServerHandler handler,
             CurrentTraceContext currentTraceContext) {
         super(tracer, handler, currentTraceContext);
         this.grayTraceConfig = notNullOf(grayTraceConfig, "grayTraceConfig");
+        this.tracer = notNullOf(tracer, "tracer");
         // Build canary request matcher.
         this.requestMatcher = new SpelRequestMatcher(grayTraceConfig.getPreferMatchRuleDefinitions());
     }
@@ -94,7 +99,10 @@ public class GrayTraceWebFilter extends TraceWebFilter {
          * see:{@link io.opentelemetry.api.baggage.BaggageContextKey.KEY}↓
          */
         return exchange.getPrincipal().defaultIfEmpty(IamGatewayFault.UNKNOWN_PRINCIPAL).flatMap(principal -> {
-            getTracer().getBaggage("principal").set(principal.getName());
+            BaggageInScope baggage = tracer.getBaggage(BAGGAGE_PRINCIPAL);
+            if (nonNull(baggage)) {
+                baggage.set(principal.getName());
+            }
             return Mono.justOrEmpty(principal);
         }).then(super.filter(exchange, chain));
     }
@@ -109,14 +117,14 @@ public class GrayTraceWebFilter extends TraceWebFilter {
         if (!grayTraceConfig.isEnabled()) {
             return false;
         }
-        return requestMatcher.matches(new ReactiveRequestExtractor(exchange.getRequest()),
+        return requestMatcher.matches(ExchangeRequestView.of(exchange),
                 grayTraceConfig.getPreferOpenMatchExpression());
     }
 
     protected Tracer getTracer() {
-        return getField(TRACER_FIELD, this, true);
+        return tracer;
     }
 
-    public static final Field TRACER_FIELD = findField(TraceWebFilter.class, "tracer", Tracer.class);
+    public static final String BAGGAGE_PRINCIPAL = "principal";
 
 }
@@ -20,6 +20,7 @@ import static java.lang.String.format;
 import static java.util.Objects.nonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
+import java.time.Duration;
 import java.util.concurrent.ScheduledFuture;
 
 import org.springframework.beans.factory.DisposableBean;
@@ -87,7 +88,9 @@ public class TimeBasedRouteRefresher extends ApplicationTaskRunner<RunnerPropert
         this.future = getWorker().scheduleWithFixedDelay(() -> {
             try {
                 log.debug("Refreshing routes ...");
-                refresher.refreshRoutes();
+                // Waiting for the refresh to complete, so that the next
+                // schedule will not overlap.
+                refresher.refreshRoutes().block(Duration.ofMillis(config.getRefreshDelayMs()));
             } catch (Exception e) {
                 log.error("Failed to refreshing routes.", e);
             }
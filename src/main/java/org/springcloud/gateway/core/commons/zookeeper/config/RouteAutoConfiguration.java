@@ -29,6 +29,7 @@ import org.springcloud.gateway.core.commons.boostrap.config.IamSecurityAutoConfi
 import org.springcloud.gateway.core.commons.zookeeper.Https2HttpGlobalFilter;
 import org.springcloud.gateway.core.commons.zookeeper.RefreshRouteApplicationListener;
 import org.springcloud.gateway.core.commons.zookeeper.TimeBasedRouteRefresher;
+import org.springcloud.gateway.core.commons.zookeeper.repository.RedisPubSubRouteDefinitionRepository;
 import org.springcloud.gateway.core.commons.zookeeper.repository.RedisRouteDefinitionRepository;
 
 /**
@@ -52,7 +53,10 @@ public class RouteAutoConfiguration {
     }
 
     @Bean
-    public RouteDefinitionRepository redisRouteDefinitionRepository() {
+    public RouteDefinitionRepository redisRouteDefinitionRepository(RouteProperties config) {
+        if (config.isPushEnabled()) {
+            return new RedisPubSubRouteDefinitionRepository();
+        }
         return new RedisRouteDefinitionRepository();
     }
 
@@ -23,4 +23,10 @@ public class RouteProperties {
 
     private Long refreshDelayMs = 30_000L;
 
+    /**
+     * Enabled to subscribe the route changes pushed via redis channel, the
+     * polling refresh is still kept as a safety net.
+     */
+    private boolean pushEnabled = true;
+
 }
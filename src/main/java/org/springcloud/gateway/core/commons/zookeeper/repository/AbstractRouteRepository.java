@@ -16,41 +16,77 @@
 package org.springcloud.gateway.core.commons.zookeeper.repository;
 
 import static org.springcloud.gateway.core.log.SmartLoggerFactory.getLogger;
+import static org.springcloud.gateway.core.modelseri.JacksonUtils.parseJSON;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.isNull;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
-import org.springframework.cloud.gateway.route.InMemoryRouteDefinitionRepository;
 import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionRepository;
 import org.springframework.context.ApplicationEventPublisher;
 
-import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 
 import org.springcloud.gateway.core.commons.zookeeper.IRouteCacheRefresher;
 import org.springcloud.gateway.core.commons.zookeeper.RefreshRouteApplicationListener.RefreshType;
 import org.springcloud.gateway.core.log.SmartLogger;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
  * Abstract routes configuration repository. </br>
+ * 
+ * <p>
+ * The routes are persisted with a revision, the refresh only loads the routes
+ * when the revision changes, then computes the add/update/delete diff by the
+ * content hash of each route (only the changed routes are parsed), and swaps
+ * the in-memory snapshot atomically. The {@link RefreshRoutesEvent} (which
+ * makes the gateway rebuild all routes, predicates and filters) is only
+ * published when something actually changed.
+ * </p>
  *
  * @author springcloudgateway<springcloudgateway@163.com>
  * @version v1.0.0
  * @since
  */
-public abstract class AbstractRouteRepository extends InMemoryRouteDefinitionRepository implements IRouteCacheRefresher {
+public abstract class AbstractRouteRepository implements RouteDefinitionRepository, IRouteCacheRefresher {
 
     protected final SmartLogger log = getLogger(getClass());
     protected @Autowired ApplicationEventPublisher publisher;
 
+    /**
+     * The immutable snapshot of current routes, key is routeId.
+     */
+    private volatile Map<String, RouteEntry> routes = emptyMap();
+
+    /**
+     * The revision of persistent routes that the current snapshot is loaded
+     * from.
+     */
+    private volatile long revision = UNKNOWN_REVISION;
+
     @PostConstruct
-    public synchronized Mono<Void> init() {
-        return refreshRoutes();
+    public void init() {
+        refreshRoutes().subscribe(null, ex -> log.error("Failed to initial load routes.", ex));
+    }
+
+    @Override
+    public Flux<RouteDefinition> getRouteDefinitions() {
+        return Flux.fromIterable(routes.values()).map(RouteEntry::getDefinition);
     }
 
     /**
@@ -58,35 +94,153 @@ public abstract class AbstractRouteRepository extends InMemoryRouteDefinitionRep
      * routing differences in memory and persistent storage.
      */
     @Override
-    public synchronized Mono<Void> refreshRoutes() {
-        Flux<RouteDefinition> memeryRoutes = getRouteDefinitions();
-        Flux<RouteDefinition> permanentRoutes = loadPermanentRouteDefinitions();
-
-        Map<RouteDefinition, Boolean> newMemRoutes = Maps.newHashMap();
-        memeryRoutes.subscribe(route -> newMemRoutes.put(route, false));
-
-        Map<RouteDefinition, Boolean> newPermanentRoutes = Maps.newHashMap();
-        permanentRoutes.subscribe(route -> newPermanentRoutes.put(route, false));
+    public Mono<Void> refreshRoutes() {
+        return loadPermanentRevision().defaultIfEmpty(UNKNOWN_REVISION).flatMap(latestRevision -> {
+            if (latestRevision != UNKNOWN_REVISION && latestRevision == revision) {
+                log.debug("Skip refresh routes, the revision {} is not changed.", latestRevision);
+                return Mono.empty();
+            }
+            return loadPermanentSnapshot().doOnNext(snapshot -> {
+                if (applyChanges(snapshot.getRoutes(), snapshot.getRevision())) {
+                    publisher.publishEvent(new RefreshRoutesEvent(RefreshType.STATE));
+                }
+            });
+        }).then();
+    }
 
-        // ADD routes.
-        Flux.fromIterable(newPermanentRoutes.keySet())
-                .filter(perRoute -> !newMemRoutes.containsKey(perRoute))
-                .flatMap(route -> super.save(Mono.just(route)))
-                .subscribe();
+    /**
+     * Compute the diff by content hash and apply atomically.
+     * 
+     * @return Whether any route has changed.
+     */
+    private synchronized boolean applyChanges(Map<String, String> permanentRoutes, long latestRevision) {
+        // The snapshot is older than the current (e.g. the incremental changes
+        // have been applied meanwhile), the revision must not go backwards.
+        if (latestRevision != UNKNOWN_REVISION && revision != UNKNOWN_REVISION && latestRevision < revision) {
+            log.debug("Skip stale routes of revision: {}, current revision: {}", latestRevision, revision);
+            return false;
+        }
+        Map<String, RouteEntry> oldRoutes = this.routes;
+        Map<String, RouteEntry> newRoutes = new LinkedHashMap<>(permanentRoutes.size());
+        int added = 0, updated = 0;
+        for (Entry<String, String> ent : permanentRoutes.entrySet()) {
+            HashCode contentHash = Hashing.murmur3_128().hashString(ent.getValue(), UTF_8);
+            RouteEntry old = oldRoutes.get(ent.getKey());
+            if (!isNull(old) && old.getContentHash().equals(contentHash)) {
+                newRoutes.put(ent.getKey(), old);
+                continue;
+            }
+            try {
+                newRoutes.put(ent.getKey(), new RouteEntry(contentHash, parseJSON(ent.getValue(), RouteDefinition.class)));
+                // Only the successfully parsed routes are counted.
+                if (isNull(old)) {
+                    ++added;
+                } else {
+                    ++updated;
+                }
+            } catch (Exception e) {
+                // Keep the old available route.
+                log.error("Failed to parse route definition of '{}', keep the old. - {}", ent.getKey(), e.getMessage());
+                if (!isNull(old)) {
+                    newRoutes.put(ent.getKey(), old);
+                }
+            }
+        }
+        int deleted = (int) oldRoutes.keySet().stream().filter(routeId -> !newRoutes.containsKey(routeId)).count();
+
+        this.routes = unmodifiableMap(newRoutes);
+        this.revision = latestRevision;
+
+        boolean changed = added > 0 || updated > 0 || deleted > 0;
+        if (changed) {
+            log.info("Refreshed routes of revision: {}, added: {}, updated: {}, deleted: {}", latestRevision, added, updated,
+                    deleted);
+        }
+        return changed;
+    }
 
-        // REMOVE routes.
-        Flux.fromIterable(newMemRoutes.keySet())
-                .filter(perRoute -> !newPermanentRoutes.containsKey(perRoute))
-                .flatMap(route -> super.delete(Mono.just(route.getId())))
-                .subscribe();
+    /**
+     * Apply the incremental change of single route, only if the change
+     * revision immediately follows the current revision.
+     * 
+     * @param routeId
+     * @param content
+     *            The serialized (JSON) route, or null means deleted.
+     * @param changeRevision
+     * @return
+     */
+    protected synchronized ChangeResult applyChange(String routeId, String content, long changeRevision) {
+        if (revision != UNKNOWN_REVISION && changeRevision <= revision) {
+            return ChangeResult.STALE;
+        }
+        if (revision == UNKNOWN_REVISION || changeRevision != revision + 1) {
+            return ChangeResult.GAP;
+        }
+        Map<String, RouteEntry> newRoutes = new LinkedHashMap<>(routes);
+        if (isNull(content)) {
+            newRoutes.remove(routeId);
+        } else {
+            HashCode contentHash = Hashing.murmur3_128().hashString(content, UTF_8);
+            newRoutes.put(routeId, new RouteEntry(contentHash, parseJSON(content, RouteDefinition.class)));
+        }
+        this.routes = unmodifiableMap(newRoutes);
+        this.revision = changeRevision;
+        log.info("Applied route change of revision: {}, routeId: {}, deleted: {}", changeRevision, routeId, isNull(content));
+        return ChangeResult.APPLIED;
+    }
 
-        publisher.publishEvent(new RefreshRoutesEvent(RefreshType.STATE));
+    /**
+     * DO load the revision of routes configuration from persistent store,
+     * which should be increased on every mutation.
+     * 
+     * @return The revision, or empty if the store does not support revision
+     *         (always load all routes).
+     */
+    protected Mono<Long> loadPermanentRevision() {
         return Mono.empty();
     }
 
     /**
      * DO load routes configuration from persistent store.
+     * 
+     * @return The serialized (JSON) routes, key is routeId.
      */
-    protected abstract Flux<RouteDefinition> loadPermanentRouteDefinitions();
+    protected abstract Mono<Map<String, String>> loadPermanentRoutes();
+
+    /**
+     * DO load the routes together with the revision they belong to. The
+     * stores which support revision should override it to load both
+     * atomically, by default the revision is loaded before the routes, so the
+     * routes are never older than the revision.
+     * 
+     * @return
+     */
+    protected Mono<RoutesSnapshot> loadPermanentSnapshot() {
+        return loadPermanentRevision().defaultIfEmpty(UNKNOWN_REVISION)
+                .flatMap(revision -> loadPermanentRoutes().defaultIfEmpty(emptyMap())
+                        .map(routes -> new RoutesSnapshot(revision, routes)));
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    static class RouteEntry {
+        private final HashCode contentHash;
+        private final RouteDefinition definition;
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class RoutesSnapshot {
+        private final long revision;
+        private final Map<String, String> routes;
+    }
+
+    public static enum ChangeResult {
+        APPLIED, STALE, GAP;
+    }
+
+    public static final long UNKNOWN_REVISION = -1L;
 
 }
\ No newline at end of file
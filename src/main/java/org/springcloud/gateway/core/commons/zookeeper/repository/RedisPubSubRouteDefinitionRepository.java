@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.commons.zookeeper.repository;
+
+import static org.springcloud.gateway.core.common.constant.GatewayMAIConstants.CACHE_PREFIX_SCG_GWTEWAY_ROUTES_CHANNEL;
+import static org.springcloud.gateway.core.modelseri.JacksonUtils.parseJSON;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Objects.nonNull;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade;
+import org.springcloud.gateway.core.commons.microtag.GatewayMetricsFacade.MetricsName;
+import org.springcloud.gateway.core.commons.zookeeper.RefreshRouteApplicationListener.RefreshType;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * {@link RedisPubSubRouteDefinitionRepository}
+ * 
+ * <p>
+ * The event-driven redis routes repository, subscribes to the route changes
+ * channel (published atomically with every mutation, see
+ * {@link RedisRouteDefinitionRepository}) and applies them incrementally, the
+ * full routes are only reloaded when the revision gap is detected (e.g: the
+ * messages lost during reconnecting). The polling refresh is kept as a cheap
+ * safety net, since it only reads the revision when nothing changed.
+ * </p>
+ * 
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public class RedisPubSubRouteDefinitionRepository extends RedisRouteDefinitionRepository implements DisposableBean {
+
+    private @Autowired ReactiveRedisConnectionFactory connectionFactory;
+    private @Autowired GatewayMetricsFacade metricsFacade;
+
+    private ReactiveRedisMessageListenerContainer container;
+    private Disposable subscription;
+
+    @Override
+    public void init() {
+        this.container = new ReactiveRedisMessageListenerContainer(connectionFactory);
+        this.subscription = container.receive(ChannelTopic.of(CACHE_PREFIX_SCG_GWTEWAY_ROUTES_CHANNEL))
+                // Full resync on every (re)subscription, since the changes
+                // may be lost while unsubscribed.
+                .doOnSubscribe(s -> super.init())
+                .concatMap(message -> onRouteChanged(message.getMessage()).onErrorResume(ex -> {
+                    log.error("Failed to apply route change message: {}", message.getMessage(), ex);
+                    return resync();
+                }))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (nonNull(subscription)) {
+            subscription.dispose();
+        }
+        if (nonNull(container)) {
+            container.destroy();
+        }
+    }
+
+    private Mono<Void> onRouteChanged(String message) {
+        RouteChangeMessage change = parseJSON(message, RouteChangeMessage.class);
+        switch (applyChange(change.getRouteId(), change.getRoute(), change.getRevision())) {
+        case APPLIED:
+            metricsFacade.getTimer(MetricsName.ROUTE_PUSH_CONVERGENCE_TIME)
+                    .record(Duration.ofMillis(Math.max(0, currentTimeMillis() - change.getTimestamp())));
+            publisher.publishEvent(new RefreshRoutesEvent(RefreshType.STATE));
+            return Mono.empty();
+        case GAP:
+            log.warn("Detected gap of route changes revision: {}, resync all routes ...", change.getRevision());
+            return resync();
+        default: // STALE
+            return Mono.empty();
+        }
+    }
+
+    private Mono<Void> resync() {
+        metricsFacade.counter(MetricsName.ROUTE_PUSH_RESYNC_TOTAL, 1);
+        return refreshRoutes().onErrorResume(ex -> {
+            log.error("Failed to resync routes.", ex);
+            return Mono.empty();
+        });
+    }
+
+    @Getter
+    @Setter
+    @ToString
+    public static class RouteChangeMessage {
+        private long revision;
+        private String routeId;
+        private long timestamp;
+        /**
+         * The serialized (JSON) route, or null means deleted.
+         */
+        private String route;
+    }
+
+}
@@ -16,20 +16,30 @@
 package org.springcloud.gateway.core.commons.zookeeper.repository;
 
 import static org.springcloud.gateway.core.common.constant.GatewayMAIConstants.CACHE_PREFIX_SCG_GWTEWAY_ROUTES;
-import static org.springcloud.gateway.core.modelseri.JacksonUtils.parseJSON;
+import static org.springcloud.gateway.core.common.constant.GatewayMAIConstants.CACHE_PREFIX_SCG_GWTEWAY_ROUTES_CHANNEL;
+import static org.springcloud.gateway.core.common.constant.GatewayMAIConstants.CACHE_PREFIX_SCG_GWTEWAY_ROUTES_REVISION;
 import static org.springcloud.gateway.core.modelseri.JacksonUtils.toJSONString;
-import static java.util.stream.Collectors.toList;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.springframework.util.CollectionUtils.isEmpty;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.route.RouteDefinition;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
  * Redis routes information persistence class This class contains route
- * persistence and route refresh of distributed cluster.
+ * persistence and route refresh of distributed cluster. The routes are stored
+ * in a hash, and every mutation increases the revision counter and publishes
+ * the change to the channel atomically.
  *
  * @author springcloudgateway<springcloudgateway@163.com>
  * @version v1.0.0
@@ -37,32 +47,81 @@ import reactor.core.publisher.Mono;
  */
 public class RedisRouteDefinitionRepository extends AbstractRouteRepository {
 
-    private @Autowired StringRedisTemplate stringTemplate;
+    protected @Autowired ReactiveStringRedisTemplate stringTemplate;
+
+    @Override
+    protected Mono<Long> loadPermanentRevision() {
+        return stringTemplate.opsForValue().get(CACHE_PREFIX_SCG_GWTEWAY_ROUTES_REVISION).map(Long::parseLong);
+    }
+
+    @Override
+    protected Mono<Map<String, String>> loadPermanentRoutes() {
+        return stringTemplate.<String, String> opsForHash()
+                .entries(CACHE_PREFIX_SCG_GWTEWAY_ROUTES)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
 
+    /**
+     * Loads the revision and routes in one script, so that a concurrent
+     * mutation can't make the revision mismatch the routes.
+     */
     @Override
-    protected Flux<RouteDefinition> loadPermanentRouteDefinitions() {
-        return Flux.fromIterable(stringTemplate.opsForHash()
-                .values(CACHE_PREFIX_SCG_GWTEWAY_ROUTES)
-                .stream()
-                .map(routeDefinition -> parseJSON(routeDefinition.toString(), RouteDefinition.class))
-                .collect(toList()));
+    protected Mono<RoutesSnapshot> loadPermanentSnapshot() {
+        return stringTemplate
+                .execute(SNAPSHOT_SCRIPT, asList(CACHE_PREFIX_SCG_GWTEWAY_ROUTES, CACHE_PREFIX_SCG_GWTEWAY_ROUTES_REVISION))
+                .cast(Object.class)
+                // The multi-bulk reply may be emitted as a whole list.
+                .flatMapIterable(reply -> reply instanceof List ? (List<?>) reply : singletonList(reply))
+                .collectList()
+                .map(reply -> {
+                    long revision = isEmpty(reply) ? UNKNOWN_REVISION : Long.parseLong(String.valueOf(reply.get(0)));
+                    Map<String, String> routes = new LinkedHashMap<>(reply.size() / 2);
+                    for (int i = 1; i + 1 < reply.size(); i += 2) {
+                        routes.put(String.valueOf(reply.get(i)), String.valueOf(reply.get(i + 1)));
+                    }
+                    return new RoutesSnapshot(revision, routes);
+                });
     }
 
     @Override
     public Mono<Void> save(Mono<RouteDefinition> route) {
-        return route.flatMap(routeDefinition -> {
-            stringTemplate.opsForHash().put(CACHE_PREFIX_SCG_GWTEWAY_ROUTES, routeDefinition.getId(),
-                    toJSONString(routeDefinition));
-            return Mono.empty();
-        });
+        return route.flatMap(routeDefinition -> stringTemplate
+                .execute(SAVE_SCRIPT, asList(CACHE_PREFIX_SCG_GWTEWAY_ROUTES, CACHE_PREFIX_SCG_GWTEWAY_ROUTES_REVISION),
+                        asList(routeDefinition.getId(), String.valueOf(currentTimeMillis()),
+                                CACHE_PREFIX_SCG_GWTEWAY_ROUTES_CHANNEL, toJSONString(routeDefinition)))
+                .then());
     }
 
     @Override
     public Mono<Void> delete(Mono<String> routeId) {
-        return routeId.flatMap(id -> {
-            stringTemplate.opsForHash().delete(CACHE_PREFIX_SCG_GWTEWAY_ROUTES, id);
-            return Mono.empty();
-        });
+        return routeId.flatMap(id -> stringTemplate
+                .execute(DELETE_SCRIPT, asList(CACHE_PREFIX_SCG_GWTEWAY_ROUTES, CACHE_PREFIX_SCG_GWTEWAY_ROUTES_REVISION),
+                        asList(id, String.valueOf(currentTimeMillis()), CACHE_PREFIX_SCG_GWTEWAY_ROUTES_CHANNEL))
+                .then());
     }
 
+    /**
+     * KEYS: [routes, revision], RETURN: [revision, routeId1, route1, ...]
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SNAPSHOT_SCRIPT = RedisScript.of("local entries = redis.call('HGETALL', KEYS[1]) "
+            + "table.insert(entries, 1, redis.call('GET', KEYS[2]) or '" + UNKNOWN_REVISION + "') "
+            + "return entries", List.class);
+
+    /**
+     * KEYS: [routes, revision], ARGV: [routeId, timestamp, channel, route]
+     */
+    private static final RedisScript<Long> SAVE_SCRIPT = RedisScript.of("redis.call('HSET', KEYS[1], ARGV[1], ARGV[4]) "
+            + "local rev = redis.call('INCR', KEYS[2]) "
+            + "redis.call('PUBLISH', ARGV[3], cjson.encode({revision=rev, routeId=ARGV[1], timestamp=tonumber(ARGV[2]), route=ARGV[4]})) "
+            + "return rev", Long.class);
+
+    /**
+     * KEYS: [routes, revision], ARGV: [routeId, timestamp, channel]
+     */
+    private static final RedisScript<Long> DELETE_SCRIPT = RedisScript.of("if redis.call('HDEL', KEYS[1], ARGV[1]) > 0 then "
+            + "local rev = redis.call('INCR', KEYS[2]) "
+            + "redis.call('PUBLISH', ARGV[3], cjson.encode({revision=rev, routeId=ARGV[1], timestamp=tonumber(ARGV[2])})) "
+            + "return rev end return 0", Long.class);
+
 }
\ No newline at end of file
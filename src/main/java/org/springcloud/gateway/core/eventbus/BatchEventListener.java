@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.eventbus;
+
+import java.util.List;
+
+/**
+ * The batch listener of {@link EventBusSupport}, the registered instances of
+ * this interface receive all the events drained by the dispatcher at once
+ * (in the order of publishing per publisher), instead of the per event
+ * {@link com.google.common.eventbus.Subscribe} methods.
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public interface BatchEventListener {
+
+    /**
+     * Handle the batch of events, which may contain events of different types.
+     *
+     * @param events
+     */
+    void onEvents(List<Object> events);
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.eventbus;
+
+import static org.springcloud.gateway.core.lang.Assert2.isTrueOf;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link BoundedRingBuffer}
+ *
+ * <p>
+ * The bounded, array based ring buffer, each slot carries a sequence number so
+ * that producers only CAS the tail index and consumers only CAS the head index
+ * (see Dmitry Vyukov's bounded queue), there is no lock and no allocation per
+ * element. It is used as multi-producers single-consumer by the event bus
+ * dispatcher, but polling is also safe from the producers, which is required
+ * to evict the oldest element on overflow.
+ * </p>
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public class BoundedRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public BoundedRingBuffer(int capacity) {
+        isTrueOf(capacity >= 2, "capacity >= 2");
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Inserts the element if there is a free slot.
+     *
+     * @param e
+     * @return false if the buffer is full.
+     */
+    public boolean offer(E e) {
+        for (;;) {
+            long pos = tail.get();
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer.lazySet(index, e);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false; // full
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element.
+     *
+     * @return null if the buffer is empty.
+     */
+    public E poll() {
+        for (;;) {
+            long pos = head.get();
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    E e = buffer.get(index);
+                    buffer.lazySet(index, null);
+                    sequences.set(index, pos + mask + 1);
+                    return e;
+                }
+            } else if (diff < 0) {
+                return null; // empty
+            }
+        }
+    }
+
+    /**
+     * Removes at most the max number of elements into the list.
+     *
+     * @param to
+     * @param max
+     * @return the number of elements drained.
+     */
+    public int drainTo(List<? super E> to, int max) {
+        int count = 0;
+        E e;
+        while (count < max && (e = poll()) != null) {
+            to.add(e);
+            ++count;
+        }
+        return count;
+    }
+
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.eventbus;
+
+/**
+ * The event that can be merged with the later events of the same key while it
+ * is still queued, see {@link EventDropPolicy#COALESCE}
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public interface CoalescingEvent {
+
+    /**
+     * Gets the coalesce key, the events are only merged with the queued event
+     * of the same type and key.
+     *
+     * @return
+     */
+    Object getCoalesceKey();
+
+    /**
+     * Merges the later event of the same key into this queued event, it is
+     * invoked under the lock of the key, and never after this event is taken
+     * by the dispatcher.
+     *
+     * @param later
+     */
+    void coalesce(CoalescingEvent later);
+
+    /**
+     * Gets the number of the occurrences represented by this event, it is 1
+     * if never merged.
+     *
+     * @return
+     */
+    int getOccurrences();
+
+}
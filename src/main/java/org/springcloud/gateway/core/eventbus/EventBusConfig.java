@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.eventbus;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The dispatching configuration of {@link EventBusSupport}
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+@Getter
+@Setter
+@ToString
+public class EventBusConfig {
+
+    /**
+     * The capacity of the bounded dispatching queue of each event thread, it
+     * is rounded up to the power of 2.
+     */
+    private int queueCapacity = 8192;
+
+    /**
+     * The maximum number of events delivered to the listeners at once.
+     */
+    private int batchSize = 256;
+
+    /**
+     * The overflow policy of the events type that not configured in policies.
+     */
+    private EventDropPolicy defaultPolicy = EventDropPolicy.DROP_NEWEST;
+
+    /**
+     * The overflow policy of events type, the key is the simple or fully
+     * qualified class name of the events type (or it's super types).
+     */
+    private Map<String, EventDropPolicy> policies = new HashMap<>();
+
+    /**
+     * Only accepts one out of every the number of events of the
+     * {@link EventDropPolicy#SAMPLE} type when the queue is above the sample
+     * watermark.
+     */
+    private int sampleRate = 10;
+
+    /**
+     * The queue usage ratio of starting sampling.
+     */
+    private double sampleWatermark = 0.5d;
+
+    public EventBusConfig() {
+    }
+
+    public EventBusConfig(EventDropPolicy defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+    }
+
+}
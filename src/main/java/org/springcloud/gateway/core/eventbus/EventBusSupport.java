@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 ~ 2025 the original author or authors. <springcloudgateway@gmail.com>
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,43 +16,87 @@
 package org.springcloud.gateway.core.eventbus;
 
 import static org.springcloud.gateway.core.lang.Assert2.isTrueOf;
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static org.springcloud.gateway.core.log.SmartLoggerFactory.getLogger;
 import static java.lang.String.valueOf;
+import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
-import com.google.common.eventbus.AsyncEventBus;
 import com.google.common.eventbus.EventBus;
 
+import org.springcloud.gateway.core.log.SmartLogger;
+
 /**
  * {@link EventBusSupport}
  *
+ * <p>
+ * The events are published into the bounded ring buffer of one of the
+ * dispatcher threads (selected by the publisher thread), without any lock or
+ * blocking on the publishing path, and when the buffer is saturated the
+ * {@link EventDropPolicy} of the events type is applied. The dispatcher drains
+ * the events in batches, and delivers each batch to the registered
+ * {@link BatchEventListener}s at once, and then each event to the
+ * {@link com.google.common.eventbus.Subscribe} methods of the other registered
+ * objects.
+ * </p>
+ *
  * @author springcloudgateway <springcloudgateway@gmail.com>
  * @version v1.0.0
  * @since
  */
 public class EventBusSupport implements Closeable {
+    protected final SmartLogger log = getLogger(getClass());
 
     /** {@link EventBus} */
     protected final EventBus bus;
 
-    /** {@link ThreadPoolExecutor} */
-    protected ThreadPoolExecutor executor;
+    /** {@link EventBusConfig} */
+    protected final EventBusConfig config;
+
+    /** {@link DropListener} */
+    protected final DropListener dropListener;
+
+    private final List<BatchEventListener> batchListeners = new CopyOnWriteArrayList<>();
+    private final Map<Class<?>, EventDropPolicy> resolvedPolicies = new ConcurrentHashMap<>(16);
+    private final Map<CoalesceKey, CoalescingEvent> coalescingEvents = new ConcurrentHashMap<>(64);
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final Dispatcher[] dispatchers;
+    private final int sampleThreshold;
+    private volatile boolean running = true;
 
     public EventBusSupport(int eventThreads) {
         this(null, eventThreads);
     }
 
     public EventBusSupport(String prefix, int eventThreads) {
+        this(prefix, eventThreads, new EventBusConfig(), null);
+    }
+
+    public EventBusSupport(String prefix, int eventThreads, EventBusConfig config, DropListener dropListener) {
         isTrueOf(eventThreads > 0, "eventThreads >0");
-        this.bus = initEventBus(prefix, eventThreads);
+        this.config = notNullOf(config, "config");
+        isTrueOf(config.getQueueCapacity() >= 2, "queueCapacity >= 2");
+        isTrueOf(config.getBatchSize() > 0, "batchSize > 0");
+        isTrueOf(config.getSampleRate() > 0, "sampleRate > 0");
+        this.dropListener = dropListener;
+        this.bus = new EventBus(getClass().getSimpleName());
+        this.dispatchers = initDispatchers(prefix, eventThreads);
+        this.sampleThreshold = (int) (dispatchers[0].ring.capacity() * config.getSampleWatermark());
     }
 
     /**
@@ -73,7 +117,8 @@ public class EventBusSupport implements Closeable {
     }
 
     /**
-     * Gets {@link EventBus} instance.
+     * Gets {@link EventBus} instance, note that posting to it directly will be
+     * synchronously dispatched in the caller thread.
      * 
      * @return
      */
@@ -82,7 +127,8 @@ public class EventBusSupport implements Closeable {
     }
 
     /**
-     * Registers all subscriber methods. </br>
+     * Registers all subscriber methods, or the {@link BatchEventListener}s.
+     * </br>
      * see {@link EventBus#register(Object)}
      * 
      * @param objects
@@ -91,13 +137,18 @@ public class EventBusSupport implements Closeable {
     public void register(Object... objects) {
         if (nonNull(objects)) {
             for (Object obj : objects) {
-                this.bus.register(obj);
+                if (obj instanceof BatchEventListener) {
+                    this.batchListeners.add((BatchEventListener) obj);
+                } else {
+                    this.bus.register(obj);
+                }
             }
         }
     }
 
     /**
-     * Unregisters all subscriber methods. </br>
+     * Unregisters all subscriber methods, or the {@link BatchEventListener}s.
+     * </br>
      * see {@link EventBus#unregister(Object)}
      * 
      * @param objects
@@ -106,21 +157,29 @@ public class EventBusSupport implements Closeable {
     public void unregister(Object... objects) {
         if (nonNull(objects)) {
             for (Object obj : objects) {
-                this.bus.unregister(obj);
+                if (obj instanceof BatchEventListener) {
+                    this.batchListeners.remove(obj);
+                } else {
+                    this.bus.unregister(obj);
+                }
             }
         }
     }
 
     /**
-     * Post events to bus. </br>
-     * see {@link EventBus#post(Object)}
+     * Post events to the dispatching queue, it never blocks, the events are
+     * discarded or merged according to the {@link EventDropPolicy} of the
+     * events type when the queue is saturated.
      * 
      * @param events
      */
     public void post(Object... events) {
         if (isActive()) {
+            Dispatcher dispatcher = selectDispatcher();
             for (Object event : events) {
-                getBus().post(event);
+                if (nonNull(event)) {
+                    publish(dispatcher, event);
+                }
             }
         }
     }
@@ -131,38 +190,296 @@ public class EventBusSupport implements Closeable {
      * @return
      */
     public boolean isActive() {
-        return nonNull(executor) && !executor.isShutdown();
+        return running;
+    }
+
+    /**
+     * Gets the number of queued events of all the dispatchers.
+     * 
+     * @return
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Dispatcher dispatcher : dispatchers) {
+            depth += dispatcher.ring.size();
+        }
+        return depth;
+    }
+
+    /**
+     * Gets the total number of discarded events occurrences.
+     * 
+     * @return
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Gets the total number of events merged into the queued events.
+     * 
+     * @return
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
     }
 
     @Override
     public void close() throws IOException {
         if (isActive()) {
-            executor.shutdown();
+            // The dispatchers will exit after the queued events are drained.
+            running = false;
+            for (Dispatcher dispatcher : dispatchers) {
+                LockSupport.unpark(dispatcher.thread);
+            }
+        }
+    }
+
+    private Dispatcher selectDispatcher() {
+        if (dispatchers.length == 1) {
+            return dispatchers[0];
+        }
+        return dispatchers[(int) (Thread.currentThread().getId() % dispatchers.length)];
+    }
+
+    private void publish(Dispatcher dispatcher, Object event) {
+        EventDropPolicy policy = resolvePolicy(event.getClass());
+        switch (policy) {
+        case COALESCE:
+            if (event instanceof CoalescingEvent) {
+                publishCoalescing(dispatcher, (CoalescingEvent) event);
+            } else {
+                offerOrDrop(dispatcher, event, EventDropPolicy.DROP_NEWEST);
+            }
+            break;
+        case SAMPLE:
+            if (dispatcher.ring.size() >= sampleThreshold
+                    && ThreadLocalRandom.current().nextInt(config.getSampleRate()) != 0) {
+                onDropped(event, policy);
+            } else {
+                offerOrDrop(dispatcher, event, policy);
+            }
+            break;
+        case DROP_OLDEST:
+            for (int i = 0; i < MAX_EVICT_TRIES; i++) {
+                if (dispatcher.offer(event)) {
+                    return;
+                }
+                Object evicted = dispatcher.ring.poll();
+                if (nonNull(evicted)) {
+                    onDropped(evicted, policy);
+                }
+            }
+            onDropped(event, policy);
+            break;
+        default:
+            offerOrDrop(dispatcher, event, policy);
+            break;
+        }
+    }
+
+    private void publishCoalescing(Dispatcher dispatcher, CoalescingEvent event) {
+        CoalesceKey key = new CoalesceKey(event);
+        // Merging is performed under the lock of the key, which is exclusive
+        // with the removal by the dispatcher, so no occurrence will be lost.
+        CoalescingEvent queued = coalescingEvents.compute(key, (k, current) -> {
+            if (nonNull(current)) {
+                current.coalesce(event);
+                return current;
+            }
+            return event;
+        });
+        if (queued != event) {
+            coalescedCount.increment();
+        } else if (!dispatcher.offer(event)) {
+            onDropped(event, EventDropPolicy.COALESCE);
+        }
+    }
+
+    private void releaseCoalescing(Object event) {
+        if (event instanceof CoalescingEvent && !coalescingEvents.isEmpty()) {
+            coalescingEvents.remove(new CoalesceKey((CoalescingEvent) event), event);
+        }
+    }
+
+    private void offerOrDrop(Dispatcher dispatcher, Object event, EventDropPolicy policy) {
+        if (!dispatcher.offer(event)) {
+            onDropped(event, policy);
+        }
+    }
+
+    private void onDropped(Object event, EventDropPolicy policy) {
+        int count = 1;
+        if (event instanceof CoalescingEvent) {
+            // Must be released before reading, to stop the merging.
+            releaseCoalescing(event);
+            count = ((CoalescingEvent) event).getOccurrences();
+        }
+        droppedCount.add(count);
+        if (nonNull(dropListener)) {
+            try {
+                dropListener.onDropped(event.getClass(), policy, count);
+            } catch (Exception e) {
+                log.warn("Failed to call dropped events listener.", e);
+            }
+        }
+    }
+
+    private EventDropPolicy resolvePolicy(Class<?> eventType) {
+        EventDropPolicy policy = resolvedPolicies.get(eventType);
+        if (isNull(policy)) {
+            policy = resolvedPolicies.computeIfAbsent(eventType, type -> {
+                Map<String, EventDropPolicy> policies = config.getPolicies();
+                if (nonNull(policies) && !policies.isEmpty()) {
+                    for (Class<?> t = type; nonNull(t) && t != Object.class; t = t.getSuperclass()) {
+                        EventDropPolicy p = policies.get(t.getName());
+                        if (isNull(p)) {
+                            p = policies.get(t.getSimpleName());
+                        }
+                        if (nonNull(p)) {
+                            return p;
+                        }
+                    }
+                }
+                return config.getDefaultPolicy();
+            });
+        }
+        return policy;
+    }
+
+    private void deliver(List<Object> batch) {
+        for (Object event : batch) {
+            releaseCoalescing(event);
+        }
+        if (!batchListeners.isEmpty()) {
+            List<Object> events = unmodifiableList(batch);
+            for (BatchEventListener listener : batchListeners) {
+                try {
+                    listener.onEvents(events);
+                } catch (Exception e) {
+                    log.error("Failed to deliver the batch events.", e);
+                }
+            }
+        }
+        for (Object event : batch) {
+            bus.post(event);
         }
     }
 
     /**
-     * Init create {@link EventBus}
+     * Init create dispatchers.
      * 
      * @param prefix
      * @param eventThreads
      * @return
      */
-    private final EventBus initEventBus(String prefix, int eventThreads) {
+    private final Dispatcher[] initDispatchers(String prefix, int eventThreads) {
         String _prefix = isBlank(prefix) ? "eventbus" : prefix;
-        final AtomicInteger incr = new AtomicInteger(0);
-        this.executor = new ThreadPoolExecutor(eventThreads, eventThreads, 0, MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
-            Thread t = new Thread(r, _prefix.concat("-").concat(valueOf(incr.getAndIncrement())));
-            if (t.isDaemon())
-                t.setDaemon(false);
-            if (t.getPriority() != Thread.NORM_PRIORITY)
-                t.setPriority(Thread.NORM_PRIORITY);
-            return t;
-        });
-        return new AsyncEventBus(getClass().getSimpleName(), executor);
+        Dispatcher[] dispatchers = new Dispatcher[eventThreads];
+        for (int i = 0; i < eventThreads; i++) {
+            dispatchers[i] = new Dispatcher(_prefix.concat("-").concat(valueOf(i)));
+        }
+        return dispatchers;
+    }
+
+    /**
+     * The dispatcher thread that drains it's own ring buffer in batches, and
+     * parks while idle until a publisher signals it.
+     */
+    private class Dispatcher implements Runnable {
+        private final BoundedRingBuffer<Object> ring;
+        private final Thread thread;
+        private volatile boolean idle;
+
+        Dispatcher(String name) {
+            this.ring = new BoundedRingBuffer<>(config.getQueueCapacity());
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(false);
+            this.thread.start();
+        }
+
+        /**
+         * Offers the event, and wakes up the dispatcher if it's idle.
+         */
+        boolean offer(Object event) {
+            if (!ring.offer(event)) {
+                return false;
+            }
+            if (idle) {
+                LockSupport.unpark(thread);
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            List<Object> batch = new ArrayList<>(config.getBatchSize());
+            while (running || ring.size() > 0) {
+                if (ring.drainTo(batch, config.getBatchSize()) == 0) {
+                    // Publish idle before re-checking, so that an offer
+                    // either is seen here or sees idle and unparks.
+                    idle = true;
+                    if (running && ring.size() == 0) {
+                        LockSupport.park(this);
+                    }
+                    idle = false;
+                    continue;
+                }
+                try {
+                    deliver(batch);
+                } catch (Exception e) {
+                    log.error("Failed to dispatch the batch events.", e);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * The listener of the discarded events.
+     */
+    @FunctionalInterface
+    public static interface DropListener {
+
+        /**
+         * Called on the publisher thread when the events are discarded.
+         * 
+         * @param eventType
+         * @param policy
+         * @param count
+         *            the number of occurrences discarded.
+         */
+        void onDropped(Class<?> eventType, EventDropPolicy policy, int count);
+    }
+
+    private static class CoalesceKey {
+        private final Class<?> type;
+        private final Object key;
+
+        CoalesceKey(CoalescingEvent event) {
+            this.type = event.getClass();
+            this.key = event.getCoalesceKey();
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + Objects.hashCode(key);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CoalesceKey)) {
+                return false;
+            }
+            CoalesceKey that = (CoalesceKey) obj;
+            return type == that.type && Objects.equals(key, that.key);
+        }
     }
 
     /** Single default instance of {@link EventBusSupport} */
     private static volatile EventBusSupport DEFAULT;
 
+    private static final int MAX_EVICT_TRIES = 8;
+
 }
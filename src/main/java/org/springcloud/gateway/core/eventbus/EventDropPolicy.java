@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.eventbus;
+
+/**
+ * The overflow policy of the events type when the bounded event bus
+ * dispatching queue is saturated.
+ *
+ * @author springcloudgateway &lt;springcloudgateway@163.com,
+ *         springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public enum EventDropPolicy {
+
+    /**
+     * When the queue is full, the oldest queued event is evicted to make room
+     * for the new event.
+     */
+    DROP_OLDEST,
+
+    /**
+     * When the queue is full, the new event is discarded.
+     */
+    DROP_NEWEST,
+
+    /**
+     * When the queue is above the sample watermark, only one out of every
+     * sample rate events is accepted, and the new event is discarded when the
+     * queue is full.
+     */
+    SAMPLE,
+
+    /**
+     * The event of the same coalesce key as a still queued event is merged
+     * into it instead of being queued again, see {@link CoalescingEvent}, the
+     * events that not implemented it fallback to {@link #DROP_NEWEST}.
+     */
+    COALESCE;
+
+}
@@ -20,9 +20,23 @@ import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
 import static java.lang.String.format;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Snowflake algorithms Id generator.
+ * 
+ * <p>
+ * The generator state is a single position counter of (timestamp, sequence),
+ * each thread leases a block of sequences of one millisecond with one CAS, and
+ * hands them out from the thread local lease without any shared writes, the
+ * block size starts from 1 and doubles when the lease is exhausted in the same
+ * millisecond (up to maxLeaseSize), so that the idle threads do not waste the
+ * sequence space. When the sequences of the current millisecond are exhausted
+ * or the clock moved backwards, the sequences of the next milliseconds are
+ * borrowed (up to maxBorrowMs ahead of the clock), beyond that it waits for
+ * the clock to catch up, and refuses to generate if the clock is more than
+ * maxWaitMs behind.
+ * </p>
  *
  * @author springcloudgateway <springcloudgateway@gmail.com>
  * @version v1.0.0
@@ -40,21 +54,41 @@ public final class SnowflakeIdGenerator {
     private final long workerId;
     // Data center ID.
     private final long dataCenterId;
-    // Sequence ID.
-    private final AtomicLong sequence = new AtomicLong(0L);
-    // Last generate timestamp.
-    private final AtomicLong lastTime = new AtomicLong(-1L);
+    // The data center and worker node bits of ID.
+    private final long nodeBits;
+    // The maximum number of sequences leased by a thread at once.
+    private final int maxLeaseSize;
+    // The maximum milliseconds of the leased timestamp ahead of the clock.
+    private final long maxBorrowMs;
+    // The maximum milliseconds of waiting for the clock.
+    private final long maxWaitMs;
+    // The next free position: (timestamp - twepoch) << sequenceBits | sequence
+    private final AtomicLong position;
+    // The leases of current thread.
+    private final ThreadLocal<Lease> leases = ThreadLocal.withInitial(() -> new Lease());
 
     public SnowflakeIdGenerator() {
         this(BitsDefine.StandardSafeJs, 0L, 0L, 0L);
     }
 
     public SnowflakeIdGenerator(BitsDefine def, long workerId, long dataCenterId, long sequence) {
+        this(def, workerId, dataCenterId, sequence, DEFAULT_MAX_LEASE_SIZE, DEFAULT_MAX_BORROW_MS, DEFAULT_MAX_WAIT_MS);
+    }
+
+    public SnowflakeIdGenerator(BitsDefine def, long workerId, long dataCenterId, long sequence, int maxLeaseSize,
+            long maxBorrowMs, long maxWaitMs) {
         validate(def, workerId, dataCenterId, sequence);
+        isTrueOf(maxLeaseSize > 0, "maxLeaseSize>0");
+        isTrueOf(maxBorrowMs >= 0, "maxBorrowMs>=0");
+        isTrueOf(maxWaitMs >= 0, "maxWaitMs>=0");
         this.def = def;
         this.workerId = workerId;
         this.dataCenterId = dataCenterId;
-        this.sequence.set(sequence);
+        this.nodeBits = (dataCenterId << def.dataCenterIdShift) | (workerId << def.workerIdShift);
+        this.maxLeaseSize = (int) Math.min(maxLeaseSize, def.sequenceMask + 1);
+        this.maxBorrowMs = maxBorrowMs;
+        this.maxWaitMs = maxWaitMs;
+        this.position = new AtomicLong(sequence & def.sequenceMask);
     }
 
     /**
@@ -62,47 +96,87 @@ public final class SnowflakeIdGenerator {
      * 
      * @return
      */
-    public synchronized long nextId() {
-        long now = timeGen();
-        // 如果服务器时间有问题(时钟后退) 报错。
-        if (now < lastTime.get()) {
-            throw new IllegalStateException(
-                    format("Clock moved backwards. Refusing to generate id for %d milliseconds", lastTime.get() - now));
+    public long nextId() {
+        Lease lease = leases.get();
+        boolean expired = ((lease.end - 1) >>> def.sequenceBits) < timeGen() - def.twepoch;
+        if (expired || lease.next >= lease.end) {
+            // Doubles the next lease size if it is exhausted in the same
+            // millisecond, otherwise halves it.
+            lease.size = expired ? Math.max(lease.size >> 1, 1) : Math.min(lease.size << 1, maxLeaseSize);
+            lease(lease, lease.size);
         }
-        // 如果上次生成时间和当前时间相同,在同一毫秒内
-        if (lastTime.get() == now) {
-            // sequence自增，因为sequence只有12bit，所以和sequenceMask相与一下，去掉高位
-            sequence.set(sequence.incrementAndGet() & def.sequenceMask);
-            // 判断是否溢出,也就是每毫秒内超过4095，当为4096时，与sequenceMask相与，sequence就等于0
-            if (sequence.get() == 0) {
-                // 自旋等待到下一毫秒
-                now = tilNextMillis(lastTime.get());
+        return toId(lease.next++);
+    }
+
+    /**
+     * Gets the batch of next global UIDs, it is leased directly from the
+     * generator, one CAS per millisecond of sequences.
+     * 
+     * @param count
+     * @return
+     */
+    public long[] nextIds(int count) {
+        isTrueOf(count >= 0, "count>=0");
+        long[] ids = new long[count];
+        Lease lease = new Lease();
+        for (int i = 0; i < count;) {
+            lease(lease, count - i);
+            while (lease.next < lease.end) {
+                ids[i++] = toId(lease.next++);
             }
-        } else {
-            // 如果和上次生成时间不同,重置sequence，就是下一毫秒开始，sequence计数重新从0开始累加
-            sequence.set(0L);
         }
-        lastTime.set(now);
+        return ids;
+    }
 
-        // Finally, the ID is calculated according to the rules.
-        // 000000000000000000000000000000000000000000 00000 00000 000000000000
-        // time dataCenterId workerId sequence
-        return ((now - def.twepoch) << def.timestampLeftShift) | (dataCenterId << def.dataCenterIdShift)
-                | (workerId << def.workerIdShift) | sequence.get();
+    /**
+     * Leases the block of sequences of one millisecond.
+     * 
+     * @param lease
+     * @param want
+     */
+    private void lease(Lease lease, long want) {
+        long sequences = def.sequenceMask + 1;
+        for (;;) {
+            long now = timeGen() - def.twepoch;
+            long current = position.get();
+            long start = current;
+            if ((current >>> def.sequenceBits) < now) {
+                start = now << def.sequenceBits;
+            }
+            // The sequences of current millisecond are exhausted or the clock
+            // moved backwards, the start position may be borrowed ahead.
+            long ahead = (start >>> def.sequenceBits) - now;
+            if (ahead > maxBorrowMs) {
+                if (ahead - maxBorrowMs > maxWaitMs) {
+                    throw new IllegalStateException(
+                            format("Clock moved backwards. Refusing to generate id for %d milliseconds", ahead));
+                }
+                LockSupport.parkNanos(WAIT_PARK_NANOS);
+                continue;
+            }
+            // The block does not cross the millisecond.
+            long granted = Math.min(want, sequences - (start & def.sequenceMask));
+            if (position.compareAndSet(current, start + granted)) {
+                lease.next = start;
+                lease.end = start + granted;
+                return;
+            }
+        }
     }
 
     /**
-     * Spin wait until next MS
+     * Finally, the ID is calculated according to the rules.
+     * 
+     * <pre>
+     * 000000000000000000000000000000000000000000 00000 00000 000000000000
+     * time dataCenterId workerId sequence
+     * </pre>
      * 
-     * @param lastTimestamp
+     * @param position
      * @return
      */
-    protected long tilNextMillis(long lastTimestamp) {
-        long timestamp = timeGen();
-        while (timestamp <= lastTimestamp) {
-            timestamp = timeGen();
-        }
-        return timestamp;
+    private long toId(long position) {
+        return ((position >>> def.sequenceBits) << def.timestampLeftShift) | nodeBits | (position & def.sequenceMask);
     }
 
     /**
@@ -157,6 +231,15 @@ public final class SnowflakeIdGenerator {
         private static final SnowflakeIdGenerator instance = new SnowflakeIdGenerator();
     }
 
+    /**
+     * The thread local leased positions [next, end).
+     */
+    private static final class Lease {
+        private long next;
+        private long end;
+        private int size = 1;
+    }
+
     /**
      * {@link BitsDefine}
      *
@@ -239,4 +322,9 @@ public final class SnowflakeIdGenerator {
 
     }
 
+    public static final int DEFAULT_MAX_LEASE_SIZE = 64;
+    public static final long DEFAULT_MAX_BORROW_MS = 2L;
+    public static final long DEFAULT_MAX_WAIT_MS = 10L;
+    private static final long WAIT_PARK_NANOS = 50_000L;
+
 }
\ No newline at end of file
@@ -30,7 +30,7 @@ import org.springframework.web.server.WebFilterChain;
 import org.springcloud.gateway.core.constant.CoreInfraConstants;
 import org.springcloud.gateway.core.logging.LoggingMessageUtil;
 import org.springcloud.gateway.core.logging.config.LoggingMessageProperties;
-import org.springcloud.gateway.core.utils.web.ReactiveRequestExtractor;
+import org.springcloud.gateway.core.utils.web.ExchangeRequestView;
 import org.springcloud.gateway.core.web.matcher.SpelRequestMatcher;
 
 import lombok.extern.slf4j.Slf4j;
@@ -110,7 +110,7 @@ public abstract class BaseLoggingWebFilter implements WebFilter, Ordered {
         if (!loggingConfig.isEnabled()) {
             return false;
         }
-        return requestMatcher.matches(new ReactiveRequestExtractor(exchange.getRequest()),
+        return requestMatcher.matches(ExchangeRequestView.of(exchange),
                 loggingConfig.getPreferOpenMatchExpression());
     }
 
@@ -122,7 +122,7 @@ public abstract class BaseLoggingWebFilter implements WebFilter, Ordered {
      */
     protected int determineRequestVerboseLevel(ServerWebExchange exchange) {
         int verboseLevel = LoggingMessageUtil.determineRequestVerboseLevel(loggingConfig,
-                new ReactiveRequestExtractor(exchange.getRequest()));
+                ExchangeRequestView.of(exchange));
         exchange.getAttributes().put(LoggingMessageUtil.KEY_VERBOSE_LEVEL, verboseLevel);
         return verboseLevel;
     }
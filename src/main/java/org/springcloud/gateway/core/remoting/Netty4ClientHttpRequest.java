@@ -15,55 +15,83 @@
  */
 package org.springcloud.gateway.core.remoting;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.ClosedChannelException;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
-import org.springcloud.gateway.core.lang.Assert2;
 import org.springcloud.gateway.core.remoting.standard.HttpHeaders;
 
-import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufOutputStream;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.handler.codec.TooLongFrameException;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.FullHttpRequest;
-import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.timeout.ReadTimeoutException;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
 
 /**
  * {@link ClientHttpRequest} implementation based on Netty 4.
  *
  * <p>
- * Created via the {@link Netty4ClientHttpRequestFactory}.
+ * Created via the {@link Netty4ClientHttpRequestFactory}, the connection is
+ * leased from the per-host pool, and returned to it as soon as the response
+ * has been fully received (or closed if it cannot be reused).
+ * </p>
+ * 
+ * <p>
+ * The body may be either buffered via {@link #getBody()} (into a pooled
+ * buffer) or streamed via {@link #setBody(Body)}, in the latter case the
+ * body is sent chunked by the calling thread, and only waiting for the
+ * response is asynchronous.
+ * </p>
  */
-class Netty4ClientHttpRequest extends AbstractAsyncClientHttpRequest implements ClientHttpRequest {
+class Netty4ClientHttpRequest extends AbstractAsyncClientHttpRequest
+        implements ClientHttpRequest, AsyncClientHttpRequest, StreamingHttpOutputMessage {
 
-    private final Bootstrap bootstrap;
+    private final Netty4ClientHttpRequestFactory factory;
+    private final ChannelPool pool;
     private final URI uri;
     private final HttpMethod method;
-    private final ByteBufOutputStream body;
-    private boolean executed = false;
+    private ByteBufOutputStream body;
+    private Body streamingBody;
 
-    public Netty4ClientHttpRequest(Bootstrap bootstrap, URI uri, HttpMethod method) {
-        notNullOf(bootstrap, "bootstrap");
-        notNullOf(uri, "uri");
-        notNullOf(method, "method");
-        this.bootstrap = bootstrap;
-        this.uri = uri;
-        this.method = method;
-        this.body = new ByteBufOutputStream(Unpooled.buffer(1024));
+    public Netty4ClientHttpRequest(Netty4ClientHttpRequestFactory factory, ChannelPool pool, URI uri, HttpMethod method) {
+        this.factory = notNullOf(factory, "factory");
+        this.pool = notNullOf(pool, "pool");
+        this.uri = notNullOf(uri, "uri");
+        this.method = notNullOf(method, "method");
     }
 
     /**
@@ -91,30 +119,10 @@ class Netty4ClientHttpRequest extends AbstractAsyncClientHttpRequest implements
         return this.uri;
     }
 
-    /**
-     * Execute this request asynchronously, resulting in a Future handle.
-     * {@link ClientHttpResponse} that can be read.
-     * 
-     * @return the future response result of the execution
-     * @throws java.io.IOException
-     *             in case of I/O errors
-     */
-    public ListenableFuture<ClientHttpResponse> executeAsync() throws IOException {
-        assertNotExecuted();
-        ListenableFuture<ClientHttpResponse> result = executeInternal(getHeaders());
-        this.executed = true;
-        return result;
-    }
-
-    /**
-     * Asserts that this request has not been {@linkplain #executeAsync()
-     * executed} yet.
-     * 
-     * @throws IllegalStateException
-     *             if this request has been executed
-     */
-    protected void assertNotExecuted() {
-        Assert2.state(!executed, "ClientHttpRequest already executed");
+    @Override
+    public void setBody(Body body) {
+        assert2NotExecuted();
+        this.streamingBody = body;
     }
 
     /**
@@ -125,6 +133,7 @@ class Netty4ClientHttpRequest extends AbstractAsyncClientHttpRequest implements
      * @throws IOException
      *             in case of I/O errors
      */
+    @Override
     public ClientHttpResponse execute() throws IOException {
         try {
             return executeAsync().get();
@@ -147,7 +156,11 @@ class Netty4ClientHttpRequest extends AbstractAsyncClientHttpRequest implements
      *            the HTTP headers
      * @return the body output stream
      */
+    @Override
     protected OutputStream getBodyInternal(HttpHeaders headers) throws IOException {
+        if (isNull(body)) {
+            this.body = new ByteBufOutputStream(PooledByteBufAllocator.DEFAULT.buffer(1024));
+        }
         return this.body;
     }
 
@@ -159,43 +172,117 @@ class Netty4ClientHttpRequest extends AbstractAsyncClientHttpRequest implements
      *            the HTTP headers
      * @return the response object for the executed request
      */
+    @Override
     protected ListenableFuture<ClientHttpResponse> executeInternal(final HttpHeaders headers) throws IOException {
         final SettableFuture<ClientHttpResponse> responseFuture = SettableFuture.create();
+        if (nonNull(streamingBody)) {
+            executeStreaming(headers, responseFuture);
+            return responseFuture;
+        }
 
-        ChannelFutureListener connectionListener = future -> {
+        final FullHttpRequest nettyRequest = createFullHttpRequest(headers);
+        pool.acquire().addListener((Future<Channel> future) -> {
             if (future.isSuccess()) {
-                Channel channel = future.channel();
-                channel.pipeline().addLast(new RequestExecuteHandler(responseFuture));
-                channel.writeAndFlush(createFullHttpRequest(headers));
+                Channel channel = future.getNow();
+                ResponseHandler handler = attachResponseHandler(channel, responseFuture);
+                channel.writeAndFlush(nettyRequest).addListener(handler).addListener(handler.requestWrittenListener());
             } else {
+                nettyRequest.release();
                 responseFuture.setException(future.cause());
             }
-        };
-
-        this.bootstrap.connect(uri.getHost(), getPort(uri)).addListener(connectionListener);
+        });
         return responseFuture;
     }
 
+    private void executeStreaming(HttpHeaders headers, SettableFuture<ClientHttpResponse> responseFuture) throws IOException {
+        Channel channel = acquireChannel();
+        ResponseHandler handler = attachResponseHandler(channel, responseFuture);
+        io.netty.handler.codec.http.HttpRequest nettyRequest = new DefaultHttpRequest(HttpVersion.HTTP_1_1,
+                io.netty.handler.codec.http.HttpMethod.valueOf(method.name()), getRequestPath());
+        applyHeaders(nettyRequest, headers);
+        if (!nettyRequest.headers().contains(HttpHeaders.CONTENT_LENGTH)) {
+            HttpUtil.setTransferEncodingChunked(nettyRequest, true);
+        }
+        channel.write(nettyRequest).addListener(handler);
+        try (ChunkedBodyOutputStream out = new ChunkedBodyOutputStream(channel, handler)) {
+            streamingBody.writeTo(out);
+        } catch (IOException ex) {
+            channel.eventLoop().execute(() -> handler.fail(ex));
+            throw ex;
+        }
+    }
+
+    /**
+     * Acquires the connection for the streaming body, waiting at most the
+     * connect timeout (the acquisition includes connecting, and waiting for a
+     * free connection of the pool).
+     */
+    private Channel acquireChannel() throws IOException {
+        Future<Channel> acquire = pool.acquire();
+        try {
+            long connectTimeout = factory.getConnectTimeout();
+            if (connectTimeout > 0) {
+                if (!acquire.await(connectTimeout, MILLISECONDS)) {
+                    if (!acquire.cancel(false)) {
+                        // Acquired just now, return it to the pool.
+                        acquire.addListener((Future<Channel> f) -> {
+                            if (f.isSuccess()) {
+                                pool.release(f.getNow());
+                            }
+                        });
+                    }
+                    throw new IOException("Timeout acquire connection after " + connectTimeout + "ms",
+                            new TimeoutException());
+                }
+            } else {
+                acquire.await();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during acquire connection", ex);
+        }
+        if (!acquire.isSuccess()) {
+            Throwable cause = acquire.cause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+        }
+        return acquire.getNow();
+    }
+
+    private ResponseHandler attachResponseHandler(Channel channel, SettableFuture<ClientHttpResponse> responseFuture) {
+        ResponseHandler handler = new ResponseHandler(channel, responseFuture);
+        channel.pipeline().addLast(RESPONSE_HANDLER_NAME, handler);
+        return handler;
+    }
+
     private FullHttpRequest createFullHttpRequest(HttpHeaders headers) {
         io.netty.handler.codec.http.HttpMethod nettyMethod = io.netty.handler.codec.http.HttpMethod.valueOf(method.name());
 
-        String authority = uri.getRawAuthority();
-        String path = uri.toString().substring(uri.toString().indexOf(authority) + authority.length());
-        FullHttpRequest nettyRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, nettyMethod, path, body.buffer());
+        ByteBuf content = nonNull(body) ? body.buffer() : PooledByteBufAllocator.DEFAULT.buffer(0);
+        FullHttpRequest nettyRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, nettyMethod, getRequestPath(), content);
+        applyHeaders(nettyRequest, headers);
+        if (!nettyRequest.headers().contains(HttpHeaders.CONTENT_LENGTH) && content.readableBytes() > 0) {
+            nettyRequest.headers().set(HttpHeaders.CONTENT_LENGTH, content.readableBytes());
+        }
+
+        return nettyRequest;
+    }
 
+    private void applyHeaders(io.netty.handler.codec.http.HttpRequest nettyRequest, HttpHeaders headers) {
         nettyRequest.headers().set(HttpHeaders.HOST, uri.getHost() + ":" + getPort(uri));
-        nettyRequest.headers().set(HttpHeaders.CONNECTION, "close");
+        if (!factory.isKeepAlive()) {
+            nettyRequest.headers().set(HttpHeaders.CONNECTION, HttpHeaderValues.CLOSE);
+        }
         for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
             nettyRequest.headers().add(entry.getKey(), entry.getValue());
         }
-        if (!nettyRequest.headers().contains(HttpHeaders.CONTENT_LENGTH) && body.buffer().readableBytes() > 0) {
-            nettyRequest.headers().set(HttpHeaders.CONTENT_LENGTH, body.buffer().readableBytes());
-        }
+    }
 
-        return nettyRequest;
+    private String getRequestPath() {
+        String authority = uri.getRawAuthority();
+        return uri.toString().substring(uri.toString().indexOf(authority) + authority.length());
     }
 
-    private static int getPort(URI uri) {
+    static int getPort(URI uri) {
         int port = uri.getPort();
         if (port == -1) {
             if ("http".equalsIgnoreCase(uri.getScheme())) {
@@ -208,26 +295,262 @@ class Netty4ClientHttpRequest extends AbstractAsyncClientHttpRequest implements
     }
 
     /**
-     * A SimpleChannelInboundHandler to update the given
-     * SettableListenableFuture.
+     * The {@link OutputStream} writes the streaming body as HTTP chunks with
+     * pooled buffers, and waits for the channel to be writable again when the
+     * outbound buffer is full (back-pressure).
      */
-    private static class RequestExecuteHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+    private static class ChunkedBodyOutputStream extends OutputStream {
+        private final Channel channel;
+        private final ResponseHandler handler;
+        private ByteBuf buffer;
+        private boolean closed;
+
+        ChunkedBodyOutputStream(Channel channel, ResponseHandler handler) {
+            this.channel = channel;
+            this.handler = handler;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureBuffer().writeByte(b);
+            if (!buffer.isWritable()) {
+                flush();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                ByteBuf buf = ensureBuffer();
+                int n = Math.min(len, buf.writableBytes());
+                buf.writeBytes(b, off, n);
+                off += n;
+                len -= n;
+                if (!buf.isWritable()) {
+                    flush();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (nonNull(buffer) && buffer.isReadable()) {
+                ByteBuf chunk = buffer;
+                buffer = null;
+                awaitWritable(channel.writeAndFlush(new DefaultHttpContent(chunk)).addListener(handler));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            ByteBuf last = nonNull(buffer) ? buffer : channel.alloc().buffer(0);
+            buffer = null;
+            channel.writeAndFlush(new DefaultLastHttpContent(last)).addListener(handler)
+                    .addListener(handler.requestWrittenListener());
+        }
 
+        private ByteBuf ensureBuffer() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (isNull(buffer)) {
+                buffer = channel.alloc().buffer(CHUNK_SIZE, CHUNK_SIZE);
+            }
+            return buffer;
+        }
+
+        private void awaitWritable(ChannelFuture writeFuture) throws IOException {
+            if (!channel.isWritable()) {
+                try {
+                    writeFuture.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted during write request body", ex);
+                }
+            }
+            if (writeFuture.isDone() && !writeFuture.isSuccess()) {
+                throw new IOException(writeFuture.cause());
+            }
+            if (!channel.isActive()) {
+                throw new ClosedChannelException();
+            }
+        }
+    }
+
+    /**
+     * The per-request handler (while the connection is leased) to update the
+     * given SettableListenableFuture on the response head, then feeds the
+     * response body contents into {@link Netty4ClientHttpResponse} with
+     * back-pressure, and finally returns the connection to the pool.
+     * 
+     * <p>
+     * The read timeout is armed once the last request content is written (or
+     * anything is received), re-armed on every read, and cancelled while the
+     * reading is suspended by the back-pressure of the response body.
+     * </p>
+     */
+    private class ResponseHandler extends ChannelInboundHandlerAdapter
+            implements ChannelFutureListener, Netty4ClientHttpResponse.ReadControl {
+        private final Channel channel;
         private final SettableFuture<ClientHttpResponse> responseFuture;
+        private Netty4ClientHttpResponse response;
+        private boolean requestWritten;
+        private boolean reusable;
+        private boolean informational;
+        private long receivedBytes;
+        private ScheduledFuture<?> timeoutTask;
+        private boolean readSuspended;
+        private boolean done;
 
-        public RequestExecuteHandler(SettableFuture<ClientHttpResponse> responseFuture) {
+        ResponseHandler(Channel channel, SettableFuture<ClientHttpResponse> responseFuture) {
+            this.channel = channel;
             this.responseFuture = responseFuture;
         }
 
+        /**
+         * Marks the request as written and arms the read timeout, when the last
+         * request content has been written.
+         */
+        ChannelFutureListener requestWrittenListener() {
+            return future -> {
+                if (future.isSuccess() && !done) {
+                    requestWritten = true;
+                    scheduleReadTimeout();
+                }
+            };
+        }
+
+        /**
+         * Fails the request when any part of the request could not be written.
+         */
         @Override
-        protected void channelRead0(ChannelHandlerContext context, FullHttpResponse response) throws Exception {
-            this.responseFuture.set(new Netty4ClientHttpResponse(context, response));
+        public void operationComplete(ChannelFuture future) throws Exception {
+            if (!future.isSuccess()) {
+                fail(future.cause());
+            }
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            try {
+                if (done) {
+                    return;
+                }
+                scheduleReadTimeout();
+                if (msg instanceof HttpResponse) {
+                    HttpResponse head = (HttpResponse) msg;
+                    // Skip the interim response. (e.g: 100-continue)
+                    informational = head.status().codeClass() == HttpStatusClass.INFORMATIONAL;
+                    if (!informational) {
+                        reusable = factory.isKeepAlive() && HttpUtil.isKeepAlive(head);
+                        response = new Netty4ClientHttpResponse(this, head, () -> channel.eventLoop().execute(() -> {
+                            if (!done) {
+                                // Discard the remaining body with connection.
+                                finish(false);
+                            }
+                        }));
+                        responseFuture.set(response);
+                    }
+                }
+                if (msg instanceof HttpContent) {
+                    if (informational) {
+                        return;
+                    }
+                    ByteBuf content = ((HttpContent) msg).content();
+                    receivedBytes += content.readableBytes();
+                    long maxResponseSize = factory.getMaxResponseSize();
+                    if (maxResponseSize > 0 && receivedBytes > maxResponseSize) {
+                        fail(new TooLongFrameException("Response body is larger than " + maxResponseSize + " bytes."));
+                        return;
+                    }
+                    if (content.isReadable()) {
+                        response.offer(content.retain());
+                    }
+                    if (msg instanceof LastHttpContent) {
+                        response.complete(null);
+                        // The connection can't be reused if the server responded
+                        // before the streaming request body was fully sent.
+                        finish(reusable && requestWritten);
+                    }
+                }
+            } finally {
+                ReferenceCountUtil.release(msg);
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            fail(new ClosedChannelException());
+            super.channelInactive(ctx);
         }
 
         @Override
         public void exceptionCaught(ChannelHandlerContext context, Throwable cause) throws Exception {
-            this.responseFuture.setException(cause);
+            fail(cause);
+        }
+
+        @Override
+        public void suspendRead() {
+            readSuspended = true;
+            channel.config().setAutoRead(false);
+            cancelReadTimeout();
+        }
+
+        @Override
+        public void resumeRead() {
+            channel.eventLoop().execute(() -> {
+                if (!done && readSuspended) {
+                    readSuspended = false;
+                    channel.config().setAutoRead(true);
+                    scheduleReadTimeout();
+                }
+            });
+        }
+
+        void fail(Throwable cause) {
+            if (done) {
+                return;
+            }
+            if (!responseFuture.setException(cause) && nonNull(response)) {
+                response.complete(cause);
+            }
+            finish(false);
+        }
+
+        private void finish(boolean reuse) {
+            done = true;
+            cancelReadTimeout();
+            if (channel.pipeline().context(this) != null) {
+                channel.pipeline().remove(this);
+            }
+            channel.config().setAutoRead(true);
+            if (!reuse) {
+                channel.close();
+            }
+            pool.release(channel);
+        }
+
+        private void scheduleReadTimeout() {
+            long readTimeout = factory.getReadTimeout();
+            if (readTimeout > 0 && !readSuspended && !done) {
+                cancelReadTimeout();
+                timeoutTask = channel.eventLoop().schedule(() -> fail(ReadTimeoutException.INSTANCE), readTimeout, MILLISECONDS);
+            }
+        }
+
+        private void cancelReadTimeout() {
+            if (nonNull(timeoutTask)) {
+                timeoutTask.cancel(false);
+                timeoutTask = null;
+            }
         }
     }
 
-}
\ No newline at end of file
+    public static final String RESPONSE_HANDLER_NAME = "responseHandler";
+    public static final int CHUNK_SIZE = 8192;
+
+}
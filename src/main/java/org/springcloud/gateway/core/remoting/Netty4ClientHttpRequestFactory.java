@@ -16,7 +16,6 @@
 package org.springcloud.gateway.core.remoting;
 
 import static java.util.Objects.isNull;
-import static java.util.Objects.nonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.springcloud.gateway.core.lang.Assert2.*;
 import static org.springcloud.gateway.core.lang.TypeConverts.safeLongToInt;
@@ -24,33 +23,44 @@ import static java.lang.Runtime.getRuntime;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.URI;
+import java.util.Objects;
 
 import javax.net.ssl.SSLException;
 
 import javax.annotation.Nullable;
 import org.springcloud.gateway.core.remoting.standard.HttpHeaders;
-import static org.springcloud.gateway.core.remoting.standard.HttpMediaType.MULTIPART_FORM_DATA;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelConfig;
-import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.pool.FixedChannelPool.AcquireTimeoutAction;
 import io.netty.channel.socket.SocketChannelConfig;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpContentDecompressor;
 import io.netty.handler.codec.http.HttpMethod;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
-import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
 import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.AttributeKey;
 
 /**
  * {@link ClientHttpRequestFactory} implementation that uses
@@ -59,27 +69,35 @@ import io.netty.handler.timeout.ReadTimeoutHandler;
  * Allows to use a pre-configured {@link EventLoopGroup} instance: useful for
  * sharing across multiple clients.
  * <p>
- * Note that this implementation consistently closes the HTTP connection on each
- * request.
+ * The connections are kept alive and pooled per remote host (scheme, host and
+ * port), with a bounded number of connections and pending acquires per host,
+ * the idle pooled connections are closed after {@link #setMaxIdleTime(long)}.
+ * Both the request and response bodies are streamed with pooled buffers, the
+ * response is completed as soon as its head is received, and the body is read
+ * with back-pressure while being consumed.
  * 
  * @author springcloudgateway &lt;springcloudgateway@gmail.com&gt;
  * @version v1.0.0
  * @see
  */
-public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory, Closeable {
+public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory, AsyncClientHttpRequestFactory, Closeable {
 
     private final boolean defaultEventLoopGroup;
     private final EventLoopGroup eventLoopGroup;
+    private final AbstractChannelPoolMap<PoolKey, FixedChannelPool> poolMap;
 
     @Nullable
     private SslContext sslContext;
     private boolean debug = false;
     private long connectTimeout;
     private long readTimeout;
-    private int maxResponseSize;
-
-    @Nullable
-    private volatile Bootstrap bootstrap;
+    private long maxResponseSize;
+    private boolean keepAlive = true;
+    private boolean decompress = false;
+    private int maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+    private int maxPendingAcquires = DEFAULT_MAX_PENDING_ACQUIRES;
+    private long acquireTimeout = DEFAULT_ACQUIRE_TIMEOUT;
+    private long maxIdleTime = DEFAULT_MAX_IDLE_TIME;
 
     /**
      * Create a new {@code Netty4ClientHttpRequestFactory} with a default
@@ -104,7 +122,7 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
      * @param debug
      */
     public Netty4ClientHttpRequestFactory(boolean debug, int connectTimeout, int readTimeout, int maxResponseSize) {
-        this(new NioEventLoopGroup(getRuntime().availableProcessors() * 2), debug);
+        this(new NioEventLoopGroup(getRuntime().availableProcessors() * 2), true, debug);
         setConnectTimeout(connectTimeout);
         setReadTimeout(readTimeout);
         setMaxResponseSize(maxResponseSize);
@@ -121,21 +139,29 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
      * @param debug
      */
     public Netty4ClientHttpRequestFactory(EventLoopGroup eventLoopGroup, boolean debug) {
-        // notNull(eventLoopGroup, "EventLoopGroup must not be null");
+        this(notNullOf(eventLoopGroup, "eventLoopGroup"), false, debug);
+    }
+
+    private Netty4ClientHttpRequestFactory(EventLoopGroup eventLoopGroup, boolean defaultEventLoopGroup, boolean debug) {
         this.eventLoopGroup = eventLoopGroup;
-        this.defaultEventLoopGroup = isNull(eventLoopGroup);
+        this.defaultEventLoopGroup = defaultEventLoopGroup;
         this.debug = debug;
+        this.poolMap = new AbstractChannelPoolMap<PoolKey, FixedChannelPool>() {
+            @Override
+            protected FixedChannelPool newPool(PoolKey key) {
+                return createPool(key);
+            }
+        };
     }
 
     /**
-     * Set the default maximum response size.
+     * Set the default maximum response size, a non-positive value specifies
+     * an unlimited size. The response body is streamed rather than
+     * aggregated, the limit is checked while the body is being received.
      * <p>
      * By default this is set to {@link #DEFAULT_MAX_RESPONSE_SIZE}.
-     * 
-     * @since 4.1.5
-     * @see HttpObjectAggregator#HttpObjectAggregator(int)
      */
-    public void setMaxResponseSize(int maxResponseSize) {
+    public void setMaxResponseSize(long maxResponseSize) {
         this.maxResponseSize = maxResponseSize;
     }
 
@@ -161,7 +187,9 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
 
     /**
      * Set the underlying URLConnection's read timeout (in milliseconds). A
-     * timeout value of 0 specifies an infinite timeout.
+     * timeout value of 0 specifies an infinite timeout. It is applied per
+     * request (between two received messages), the idle pooled connections
+     * are not affected.
      * 
      * @see ReadTimeoutHandler
      */
@@ -169,6 +197,74 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
         this.readTimeout = readTimeout;
     }
 
+    /**
+     * Set whether the connections are kept alive and reused, by default is
+     * true, otherwise the {@code Connection: close} is sent and the
+     * connection is closed after each response.
+     */
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Set whether the gzip/deflate encoded response bodies are automatically
+     * decompressed, by default is false.
+     * 
+     * @see HttpContentDecompressor
+     */
+    public void setDecompress(boolean decompress) {
+        this.decompress = decompress;
+    }
+
+    /**
+     * Set the maximum number of pooled connections per remote host.
+     */
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        isTrueOf(maxConnectionsPerHost > 0, "maxConnectionsPerHost > 0");
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    /**
+     * Set the maximum number of requests per remote host waiting for a pooled
+     * connection, beyond which the requests are failed fast.
+     */
+    public void setMaxPendingAcquires(int maxPendingAcquires) {
+        isTrueOf(maxPendingAcquires > 0, "maxPendingAcquires > 0");
+        this.maxPendingAcquires = maxPendingAcquires;
+    }
+
+    /**
+     * Set the maximum time (in milliseconds) to wait for a pooled connection.
+     */
+    public void setAcquireTimeout(long acquireTimeout) {
+        isTrueOf(acquireTimeout > 0, "acquireTimeout > 0");
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * Set the maximum time (in milliseconds) a pooled connection may stay
+     * idle before being closed, a non-positive value disables the eviction.
+     */
+    public void setMaxIdleTime(long maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    long getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    long getReadTimeout() {
+        return readTimeout;
+    }
+
+    long getMaxResponseSize() {
+        return maxResponseSize;
+    }
+
     /**
      * Create nttp request of netty.
      * 
@@ -178,8 +274,15 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
      * @return
      * @throws IOException
      */
+    @Override
     public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod, HttpHeaders requestHeaders) throws IOException {
-        return new Netty4ClientHttpRequest(getBootstrap(uri, requestHeaders), uri, httpMethod);
+        return new Netty4ClientHttpRequest(this, getPool(uri), uri, httpMethod);
+    }
+
+    @Override
+    public AsyncClientHttpRequest createAsyncRequest(URI uri, HttpMethod httpMethod, HttpHeaders requestHeaders)
+            throws IOException {
+        return new Netty4ClientHttpRequest(this, getPool(uri), uri, httpMethod);
     }
 
     /**
@@ -213,26 +316,27 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
         }
     }
 
-    private Bootstrap getBootstrap(URI uri, HttpHeaders requestHeaders) {
+    private ChannelPool getPool(URI uri) {
         boolean isSecure = (uri.getPort() == 443 || "https".equalsIgnoreCase(uri.getScheme()));
-        // if (isSecure) {
-        // return createBootstrap(uri, true, requestHeaders);
-        // } else if (isNull(bootstrap)) {
-        // this.bootstrap = createBootstrap(uri, false, requestHeaders);
-        // }
-        // return bootstrap;
-        return createBootstrap(uri, isSecure, requestHeaders);
+        return poolMap.get(new PoolKey(isSecure, uri.getHost(), Netty4ClientHttpRequest.getPort(uri)));
     }
 
-    private Bootstrap createBootstrap(final URI uri, final boolean isSecure, final HttpHeaders requestHeaders) {
+    private FixedChannelPool createPool(PoolKey key) {
         Bootstrap bootstrap = new Bootstrap();
-        bootstrap.group(eventLoopGroup).channel(NioSocketChannel.class).handler(
-                new HttpChannelInitializer(uri, isSecure, requestHeaders));
-        return bootstrap;
+        bootstrap.group(eventLoopGroup)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .remoteAddress(InetSocketAddress.createUnresolved(key.host, key.port));
+        return new FixedChannelPool(bootstrap, new HttpChannelPoolHandler(key), ChannelHealthChecker.ACTIVE,
+                AcquireTimeoutAction.FAIL, acquireTimeout, maxConnectionsPerHost, maxPendingAcquires, true, true);
     }
 
     @Override
     public void close() throws IOException {
+        // Close all pooled connections.
+        poolMap.close();
         if (defaultEventLoopGroup) {
             // Clean up the EventLoopGroup if we created it in the constructor
             try {
@@ -244,55 +348,124 @@ public class Netty4ClientHttpRequestFactory implements ClientHttpRequestFactory,
     }
 
     /**
-     * {@link HttpChannelInitializer}
+     * {@link HttpChannelPoolHandler}
      */
-    private class HttpChannelInitializer extends ChannelInitializer<SocketChannel> {
-        final private URI uri;
-        final private boolean isSecure;
-        final private HttpHeaders requestHeaders;
+    private class HttpChannelPoolHandler extends AbstractChannelPoolHandler {
+        final private PoolKey key;
 
-        HttpChannelInitializer(final URI uri, final boolean isSecure, final HttpHeaders requestHeaders) {
-            this.uri = uri;
-            this.isSecure = isSecure;
-            this.requestHeaders = requestHeaders;
+        HttpChannelPoolHandler(final PoolKey key) {
+            this.key = key;
         }
 
         @Override
-        protected void initChannel(SocketChannel ch) throws Exception {
-            configureChannel(ch.config());
+        public void channelCreated(Channel ch) throws Exception {
+            configureChannel((SocketChannelConfig) ch.config());
 
             ChannelPipeline pipe = ch.pipeline();
             if (debug) {
                 pipe.addLast(new LoggingHandler(LogLevel.INFO));
             }
-            if (isSecure) {
+            if (key.isSecure) {
                 notNull(getSslContext(), "sslContext should not be null");
-                pipe.addLast(getSslContext().newHandler(ch.alloc(), uri.getHost(), uri.getPort()));
+                pipe.addLast(getSslContext().newHandler(ch.alloc(), key.host, key.port));
             }
             pipe.addLast(new HttpClientCodec());
-
-            if (nonNull(requestHeaders) && MULTIPART_FORM_DATA.isCompatibleWith(requestHeaders.getContentType())) {
-                // Remove the following line if you don't want automatic
-                // content decompression.
+            if (decompress) {
                 pipe.addLast("inflater", new HttpContentDecompressor());
-                // to be used since huge file transfer
-                pipe.addLast("chunkedWriter", new ChunkedWriteHandler());
+            }
+            if (maxIdleTime > 0) {
+                pipe.addLast(new IdleStateHandler(0, 0, maxIdleTime, MILLISECONDS));
+                pipe.addLast(new PooledIdleHandler());
+            }
+        }
+
+        @Override
+        public void channelAcquired(Channel ch) throws Exception {
+            ch.attr(ATTR_LEASED).set(true);
+        }
+
+        @Override
+        public void channelReleased(Channel ch) throws Exception {
+            ch.attr(ATTR_LEASED).set(false);
+        }
+    }
+
+    /**
+     * Closes the pooled connection that stays idle for too long, the leased
+     * connections are controlled by the request read timeout instead.
+     */
+    private static class PooledIdleHandler extends ChannelDuplexHandler {
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+            if (evt instanceof IdleStateEvent && !Boolean.TRUE.equals(ctx.channel().attr(ATTR_LEASED).get())) {
+                ctx.close();
             } else {
-                pipe.addLast(new HttpObjectAggregator(maxResponseSize));
+                super.userEventTriggered(ctx, evt);
             }
+        }
+    }
+
+    /**
+     * The connection pool key of the remote host.
+     */
+    private static final class PoolKey {
+        final boolean isSecure;
+        final String host;
+        final int port;
+
+        PoolKey(boolean isSecure, String host, int port) {
+            this.isSecure = isSecure;
+            this.host = hasTextOf(host, "host");
+            this.port = port;
+        }
 
-            if (readTimeout > 0) {
-                pipe.addLast(new ReadTimeoutHandler(safeLongToInt(readTimeout), MILLISECONDS));
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (isNull(obj) || getClass() != obj.getClass()) {
+                return false;
             }
+            PoolKey that = (PoolKey) obj;
+            return isSecure == that.isSecure && port == that.port && host.equalsIgnoreCase(that.host);
         }
 
+        @Override
+        public int hashCode() {
+            return Objects.hash(isSecure, host.toLowerCase(), port);
+        }
     }
 
+    private static final AttributeKey<Boolean> ATTR_LEASED = AttributeKey.valueOf(
+            Netty4ClientHttpRequestFactory.class.getName().concat(".leased"));
+
     /**
      * The default maximum response size.
      * 
-     * @see #setMaxResponseSize(int)
+     * @see #setMaxResponseSize(long)
      */
     public static final int DEFAULT_MAX_RESPONSE_SIZE = 1024 * 1024 * 10;
 
-}
\ No newline at end of file
+    /**
+     * The default maximum number of pooled connections per remote host.
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 32;
+
+    /**
+     * The default maximum number of pending acquires per remote host.
+     */
+    public static final int DEFAULT_MAX_PENDING_ACQUIRES = 1024;
+
+    /**
+     * The default maximum time (in milliseconds) to wait for a pooled
+     * connection.
+     */
+    public static final long DEFAULT_ACQUIRE_TIMEOUT = 30_000L;
+
+    /**
+     * The default maximum idle time (in milliseconds) of pooled connections.
+     */
+    public static final long DEFAULT_MAX_IDLE_TIME = 60_000L;
+
+}
@@ -15,35 +15,53 @@
  */
 package org.springcloud.gateway.core.remoting;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
 import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springcloud.gateway.core.lang.Assert2;
 import org.springcloud.gateway.core.remoting.standard.HttpHeaders;
 import org.springcloud.gateway.core.remoting.standard.HttpStatus;
 
-import io.netty.buffer.ByteBufInputStream;
-import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpResponse;
 
 /**
  * {@link ClientHttpResponse} implementation based on Netty 4.
+ * 
+ * <p>
+ * The response is created as soon as its head is received, the body contents
+ * are queued (retained pooled buffers) while being received, and consumed via
+ * {@link #getBody()}. When the queued contents exceed the high water mark the
+ * connection stops reading (see {@link ReadControl}) until they are drained
+ * below the low water mark.
+ * Closing the response before the body is fully received discards the
+ * connection.
+ * </p>
  */
 class Netty4ClientHttpResponse extends AbstractClientHttpResponse {
 
-    private final ChannelHandlerContext context;
-    private final FullHttpResponse nettyResponse;
-    private final ByteBufInputStream body;
+    private final ReadControl readControl;
+    private final HttpResponse nettyResponse;
+    private final Runnable abortAction;
+    private final ResponseBodyInputStream body;
     private volatile HttpHeaders headers;
 
-    public Netty4ClientHttpResponse(ChannelHandlerContext context, FullHttpResponse nettyResponse) {
-        Assert2.notNull(context, "ChannelHandlerContext must not be null");
-        Assert2.notNull(nettyResponse, "FullHttpResponse must not be null");
-        this.context = context;
+    public Netty4ClientHttpResponse(ReadControl readControl, HttpResponse nettyResponse, Runnable abortAction) {
+        Assert2.notNull(readControl, "ReadControl must not be null");
+        Assert2.notNull(nettyResponse, "HttpResponse must not be null");
+        Assert2.notNull(abortAction, "AbortAction must not be null");
+        this.readControl = readControl;
         this.nettyResponse = nettyResponse;
-        this.body = new ByteBufInputStream(nettyResponse.content());
-        this.nettyResponse.retain();
+        this.abortAction = abortAction;
+        this.body = new ResponseBodyInputStream();
     }
 
     /**
@@ -70,9 +88,8 @@ class Netty4ClientHttpResponse extends AbstractClientHttpResponse {
      * @since 3.1.1
      * @see #getStatusCode()
      */
-    @SuppressWarnings("deprecation")
     public int getRawStatusCode() throws IOException {
-        return nettyResponse.getStatus().code();
+        return nettyResponse.status().code();
     }
 
     /**
@@ -82,9 +99,8 @@ class Netty4ClientHttpResponse extends AbstractClientHttpResponse {
      * @throws IOException
      *             in case of I/O errors
      */
-    @SuppressWarnings("deprecation")
     public String getStatusText() throws IOException {
-        return nettyResponse.getStatus().reasonPhrase();
+        return nettyResponse.status().reasonPhrase();
     }
 
     /**
@@ -116,8 +132,189 @@ class Netty4ClientHttpResponse extends AbstractClientHttpResponse {
 
     @Override
     public void close() {
-        nettyResponse.release();
-        context.close();
+        if (!body.closeQuietly()) {
+            abortAction.run();
+        }
+    }
+
+    /**
+     * Offers the received body content (called from the event loop).
+     * 
+     * @param content
+     *            retained content
+     */
+    void offer(ByteBuf content) {
+        if (!body.offer(content)) {
+            content.release();
+        }
+    }
+
+    /**
+     * Marks the body as completed (called from the event loop).
+     * 
+     * @param cause
+     *            the failure cause or null when completed normally.
+     */
+    void complete(Throwable cause) {
+        body.complete(cause);
     }
 
-}
\ No newline at end of file
+    /**
+     * The blocking {@link InputStream} over the queued body contents.
+     */
+    private class ResponseBodyInputStream extends InputStream {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private final ArrayDeque<ByteBuf> contents = new ArrayDeque<>(8);
+        private long bufferedBytes;
+        private boolean suspended;
+        private boolean completed;
+        private boolean closed;
+        private Throwable failure;
+
+        boolean offer(ByteBuf content) {
+            lock.lock();
+            try {
+                if (closed || completed) {
+                    return false;
+                }
+                contents.offer(content);
+                bufferedBytes += content.readableBytes();
+                if (bufferedBytes > HIGH_WATER_MARK && !suspended) {
+                    suspended = true;
+                    readControl.suspendRead();
+                }
+                available.signalAll();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void complete(Throwable cause) {
+            lock.lock();
+            try {
+                if (!completed) {
+                    completed = true;
+                    failure = cause;
+                    available.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n < 0 ? -1 : (one[0] & 0xff);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            lock.lock();
+            try {
+                ByteBuf head;
+                while (isNull(head = contents.peek())) {
+                    if (closed) {
+                        throw new IOException("Stream closed");
+                    }
+                    if (nonNull(failure)) {
+                        throw failure instanceof IOException ? (IOException) failure : new IOException(failure);
+                    }
+                    if (completed) {
+                        return -1;
+                    }
+                    try {
+                        available.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted during read response body");
+                    }
+                }
+                int n = Math.min(len, head.readableBytes());
+                head.readBytes(b, off, n);
+                if (!head.isReadable()) {
+                    contents.poll().release();
+                }
+                bufferedBytes -= n;
+                if (bufferedBytes < LOW_WATER_MARK && !completed && suspended) {
+                    suspended = false;
+                    readControl.resumeRead();
+                }
+                return n;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int available() throws IOException {
+            lock.lock();
+            try {
+                return (int) Math.min(bufferedBytes, Integer.MAX_VALUE);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            Netty4ClientHttpResponse.this.close();
+        }
+
+        /**
+         * Closes and releases the queued contents.
+         * 
+         * @return Whether the body had been fully received.
+         */
+        boolean closeQuietly() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    closed = true;
+                    ByteBuf content;
+                    while (nonNull(content = contents.poll())) {
+                        content.release();
+                    }
+                    bufferedBytes = 0;
+                    available.signalAll();
+                }
+                return completed;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Stops and resumes reading the response body from the connection.
+     */
+    interface ReadControl {
+
+        /**
+         * Stops reading (called from the event loop when receiving).
+         */
+        void suspendRead();
+
+        /**
+         * Resumes reading (called from the thread consuming the body).
+         */
+        void resumeRead();
+    }
+
+    /**
+     * The queued body size above which the connection stops reading.
+     */
+    public static final int HIGH_WATER_MARK = 256 * 1024;
+
+    /**
+     * The queued body size below which the connection resumes reading.
+     */
+    public static final int LOW_WATER_MARK = 64 * 1024;
+
+}
@@ -23,7 +23,7 @@ import org.springframework.boot.ApplicationRunner;
 
 import org.springcloud.gateway.core.task.GenericTaskRunner;
 import org.springcloud.gateway.core.task.RunnerProperties;
-import org.springcloud.gateway.core.task.SafeScheduledTaskPoolExecutor;
+import org.springcloud.gateway.core.task.SafeScheduledExecutor;
 
 /**
  * Application generic local scheduler & task runner.
@@ -62,7 +62,7 @@ public abstract class ApplicationTaskRunner<C extends RunnerProperties> extends
         }
     }
 
-    protected void onApplicationStarted(ApplicationArguments args, SafeScheduledTaskPoolExecutor worker) throws Exception {
+    protected void onApplicationStarted(ApplicationArguments args, SafeScheduledExecutor worker) throws Exception {
     }
 
 }
\ No newline at end of file
@@ -54,7 +54,7 @@ public abstract class GenericTaskRunner<C extends RunnerProperties> implements C
     private Thread masterThread;
 
     /** Runner worker thread group pool. */
-    private SafeScheduledTaskPoolExecutor worker;
+    private SafeScheduledExecutor worker;
 
     @SuppressWarnings("unchecked")
     public GenericTaskRunner() {
@@ -83,8 +83,16 @@ public abstract class GenericTaskRunner<C extends RunnerProperties> implements C
             if (config.getConcurrency() > 0) {
                 // See:https://www.jianshu.com/p/e7ab1ac8eb4c
                 ThreadFactory tf = new NamedThreadFactory(getThreadNamePrefix().concat("-worker"));
-                worker = new SafeScheduledTaskPoolExecutor(config.getConcurrency(), config.getKeepAliveTime(), tf,
-                        config.getAcceptQueue(), config.getReject());
+                switch (config.getScheduler()) {
+                case WHEEL_TIMER:
+                    worker = new HashedWheelScheduledExecutor(config.getConcurrency(), config.getKeepAliveTime(), tf,
+                            config.getAcceptQueue(), config.getReject());
+                    break;
+                default:
+                    worker = new SafeScheduledTaskPoolExecutor(config.getConcurrency(), config.getKeepAliveTime(), tf,
+                            config.getAcceptQueue(), config.getReject());
+                    break;
+                }
             } else {
                 log.warn("No start threads worker, because the number of workthreads is less than 0");
             }
@@ -178,7 +186,7 @@ public abstract class GenericTaskRunner<C extends RunnerProperties> implements C
      * 
      * @return
      */
-    public SafeScheduledTaskPoolExecutor getWorker() {
+    public SafeScheduledExecutor getWorker() {
         state(nonNull(worker),
                 "The worker thread group is not enabled(must concurrency>0)? or  it has not been initialized yet, it must be called at least in the after #postStartupProperties().");
         return worker;
@@ -0,0 +1,580 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.task;
+
+import static org.springcloud.gateway.core.lang.Assert2.isTrue;
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static org.springcloud.gateway.core.log.SmartLoggerFactory.getLogger;
+import static java.lang.System.nanoTime;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.ThreadLocalRandom.current;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+
+/**
+ * The scheduling executor based on the hierarchical hashed timing wheels,
+ * which is the alternative of {@link SafeScheduledTaskPoolExecutor} for the
+ * large number of pending timeouts (e.g. per-request delays, probes, cache
+ * expirations).
+ * 
+ * <p>
+ * The submissions are appended to a lock-free queue and placed into the wheels
+ * by the single tick thread, so that scheduling and cancellation are O(1) and
+ * without lock contention, the tasks far in the future are kept in the higher
+ * levels and cascaded down only when their slots come, so each tick only
+ * touches the expiring tasks. The expired tasks are executed by the worker
+ * threads, and the pending tasks are bounded by a striped counter instead of
+ * the size of delay queue. The delays are rounded up to the tick duration.
+ * </p>
+ * 
+ * <p>
+ * After {@link #shutdown()}, the pending delayed and periodic tasks are
+ * cancelled and the expired tasks are still executed.
+ * </p>
+ * 
+ * <p>
+ * The rejections are counted before the {@link RejectedExecutionHandler} is
+ * invoked (on the submitting thread only, the tick thread never runs the
+ * tasks nor the handler). A rejected periodic task run by the handler (e.g.
+ * {@link ThreadPoolExecutor.CallerRunsPolicy}) runs that period only, and is
+ * never rescheduled.
+ * </p>
+ * 
+ * @author springcloudgateway <springcloudgateway@gmail.com>
+ * @version v1.0.0
+ * @since
+ * @see http://www.cs.columbia.edu/~nahum/w6998/papers/sosp87-timing-wheels.pdf
+ * @see {@link io.netty.util.HashedWheelTimer}
+ */
+public class HashedWheelScheduledExecutor extends AbstractExecutorService implements SafeScheduledExecutor {
+    protected final Logger log = getLogger(getClass());
+
+    /**
+     * Maximum allowed pending tasks.
+     */
+    private final int acceptQueue;
+
+    /**
+     * {@link RejectedExecutionHandler}
+     */
+    private final RejectedExecutionHandler rejectHandler;
+
+    /**
+     * The number of accepted and not yet completed (or cancelled) tasks.
+     */
+    private final LongAdder pendingCount = new LongAdder();
+
+    /**
+     * The number of rejected tasks (by the accept queue, or the worker pool
+     * after shutdown).
+     */
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final ThreadPoolExecutor worker;
+    private final Thread tickThread;
+    private final long tickNanos;
+    private final int wheelBits;
+    private final int wheelMask;
+    private final Bucket[][] wheels;
+    private final long startTime;
+    private final Queue<WheelTask<?>> pendingTasks = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTask<?>> cancelledTasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean shutdown;
+
+    /**
+     * Confined to the tick thread.
+     */
+    private long currentTick;
+
+    public HashedWheelScheduledExecutor(int concurrency, long keepAliveTimeMs, ThreadFactory threadFactory, int acceptQueue,
+            RejectedExecutionHandler rejectHandler) {
+        this(concurrency, keepAliveTimeMs, threadFactory, acceptQueue, rejectHandler, DEFAULT_TICK_MS, DEFAULT_WHEEL_SIZE,
+                DEFAULT_WHEEL_LEVELS);
+    }
+
+    public HashedWheelScheduledExecutor(int concurrency, long keepAliveTimeMs, ThreadFactory threadFactory, int acceptQueue,
+            RejectedExecutionHandler rejectHandler, long tickMs, int wheelSize, int wheelLevels) {
+        isTrue(concurrency > 0, "concurrency must be greater than 0");
+        isTrue(acceptQueue > 0, "acceptQueue must be greater than 0");
+        isTrue(tickMs > 0, "tickMs must be greater than 0");
+        isTrue(wheelSize > 1 && Integer.bitCount(wheelSize) == 1, "wheelSize must be power of 2");
+        isTrue(wheelLevels > 0 && wheelLevels * Integer.numberOfTrailingZeros(wheelSize) < 63, "wheelLevels is too large");
+        notNullOf(threadFactory, "threadFactory");
+        this.acceptQueue = acceptQueue;
+        this.rejectHandler = notNullOf(rejectHandler, "rejectHandler");
+        this.tickNanos = MILLISECONDS.toNanos(tickMs);
+        this.wheelBits = Integer.numberOfTrailingZeros(wheelSize);
+        this.wheelMask = wheelSize - 1;
+        this.wheels = new Bucket[wheelLevels][wheelSize];
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < wheelSize; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+        // The tasks beyond the accept queue are rejected by the counter, so
+        // the work queue is not bounded again.
+        this.worker = new ThreadPoolExecutor(concurrency, concurrency, keepAliveTimeMs, MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        this.startTime = nanoTime();
+        this.tickThread = new Thread(this::runTicks, getClass().getSimpleName() + "-tick-" + SEQUENCE.incrementAndGet());
+        this.tickThread.setDaemon(true);
+        this.tickThread.start();
+    }
+
+    /**
+     * The {@link #submit(Runnable)} and {@link #invokeAll(java.util.Collection)}
+     * related methods also call {@link #execute(Runnable)} with the task
+     * created by {@link #newTaskFor(Callable)}.
+     */
+    @Override
+    public void execute(Runnable command) {
+        WheelTask<?> task = (command instanceof WheelTask) ? (WheelTask<?>) command
+                : new WheelTask<>(command, null, 0L, 0L, null);
+        if (tryAccept(task)) {
+            dispatch(task);
+        }
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(new WheelTask<>(command, null, triggerTime(delay, unit), 0L, null));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return schedule(new WheelTask<>(callable, triggerTime(delay, unit), 0L, null));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        isTrue(period > 0, "period must be greater than 0");
+        return schedule(new WheelTask<>(command, null, triggerTime(initialDelay, unit), unit.toNanos(period), null));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        isTrue(delay > 0, "delay must be greater than 0");
+        return schedule(new WheelTask<>(command, null, triggerTime(initialDelay, unit), -unit.toNanos(delay), null));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtRandomRate(
+            Runnable runnable,
+            long initialDelay,
+            long minDelay,
+            long maxDelay,
+            TimeUnit unit) {
+        return schedule(new WheelTask<>(runnable, null, triggerTime(initialDelay, unit), 1L,
+                randomDelay(unit.toNanos(minDelay), unit.toNanos(maxDelay))));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithRandomDelay(
+            Runnable runnable,
+            long initialDelay,
+            long minDelay,
+            long maxDelay,
+            TimeUnit unit) {
+        return schedule(new WheelTask<>(runnable, null, triggerTime(initialDelay, unit), -1L,
+                randomDelay(unit.toNanos(minDelay), unit.toNanos(maxDelay))));
+    }
+
+    @Override
+    protected <T> RunnableScheduledFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new WheelTask<>(runnable, value, 0L, 0L, null);
+    }
+
+    @Override
+    protected <T> RunnableScheduledFuture<T> newTaskFor(Callable<T> callable) {
+        return new WheelTask<>(callable, 0L, 0L, null);
+    }
+
+    /**
+     * Gets the approximate number of accepted and not yet completed tasks.
+     * 
+     * @return
+     */
+    public long getPendingCount() {
+        return pendingCount.sum();
+    }
+
+    /**
+     * Gets the number of rejected tasks.
+     * 
+     * @return
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        LockSupport.unpark(tickThread);
+        worker.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        return worker.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && !tickThread.isAlive() && worker.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = nanoTime() + unit.toNanos(timeout);
+        tickThread.join(Math.max(1L, NANOSECONDS.toMillis(deadline - nanoTime())));
+        return worker.awaitTermination(Math.max(0L, deadline - nanoTime()), NANOSECONDS) && !tickThread.isAlive();
+    }
+
+    private <V> ScheduledFuture<V> schedule(WheelTask<V> task) {
+        if (tryAccept(task)) {
+            pendingTasks.add(task);
+        }
+        return task;
+    }
+
+    /**
+     * Check whether the pending tasks are exceeded, the counter is striped so
+     * that the check does not contend, and the bound is approximate under
+     * concurrent submissions.
+     * 
+     * @param task
+     * @return
+     */
+    private boolean tryAccept(WheelTask<?> task) {
+        if (shutdown || pendingCount.sum() > acceptQueue) {
+            // Recorded before the handler, which may run the task or throw.
+            rejectedCount.increment();
+            // The handlers of JDK only accept the ThreadPoolExecutor.
+            rejectHandler.rejectedExecution(task, worker);
+            // e.g. not executed by the CallerRunsPolicy.
+            task.cancel(false);
+            return false;
+        }
+        task.accepted = true;
+        pendingCount.increment();
+        return true;
+    }
+
+    /**
+     * Hands the task to the worker pool, which is called by the tick thread
+     * for the expired tasks, so the rejection handler is not invoked here (it
+     * may run the task on the tick thread), the task is cancelled instead.
+     */
+    private void dispatch(WheelTask<?> task) {
+        try {
+            worker.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            task.cancel(false);
+        }
+    }
+
+    private long triggerTime(long delay, TimeUnit unit) {
+        return nanoTime() + unit.toNanos(Math.max(0L, delay));
+    }
+
+    private static LongSupplier randomDelay(long minDelayNanos, long maxDelayNanos) {
+        isTrue(minDelayNanos > 0 && maxDelayNanos > minDelayNanos, "must be 0 < minDelay < maxDelay");
+        return () -> current().nextLong(minDelayNanos, maxDelayNanos);
+    }
+
+    private void runTicks() {
+        while (!shutdown) {
+            long deadline = startTime + (currentTick + 1) * tickNanos;
+            long sleepNanos = deadline - nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+            try {
+                ++currentTick;
+                processCancelledTasks();
+                transferPendingTasks();
+                cascade();
+                expire(wheels[0][(int) (currentTick & wheelMask)]);
+            } catch (Throwable e) {
+                log.error("Unexpected exception of wheel timer tick.", e);
+            }
+        }
+        // Cancel all the unexpired tasks.
+        for (Bucket[] wheel : wheels) {
+            for (Bucket bucket : wheel) {
+                for (WheelTask<?> task = bucket.poll(); nonNull(task); task = bucket.poll()) {
+                    task.cancel(false);
+                }
+            }
+        }
+        for (WheelTask<?> task = pendingTasks.poll(); nonNull(task); task = pendingTasks.poll()) {
+            task.cancel(false);
+        }
+        cancelledTasks.clear();
+    }
+
+    private void processCancelledTasks() {
+        for (WheelTask<?> task = cancelledTasks.poll(); nonNull(task); task = cancelledTasks.poll()) {
+            if (nonNull(task.bucket)) {
+                task.bucket.remove(task);
+            }
+        }
+    }
+
+    private void transferPendingTasks() {
+        // Bounds the transfers of each tick, to avoid the tick thread being
+        // stuck by a burst of submissions.
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            WheelTask<?> task = pendingTasks.poll();
+            if (isNull(task)) {
+                break;
+            }
+            if (!task.isCancelled()) {
+                place(task);
+            }
+        }
+    }
+
+    /**
+     * Places the task into the level of the highest tick digit which differs
+     * from the current tick, the task is cascaded into the lower levels when
+     * the current tick reaches that digit.
+     */
+    private void place(WheelTask<?> task) {
+        long deadlineTick = (task.time - startTime + tickNanos - 1) / tickNanos;
+        if (deadlineTick <= currentTick) {
+            wheels[0][(int) (currentTick & wheelMask)].add(task);
+            return;
+        }
+        long diff = deadlineTick ^ currentTick;
+        for (int level = 0; level < wheels.length; level++) {
+            if ((diff >>> (wheelBits * (level + 1))) == 0) {
+                wheels[level][(int) ((deadlineTick >>> (wheelBits * level)) & wheelMask)].add(task);
+                return;
+            }
+        }
+        // Beyond the span of all the levels, place into the farthest slot of
+        // the top level, and it will be placed again when cascaded.
+        int top = wheels.length - 1;
+        wheels[top][(int) (((currentTick >>> (wheelBits * top)) - 1) & wheelMask)].add(task);
+    }
+
+    /**
+     * Cascades the current slots of higher levels whose lower digits are
+     * wrapped, from the highest level to lowest.
+     */
+    private void cascade() {
+        for (int level = wheels.length - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (wheelBits * level)) - 1)) == 0) {
+                Bucket bucket = wheels[level][(int) ((currentTick >>> (wheelBits * level)) & wheelMask)];
+                for (WheelTask<?> task = bucket.poll(); nonNull(task); task = bucket.poll()) {
+                    place(task);
+                }
+            }
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        for (WheelTask<?> task = bucket.poll(); nonNull(task); task = bucket.poll()) {
+            if (!task.isCancelled()) {
+                dispatch(task);
+            }
+        }
+    }
+
+    /**
+     * The doubly linked tasks of a wheel slot, confined to the tick thread.
+     */
+    private static final class Bucket {
+        private WheelTask<?> head;
+        private WheelTask<?> tail;
+
+        void add(WheelTask<?> task) {
+            task.bucket = this;
+            task.prev = tail;
+            task.next = null;
+            if (isNull(tail)) {
+                head = task;
+            } else {
+                tail.next = task;
+            }
+            tail = task;
+        }
+
+        void remove(WheelTask<?> task) {
+            if (nonNull(task.prev)) {
+                task.prev.next = task.next;
+            } else {
+                head = task.next;
+            }
+            if (nonNull(task.next)) {
+                task.next.prev = task.prev;
+            } else {
+                tail = task.prev;
+            }
+            task.prev = task.next = null;
+            task.bucket = null;
+        }
+
+        WheelTask<?> poll() {
+            WheelTask<?> task = head;
+            if (nonNull(task)) {
+                remove(task);
+            }
+            return task;
+        }
+    }
+
+    private final class WheelTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+        /**
+         * The time the task is enabled to execute in nanoTime units.
+         */
+        private volatile long time;
+
+        /**
+         * Period in nanoseconds for repeating tasks. A positive value
+         * indicates fixed-rate execution. A negative value indicates
+         * fixed-delay execution. A value of 0 indicates a non-repeating task.
+         */
+        private final long period;
+
+        /**
+         * The random period of repeating tasks, nullable.
+         */
+        private final LongSupplier randomPeriod;
+
+        /**
+         * Whether the task has been counted into pending.
+         */
+        private volatile boolean accepted;
+
+        /**
+         * The slot links, confined to the tick thread.
+         */
+        private Bucket bucket;
+        private WheelTask<?> prev;
+        private WheelTask<?> next;
+
+        WheelTask(Runnable runnable, V result, long time, long period, LongSupplier randomPeriod) {
+            super(runnable, result);
+            this.time = time;
+            this.period = period;
+            this.randomPeriod = randomPeriod;
+        }
+
+        WheelTask(Callable<V> callable, long time, long period, LongSupplier randomPeriod) {
+            super(callable);
+            this.time = time;
+            this.period = period;
+            this.randomPeriod = randomPeriod;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - nanoTime(), NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            long diff = getDelay(NANOSECONDS) - other.getDelay(NANOSECONDS);
+            return (diff < 0) ? -1 : (diff > 0) ? 1 : 0;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return period != 0;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && accepted) {
+                cancelledTasks.add(this);
+            }
+            return cancelled;
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (super.runAndReset()) {
+                // The rejected (never accepted) task run by the rejection
+                // handler is not rescheduled, the period is skipped.
+                if (shutdown || !accepted) {
+                    cancel(false);
+                    return;
+                }
+                long p = nonNull(randomPeriod) ? randomPeriod.getAsLong() : Math.abs(period);
+                time = (period > 0) ? time + p : nanoTime() + p;
+                pendingTasks.add(this);
+            }
+        }
+
+        /**
+         * Called once the task is completed, failed or cancelled.
+         */
+        @Override
+        protected void done() {
+            if (accepted) {
+                pendingCount.decrement();
+            }
+        }
+    }
+
+    public static final long DEFAULT_TICK_MS = 10L;
+    public static final int DEFAULT_WHEEL_SIZE = 256;
+    public static final int DEFAULT_WHEEL_LEVELS = 4;
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+}
@@ -55,6 +55,13 @@ public class RunnerProperties implements Serializable {
     /** Rejected execution handler. */
     private RejectedExecutionHandler reject = new AbortPolicy();
 
+    /**
+     * The scheduler implementation of the worker thread group, the
+     * {@link SchedulerType#WHEEL_TIMER} is preferred for the large number of
+     * pending delayed tasks.
+     */
+    private SchedulerType scheduler = DEFAULT_SCHEDULER;
+
     public RunnerProperties() {
         super();
     }
@@ -154,19 +161,43 @@ public class RunnerProperties implements Serializable {
         return this;
     }
 
+    public SchedulerType getScheduler() {
+        return scheduler;
+    }
+
+    public void setScheduler(SchedulerType scheduler) {
+        if (scheduler != null) {
+            this.scheduler = scheduler;
+        }
+    }
+
+    public RunnerProperties withScheduler(SchedulerType scheduler) {
+        setScheduler(scheduler);
+        return this;
+    }
+
     @Override
     public String toString() {
-        return getClass().getSimpleName().concat(format("[concurrency=%s, keepAliveTime=%s, acceptQueue=%s, reject=%s]",
-                concurrency, keepAliveTime, acceptQueue, reject));
+        return getClass().getSimpleName().concat(format("[concurrency=%s, keepAliveTime=%s, acceptQueue=%s, reject=%s, scheduler=%s]",
+                concurrency, keepAliveTime, acceptQueue, reject, scheduler));
     }
 
     public static enum StartupMode {
         SYNC, ASYNC, NOSTARTUP;
     }
 
+    /**
+     * @see {@link SafeScheduledTaskPoolExecutor}
+     * @see {@link HashedWheelScheduledExecutor}
+     */
+    public static enum SchedulerType {
+        THREAD_POOL, WHEEL_TIMER;
+    }
+
     private static final StartupMode DEFAULT_STARTUP_MODE = StartupMode.SYNC;
     private static final int DEFAULT_CONCURRENCY = -1;
     private static final long DEFAULT_KEEP_ALIVE_TIME = 0L;
     private static final int DEFAULT_ACCEPT_QUEUE = 1;
+    private static final SchedulerType DEFAULT_SCHEDULER = SchedulerType.THREAD_POOL;
 
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.task;
+
+import static org.springcloud.gateway.core.log.SmartLoggerFactory.getLogger;
+import static java.lang.String.format;
+import static java.util.Collections.emptyList;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springcloud.gateway.core.collection.CollectionUtils2;
+
+/**
+ * The bounded scheduling executor of the task runners, the submissions beyond
+ * the accept queue are rejected by the {@link java.util.concurrent.RejectedExecutionHandler}.
+ * 
+ * @author springcloudgateway <springcloudgateway@gmail.com>
+ * @version v1.0.0
+ * @since
+ * @see {@link SafeScheduledTaskPoolExecutor}
+ * @see {@link HashedWheelScheduledExecutor}
+ */
+public interface SafeScheduledExecutor extends ScheduledExecutorService {
+
+    /**
+     * Random interval scheduling based on dynamic schedule.
+     * 
+     * @param runnable
+     * @param initialDelay
+     * @param minDelay
+     * @param maxDelay
+     * @param unit
+     * @return
+     */
+    ScheduledFuture<?> scheduleAtRandomRate(Runnable runnable, long initialDelay, long minDelay, long maxDelay, TimeUnit unit);
+
+    /**
+     * Random interval scheduling based on fixed schedule.
+     * 
+     * @param runnable
+     * @param initialDelay
+     * @param minDelay
+     * @param maxDelay
+     * @param unit
+     * @return
+     */
+    ScheduledFuture<?> scheduleWithRandomDelay(Runnable runnable, long initialDelay, long minDelay, long maxDelay, TimeUnit unit);
+
+    /**
+     * Submitted job wait for completed.
+     * 
+     * @param jobs
+     * @param timeoutMs
+     * @throws IllegalStateException
+     */
+    default void submitForComplete(List<Runnable> jobs, long timeoutMs) throws IllegalStateException {
+        submitForComplete(jobs, (ex, completed, uncompleted) -> {
+            if (nonNull(ex)) {
+                throw ex;
+            }
+        }, timeoutMs);
+    }
+
+    /**
+     * Submitted job wait for completed.
+     * 
+     * @param jobs
+     * @param listener
+     * @param timeoutMs
+     * @throws IllegalStateException
+     */
+    default void submitForComplete(List<Runnable> jobs, CompleteTaskListener listener, long timeoutMs)
+            throws IllegalStateException {
+        if (!CollectionUtils2.isEmpty(jobs)) {
+            int total = jobs.size();
+            // Future jobs.
+            Map<Future<?>, Runnable> futures = new HashMap<Future<?>, Runnable>(total);
+            try {
+                CountDownLatch latch = new CountDownLatch(total);
+                // Submit job.
+                jobs.stream().forEach(job -> futures.put(submit(() -> {
+                    try {
+                        job.run();
+                    } catch (Exception e) {
+                        getLogger(getClass()).error("Execution failure task", e);
+                    } finally {
+                        latch.countDown();
+                    }
+                }), job));
+
+                if (!latch.await(timeoutMs, MILLISECONDS)) { // Timeout?
+                    Iterator<Entry<Future<?>, Runnable>> it = futures.entrySet().iterator();
+                    while (it.hasNext()) {
+                        Entry<Future<?>, Runnable> entry = it.next();
+                        if (!entry.getKey().isCancelled() && !entry.getKey().isDone()) {
+                            entry.getKey().cancel(true);
+                        } else {
+                            it.remove(); // Cleanup cancelled or isDone
+                        }
+                    }
+
+                    TimeoutException ex = new TimeoutException(
+                            format("Failed to job execution timeout, %s -> completed(%s)/total(%s)",
+                                    jobs.get(0).getClass().getName(), (total - latch.getCount()), total));
+                    listener.onComplete(ex, (total - latch.getCount()), futures.values());
+                } else {
+                    listener.onComplete(null, total, emptyList());
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+}
@@ -18,14 +18,10 @@ package org.springcloud.gateway.core.task;
 import static org.springcloud.gateway.core.core.ReflectionUtils2.findField;
 import static org.springcloud.gateway.core.core.ReflectionUtils2.makeAccessible;
 import static org.springcloud.gateway.core.lang.Assert2.isTrue;
-import static org.springcloud.gateway.core.lang.Assert2.notNull;
 import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
 import static org.springcloud.gateway.core.log.SmartLoggerFactory.getLogger;
 import static java.lang.Integer.MAX_VALUE;
-import static java.lang.String.format;
 import static java.lang.System.nanoTime;
-import static java.util.Collections.emptyList;
-import static java.util.Objects.nonNull;
 import static java.util.concurrent.ThreadLocalRandom.current;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
@@ -33,13 +29,7 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Delayed;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -55,8 +45,6 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 
-import org.springcloud.gateway.core.collection.CollectionUtils2;
-
 /**
  * An enhanced security and flexible scheduling executor.</br>
  * As the default {@link java.util.concurrent.ScheduledThreadPoolExecutor} and
@@ -70,7 +58,7 @@ import org.springcloud.gateway.core.collection.CollectionUtils2;
  * @see {@link org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler}
  * @see https://stackoverflow.com/questions/55429073/why-does-not-scheduledthreadpoolexecutor-provide-finite-queue
  */
-public class SafeScheduledTaskPoolExecutor extends ScheduledThreadPoolExecutor {
+public class SafeScheduledTaskPoolExecutor extends ScheduledThreadPoolExecutor implements SafeScheduledExecutor {
     protected final Logger log = getLogger(getClass());
 
     /**
@@ -128,64 +116,6 @@ public class SafeScheduledTaskPoolExecutor extends ScheduledThreadPoolExecutor {
         return super.submit(task, result);
     }
 
-    /**
-     * Submitted job wait for completed.
-     * 
-     * @param jobs
-     * @param timeoutMs
-     * @throws IllegalStateException
-     */
-    public void submitForComplete(List<Runnable> jobs, long timeoutMs) throws IllegalStateException {
-        submitForComplete(jobs, (ex, completed, uncompleted) -> {
-            if (nonNull(ex)) {
-                throw ex;
-            }
-        }, timeoutMs);
-    }
-
-    /**
-     * Submitted job wait for completed.
-     * 
-     * @param jobs
-     * @param listener
-     * @param timeoutMs
-     * @throws IllegalStateException
-     */
-    public void submitForComplete(List<Runnable> jobs, CompleteTaskListener listener, long timeoutMs)
-            throws IllegalStateException {
-        if (!CollectionUtils2.isEmpty(jobs)) {
-            int total = jobs.size();
-            // Future jobs.
-            Map<Future<?>, Runnable> futures = new HashMap<Future<?>, Runnable>(total);
-            try {
-                CountDownLatch latch = new CountDownLatch(total);
-                // Submit job.
-                jobs.stream().forEach(job -> futures.put(submit(new FutureDoneTask(latch, job)), job));
-
-                if (!latch.await(timeoutMs, MILLISECONDS)) { // Timeout?
-                    Iterator<Entry<Future<?>, Runnable>> it = futures.entrySet().iterator();
-                    while (it.hasNext()) {
-                        Entry<Future<?>, Runnable> entry = it.next();
-                        if (!entry.getKey().isCancelled() && !entry.getKey().isDone()) {
-                            entry.getKey().cancel(true);
-                        } else {
-                            it.remove(); // Cleanup cancelled or isDone
-                        }
-                    }
-
-                    TimeoutException ex = new TimeoutException(
-                            format("Failed to job execution timeout, %s -> completed(%s)/total(%s)",
-                                    jobs.get(0).getClass().getName(), (total - latch.getCount()), total));
-                    listener.onComplete(ex, (total - latch.getCount()), futures.values());
-                } else {
-                    listener.onComplete(null, total, emptyList());
-                }
-            } catch (Exception e) {
-                throw new IllegalStateException(e);
-            }
-        }
-    }
-
     @Override
     public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
         if (checkRunableLimit(command)) {
@@ -216,6 +146,7 @@ public class SafeScheduledTaskPoolExecutor extends ScheduledThreadPoolExecutor {
      * @param unit
      * @return
      */
+    @Override
     public ScheduledFuture<?> scheduleAtRandomRate(
             Runnable runnable,
             long initialDelay,
@@ -238,6 +169,7 @@ public class SafeScheduledTaskPoolExecutor extends ScheduledThreadPoolExecutor {
      * @param unit
      * @return
      */
+    @Override
     public ScheduledFuture<?> scheduleWithRandomDelay(
             Runnable runnable,
             long initialDelay,
@@ -490,41 +422,6 @@ public class SafeScheduledTaskPoolExecutor extends ScheduledThreadPoolExecutor {
 
     }
 
-    /**
-     * Future done runnable wrapper.
-     * 
-     * @author springcloudgateway <springcloudgateway@gmail.com>
-     * @version v1.0.0
-     * @since
-     */
-    private class FutureDoneTask implements Runnable {
-
-        /** {@link CountDownLatch} */
-        final private CountDownLatch latch;
-
-        /** Real runner job. */
-        final private Runnable job;
-
-        public FutureDoneTask(CountDownLatch latch, Runnable job) {
-            notNull(latch, "Job runable latch must not be null.");
-            notNull(job, "Job runable must not be null.");
-            this.latch = latch;
-            this.job = job;
-        }
-
-        @Override
-        public void run() {
-            try {
-                job.run();
-            } catch (Exception e) {
-                log.error("Execution failure task", e);
-            } finally {
-                latch.countDown();
-            }
-        }
-
-    }
-
     /**
      * {@link RandomScheduleRunnable}
      * 
@@ -16,7 +16,6 @@
 package org.springcloud.gateway.core.trace;
 
 import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
-import static org.springcloud.gateway.core.lang.FastTimeClock.currentTimeMillis;
 import static org.springcloud.gateway.core.log.SmartLoggerFactory.getLogger;
 import static org.springcloud.gateway.core.constant.CoreInfraConstants.TRACE_REQUEST_ID_HEADER;
 import static org.springcloud.gateway.core.constant.CoreInfraConstants.TRACE_REQUEST_SEQ_HEADER;
@@ -37,10 +36,13 @@ import static org.springframework.util.CollectionUtils.isEmpty;
 
 import java.security.Principal;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.MDC;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.core.env.Environment;
 
 import org.springcloud.gateway.core.log.SmartLogger;
@@ -75,17 +77,12 @@ red>[%-32.32X{H:X-Request-ID}] [%-16.16X{H:X-Request-Seq}]</font> - %-40.40logge
  * @version v1.0.0
  * @since
  */
-public abstract class BasedMdcTraceSupport {
+public abstract class BasedMdcTraceSupport implements ApplicationListener<EnvironmentChangeEvent> {
 
     protected SmartLogger log = getLogger(getClass());
 
     protected final Environment environment;
 
-    /**
-     * Cache refresh time-stamp.
-     */
-    protected final AtomicLong lastReloadTime = new AtomicLong(0);
-
     /**
      * Whether to enable the headers mapping. for example:
      * <b>%X{_C_:JSESSIONID}</b></br>
@@ -106,38 +103,60 @@ public abstract class BasedMdcTraceSupport {
 
     public BasedMdcTraceSupport(Environment environment) {
         this.environment = notNullOf(environment, "environment");
+        reload();
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        reload();
     }
 
     protected void bindToMDC(WebRequestExtractor extractor) {
+        Map<String, String> fields = resolveTraceFields(extractor);
+        if (nonNull(fields)) {
+            fields.forEach(MDC::put);
+        }
+    }
+
+    /**
+     * Resolve the trace fields of the request.
+     * 
+     * @param extractor
+     * @return null if failed to resolve.
+     */
+    protected Map<String, String> resolveTraceFields(WebRequestExtractor extractor) {
         try {
-            reloadIfNecessary();
-            doBind(extractor);
+            Map<String, String> fields = new LinkedHashMap<>(8);
+            doResolve(extractor, fields);
+            return fields;
         } catch (Exception e) {
-            log.error(format("Could't set logging MDC. uri: %s", extractor.getRequestURI()), e);
+            log.error(format("Could't resolve logging trace fields. uri: %s", extractor.getRequestURI()), e);
+            return null;
         }
     }
 
     /**
-     * Bind trace attributes to logging MDC
+     * Resolve trace attributes of logging MDC
      * 
      * @param extractor
+     * @param fields
      */
-    protected void doBind(WebRequestExtractor extractor) {
+    protected void doResolve(WebRequestExtractor extractor, Map<String, String> fields) {
         // Bind trace required fields.
-        MDC.put(KEY_URI, extractor.getRequestURI().getPath());
+        fields.put(KEY_URI, extractor.getRequestURI().getPath());
         Principal principal = extractor.getPrincipal();
         if (nonNull(principal)) {
-            MDC.put(KEY_PRINCIPAL, principal.getName());
+            fields.put(KEY_PRINCIPAL, principal.getName());
         }
-        MDC.put(KEY_REQUEST_ID, extractor.getHeaderValue(TRACE_REQUEST_ID_HEADER));
+        fields.put(KEY_REQUEST_ID, extractor.getHeaderValue(TRACE_REQUEST_ID_HEADER));
         String requestSeq = extractor.getHeaderValue(TRACE_REQUEST_SEQ_HEADER);
-        MDC.put(KEY_REQUEST_SEQ, requestSeq);
+        fields.put(KEY_REQUEST_SEQ, requestSeq);
         if (isBlank(requestSeq)) {
-            MDC.put(KEY_NEXT_REQUEST_SEQ, "0");
+            fields.put(KEY_NEXT_REQUEST_SEQ, "0");
         } else {
             // Sequence will be like:000, real sequence is the number of "0"
             String nextSeq = requestSeq.concat("0");
-            MDC.put(KEY_NEXT_REQUEST_SEQ, nextSeq);
+            fields.put(KEY_NEXT_REQUEST_SEQ, nextSeq);
         }
 
         // Bind extra headers,
@@ -146,7 +165,7 @@ public abstract class BasedMdcTraceSupport {
             if (!isEmpty(headerNames)) {
                 for (String name : headerNames) {
                     if (isMDCField(name)) {
-                        MDC.put(KEY_PREFIX_HEADER.concat(name), extractor.getHeaderValue(name));
+                        fields.put(KEY_PREFIX_HEADER.concat(name), extractor.getHeaderValue(name));
                     }
                 }
             }
@@ -158,7 +177,7 @@ public abstract class BasedMdcTraceSupport {
             if (!isEmpty(parameterNames)) {
                 for (String name : parameterNames) {
                     if (isMDCField(name)) {
-                        MDC.put(KEY_PREFIX_PARAMETER.concat(name), extractor.getQueryValue(name));
+                        fields.put(KEY_PREFIX_PARAMETER.concat(name), extractor.getQueryValue(name));
                     }
                 }
             }
@@ -169,30 +188,23 @@ public abstract class BasedMdcTraceSupport {
             Collection<String> cookieNames = extractor.getCookieNames();
             for (String name : cookieNames) {
                 if (isMDCField(name)) {
-                    MDC.put(KEY_PREFIX_COOKIE.concat(name), extractor.getCookieValue(name));
+                    fields.put(KEY_PREFIX_COOKIE.concat(name), extractor.getCookieValue(name));
                 }
             }
         }
     }
 
     /**
-     * Reload MDC mapped via patterns, When the logging configuration is
-     * modified, it can be updated in time.
-     * 
-     * @return
+     * Reload MDC mapped via patterns, it's called at construction and when the
+     * environment is refreshed (e.g. the logging configuration is modified),
+     * rather than on the request path.
      */
-    protected boolean reloadIfNecessary() {
-        long now = currentTimeMillis();
-        if ((now - lastReloadTime.get()) < DEFAULT_CACHE_REFRESH_MS) {
-            return false;
-        }
+    protected void reload() {
         String consolePattern = environment.getProperty("logging.pattern.console");
         String filePattern = environment.getProperty("logging.pattern.file");
         this.bindCookies.set(hasMDCField(consolePattern, filePattern, KEY_PREFIX_COOKIE));
         this.bindHeaders.set(hasMDCField(consolePattern, filePattern, KEY_PREFIX_HEADER));
         this.bindParameters.set(hasMDCField(consolePattern, filePattern, KEY_PREFIX_PARAMETER));
-        this.lastReloadTime.set(now);
-        return true;
     }
 
     /**
@@ -243,6 +255,4 @@ public abstract class BasedMdcTraceSupport {
         public static final String KEY_PREFIX_COOKIE = "C:";
     }
 
-    public static final long DEFAULT_CACHE_REFRESH_MS = 2_000L;
-
 }
\ No newline at end of file
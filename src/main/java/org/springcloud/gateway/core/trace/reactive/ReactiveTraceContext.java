@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.trace.reactive;
+
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.nonNull;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.slf4j.MDC;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * {@link ReactiveTraceContext}
+ * 
+ * <p>
+ * The trace fields of the request carried in the Reactor {@link Context}
+ * instead of the MDC, because the event loop thread is shared by all the
+ * multiplexed requests, the MDC is only bridged around the log statements, see
+ * {@link #logOnNext(Consumer)} and {@link #bindMDC()}.
+ * </p>
+ * 
+ * <p>
+ * The binding is skipped when the same trace context is already bound to the
+ * thread, and a different bound context is restored when the scope is closed,
+ * so the nested scopes only pay a thread local lookup.
+ * </p>
+ * 
+ * @author springcloudgateway &lt;springcloudgateway@gmail.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ * @see https://simonbasle.github.io/2018/02/contextual-logging-with-reactor-context-and-mdc/
+ */
+public final class ReactiveTraceContext {
+
+    private final Map<String, String> fields;
+
+    public ReactiveTraceContext(Map<String, String> fields) {
+        this.fields = unmodifiableMap(notNullOf(fields, "fields"));
+    }
+
+    public Map<String, String> getFields() {
+        return fields;
+    }
+
+    public String get(String key) {
+        return fields.get(key);
+    }
+
+    /**
+     * Puts this trace context into the reactor context.
+     * 
+     * @param context
+     * @return
+     */
+    public Context putTo(Context context) {
+        return context.put(CONTEXT_KEY, this);
+    }
+
+    /**
+     * Bind the trace fields into the MDC of current thread, and they must be
+     * removed by closing the returned scope (in the same thread).
+     * 
+     * @return
+     */
+    public MDCScope bindMDC() {
+        ReactiveTraceContext previous = BOUND.get();
+        if (previous == this) {
+            return NOOP_SCOPE;
+        }
+        if (nonNull(previous)) {
+            previous.unbind();
+        }
+        bind();
+        BOUND.set(this);
+        return () -> {
+            unbind();
+            if (nonNull(previous)) {
+                previous.bind();
+                BOUND.set(previous);
+            } else {
+                BOUND.remove();
+            }
+        };
+    }
+
+    private void bind() {
+        fields.forEach((key, value) -> {
+            if (nonNull(value)) {
+                MDC.put(key, value);
+            }
+        });
+    }
+
+    private void unbind() {
+        fields.keySet().forEach(MDC::remove);
+    }
+
+    /**
+     * Gets the trace context of the reactor context.
+     * 
+     * @param context
+     * @return
+     */
+    public static Optional<ReactiveTraceContext> from(ContextView context) {
+        return context.getOrEmpty(CONTEXT_KEY);
+    }
+
+    /**
+     * Gets the trace context of the current subscriber.
+     * 
+     * @return
+     */
+    public static Mono<ReactiveTraceContext> current() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(from(context)));
+    }
+
+    /**
+     * Log the next values with the MDC bridged, e.g:
+     * {@code mono.doOnEach(logOnNext(v -> log.info("found: {}", v)))}
+     * 
+     * @param logStatement
+     * @return
+     */
+    public static <T> Consumer<Signal<T>> logOnNext(Consumer<T> logStatement) {
+        return logOnSignal(Signal::isOnNext, signal -> logStatement.accept(signal.get()));
+    }
+
+    /**
+     * Log the error with the MDC bridged.
+     * 
+     * @param logStatement
+     * @return
+     */
+    public static <T> Consumer<Signal<T>> logOnError(Consumer<Throwable> logStatement) {
+        return logOnSignal(Signal::isOnError, signal -> logStatement.accept(signal.getThrowable()));
+    }
+
+    /**
+     * Log the matched signals with the MDC bridged, the signals without the
+     * trace context are logged as is.
+     * 
+     * @param predicate
+     * @param logStatement
+     * @return
+     */
+    public static <T> Consumer<Signal<T>> logOnSignal(Predicate<Signal<T>> predicate, Consumer<Signal<T>> logStatement) {
+        return signal -> {
+            if (!predicate.test(signal)) {
+                return;
+            }
+            Optional<ReactiveTraceContext> traceContext = from(signal.getContextView());
+            if (traceContext.isPresent()) {
+                try (MDCScope scope = traceContext.get().bindMDC()) {
+                    logStatement.accept(signal);
+                }
+            } else {
+                logStatement.accept(signal);
+            }
+        };
+    }
+
+    /**
+     * The MDC binding scope.
+     */
+    @FunctionalInterface
+    public static interface MDCScope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public static final String CONTEXT_KEY = ReactiveTraceContext.class.getName();
+
+    private static final ThreadLocal<ReactiveTraceContext> BOUND = new ThreadLocal<>();
+    private static final MDCScope NOOP_SCOPE = () -> {
+    };
+
+}
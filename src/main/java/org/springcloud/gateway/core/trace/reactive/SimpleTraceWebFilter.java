@@ -15,10 +15,10 @@
  */
 package org.springcloud.gateway.core.trace.reactive;
 
-import java.util.Optional;
-import java.util.function.Consumer;
+import static java.util.Objects.isNull;
+
+import java.util.Map;
 
-import org.slf4j.MDC;
 import org.springframework.core.Ordered;
 import org.springframework.core.env.Environment;
 import org.springframework.web.server.ServerWebExchange;
@@ -27,7 +27,8 @@ import org.springframework.web.server.WebFilterChain;
 
 import org.springcloud.gateway.core.constant.CoreInfraConstants;
 import org.springcloud.gateway.core.trace.BasedMdcTraceSupport;
-import org.springcloud.gateway.core.utils.web.ReactiveRequestExtractor;
+import org.springcloud.gateway.core.trace.reactive.ReactiveTraceContext.MDCScope;
+import org.springcloud.gateway.core.utils.web.ExchangeRequestView;
 
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Signal;
@@ -35,6 +36,15 @@ import reactor.core.publisher.Signal;
 /**
  * {@link SimpleTraceWebFilter}
  * 
+ * <p>
+ * The trace fields are carried by {@link ReactiveTraceContext} in the Reactor
+ * context instead of the MDC of the event loop thread (which is shared by the
+ * multiplexed requests, so the MDC would leak between them), the MDC is only
+ * bridged around the log statements: the filters subscribed (assembled) under
+ * this filter, and the signal log statements via
+ * {@link ReactiveTraceContext#logOnSignal}.
+ * </p>
+ * 
  * @author springcloudgateway &lt;springcloudgateway@gmail.com&gt;
  * @version v1.0.0
  * @since v3.0.0
@@ -52,26 +62,24 @@ public class SimpleTraceWebFilter extends BasedMdcTraceSupport implements WebFil
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-        bindToMDC(new ReactiveRequestExtractor(exchange.getRequest()));
+        Map<String, String> fields = resolveTraceFields(ExchangeRequestView.of(exchange));
+        if (isNull(fields)) {
+            return chain.filter(exchange);
+        }
+        ReactiveTraceContext traceContext = new ReactiveTraceContext(fields);
         // see:https://stackoverflow.com/questions/61409047/how-does-spring-cloud-sleuth-propagate-the-mdc-context-in-webflux-ouf-of-the-box\
         // see:https://simonbasle.github.io/2018/02/contextual-logging-with-reactor-context-and-mdc/
-        return chain.filter(exchange).doOnEach(logOnNext(r -> {
-            log.debug("found restaurant {} for ${}");
-        })).doOnTerminate(() -> System.out.println()/* MDC.clear() */);
-    }
-
-    private static <T> Consumer<Signal<T>> logOnNext(Consumer<T> logStatement) {
-        return signal -> {
-            // if (!signal.isOnNext()) {
-            // return;
-            // }
-            Optional<String> traceIdOp = signal.getContextView().getOrEmpty("requestId");
-            traceIdOp.ifPresent(requestId -> {
-                try (MDC.MDCCloseable closeable = MDC.putCloseable("requestId", requestId)) {
-                    logStatement.accept(signal.get());
-                }
-            });
-        };
+        // The downstream filters are invoked when the chain is subscribed.
+        Mono<Void> result = Mono.fromDirect(actual -> {
+            try (MDCScope scope = traceContext.bindMDC()) {
+                chain.filter(exchange).subscribe(actual);
+            }
+        });
+        if (log.isDebugEnabled()) {
+            result = result.doOnEach(ReactiveTraceContext.logOnSignal(Signal::isOnComplete,
+                    signal -> log.debug("Completed request: {}", exchange.getRequest().getURI().getPath())));
+        }
+        return result.contextWrite(context -> traceContext.putTo(context));
     }
 
 }
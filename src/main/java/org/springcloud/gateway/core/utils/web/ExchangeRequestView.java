@@ -0,0 +1,243 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.utils.web;
+
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+import static org.springcloud.gateway.core.constant.CoreInfraConstants.TRACE_REQUEST_ID_HEADER;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+
+import org.springcloud.gateway.core.web.WebUtils.WebRequestExtractor;
+
+/**
+ * {@link ExchangeRequestView}
+ * 
+ * <p>
+ * The memoized view of the exchange request shared by all the filters, it is
+ * stored once in the exchange attributes (and rebuilt only if the request was
+ * mutated), the query parameters, cookies and client address are derived at
+ * most once per request, on the first access.
+ * </p>
+ * 
+ * <p>
+ * <b>Note:</b> the filters of an exchange are executed sequentially, so the
+ * view is not thread-safe by design.
+ * </p>
+ * 
+ * @author springcloudgateway &lt;springcloudgateway@163.com, springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public final class ExchangeRequestView implements WebRequestExtractor {
+
+    private final ServerHttpRequest request;
+    private MultiValueMap<String, String> queryParams;
+    private Map<String, String> singleQueryParams;
+    private MultiValueMap<String, HttpCookie> cookies;
+    private String remoteHost;
+    private Map<List<String>, String> clientAddresses;
+
+    private ExchangeRequestView(ServerHttpRequest request) {
+        this.request = notNullOf(request, "request");
+    }
+
+    /**
+     * Gets or create the request view of the exchange.
+     * 
+     * @param exchange
+     * @return
+     */
+    public static ExchangeRequestView of(ServerWebExchange exchange) {
+        ExchangeRequestView view = exchange.getAttribute(ATTR_REQUEST_VIEW);
+        if (isNull(view) || view.request != exchange.getRequest()) {
+            view = new ExchangeRequestView(exchange.getRequest());
+            exchange.getAttributes().put(ATTR_REQUEST_VIEW, view);
+        }
+        return view;
+    }
+
+    public ServerHttpRequest getRequest() {
+        return request;
+    }
+
+    public HttpHeaders getHeaders() {
+        return request.getHeaders();
+    }
+
+    public MultiValueMap<String, String> getQueryParams() {
+        if (isNull(queryParams)) {
+            queryParams = request.getQueryParams();
+        }
+        return queryParams;
+    }
+
+    /**
+     * Gets the first values of query parameters.
+     * 
+     * @return
+     */
+    public Map<String, String> getSingleQueryParams() {
+        if (isNull(singleQueryParams)) {
+            singleQueryParams = getQueryParams().toSingleValueMap();
+        }
+        return singleQueryParams;
+    }
+
+    public MultiValueMap<String, HttpCookie> getCookies() {
+        if (isNull(cookies)) {
+            cookies = request.getCookies();
+        }
+        return cookies;
+    }
+
+    /**
+     * Gets the host address of the remote peer.
+     * 
+     * @return
+     */
+    public String getRemoteHost() {
+        if (isNull(remoteHost)) {
+            InetSocketAddress remoteAddress = request.getRemoteAddress();
+            if (nonNull(remoteAddress)) {
+                remoteHost = nonNull(remoteAddress.getAddress()) ? remoteAddress.getAddress().getHostAddress()
+                        : remoteAddress.getHostString();
+            }
+        }
+        return remoteHost;
+    }
+
+    /**
+     * Gets the client address from the first valid forwarded header, and
+     * fall-back to the remote peer address.
+     * 
+     * @param forwardHeaderNames
+     * @return
+     */
+    public String getClientAddress(List<String> forwardHeaderNames) {
+        if (isNull(clientAddresses)) {
+            clientAddresses = new HashMap<>(4);
+        }
+        String address = clientAddresses.get(forwardHeaderNames);
+        if (isNull(address)) {
+            address = resolveClientAddress(forwardHeaderNames);
+            if (nonNull(address)) {
+                clientAddresses.put(forwardHeaderNames, address);
+            }
+        }
+        return address;
+    }
+
+    private String resolveClientAddress(List<String> forwardHeaderNames) {
+        if (nonNull(forwardHeaderNames)) {
+            HttpHeaders headers = request.getHeaders();
+            for (String header : forwardHeaderNames) {
+                String host = headers.getFirst(header);
+                if (!isBlank(host) && !"Unknown".equalsIgnoreCase(host)) {
+                    return host;
+                }
+            }
+        }
+        // Fall-back
+        return getRemoteHost();
+    }
+
+    //
+    // Web request extractor.
+    //
+
+    @Override
+    public String getRequestId() {
+        return request.getHeaders().getFirst(TRACE_REQUEST_ID_HEADER);
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return request.getURI();
+    }
+
+    @Override
+    public String getMethod() {
+        return request.getMethodValue();
+    }
+
+    @Override
+    public String getScheme() {
+        return request.getURI().getScheme();
+    }
+
+    @Override
+    public String getHost() {
+        return request.getURI().getHost();
+    }
+
+    @Override
+    public Integer getPort() {
+        return request.getURI().getPort();
+    }
+
+    @Override
+    public String getPath() {
+        return request.getURI().getPath();
+    }
+
+    @Override
+    public Collection<String> getQueryNames() {
+        return getQueryParams().keySet();
+    }
+
+    @Override
+    public String getQueryValue(String name) {
+        return getQueryParams().getFirst(name);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return request.getHeaders().keySet();
+    }
+
+    @Override
+    public String getHeaderValue(String name) {
+        return request.getHeaders().getFirst(name);
+    }
+
+    @Override
+    public Collection<String> getCookieNames() {
+        return getCookies().keySet();
+    }
+
+    @Override
+    public String getCookieValue(String name) {
+        HttpCookie cookie = getCookies().getFirst(name);
+        return nonNull(cookie) ? cookie.getValue() : null;
+    }
+
+    public static final String ATTR_REQUEST_VIEW = ExchangeRequestView.class.getName();
+
+}
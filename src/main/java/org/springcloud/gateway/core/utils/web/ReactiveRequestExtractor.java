@@ -24,6 +24,7 @@ import static org.springcloud.gateway.core.core.ReflectionUtils2.findField;
 import static java.util.Objects.nonNull;
 import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.StringUtils.split;
+import static org.apache.commons.lang3.StringUtils.substringBefore;
 import static org.springframework.util.CollectionUtils.isEmpty;
 
 import java.lang.reflect.Field;
@@ -153,7 +154,7 @@ public class ReactiveRequestExtractor implements WebRequestExtractor {
     public Collection<String> getCookieNames() {
         if (request instanceof org.springframework.http.server.ServerHttpRequest) {
             List<String> cookies = safeArrayToList(split(getHeaderValue("cookie"), ";"));
-            return cookies.stream().map(c -> split(c, "=")[0]).collect(toList());
+            return cookies.stream().map(c -> substringBefore(c, "=").trim()).collect(toList());
         } else if (request instanceof org.springframework.http.server.reactive.ServerHttpRequest) {
             return ((org.springframework.http.server.reactive.ServerHttpRequest) request).getCookies().keySet();
         } else if (request instanceof org.springframework.web.reactive.function.server.ServerRequest) {
@@ -166,15 +167,17 @@ public class ReactiveRequestExtractor implements WebRequestExtractor {
     public String getCookieValue(String name) {
         if (request instanceof org.springframework.http.server.ServerHttpRequest) {
             for (String cookieKeyValue : safeArrayToList(split(getHeaderValue("cookie"), ";"))) {
-                String[] parts = split(cookieKeyValue, "=");
-                if (nonNull(parts) && parts.length >= 2 && eqIgnCase(name, parts[0])) {
-                    return parts[1];
+                // Note: The value may contain '=' (e.g. base64), only split at
+                // the first one.
+                int index = cookieKeyValue.indexOf('=');
+                if (index > 0 && eqIgnCase(name, cookieKeyValue.substring(0, index).trim())) {
+                    return cookieKeyValue.substring(index + 1).trim();
                 }
             }
         } else if (request instanceof org.springframework.http.server.reactive.ServerHttpRequest) {
             MultiValueMap<String, HttpCookie> cookies = ((org.springframework.http.server.reactive.ServerHttpRequest) request)
                     .getCookies();
-            if (isEmpty(cookies)) {
+            if (!isEmpty(cookies)) {
                 HttpCookie cookie = cookies.getFirst(name);
                 if (nonNull(cookie)) {
                     return cookie.getValue();
@@ -183,7 +186,7 @@ public class ReactiveRequestExtractor implements WebRequestExtractor {
         } else if (request instanceof org.springframework.web.reactive.function.server.ServerRequest) {
             MultiValueMap<String, HttpCookie> cookies = ((org.springframework.web.reactive.function.server.ServerRequest) request)
                     .cookies();
-            if (isEmpty(cookies)) {
+            if (!isEmpty(cookies)) {
                 HttpCookie cookie = cookies.getFirst(name);
                 if (nonNull(cookie)) {
                     return cookie.getValue();
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors.<springcloudgateway@163.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.utils.web;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+
+import org.springcloud.gateway.core.lang.FastTimeClock;
+import org.springcloud.gateway.core.web.rest.RespBase;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link RespTemplates}
+ * 
+ * <p>
+ * The low-allocation writer of the local rejection responses, each status has
+ * a {@link RespBase} JSON template pre-serialized once (split around the
+ * timestamp and message), so that a rejection only escapes the message and
+ * writes the template segments straight into the pooled buffer of the
+ * response, without building a {@link RespBase} and serializing it via
+ * Jackson every time.
+ * </p>
+ * 
+ * @author springcloudgateway &lt;springcloudgateway@163.com, springcloudgateway@163.com&gt;
+ * @version v1.0.0
+ * @since v3.0.0
+ */
+public abstract class RespTemplates {
+
+    /**
+     * Writes the {@link RespBase} JSON response of status and message, it's
+     * equivalent to:
+     * 
+     * <pre>
+     * RespBase.create().withCode(status.value()).withMessage(message).asJson()
+     * </pre>
+     * 
+     * @param response
+     * @param status
+     * @param message
+     * @return
+     */
+    public static Mono<Void> writeJson(ServerHttpResponse response, HttpStatus status, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        RespTemplate template = isBlank(message) ? null : getTemplate(status.value());
+        if (isNull(template)) {
+            // Fall-back, the message prompt prefix is not applied when blank.
+            byte[] body = RespBase.create().withCode(status.value()).withMessage(message).asJson().getBytes(UTF_8);
+            response.getHeaders().setContentLength(body.length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }
+
+        byte[] escapedMessage = JsonStringEncoder.getInstance().quoteAsUTF8(message);
+        long timestamp = FastTimeClock.currentTimeMillis();
+        int length = template.getLength(escapedMessage.length, timestamp);
+        DataBuffer buffer = response.bufferFactory().allocateBuffer(length);
+        template.writeTo(buffer, escapedMessage, timestamp);
+        response.getHeaders().setContentLength(length);
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    /**
+     * Gets the pre-serialized template of the status code.
+     * 
+     * @param code
+     * @return null if the {@link RespBase} serialization is not templatable.
+     */
+    static RespTemplate getTemplate(int code) {
+        RespTemplate template = TEMPLATES.get(code);
+        if (isNull(template)) {
+            template = RespTemplate.build(code);
+            if (TEMPLATES.size() < MAX_TEMPLATES) {
+                TEMPLATES.putIfAbsent(code, template);
+            }
+        }
+        return template.isValid() ? template : null;
+    }
+
+    static class RespTemplate {
+        private final boolean valid;
+        private final boolean timestampFirst;
+        private final byte[] head;
+        private final byte[] middle;
+        private final byte[] tail;
+
+        RespTemplate(boolean valid, boolean timestampFirst, byte[] head, byte[] middle, byte[] tail) {
+            this.valid = valid;
+            this.timestampFirst = timestampFirst;
+            this.head = head;
+            this.middle = middle;
+            this.tail = tail;
+        }
+
+        boolean isValid() {
+            return valid;
+        }
+
+        int getLength(int messageLength, long timestamp) {
+            return head.length + middle.length + tail.length + messageLength + getDigits(timestamp);
+        }
+
+        void writeTo(DataBuffer buffer, byte[] escapedMessage, long timestamp) {
+            buffer.write(head);
+            if (timestampFirst) {
+                writeDigits(buffer, timestamp);
+                buffer.write(middle);
+                buffer.write(escapedMessage);
+            } else {
+                buffer.write(escapedMessage);
+                buffer.write(middle);
+                writeDigits(buffer, timestamp);
+            }
+            buffer.write(tail);
+        }
+
+        /**
+         * Serializes the {@link RespBase} with the placeholders once, and
+         * splits it around the placeholders.
+         */
+        static RespTemplate build(int code) {
+            String json = RespBase.create()
+                    .withCode(code)
+                    .withTimestamp(TIMESTAMP_PLACEHOLDER)
+                    .withMessage(MESSAGE_PLACEHOLDER)
+                    .asJson();
+            String timestamp = String.valueOf(TIMESTAMP_PLACEHOLDER);
+            int timestampIndex = json.indexOf(timestamp);
+            int messageIndex = json.indexOf(MESSAGE_PLACEHOLDER);
+            if (timestampIndex < 0 || messageIndex < 0 || json.indexOf(timestamp, timestampIndex + 1) >= 0
+                    || json.indexOf(MESSAGE_PLACEHOLDER, messageIndex + 1) >= 0) {
+                return new RespTemplate(false, false, null, null, null);
+            }
+            boolean timestampFirst = timestampIndex < messageIndex;
+            int firstIndex = Math.min(timestampIndex, messageIndex);
+            int firstEnd = firstIndex + (timestampFirst ? timestamp.length() : MESSAGE_PLACEHOLDER.length());
+            int secondIndex = Math.max(timestampIndex, messageIndex);
+            int secondEnd = secondIndex + (timestampFirst ? MESSAGE_PLACEHOLDER.length() : timestamp.length());
+            return new RespTemplate(true, timestampFirst, json.substring(0, firstIndex).getBytes(UTF_8),
+                    json.substring(firstEnd, secondIndex).getBytes(UTF_8), json.substring(secondEnd).getBytes(UTF_8));
+        }
+
+        static int getDigits(long value) {
+            int digits = 1;
+            for (long v = value; v >= 10; v /= 10) {
+                digits++;
+            }
+            return digits;
+        }
+
+        static void writeDigits(DataBuffer buffer, long value) {
+            // The timestamp is never negative.
+            for (long divisor = pow10(getDigits(value) - 1); divisor > 0; divisor /= 10) {
+                buffer.write((byte) ('0' + (value / divisor) % 10));
+            }
+        }
+
+        private static long pow10(int n) {
+            long result = 1;
+            for (int i = 0; i < n; i++) {
+                result *= 10;
+            }
+            return result;
+        }
+    }
+
+    private static final Map<Integer, RespTemplate> TEMPLATES = new ConcurrentHashMap<>(16);
+    private static final int MAX_TEMPLATES = 64;
+    private static final long TIMESTAMP_PLACEHOLDER = 7_777_777_777_777_777L;
+    private static final String MESSAGE_PLACEHOLDER = "__RESP_TEMPLATE_MESSAGE__";
+
+}
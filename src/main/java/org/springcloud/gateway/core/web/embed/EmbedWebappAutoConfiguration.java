@@ -22,6 +22,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import org.springcloud.gateway.core.web.embed.WebResourceCache.DefaultWebappsGuavaCache;
 import org.springcloud.gateway.core.web.mapping.PrefixHandlerMappingSupport;
 
 import static org.springcloud.gateway.core.constant.CoreInfraConstants.CONF_PREFIX_INFRA_CORE_WEB_EMBED_WEBAPP;
@@ -49,7 +50,7 @@ public class EmbedWebappAutoConfiguration extends PrefixHandlerMappingSupport {
     @ConditionalOnBean(name = BEAN_DEFAULT_PROPERTIES)
     public SimpleEmbedWebappEndpoint simpleEmbedWebappsEndpoint(
             @Qualifier(BEAN_DEFAULT_PROPERTIES) SimpleEmbedWebappProperties config) {
-        return new SimpleEmbedWebappEndpoint(config);
+        return new SimpleEmbedWebappEndpoint(config, new DefaultWebappsGuavaCache(config.getCacheMaxBytes()));
     }
 
     @Bean
@@ -80,6 +81,18 @@ public class EmbedWebappAutoConfiguration extends PrefixHandlerMappingSupport {
          */
         private String webappLocation = "classpath*:/default-webapps";
 
+        /**
+         * The max total bytes of the cached resources (including the
+         * precompressed variants), the least recently used are evicted first.
+         */
+        private long cacheMaxBytes = DefaultWebappsGuavaCache.DEFAULT_MAX_BYTES;
+
+        /**
+         * The minimum size of the compressible resources (e.g. html/css/js)
+         * to precompute the gzip/br variants, negative means never.
+         */
+        private int compressMinSize = 1024;
+
         /**
          * Media mapping
          */
@@ -164,6 +177,22 @@ public class EmbedWebappAutoConfiguration extends PrefixHandlerMappingSupport {
             this.webappLocation = webappLocation;
         }
 
+        public long getCacheMaxBytes() {
+            return cacheMaxBytes;
+        }
+
+        public void setCacheMaxBytes(long cacheMaxBytes) {
+            this.cacheMaxBytes = cacheMaxBytes;
+        }
+
+        public int getCompressMinSize() {
+            return compressMinSize;
+        }
+
+        public void setCompressMinSize(int compressMinSize) {
+            this.compressMinSize = compressMinSize;
+        }
+
         public Properties getMimeMapping() {
             return mimeMapping;
         }
@@ -17,6 +17,8 @@ package org.springcloud.gateway.core.web.embed;
 
 import static org.springframework.util.StringUtils.*;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.web.bind.annotation.GetMapping;
 
 import org.springcloud.gateway.core.resource.StreamResource;
@@ -31,7 +33,6 @@ import static com.google.common.base.Charsets.UTF_8;
 import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
 import static org.springcloud.gateway.core.tools.JvmRuntimeTool.isJvmInDebugging;
 import static org.springcloud.gateway.core.web.SystemHelperUtils2.*;
-import static java.lang.String.valueOf;
 import static java.lang.System.currentTimeMillis;
 import static java.util.Locale.US;
 import static java.util.Objects.isNull;
@@ -43,6 +44,7 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.startsWith;
 import static org.springframework.http.HttpStatus.*;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Set;
 
@@ -74,13 +76,13 @@ public class SimpleEmbedWebappEndpoint extends BaseController {
     protected final ResourcePatternResolver resolver = new ClassPathResourcePatternResolver();
 
     public SimpleEmbedWebappEndpoint(SimpleEmbedWebappProperties config) {
-        this(config, new DefaultWebappsGuavaCache());
+        this(config, new DefaultWebappsGuavaCache(config.getCacheMaxBytes()));
     }
 
     public SimpleEmbedWebappEndpoint(SimpleEmbedWebappProperties config, WebResourceCache cache) {
         notNullOf(config, "embeddedWebappControllerProperties");
         this.config = config;
-        this.cache = cache;
+        this.cache = notNullOf(cache, "cache");
     }
 
     /**
@@ -117,35 +119,115 @@ public class SimpleEmbedWebappEndpoint extends BaseController {
             return;
         }
 
-        // Gets buffer from cache
+        // Gets resource from cache, the query string is never part of the
+        // key, because the resource content does not depend on it.
         log.debug("Accessing file: {}", filepath);
-        byte[] buf = cache.get(filepath + request.getQueryString());
-        if (isNull(buf)) { // Caching file?
-            try (InputStream in = getResourceAsStream(filepath)) {
-                if (!isNull(in)) {
-                    buf = toByteArray(in);
-                }
+        boolean caching = isCache(filepath, request);
+        WebResource resource = caching ? cache.get(filepath) : null;
+        if (isNull(resource)) { // Caching file?
+            resource = loadResource(filepath, request, caching);
+            if (nonNull(resource) && caching) {
+                cache.put(filepath, resource);
             }
         }
 
-        // Response resource
-        if (nonNull(buf)) {
-            // Decorate
-            buf = decorateResource(filepath, request, buf);
+        // Not found.
+        if (isNull(resource)) {
+            write(response, NOT_FOUND.value(), TEXT_HTML_VALUE, "Not Found".getBytes(UTF_8));
+            return;
+        }
 
-            // Post processing.
-            postResponsePropertiesSet(response);
+        // Post processing.
+        String coding = resource.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        postResponsePropertiesSet(response);
+        response.setHeader(HttpHeaders.ETAG, resource.getEtag(coding));
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, resource.getLastModified());
+        if (resource.hasVariants()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
 
-            // Check cache?
-            if (isCache(filepath, request)) {
-                cache.put(filepath, buf);
-            }
+        // Validators
+        if (isNotModified(resource, request)) {
+            response.setStatus(NOT_MODIFIED.value());
+            return;
+        }
 
-            write(response, OK.value(), getContentType(filepath), buf);
-        } else { // Not found.
-            write(response, NOT_FOUND.value(), TEXT_HTML_VALUE, "Not Found".getBytes(UTF_8));
+        // Response resource
+        byte[] content = resource.getContent(coding);
+        response.setStatus(OK.value());
+        if (resource.isText()) { // e.g. no charset for images and fonts
+            response.setCharacterEncoding("UTF-8");
         }
+        response.setContentType(resource.getContentType());
+        response.setContentLength(content.length);
+        if (nonNull(coding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, coding);
+        }
+        if (!HttpMethod.HEAD.matches(request.getMethod())) {
+            response.getOutputStream().write(content);
+        }
+        response.flushBuffer();
+    }
 
+    /**
+     * Loads and decorates the resource.
+     * 
+     * @param filepath
+     * @param request
+     * @param precompress
+     *            whether to precompute the gzip/br variants.
+     * @return null if not found.
+     * @throws Exception
+     */
+    protected WebResource loadResource(String filepath, HttpServletRequest request, boolean precompress) throws Exception {
+        StreamResource res = getResource(filepath);
+        if (isNull(res)) {
+            return null;
+        }
+        byte[] buf;
+        try (InputStream in = res.getInputStream()) {
+            buf = toByteArray(in);
+        }
+        long lastModified = 0;
+        try {
+            lastModified = res.lastModified();
+        } catch (IOException e) {
+            // Ignore, e.g. in the nested jar, the load time is used.
+        }
+        // Decorate
+        buf = decorateResource(filepath, request, buf);
+        return WebResource.build(getContentType(filepath), buf, lastModified,
+                precompress ? config.getCompressMinSize() : -1);
+    }
+
+    /**
+     * Evaluates the conditional request validators, the 'If-None-Match' takes
+     * precedence over 'If-Modified-Since'.
+     * 
+     * @param resource
+     * @param request
+     * @return
+     */
+    protected boolean isNotModified(WebResource resource, HttpServletRequest request) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (nonNull(ifNoneMatch)) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String t = tag.trim();
+                if (t.startsWith("W/")) { // Weak comparison
+                    t = t.substring(2);
+                }
+                if ("*".equals(t) || resource.matchesEtag(t)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return ifModifiedSince >= 0 && resource.getLastModified() <= ifModifiedSince;
+        } catch (IllegalArgumentException e) { // Invalid date
+            return false;
+        }
     }
 
     /**
@@ -191,7 +273,6 @@ public class SimpleEmbedWebappEndpoint extends BaseController {
         response.setDateHeader("Expires", currentTimeMillis() + 600_000);
         response.addHeader("Pragma", "Pragma");
         response.addHeader("Cache-Control", "public");
-        response.addHeader("Last-Modified", valueOf(currentTimeMillis()));
     }
 
     /**
@@ -213,12 +294,24 @@ public class SimpleEmbedWebappEndpoint extends BaseController {
      * @throws Exception
      */
     protected InputStream getResourceAsStream(String path) throws Exception {
+        StreamResource res = getResource(path);
+        return nonNull(res) ? res.getInputStream() : null;
+    }
+
+    /**
+     * Load resource.
+     *
+     * @param path
+     * @return
+     * @throws Exception
+     */
+    protected StreamResource getResource(String path) throws Exception {
         if (startsWith(path, "/")) {
             path = path.substring(1);
         }
         String location = config.getWebappLocation() + "/" + cleanURI(path);
         Set<StreamResource> ress = resolver.getResources(location);
-        return !isEmpty(ress) ? ress.iterator().next().getInputStream() : null;
+        return !isEmpty(ress) ? ress.iterator().next() : null;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2017 ~ 2025 the original author or authors. <springcloudgateway@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springcloud.gateway.core.web.embed;
+
+import static java.util.Locale.US;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.springcloud.gateway.core.lang.Assert2.hasTextOf;
+import static org.springcloud.gateway.core.lang.Assert2.notNullOf;
+
+import org.springcloud.gateway.core.codec.CheckSums;
+import org.springcloud.gateway.core.codec.Compresss;
+
+/**
+ * The immutable cached web resource, holding the identity content and the
+ * gzip/br variants computed once, and the validators (ETag/Last-Modified).
+ * The contents are kept on the heap (the cache is bounded by bytes), so an
+ * evicted resource is reclaimed by GC like any other object, while a request
+ * may still be writing it.
+ * 
+ * @author springcloudgateway <springcloudgateway@gmail.com>
+ * @version v1.0.0
+ * @since
+ */
+public class WebResource {
+
+    private final String contentType;
+    private final boolean text;
+    private final String etag;
+    private final long lastModified;
+    private final byte[] identity;
+    private final byte[] gzip;
+    private final byte[] brotli;
+
+    WebResource(String contentType, String etag, long lastModified, byte[] identity, byte[] gzip, byte[] brotli) {
+        this.contentType = hasTextOf(contentType, "contentType");
+        this.text = isText(contentType);
+        this.etag = hasTextOf(etag, "etag");
+        this.lastModified = lastModified;
+        this.identity = notNullOf(identity, "identity");
+        this.gzip = gzip;
+        this.brotli = brotli;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Whether the content is textual, i.e. it has a character encoding.
+     */
+    public boolean isText() {
+        return text;
+    }
+
+    /**
+     * The strong entity tag of the identity content, e.g: "1f3a5c7e-2d4"
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Gets the strong entity tag of the coding variant, e.g: "1f3a5c7e-2d4-gzip"
+     * 
+     * @param coding
+     *            null means identity.
+     * @return
+     */
+    public String getEtag(String coding) {
+        return isNull(coding) ? etag : etag.substring(0, etag.length() - 1) + "-" + coding + "\"";
+    }
+
+    /**
+     * Whether the entity tag (without the weak prefix) matches the identity or
+     * any coding variant.
+     * 
+     * @param tag
+     * @return
+     */
+    public boolean matchesEtag(String tag) {
+        return etag.equals(tag) || (tag.startsWith(etag.substring(0, etag.length() - 1) + "-") && tag.endsWith("\""));
+    }
+
+    /**
+     * The last modified time in millis (truncated to seconds).
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public boolean hasVariants() {
+        return nonNull(gzip) || nonNull(brotli);
+    }
+
+    /**
+     * Gets the content of coding.
+     * 
+     * @param coding
+     *            null means identity, or 'gzip'/'br'
+     * @return null if the variant is not present, the shared content must
+     *         not be modified.
+     */
+    public byte[] getContent(String coding) {
+        if (isNull(coding)) {
+            return identity;
+        } else if (CODING_BR.equals(coding)) {
+            return brotli;
+        } else if (CODING_GZIP.equals(coding)) {
+            return gzip;
+        }
+        return null;
+    }
+
+    /**
+     * The number of bytes held, used as the weight of the bounded cache.
+     */
+    public int getWeight() {
+        return identity.length + (isNull(gzip) ? 0 : gzip.length) + (isNull(brotli) ? 0 : brotli.length);
+    }
+
+    /**
+     * Negotiates the best coding by the request 'Accept-Encoding', the br is
+     * preferred on ties.
+     * 
+     * @param acceptEncoding
+     * @return null means identity.
+     */
+    public String negotiate(String acceptEncoding) {
+        if (!hasVariants() || isNull(acceptEncoding)) {
+            return null;
+        }
+        float brQuality = nonNull(brotli) ? getQuality(acceptEncoding, CODING_BR) : 0f;
+        float gzipQuality = nonNull(gzip) ? getQuality(acceptEncoding, CODING_GZIP) : 0f;
+        if (brQuality > 0f && brQuality >= gzipQuality) {
+            return CODING_BR;
+        }
+        return gzipQuality > 0f ? CODING_GZIP : null;
+    }
+
+    /**
+     * Builds the web resource.
+     * 
+     * @param contentType
+     * @param body
+     *            held by the resource as is, must not be modified afterwards.
+     * @param lastModified
+     *            the last modified time of resource, or &lt;=0 means unknown
+     *            (the current time is used).
+     * @param compressMinSize
+     *            the minimum size of the compressible content to precompute
+     *            the gzip/br variants, or &lt;0 means never.
+     * @return
+     */
+    public static WebResource build(String contentType, byte[] body, long lastModified, int compressMinSize) {
+        notNullOf(body, "body");
+        long modified = (lastModified > 0 ? lastModified : System.currentTimeMillis()) / 1000 * 1000;
+        String etag = "\"" + Long.toHexString(CheckSums.crc32c(body)) + "-" + Integer.toHexString(body.length) + "\"";
+
+        byte[] gzip = null;
+        byte[] brotli = null;
+        if (compressMinSize >= 0 && body.length >= compressMinSize && isCompressible(contentType)) {
+            gzip = keepIfSmaller(Compresss.gzipCompress(body, 9), body.length);
+            if (Compresss.isBrotliAvailable()) {
+                brotli = keepIfSmaller(Compresss.brotliCompress(body, 11), body.length);
+            }
+        }
+        return new WebResource(contentType, etag, modified, body, gzip, brotli);
+    }
+
+    static boolean isCompressible(String contentType) {
+        return isText(contentType);
+    }
+
+    static boolean isText(String contentType) {
+        String type = contentType.trim().toLowerCase(US);
+        return type.startsWith("text/") || type.contains("javascript") || type.contains("json") || type.contains("xml")
+                || type.contains("svg");
+    }
+
+    /**
+     * Gets the quality value of the coding, e.g: 'gzip;q=0.8, br, *;q=0.1'
+     */
+    static float getQuality(String acceptEncoding, String coding) {
+        float wildcard = 0f;
+        for (String part : acceptEncoding.split(",")) {
+            String token = part.trim();
+            float quality = 1f;
+            int index = token.indexOf(';');
+            if (index >= 0) {
+                String param = token.substring(index + 1).trim();
+                token = token.substring(0, index).trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        quality = Float.parseFloat(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0f;
+                    }
+                }
+            }
+            if (token.equalsIgnoreCase(coding)) {
+                return quality;
+            } else if ("*".equals(token)) {
+                wildcard = quality;
+            }
+        }
+        return wildcard;
+    }
+
+    private static byte[] keepIfSmaller(byte[] compressed, int originalLength) {
+        return compressed.length < originalLength ? compressed : null;
+    }
+
+    public static final String CODING_GZIP = "gzip";
+    public static final String CODING_BR = "br";
+
+}
@@ -15,11 +15,10 @@
  */
 package org.springcloud.gateway.core.web.embed;
 
-import static java.util.Objects.isNull;
+import static org.springcloud.gateway.core.lang.Assert2.isTrueOf;
 
-import org.springframework.cache.Cache;
-import org.springframework.cache.Cache.ValueWrapper;
-import org.springframework.cache.concurrent.ConcurrentMapCache;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
  * Webapps cache.
@@ -37,9 +36,8 @@ public interface WebResourceCache {
      * @param key
      *            the key whose associated value is to be returned
      * @return
-     * @see #get(Object, Class)
      */
-    byte[] get(Object key);
+    WebResource get(String key);
 
     /**
      * Associate the specified value with the specified key in this cache.
@@ -52,7 +50,7 @@ public interface WebResourceCache {
      * @param value
      *            the value to be associated with the specified key
      */
-    void put(String key, byte[] value);
+    void put(String key, WebResource value);
 
     /**
      * Evict the mapping for this key from this cache if it is present.
@@ -60,7 +58,7 @@ public interface WebResourceCache {
      * @param key
      *            the key whose mapping is to be removed from the cache
      */
-    void evict(Object key);
+    void evict(String key);
 
     /**
      * Remove all mappings from the cache.
@@ -68,7 +66,9 @@ public interface WebResourceCache {
     void clear();
 
     /**
-     * Default webapps cache.
+     * Default webapps cache, bounded by the total bytes of the cached
+     * resources (including the compressed variants), the least recently used
+     * are evicted first.
      * 
      * @author springcloudgateway <springcloudgateway@gmail.com>
      * @version v1.0.0
@@ -76,29 +76,41 @@ public interface WebResourceCache {
      */
     public static class DefaultWebappsGuavaCache implements WebResourceCache {
 
-        final private Cache cache = new ConcurrentMapCache(getClass().getSimpleName() + ".WebResourceCache");
+        final private Cache<String, WebResource> cache;
+
+        public DefaultWebappsGuavaCache() {
+            this(DEFAULT_MAX_BYTES);
+        }
+
+        public DefaultWebappsGuavaCache(long maxBytes) {
+            isTrueOf(maxBytes > 0, "maxBytes > 0");
+            this.cache = CacheBuilder.newBuilder()
+                    .maximumWeight(maxBytes)
+                    .weigher((String key, WebResource value) -> value.getWeight())
+                    .build();
+        }
 
         @Override
-        public byte[] get(Object key) {
-            ValueWrapper value = cache.get(key);
-            return isNull(value) ? null : (byte[]) value.get();
+        public WebResource get(String key) {
+            return cache.getIfPresent(key);
         }
 
         @Override
-        public void put(String key, byte[] value) {
+        public void put(String key, WebResource value) {
             cache.put(key, value);
         }
 
         @Override
-        public void evict(Object key) {
-            cache.evict(key);
+        public void evict(String key) {
+            cache.invalidate(key);
         }
 
         @Override
         public void clear() {
-            cache.clear();
+            cache.invalidateAll();
         }
 
+        public static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
     }
 
 }
\ No newline at end of file
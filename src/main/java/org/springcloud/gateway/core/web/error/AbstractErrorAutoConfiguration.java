@@ -20,8 +20,10 @@ import org.springcloud.gateway.core.web.error.handler.CompositeSmartErrorHandler
 import org.springcloud.gateway.core.web.error.handler.DefaultSmartErrorHandler;
 import org.springcloud.gateway.core.web.mapping.PrefixHandlerMappingSupport;
 import static org.springcloud.gateway.core.lang.Assert2.hasTextOf;
+import static org.springcloud.gateway.core.lang.Assert2.isTrueOf;
 import static org.springcloud.gateway.core.modelseri.JacksonUtils.convertBean;
 import static org.springcloud.gateway.core.constant.CoreInfraConstants.CONF_PREFIX_INFRA_CORE_WEB_GLOBAL_ERROR;
+import static java.util.Objects.isNull;
 
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
@@ -37,6 +39,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpStatus;
 
+import com.google.common.util.concurrent.RateLimiter;
+
 /**
  * Global error controller handler auto configuration.
  * 
@@ -106,8 +110,26 @@ public abstract class AbstractErrorAutoConfiguration extends PrefixHandlerMappin
          */
         private String homeUri = "javascript:location.href=location.origin";
 
+        /**
+         * Whether to allow the clients to request the error stack trace (by
+         * the 'stacktrace' query parameter, header or cookie), the debug
+         * logging and jvm debugging are not affected.
+         */
+        private boolean clientStacktraceEnabled = false;
+
+        /**
+         * The max number of client requested stack traces per second, the
+         * excess requests are responded without stack trace.
+         */
+        private double clientStacktraceRate = 1d;
+
         // --- Temporary. ---
 
+        /**
+         * The client requested stack traces rate limiter.
+         */
+        private transient volatile RateLimiter clientStacktraceLimiter;
+
         /**
          * This serialized to map.
          */
@@ -137,6 +159,24 @@ public abstract class AbstractErrorAutoConfiguration extends PrefixHandlerMappin
             this.homeUri = hasTextOf(homeUri, "homeUri");
         }
 
+        public boolean isClientStacktraceEnabled() {
+            return clientStacktraceEnabled;
+        }
+
+        public void setClientStacktraceEnabled(boolean clientStacktraceEnabled) {
+            this.clientStacktraceEnabled = clientStacktraceEnabled;
+        }
+
+        public double getClientStacktraceRate() {
+            return clientStacktraceRate;
+        }
+
+        public void setClientStacktraceRate(double clientStacktraceRate) {
+            isTrueOf(clientStacktraceRate > 0, "clientStacktraceRate > 0");
+            this.clientStacktraceRate = clientStacktraceRate;
+            this.clientStacktraceLimiter = null;
+        }
+
         // --- Function's. ---
 
         @SuppressWarnings("unchecked")
@@ -145,6 +185,24 @@ public abstract class AbstractErrorAutoConfiguration extends PrefixHandlerMappin
             this.asMap = convertBean(this, HashMap.class);
         }
 
+        /**
+         * Try to acquire a permit of the client requested stack trace, which
+         * is disabled by default, and rate limited if enabled, so that the
+         * expensive stack traces cannot be abused by clients.
+         * 
+         * @return
+         */
+        public boolean tryAcquireClientStacktrace() {
+            if (!clientStacktraceEnabled) {
+                return false;
+            }
+            RateLimiter limiter = clientStacktraceLimiter;
+            if (isNull(limiter)) {
+                clientStacktraceLimiter = limiter = RateLimiter.create(clientStacktraceRate);
+            }
+            return limiter.tryAcquire();
+        }
+
         /**
          * Convert bean to {@link Map} properties.
          * 
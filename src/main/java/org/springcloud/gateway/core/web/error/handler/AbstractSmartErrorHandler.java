@@ -155,7 +155,8 @@ public abstract class AbstractSmartErrorHandler implements InitializingBean {
                 if (nonNull(redirectUri)) {
                     resp.forMap().put(DEFAULT_REDIRECT_KEY, redirectUri);
                 }
-                log.error("resp:error - {}", resp.asJson());
+                // Lazy, not serialized to JSON only for logging.
+                log.error("resp:error - {}", resp);
                 return errorRender.renderingJson(model, resp);
             }
             // Rendering to error HTML.
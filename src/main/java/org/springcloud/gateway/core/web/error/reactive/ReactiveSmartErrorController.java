@@ -153,6 +153,10 @@ public class ReactiveSmartErrorController extends AbstractErrorWebExceptionHandl
         if (log.isDebugEnabled() || isJvmInDebugging) {
             return true;
         }
+        // Client requested stack traces are disabled or rate limited.
+        if (!config.isClientStacktraceEnabled()) {
+            return false;
+        }
         String stacktrace = request.queryParam(PARAM_STACKTRACE).orElse(null);
         if (isBlank(stacktrace)) {
             Headers headers = request.headers();
@@ -172,7 +176,7 @@ public class ReactiveSmartErrorController extends AbstractErrorWebExceptionHandl
         if (isBlank(stacktrace)) {
             return false;
         }
-        return isTrue(stacktrace.toLowerCase(US), false);
+        return isTrue(stacktrace.toLowerCase(US), false) && config.tryAcquireClientStacktrace();
     }
 
     public static final Class<?> REACTIVE_DEFAULT_SERVER_REQUEST_CLASS = resolveClassName(
@@ -157,7 +157,8 @@ public class ServletSmartErrorController extends AbstractErrorController {
         if (log.isDebugEnabled()) {
             return true;
         }
-        return isStacktraceRequest(request);
+        // Client requested stack traces are disabled or rate limited.
+        return config.isClientStacktraceEnabled() && isStacktraceRequest(request) && config.tryAcquireClientStacktrace();
     }
 
 }
\ No newline at end of file
@@ -28,6 +28,8 @@ import java.io.*;
 import java.lang.annotation.*;
 import java.lang.reflect.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -2052,6 +2054,44 @@ public class SimpleHTTPServer {
             sendError(status, text);
         }
 
+        /**
+         * Sends the response body from a file. This method must be called only
+         * after the response headers have been sent (and indicate that there is
+         * a body). When no encoding is applied and the connection is a channel
+         * (NIO mode), the file is transferred with zero-copy.
+         *
+         * @param body
+         *            a file channel containing the response body
+         * @param length
+         *            the full length of the response body, or -1 for the whole
+         *            file
+         * @param range
+         *            the sub-range within the response body that should be
+         *            sent, or null if the entire body should be sent
+         * @throws IOException
+         *             if an error occurs
+         */
+        public void sendBody(FileChannel body, long length, long[] range) throws IOException {
+            OutputStream out = getBody();
+            if (out != null) {
+                long offset = 0;
+                if (range != null) {
+                    offset = range[0];
+                    length = range[1] - range[0] + 1;
+                } else if (length < 0) {
+                    length = body.size();
+                }
+                // identity encoding over a channel connection (NIO mode)
+                // can bypass user-space buffers entirely
+                if (out instanceof ResponseOutputStream && this.out instanceof ChannelOutputStream) {
+                    ((ChannelOutputStream) this.out).transferFrom(body, offset, length);
+                } else {
+                    body.position(offset);
+                    transfer(Channels.newInputStream(body), out, length);
+                }
+            }
+        }
+
         /**
          * Sends the response body. This method must be called only after the
          * response headers have been sent (and indicate that there is a body).
@@ -2160,12 +2200,430 @@ public class SimpleHTTPServer {
         }
     }
 
+    /**
+     * The {@code ChannelAcceptorThread} accepts connections on the server
+     * channel (NIO mode), and distributes them among the selector threads.
+     */
+    protected class ChannelAcceptorThread extends Thread {
+        @Override
+        public void run() {
+            setName(getClass().getSimpleName() + "-" + port);
+            ServerSocketChannel servChannel = SimpleHTTPServer.this.servChannel; // keep
+                                                                                // local
+            SelectorHandlerThread[] selectors = SimpleHTTPServer.this.selectors;
+            int next = 0;
+            try {
+                while (servChannel != null && servChannel.isOpen()) {
+                    SocketChannel ch = servChannel.accept(); // blocking accept
+                    try {
+                        ch.configureBlocking(false);
+                        ch.socket().setTcpNoDelay(true); // we buffer anyway
+                        selectors[next].register(new ChannelConnection(ch));
+                        next = (next + 1) % selectors.length; // round-robin
+                    } catch (IOException e) {
+                        ch.close();
+                    }
+                }
+            } catch (IOException ignore) { // closed
+            }
+        }
+    }
+
+    /**
+     * The {@code SelectorHandlerThread} waits for the idle (keep-alive)
+     * connections to become readable without holding a thread per connection,
+     * and dispatches the ready ones to the {@link #setExecutor executor}, idle
+     * connections are closed after the {@link #setSocketTimeout socket
+     * timeout}.
+     */
+    protected class SelectorHandlerThread extends Thread {
+
+        protected final Selector selector;
+        protected final Queue<ChannelConnection> pending = new ConcurrentLinkedQueue<ChannelConnection>();
+        protected volatile boolean running = true;
+        protected long lastIdleCheck = currentTimeMillis();
+
+        public SelectorHandlerThread(int index) throws IOException {
+            this.selector = Selector.open();
+            setName(getClass().getSimpleName() + "-" + port + "-" + index);
+            setDaemon(true);
+        }
+
+        /**
+         * Registers (or re-arms) the given connection for the next request.
+         *
+         * @param conn
+         *            the idle connection
+         */
+        public void register(ChannelConnection conn) {
+            conn.idleSince = currentTimeMillis();
+            pending.add(conn);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select(1000);
+                    ChannelConnection conn;
+                    while ((conn = pending.poll()) != null) {
+                        try {
+                            if (conn.key == null)
+                                conn.key = conn.ch.register(selector, SelectionKey.OP_READ, conn);
+                            else
+                                conn.key.interestOps(SelectionKey.OP_READ);
+                        } catch (IOException | CancelledKeyException e) {
+                            conn.close();
+                        }
+                    }
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        if (key.isValid() && key.isReadable()) {
+                            key.interestOps(0); // owned by a worker until re-armed
+                            dispatch((ChannelConnection) key.attachment());
+                        }
+                    }
+                    closeIdleConnections();
+                } catch (ClosedSelectorException e) {
+                    break;
+                } catch (IOException | RuntimeException ignore) {
+                }
+            }
+            // stopped - close all connections
+            for (SelectionKey key : selector.keys())
+                ((ChannelConnection) key.attachment()).close();
+            for (ChannelConnection conn; (conn = pending.poll()) != null;)
+                conn.close();
+            try {
+                selector.close();
+            } catch (IOException ignore) {
+            }
+        }
+
+        /**
+         * Closes the connections which have been idle (waiting for the next
+         * request) longer than the socket timeout.
+         */
+        protected void closeIdleConnections() {
+            long now = currentTimeMillis();
+            if (socketTimeout <= 0 || now - lastIdleCheck < 1000)
+                return;
+            lastIdleCheck = now;
+            for (SelectionKey key : selector.keys()) {
+                ChannelConnection conn = (ChannelConnection) key.attachment();
+                if (key.isValid() && key.interestOps() == SelectionKey.OP_READ && now - conn.idleSince > socketTimeout)
+                    conn.close();
+            }
+        }
+
+        protected void dispatch(final ChannelConnection conn) {
+            try {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        boolean persist = false;
+                        try {
+                            persist = handleChannelConnection(conn);
+                        } catch (IOException ignore) {
+                        } finally {
+                            if (persist && running)
+                                register(conn); // wait for next request
+                            else
+                                conn.close();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) { // workers saturated
+                conn.reject();
+            }
+        }
+
+        public void shutdown() {
+            running = false;
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * The {@code ChannelConnection} holds a single non-blocking connection (NIO
+     * mode) and its buffered streams, which are kept across the transactions
+     * of the connection, so that pipelined requests already read into the
+     * input buffer are not lost.
+     */
+    protected class ChannelConnection {
+
+        protected final SocketChannel ch;
+        protected final ChannelInputStream in;
+        protected final ChannelOutputStream out;
+        protected volatile SelectionKey key;
+        protected volatile long idleSince;
+
+        public ChannelConnection(SocketChannel ch) {
+            this.ch = ch;
+            this.in = new ChannelInputStream(ch);
+            this.out = new ChannelOutputStream(ch);
+        }
+
+        /**
+         * Responds 503 (best effort, without blocking) and closes the
+         * connection, when no worker is available.
+         */
+        protected void reject() {
+            try {
+                ch.write(ByteBuffer.wrap(getBytes("HTTP/1.1 503 ", statuses[503],
+                        "\r\nConnection: close\r\nContent-Length: 0\r\n\r\n")));
+            } catch (IOException ignore) {
+            }
+            close();
+        }
+
+        public void close() {
+            try {
+                if (key != null)
+                    key.cancel();
+                if (ch.isOpen())
+                    ch.shutdownOutput(); // RFC7230#6.6 - close gracefully
+            } catch (IOException ignore) {
+            } finally {
+                try {
+                    ch.close();
+                } catch (IOException ignore) {
+                }
+            }
+        }
+    }
+
+    /**
+     * The {@code ChannelInputStream} is a buffered blocking input stream over a
+     * non-blocking channel (NIO mode), waiting for the channel readiness (up
+     * to the socket timeout) with a temporary per-thread selector.
+     */
+    protected class ChannelInputStream extends InputStream {
+
+        protected final SocketChannel ch;
+        protected final ByteBuffer buf = ByteBuffer.allocate(4096);
+
+        public ChannelInputStream(SocketChannel ch) {
+            this.ch = ch;
+            buf.flip(); // initially empty
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? buf.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+            if (!fill())
+                return -1;
+            len = Math.min(len, buf.remaining());
+            buf.get(b, off, len);
+            return len;
+        }
+
+        /**
+         * Returns the number of buffered bytes, i.e. a non-zero value means
+         * that a (pipelined) request is already available.
+         */
+        @Override
+        public int available() {
+            return buf.remaining();
+        }
+
+        protected boolean fill() throws IOException {
+            if (buf.hasRemaining())
+                return true;
+            buf.clear();
+            int count;
+            while ((count = ch.read(buf)) == 0)
+                awaitReady(ch, SelectionKey.OP_READ);
+            buf.flip();
+            return count > 0;
+        }
+    }
+
+    /**
+     * The {@code ChannelOutputStream} is a buffered blocking output stream over
+     * a non-blocking channel (NIO mode), supporting zero-copy file transfer.
+     */
+    protected class ChannelOutputStream extends OutputStream {
+
+        protected final SocketChannel ch;
+        protected final ByteBuffer buf = ByteBuffer.allocate(4096);
+
+        public ChannelOutputStream(SocketChannel ch) {
+            this.ch = ch;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!buf.hasRemaining())
+                flush();
+            buf.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > buf.remaining()) {
+                flush();
+                if (len >= buf.capacity()) { // large writes bypass the buffer
+                    writeFully(ByteBuffer.wrap(b, off, len));
+                    return;
+                }
+            }
+            buf.put(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            buf.flip();
+            writeFully(buf);
+            buf.clear();
+        }
+
+        /**
+         * Transfers the given file region directly to the channel (e.g. using
+         * sendfile), without copying it through user-space buffers.
+         *
+         * @param file
+         *            the file channel
+         * @param position
+         *            the file position at which to start
+         * @param count
+         *            the number of bytes to transfer
+         * @throws IOException
+         *             if an IO error occurs or the file ends before the
+         *             requested number of bytes have been transferred
+         */
+        public void transferFrom(FileChannel file, long position, long count) throws IOException {
+            flush(); // headers (or any buffered data) first
+            while (count > 0) {
+                long sent = file.transferTo(position, count, ch);
+                if (sent == 0) {
+                    if (position >= file.size())
+                        throw new IOException("unexpected end of file");
+                    awaitReady(ch, SelectionKey.OP_WRITE); // socket buffer full
+                }
+                position += sent;
+                count -= sent;
+            }
+        }
+
+        protected void writeFully(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                if (ch.write(src) == 0)
+                    awaitReady(ch, SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    /**
+     * Waits (up to the socket timeout) for the given non-blocking channel to
+     * become ready for the given operation, using a temporary selector
+     * borrowed from a bounded pool, so that the channel remains registered
+     * with its selector thread.
+     *
+     * @param ch
+     *            the channel
+     * @param ops
+     *            the interest operation
+     * @throws IOException
+     *             if an error occurs or the timeout is reached
+     */
+    protected void awaitReady(SelectableChannel ch, int ops) throws IOException {
+        BlockingQueue<Selector> pool = tempSelectors;
+        Selector selector = pool != null ? pool.poll() : null;
+        if (selector == null)
+            selector = Selector.open();
+        boolean ready;
+        try {
+            SelectionKey key = ch.register(selector, ops);
+            try {
+                ready = selector.select(socketTimeout) > 0;
+            } finally {
+                key.cancel();
+                selector.selectedKeys().clear();
+                selector.selectNow(); // deregister the cancelled key
+            }
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(selector); // may be in an unusable state
+            throw e;
+        }
+        releaseTempSelector(selector);
+        if (!ready)
+            throw new SocketTimeoutException("Timed out waiting for channel readiness");
+    }
+
+    /**
+     * Returns the given temporary selector to the pool, or closes it if the
+     * pool is full or the server is stopped.
+     *
+     * @param selector
+     *            the selector
+     */
+    protected void releaseTempSelector(Selector selector) {
+        BlockingQueue<Selector> pool = tempSelectors;
+        if (pool == null || !pool.offer(selector)) {
+            closeQuietly(selector);
+        } else if (tempSelectors != pool && pool.remove(selector)) {
+            closeQuietly(selector); // stopped concurrently, missed the drain
+        }
+    }
+
+    /**
+     * Closes the given selector, ignoring errors.
+     *
+     * @param selector
+     *            the selector
+     */
+    protected static void closeQuietly(Selector selector) {
+        try {
+            selector.close();
+        } catch (IOException ignore) {
+        }
+    }
+
+    /**
+     * Handles communications for a single non-blocking connection (NIO mode).
+     * All the transactions already available (pipelined) on the connection are
+     * handled, and then the connection is returned to its selector thread
+     * instead of blocking the worker thread while waiting for the next
+     * request.
+     *
+     * @param conn
+     *            the ready connection
+     * @return whether the connection should persist (keep-alive)
+     * @throws IOException
+     *             if an error occurs
+     */
+    protected boolean handleChannelConnection(ChannelConnection conn) throws IOException {
+        Socket sock = conn.ch.socket();
+        while (handleNextTransaction(conn.in, conn.out, sock)) {
+            if (conn.in.available() == 0)
+                return true; // idle - wait for next request on the selector
+        }
+        return false;
+    }
+
     protected volatile int port;
     protected volatile int socketTimeout = 10000;
     protected volatile ServerSocketFactory serverSocketFactory;
     protected volatile boolean secure;
     protected volatile Executor executor;
     protected volatile ServerSocket serv;
+    protected volatile boolean nio;
+    protected volatile int selectorThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    protected volatile int workerThreads = Runtime.getRuntime().availableProcessors() * 2;
+    protected volatile int workerQueueSize = 1024;
+    protected volatile ServerSocketChannel servChannel;
+    protected volatile SelectorHandlerThread[] selectors;
+    protected volatile ExecutorService defaultExecutor; // created by server
+    protected volatile BlockingQueue<Selector> tempSelectors; // bounded pool, closed on stop
     protected final Map<String, VirtualHost> hosts = new ConcurrentHashMap<String, VirtualHost>();
 
     /**
@@ -2242,6 +2700,52 @@ public class SimpleHTTPServer {
         this.executor = executor;
     }
 
+    /**
+     * Sets whether the event-driven (NIO) engine is used instead of the
+     * default thread-per-connection engine. In NIO mode, the idle
+     * (keep-alive) connections are held by a small group of selector threads
+     * rather than by a thread each, the handlers are executed by a bounded
+     * worker pool (unless an {@link #setExecutor executor} is set), pipelined
+     * requests are handled in order, and static files are sent with zero-copy
+     * {@link FileChannel#transferTo}. The handler API is the same in both
+     * modes. Note that secure (SSL) connections are not supported in NIO mode.
+     *
+     * @param nio
+     *            specifies whether to use the NIO engine
+     */
+    public void setNio(boolean nio) {
+        this.nio = nio;
+    }
+
+    /**
+     * Sets the number of selector threads used in NIO mode.
+     *
+     * @param selectorThreads
+     *            the number of selector threads
+     */
+    public void setSelectorThreads(int selectorThreads) {
+        if (selectorThreads < 1)
+            throw new IllegalArgumentException("selectorThreads must be positive");
+        this.selectorThreads = selectorThreads;
+    }
+
+    /**
+     * Sets the size of the bounded worker pool used in NIO mode when no
+     * {@link #setExecutor executor} is set. When all the workers are busy and
+     * the queue is full, new requests are rejected with a 503 status.
+     *
+     * @param workerThreads
+     *            the number of worker threads
+     * @param workerQueueSize
+     *            the maximum number of connections waiting for a worker
+     */
+    public void setWorkerThreads(int workerThreads, int workerQueueSize) {
+        if (workerThreads < 1 || workerQueueSize < 1)
+            throw new IllegalArgumentException("workerThreads and workerQueueSize must be positive");
+        this.workerThreads = workerThreads;
+        this.workerQueueSize = workerQueueSize;
+    }
+
     /**
      * Returns the virtual host with the given name.
      *
@@ -2294,6 +2798,21 @@ public class SimpleHTTPServer {
         return serv;
     }
 
+    /**
+     * Creates the server channel used to accept connections in NIO mode,
+     * using the configured {@link #setPort port}.
+     *
+     * @return the created server channel (in blocking mode)
+     * @throws IOException
+     *             if the channel cannot be created
+     */
+    protected ServerSocketChannel createServerChannel() throws IOException {
+        ServerSocketChannel servChannel = ServerSocketChannel.open();
+        servChannel.socket().setReuseAddress(true);
+        servChannel.socket().bind(new InetSocketAddress(port));
+        return servChannel;
+    }
+
     /**
      * Starts this server. If it is already started, does nothing. Note: Once
      * the server is started, configuration-altering methods of the server and
@@ -2304,22 +2823,43 @@ public class SimpleHTTPServer {
      *             if the server cannot begin accepting connections
      */
     public synchronized void start() throws IOException {
-        if (serv != null)
+        if (serv != null || servChannel != null)
             return;
         if (serverSocketFactory == null) // assign default server socket factory
                                          // if needed
             serverSocketFactory = ServerSocketFactory.getDefault(); // plain
                                                                     // sockets
-        serv = createServerSocket();
-        if (executor == null) // assign default executor if needed
-            executor = Executors.newCachedThreadPool(); // consumes no resources
-                                                        // when idle
+        if (nio) {
+            if (secure)
+                throw new IOException("secure (SSL) connections are not supported in NIO mode");
+            servChannel = createServerChannel();
+            if (executor == null) // assign default bounded executor if needed
+                executor = defaultExecutor = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<Runnable>(workerQueueSize));
+            tempSelectors = new ArrayBlockingQueue<Selector>(workerThreads);
+        } else {
+            serv = createServerSocket();
+            if (executor == null) // assign default executor if needed
+                executor = Executors.newCachedThreadPool(); // consumes no
+                                                            // resources when
+                                                            // idle
+        }
         // register all host aliases (which may have been modified)
         for (VirtualHost host : getVirtualHosts())
             for (String alias : host.getAliases())
                 hosts.put(alias, host);
         // start handling incoming connections
-        new SocketHandlerThread().start();
+        if (nio) {
+            SelectorHandlerThread[] selectors = new SelectorHandlerThread[selectorThreads];
+            for (int i = 0; i < selectors.length; i++)
+                selectors[i] = new SelectorHandlerThread(i);
+            for (SelectorHandlerThread selector : selectors)
+                selector.start();
+            this.selectors = selectors;
+            new ChannelAcceptorThread().start();
+        } else {
+            new SocketHandlerThread().start();
+        }
     }
 
     /**
@@ -2330,9 +2870,29 @@ public class SimpleHTTPServer {
         try {
             if (serv != null)
                 serv.close();
+            if (servChannel != null)
+                servChannel.close();
         } catch (IOException ignore) {
         }
         serv = null;
+        servChannel = null;
+        if (selectors != null) {
+            for (SelectorHandlerThread selector : selectors)
+                selector.shutdown();
+            selectors = null;
+        }
+        BlockingQueue<Selector> pool = tempSelectors;
+        tempSelectors = null; // set before draining, see releaseTempSelector
+        if (pool != null) {
+            for (Selector selector; (selector = pool.poll()) != null;)
+                closeQuietly(selector);
+        }
+        if (defaultExecutor != null) { // only the executor created by server
+            defaultExecutor.shutdown();
+            if (executor == defaultExecutor)
+                executor = null;
+            defaultExecutor = null;
+        }
     }
 
     /**
@@ -2354,51 +2914,68 @@ public class SimpleHTTPServer {
     protected void handleConnection(InputStream in, OutputStream out, Socket sock) throws IOException {
         in = new BufferedInputStream(in, 4096);
         out = new BufferedOutputStream(out, 4096);
-        Request req;
-        Response resp;
-        do {
-            // create request and response and handle transaction
-            req = null;
-            resp = new Response(out);
-            try {
-                req = new Request(in, sock);
-                handleTransaction(req, resp);
-            } catch (Throwable t) { // unhandled errors (not normal error
-                                    // responses like 404)
-                if (req == null) { // error reading request
-                    if (t instanceof IOException && t.getMessage().contains("missing request line")) {
-                        // we're not in the middle of a transaction - so just
-                        // disconnect
-                        break;
-                    }
-                    // about to close connection
-                    resp.getHeaders().add("Connection", "close");
-                    if (t instanceof InterruptedIOException) { // e.g.SocketTimeoutException
-                        resp.sendError(408, "Timeout waiting for client request");
-                    } else {
-                        resp.sendError(400, "Invalid request: " + t.getMessage());
-                    }
+        while (handleNextTransaction(in, out, sock))
+            ; // persist connection
+    }
+
+    /**
+     * Handles the next single transaction over the given connection streams.
+     *
+     * @param in
+     *            the stream from which the incoming request is read
+     * @param out
+     *            the stream into which the outgoing response is written
+     * @param sock
+     *            the connected socket
+     * @return whether the connection should persist (keep-alive) after this
+     *         transaction
+     * @throws IOException
+     *             if an error occurs
+     */
+    protected boolean handleNextTransaction(InputStream in, OutputStream out, Socket sock) throws IOException {
+        Request req = null;
+        Response resp = new Response(out);
+        // create request and response and handle transaction
+        try {
+            req = new Request(in, sock);
+            handleTransaction(req, resp);
+        } catch (Throwable t) { // unhandled errors (not normal error
+                                // responses like 404)
+            if (req == null) { // error reading request
+                if (t instanceof IOException && t.getMessage() != null
+                        && t.getMessage().contains("missing request line")) {
+                    // we're not in the middle of a transaction - so just
+                    // disconnect
+                    return false;
                 }
-                // if headers were not already sent, we can send an error
-                // response
-                else if (!resp.headersSent()) {
-                    // ignore whatever headers may have already been set
-                    resp = new Response(out);
-                    // about to close connection
-                    resp.getHeaders().add("Connection", "close");
-                    resp.sendError(500, "Error processing request: " + t.getMessage());
+                // about to close connection
+                resp.getHeaders().add("Connection", "close");
+                if (t instanceof InterruptedIOException) { // e.g.SocketTimeoutException
+                    resp.sendError(408, "Timeout waiting for client request");
+                } else {
+                    resp.sendError(400, "Invalid request: " + t.getMessage());
                 }
-                // otherwise just abort the connection since we can't recover
-                break; // proceed to close connection
-            } finally {
-                resp.close(); // close response and flush output
             }
-            // consume any leftover body data so next request can be processed
-            transfer(req.getBody(), null, -1);
-            // RFC7230#6.6: persist connection unless client or server close
-            // explicitly (or legacy client)
-        } while (!"close".equalsIgnoreCase(req.getHeaders().get("Connection"))
-                && !"close".equalsIgnoreCase(resp.getHeaders().get("Connection")) && req.getVersion().endsWith("1.1"));
+            // if headers were not already sent, we can send an error
+            // response
+            else if (!resp.headersSent()) {
+                // ignore whatever headers may have already been set
+                resp = new Response(out);
+                // about to close connection
+                resp.getHeaders().add("Connection", "close");
+                resp.sendError(500, "Error processing request: " + t.getMessage());
+            }
+            // otherwise just abort the connection since we can't recover
+            return false; // proceed to close connection
+        } finally {
+            resp.close(); // close response and flush output
+        }
+        // consume any leftover body data so next request can be processed
+        transfer(req.getBody(), null, -1);
+        // RFC7230#6.6: persist connection unless client or server close
+        // explicitly (or legacy client)
+        return !"close".equalsIgnoreCase(req.getHeaders().get("Connection"))
+                && !"close".equalsIgnoreCase(resp.getHeaders().get("Connection")) && req.getVersion().endsWith("1.1");
     }
 
     /**
@@ -3422,9 +3999,9 @@ public class SimpleHTTPServer {
             // send OK response
             resp.sendHeaders(200, len, lastModified, etag, getContentType(file.getName(), "application/octet-stream"), range);
             // send body
-            InputStream in = new FileInputStream(file);
+            FileInputStream in = new FileInputStream(file);
             try {
-                resp.sendBody(in, len, range);
+                resp.sendBody(in.getChannel(), len, range);
             } finally {
                 in.close();
             }